@@ -224,6 +224,7 @@ public class ClientNetworkHandler {
                             int maxAge = buf.readInt();
                             long estimatedTicksUntilHarvest = buf.readLong();
                             double avgDropsPerCrop = buf.readDouble();
+                            double predictionAccuracy = buf.readDouble();
                             
                             // Read age distribution
                             int ageDistSize = buf.readInt();
@@ -243,7 +244,8 @@ public class ClientNetworkHandler {
                             com.secretasain.settlements.settlement.CropStatistics stats = 
                                 new com.secretasain.settlements.settlement.CropStatistics(
                                     cropType, cropItemId, totalCount, matureCount, immatureCount,
-                                    ageDistribution, averageAge, maxAge, estimatedTicksUntilHarvest, avgDropsPerCrop
+                                    ageDistribution, averageAge, maxAge, estimatedTicksUntilHarvest, avgDropsPerCrop,
+                                    predictionAccuracy
                                 );
                             cropStats.add(stats);
                             SettlementsMod.LOGGER.debug("Added crop stats: type={}, total={}, mature={}, immature={}", 
@@ -918,6 +918,12 @@ public class BuildingOutputWidget extends AlwaysSelectedEntryListWidget<Building
                     tooltipLines.add(Text.literal("§a§lReady to harvest now!"));
                 }
                 
+                if (cropStats.hasPredictionAccuracy()) {
+                    double accuracyPercent = cropStats.predictionAccuracy * 100.0;
+                    String accuracyColor = accuracyPercent >= 80 ? "§a" : (accuracyPercent >= 50 ? "§e" : "§c");
+                    tooltipLines.add(Text.literal("§bPrediction Accuracy: " + accuracyColor + String.format("%.1f", accuracyPercent) + "%"));
+                }
+                
                 tooltipLines.add(Text.empty());
                 tooltipLines.add(Text.literal("§bAvg Drops/Crop: §e" + String.format("%.1f", cropStats.avgDropsPerCrop)));
                 tooltipLines.add(Text.literal("§bExpected/Harvest: §e" + String.format("%.1f", cropStats.expectedItemsPerHarvest)));
@@ -0,0 +1,64 @@
+package com.secretasain.settlements.road;
+
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Road search across 64- and 256-block maps of rolling synthetic terrain with scattered unusable
+ * columns (water, trees), corner to corner, with the node limit the road planner uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoadPathSearchBenchmark {
+    private static final int MAX_SEARCH_NODES = 16384; // Same as RoadLayoutPlanner
+    private static final int MARGIN = 16;
+    private static final double UNUSABLE_CHANCE = 0.08;
+
+    @Param({"64", "256"})
+    public int routeLength;
+
+    private RoadTerrainSnapshot terrain;
+    private BlockPos start;
+    private BlockPos end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int size = routeLength + 2 * MARGIN;
+        int[] groundY = new int[size * size];
+        byte[] surface = new byte[size * size];
+        Random random = new Random(42);
+        for (int x = 0; x < size; x++) {
+            for (int z = 0; z < size; z++) {
+                int index = x * size + z;
+                // Gentle hills, so some steps climb and a few are too steep
+                groundY[index] = 64 + (int) Math.round(3 * Math.sin(x / 9.0) + 3 * Math.cos(z / 13.0));
+                surface[index] = random.nextInt(4) == 0 ? RoadTerrainSnapshot.SURFACE_OTHER : RoadTerrainSnapshot.SURFACE_CONVERTIBLE;
+                if (random.nextDouble() < UNUSABLE_CHANCE) {
+                    groundY[index] = RoadTerrainSnapshot.UNUSABLE;
+                }
+            }
+        }
+
+        // Keep both ends usable
+        int startIndex = MARGIN * size + MARGIN;
+        int endIndex = (MARGIN + routeLength - 1) * size + (MARGIN + routeLength - 1);
+        groundY[startIndex] = 64;
+        groundY[endIndex] = 64;
+        terrain = RoadTerrainSnapshot.fromColumns(0, 0, size, size, groundY, surface);
+        start = new BlockPos(MARGIN, 65, MARGIN);
+        end = new BlockPos(MARGIN + routeLength - 1, 65, MARGIN + routeLength - 1);
+    }
+
+    @Benchmark
+    public RoadPathSearch.Status search() {
+        RoadPathSearch search = new RoadPathSearch(start, end, terrain, MAX_SEARCH_NODES);
+        return search.step(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.secretasain.settlements.settlement;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item accumulation for a settlement of 100 working villagers: one harvest per villager followed by
+ * the deposit system's threshold check, against the previous string-keyed map with a recomputed total.
+ * Run with the allocation profiler to compare allocations: ./gradlew jmh -PjmhArgs="AccumulatedItems -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccumulatedItemsBenchmark {
+    private static final int VILLAGER_COUNT = 100;
+    private static final int DEPOSIT_THRESHOLD = 64;
+
+    private List<VillagerData> villagers;
+    private List<Map<String, Integer>> stringKeyedItems;
+    private List<ItemStack> harvest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        villagers = new ArrayList<>(VILLAGER_COUNT);
+        stringKeyedItems = new ArrayList<>(VILLAGER_COUNT);
+        for (int i = 0; i < VILLAGER_COUNT; i++) {
+            villagers.add(new VillagerData(UUID.randomUUID(), BlockPos.ORIGIN, "farmer", true, "Villager " + i));
+            stringKeyedItems.add(new HashMap<>());
+        }
+        harvest = List.of(new ItemStack(Items.WHEAT, 2), new ItemStack(Items.WHEAT_SEEDS, 3),
+            new ItemStack(Items.CARROT, 4), new ItemStack(Items.POTATO, 3));
+    }
+
+    @Benchmark
+    public int itemKeyedCounters() {
+        int depositing = 0;
+        for (VillagerData villager : villagers) {
+            for (ItemStack output : harvest) {
+                villager.addAccumulatedItem(output.getItem(), output.getCount());
+            }
+            if (villager.getTotalAccumulatedItems() >= DEPOSIT_THRESHOLD) {
+                depositing++;
+                villager.clearAccumulatedItems();
+            }
+        }
+        return depositing;
+    }
+
+    /**
+     * The previous behavior: registry id strings per harvest and a total summed on every check.
+     */
+    @Benchmark
+    public int stringKeyedMap() {
+        int depositing = 0;
+        for (Map<String, Integer> items : stringKeyedItems) {
+            for (ItemStack output : harvest) {
+                Item item = output.getItem();
+                String itemId = Registries.ITEM.getId(item).toString();
+                items.put(itemId, items.getOrDefault(itemId, 0) + output.getCount());
+            }
+            int total = 0;
+            for (int count : items.values()) {
+                total += count;
+            }
+            if (total >= DEPOSIT_THRESHOLD) {
+                depositing++;
+                items.clear();
+            }
+        }
+        return depositing;
+    }
+}
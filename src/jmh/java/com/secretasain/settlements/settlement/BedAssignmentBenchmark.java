@@ -0,0 +1,74 @@
+package com.secretasain.settlements.settlement;
+
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dusk bed assignment for a whole settlement, against the old per-villager closest-free-bed scan.
+ * Villagers and beds are scattered over a 96x96 settlement; there is one bed per villager.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BedAssignmentBenchmark {
+    private static final int SETTLEMENT_SIZE = 96;
+
+    @Param({"50", "200"})
+    public int villagerCount;
+
+    private List<BlockPos> villagers;
+    private List<BlockPos> beds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        villagers = new ArrayList<>(villagerCount);
+        beds = new ArrayList<>(villagerCount);
+        for (int i = 0; i < villagerCount; i++) {
+            villagers.add(new BlockPos(random.nextInt(SETTLEMENT_SIZE), 64 + random.nextInt(3), random.nextInt(SETTLEMENT_SIZE)));
+            beds.add(new BlockPos(random.nextInt(SETTLEMENT_SIZE), 64 + random.nextInt(8), random.nextInt(SETTLEMENT_SIZE)));
+        }
+    }
+
+    @Benchmark
+    public int[] batchAssignment() {
+        return BedAssignmentSolver.solve(villagers, beds);
+    }
+
+    /**
+     * The previous behavior: each villager in turn takes the closest bed nobody has taken yet.
+     */
+    @Benchmark
+    public int[] closestFreeBedPerVillager() {
+        int[] result = new int[villagers.size()];
+        boolean[] taken = new boolean[beds.size()];
+        for (int v = 0; v < villagers.size(); v++) {
+            BlockPos villager = villagers.get(v);
+            int closest = -1;
+            double closestDist = Double.MAX_VALUE;
+            for (int b = 0; b < beds.size(); b++) {
+                if (taken[b]) {
+                    continue;
+                }
+                double dist = villager.getSquaredDistance(beds.get(b));
+                if (dist < closestDist) {
+                    closest = b;
+                    closestDist = dist;
+                }
+            }
+            if (closest >= 0) {
+                taken[closest] = true;
+            }
+            result[v] = closest;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+package com.secretasain.settlements.settlement;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flood fill over synthetic oak, spruce and jungle trees, with the same limits the lumberjack uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeFloodFillBenchmark {
+    private static final int MAX_TREE_SIZE = 64;
+    private static final int MAX_TREE_LOGS = 512;
+
+    @Param({"oak", "spruce", "jungle"})
+    public String tree;
+
+    private SyntheticWorld world;
+    private Block log;
+    private final TreeFloodFill floodFill = new TreeFloodFill();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        world = new SyntheticWorld();
+        switch (tree) {
+            case "oak" -> {
+                log = Blocks.OAK_LOG;
+                buildTree(1, 6, 2, 0, Blocks.OAK_LEAVES);
+            }
+            case "spruce" -> {
+                log = Blocks.SPRUCE_LOG;
+                buildTree(2, 28, 4, 0, Blocks.SPRUCE_LEAVES);
+            }
+            case "jungle" -> {
+                log = Blocks.JUNGLE_LOG;
+                buildTree(2, 30, 4, 4, Blocks.JUNGLE_LEAVES);
+            }
+            default -> throw new IllegalArgumentException("Unknown tree: " + tree);
+        }
+    }
+
+    @Benchmark
+    public int fellingFill() {
+        return floodFill.fill(world, (x, z) -> true, BlockPos.ORIGIN, MAX_TREE_SIZE, MAX_TREE_LOGS, true, true,
+            (pos, state) -> state.getBlock() == log).size();
+    }
+
+    @Benchmark
+    public int countingFill() {
+        return floodFill.fill(world, (x, z) -> true, BlockPos.ORIGIN, MAX_TREE_SIZE, MAX_TREE_LOGS, false, false,
+            (pos, state) -> state.getBlock() == log).size();
+    }
+
+    /**
+     * Builds a trunk of the given width and height at the origin, a leaf canopy around its top and
+     * diagonal branches every few blocks up the trunk (jungle style).
+     */
+    private void buildTree(int trunkWidth, int height, int canopyRadius, int branchEvery, Block leaves) {
+        BlockState logState = log.getDefaultState();
+        BlockState leafState = leaves.getDefaultState();
+
+        for (int y = -canopyRadius; y <= canopyRadius; y++) {
+            for (int x = -canopyRadius; x < trunkWidth + canopyRadius; x++) {
+                for (int z = -canopyRadius; z < trunkWidth + canopyRadius; z++) {
+                    world.set(x, height + y, z, leafState);
+                }
+            }
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < trunkWidth; x++) {
+                for (int z = 0; z < trunkWidth; z++) {
+                    world.set(x, y, z, logState);
+                }
+            }
+            if (branchEvery > 0 && y > height / 3 && y % branchEvery == 0) {
+                int direction = (y / branchEvery) % 4;
+                int dx = direction == 0 ? 1 : direction == 1 ? -1 : 0;
+                int dz = direction == 2 ? 1 : direction == 3 ? -1 : 0;
+                for (int step = 1; step <= 4; step++) {
+                    int bx = (dx > 0 ? trunkWidth - 1 : 0) + dx * step;
+                    int bz = (dz > 0 ? trunkWidth - 1 : 0) + dz * step;
+                    world.set(bx, y + step / 2, bz, logState);
+                    world.set(bx, y + step / 2 + 1, bz, leafState);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sparse block view: every position not set explicitly is air.
+     */
+    private static class SyntheticWorld implements BlockView {
+        private final Long2ObjectOpenHashMap<BlockState> blocks = new Long2ObjectOpenHashMap<>();
+
+        void set(int x, int y, int z, BlockState state) {
+            blocks.put(BlockPos.asLong(x, y, z), state);
+        }
+
+        @Override
+        public BlockState getBlockState(BlockPos pos) {
+            BlockState state = blocks.get(pos.asLong());
+            return state != null ? state : Blocks.AIR.getDefaultState();
+        }
+
+        @Override
+        public FluidState getFluidState(BlockPos pos) {
+            return getBlockState(pos).getFluidState();
+        }
+
+        @Override
+        public BlockEntity getBlockEntity(BlockPos pos) {
+            return null;
+        }
+
+        @Override
+        public int getHeight() {
+            return 384;
+        }
+
+        @Override
+        public int getBottomY() {
+            return -64;
+        }
+    }
+}
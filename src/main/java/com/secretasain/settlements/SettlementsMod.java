@@ -38,9 +38,18 @@ public class SettlementsMod implements ModInitializer {
 		// Register wandering trader attraction system
 		com.secretasain.settlements.trader.WanderingTraderAttractionSystem.register();
 		
+		// Register spawn candidate cache (validated spawn positions around town halls and trader huts)
+		com.secretasain.settlements.settlement.SpawnCandidateCache.register();
+		
 		// Register town hall villager spawner system
 		com.secretasain.settlements.townhall.TownHallVillagerSpawner.register();
 		
+		// Register settlement timer wheel (deadlines for despawns, spawn cooldowns and harvest timeouts)
+		com.secretasain.settlements.settlement.SettlementTimerWheel.register();
+		
+		// Register wandering trader registry (loaded traders from entity load/unload events)
+		com.secretasain.settlements.townhall.WanderingTraderRegistry.register();
+		
 		// Register wandering trader despawn handler
 		com.secretasain.settlements.townhall.WanderingTraderDespawnHandler.register();
 		
@@ -53,8 +62,21 @@ public class SettlementsMod implements ModInitializer {
 		// Register town hall villager despawn handler (handles 50/50 stay/leave decision)
 		com.secretasain.settlements.townhall.TownHallVillagerDespawnHandler.register();
 		
-		// Register villager pathfinding system
-		com.secretasain.settlements.settlement.VillagerPathfindingSystem.register();
+		// Register villager entity cache (shared UUID -> entity lookup used by all villager systems)
+		com.secretasain.settlements.settlement.VillagerEntityCache.register();
+		
+		// Register villager navigator (path request deduplication and path cache statistics)
+		com.secretasain.settlements.pathfinding.VillagerNavigator.register();
+		
+		// Register simulation level of detail (settlements with no player nearby are simulated abstractly)
+		com.secretasain.settlements.settlement.SettlementSimulationLod.register();
+		
+		// Register catch-up engine (applies production missed while a settlement was simulated abstractly)
+		com.secretasain.settlements.settlement.SettlementCatchUpEngine.register();
+		
+		// Register villager work state machine (drives pathfinding, work tasks, deposits, sleep,
+		// composting, item collection and ender teleports for employed villagers)
+		com.secretasain.settlements.settlement.VillagerWorkStateMachine.register();
 		
 		// Register golem pathfinding system
 		com.secretasain.settlements.settlement.GolemPathfindingSystem.register();
@@ -62,26 +84,20 @@ public class SettlementsMod implements ModInitializer {
 		// Register road placement system
 		com.secretasain.settlements.road.RoadPlacementTickSystem.register();
 		
-		// Register ender teleport system
-		com.secretasain.settlements.ender.VillagerEnderTeleportSystem.register();
+		// Register lumberyard item tracker (tracks drops from lumberyard tree harvests)
+		com.secretasain.settlements.settlement.LumberyardItemTracker.register();
 		
-		// Register farm composter system
-		com.secretasain.settlements.farm.FarmComposterSystem.register();
-		
-		// Register lumberyard item collector system
+		// Register lumberyard item collector (cleared when the server stops)
 		com.secretasain.settlements.settlement.LumberyardItemCollectorSystem.register();
 		
-		// Register task execution system
-		com.secretasain.settlements.settlement.TaskExecutionSystem.register();
-		
-		// Register villager sleep system
-		com.secretasain.settlements.settlement.VillagerSleepSystem.register();
+		// Register tree felling scheduler (breaks queued tree logs a few per tick)
+		com.secretasain.settlements.settlement.TreeFellingScheduler.register();
 		
-		// Register farm maintenance system (farmland repair and seed planting)
-		com.secretasain.settlements.settlement.FarmMaintenanceSystem.register();
+		// Register tree classification cache (cleared when the server stops)
+		com.secretasain.settlements.settlement.TreeClassificationCache.register();
 		
-		// Register villager deposit system
-		com.secretasain.settlements.settlement.VillagerDepositSystem.register();
+		// Register bed registry (cleared when the server stops)
+		com.secretasain.settlements.settlement.BedRegistry.register();
 		
 		// Register villager death/despawn event handlers
 		com.secretasain.settlements.settlement.VillagerEventHandlers.register();
@@ -111,6 +127,10 @@ public class SettlementsMod implements ModInitializer {
 		// Load building output config when server starts
 		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
 			com.secretasain.settlements.settlement.BuildingOutputConfig.load(server.getResourceManager());
+			// Load simulation level of detail config
+			com.secretasain.settlements.settlement.SimulationLodConfig.load(server.getResourceManager());
+			// Load road placement config
+			com.secretasain.settlements.road.RoadPlacementConfig.load(server.getResourceManager());
 			// Load trader trade config
 			com.secretasain.settlements.trader.TraderTradeLoader.load(server.getResourceManager());
 			// Register modded farming blocks (in case mods load after this mod)
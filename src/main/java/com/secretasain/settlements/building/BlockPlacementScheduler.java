@@ -114,7 +114,7 @@ public class BlockPlacementScheduler {
      * @param dimensions Structure dimensions (unused, kept for compatibility)
      * @return Rotated position
      */
-    private static BlockPos applyRotation(BlockPos pos, int rotation, net.minecraft.util.math.Vec3i dimensions) {
+    public static BlockPos applyRotation(BlockPos pos, int rotation, net.minecraft.util.math.Vec3i dimensions) {
         int x = pos.getX();
         int z = pos.getZ();
         
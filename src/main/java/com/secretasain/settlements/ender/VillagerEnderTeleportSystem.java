@@ -3,9 +3,6 @@ package com.secretasain.settlements.ender;
 import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
-import com.secretasain.settlements.settlement.SettlementManager;
-import com.secretasain.settlements.settlement.VillagerData;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.particle.ParticleTypes;
 import net.minecraft.server.world.ServerWorld;
@@ -14,90 +11,50 @@ import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 
-import java.util.UUID;
-
 /**
  * System for handling ender pearl teleportation for villagers when ender upgrade is active.
  * Villagers can teleport to their assigned buildings or chests using ender pearls.
+ * Driven by VillagerWorkStateMachine, so villagers on deposit trips or going to bed are not pulled back.
  */
 public class VillagerEnderTeleportSystem {
     private static final double TELEPORT_DISTANCE_THRESHOLD = 16.0; // Only teleport if more than 16 blocks away
     private static final double TELEPORT_DISTANCE_THRESHOLD_SQ = TELEPORT_DISTANCE_THRESHOLD * TELEPORT_DISTANCE_THRESHOLD;
-    private static final int CHECK_INTERVAL = 100; // Check every 5 seconds (100 ticks)
     
     /**
-     * Registers the ender teleport system with Fabric's server tick events.
+     * Teleports a villager back to its building if it is far away and the settlement's ender upgrade is ready.
+     * Called periodically by VillagerWorkStateMachine for villagers in the WORKING and IDLE states.
+     * @param settlement The villager's settlement
+     * @param building The villager's assigned (completed) building
+     * @param villager The loaded villager entity
+     * @param world The server world
      */
-    public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            if (world.getTime() % CHECK_INTERVAL == 0) {
-                tick(world);
-            }
-        });
-    }
-    
-    /**
-     * Performs a tick update for the given world.
-     */
-    private static void tick(ServerWorld world) {
-        SettlementManager manager = SettlementManager.getInstance(world);
+    public static void tryTeleport(Settlement settlement, Building building, VillagerEntity villager, ServerWorld world) {
+        EnderUpgrade upgrade = settlement.getEnderUpgrade();
+        if (upgrade == null || !upgrade.isActive()) {
+            return; // No ender upgrade active
+        }
         
-        for (Settlement settlement : manager.getAllSettlements()) {
-            EnderUpgrade upgrade = settlement.getEnderUpgrade();
-            if (upgrade == null || !upgrade.isActive()) {
-                continue; // No ender upgrade active
-            }
-            
-            // Check if cooldown has passed
-            if (!upgrade.canUseEnderPearl(world.getTime())) {
-                continue; // Still on cooldown
-            }
-            
-            // Process villagers in this settlement
-            for (VillagerData villagerData : settlement.getVillagers()) {
-                if (!villagerData.isEmployed() || !villagerData.isAssigned()) {
-                    continue;
-                }
-                
-                UUID buildingId = villagerData.getAssignedBuildingId();
-                if (buildingId == null) {
-                    continue;
-                }
-                
-                // Find the building
-                Building building = settlement.getBuildings().stream()
-                    .filter(b -> b.getId().equals(buildingId))
-                    .findFirst()
-                    .orElse(null);
-                
-                if (building == null || building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
-                    continue;
-                }
-                
-                // Get the villager entity
-                VillagerEntity villager = getVillagerEntity(world, villagerData.getEntityId());
-                if (villager == null) {
-                    continue;
-                }
-                
-                // Check if villager is far from building
-                BlockPos buildingPos = building.getPosition();
-                double distanceSq = villager.getPos().squaredDistanceTo(
-                    buildingPos.getX() + 0.5,
-                    buildingPos.getY() + 0.5,
-                    buildingPos.getZ() + 0.5
-                );
-                
-                // Only teleport if far away and pathfinding might be difficult
-                if (distanceSq > TELEPORT_DISTANCE_THRESHOLD_SQ) {
-                    // Check if villager is stuck or pathfinding is failing
-                    if (shouldTeleport(villager, buildingPos, world)) {
-                        BlockPos targetPos = findSafeTeleportPosition(buildingPos, world);
-                        if (targetPos != null) {
-                            teleportVillager(world, villager, targetPos, upgrade);
-                            upgrade.recordTeleport(world.getTime());
-                        }
-                    }
+        // Check if cooldown has passed
+        if (!upgrade.canUseEnderPearl(world.getTime())) {
+            return; // Still on cooldown
+        }
+        
+        // Check if villager is far from building
+        BlockPos buildingPos = building.getPosition();
+        double distanceSq = villager.getPos().squaredDistanceTo(
+            buildingPos.getX() + 0.5,
+            buildingPos.getY() + 0.5,
+            buildingPos.getZ() + 0.5
+        );
+        
+        // Only teleport if far away and pathfinding might be difficult
+        if (distanceSq > TELEPORT_DISTANCE_THRESHOLD_SQ) {
+            // Check if villager is stuck or pathfinding is failing
+            if (shouldTeleport(villager, buildingPos, world)) {
+                BlockPos targetPos = findSafeTeleportPosition(buildingPos, world);
+                if (targetPos != null) {
+                    teleportVillager(world, villager, targetPos, upgrade);
+                    upgrade.recordTeleport(world.getTime());
                 }
             }
         }
@@ -171,16 +128,5 @@ public class VillagerEnderTeleportSystem {
         
         SettlementsMod.LOGGER.debug("Villager {} teleported using ender upgrade", villager.getUuid());
     }
-    
-    /**
-     * Gets the VillagerEntity from the world by UUID.
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID entityId) {
-        try {
-            return (VillagerEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
-        }
-    }
 }
 
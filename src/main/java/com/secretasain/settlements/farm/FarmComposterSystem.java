@@ -3,12 +3,10 @@ package com.secretasain.settlements.farm;
 import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.building.StructureData;
 import com.secretasain.settlements.building.StructureLoader;
+import com.secretasain.settlements.pathfinding.VillagerNavigator;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
-import com.secretasain.settlements.settlement.SettlementManager;
 import com.secretasain.settlements.settlement.VillagerData;
-import com.secretasain.settlements.settlement.WorkAssignmentManager;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.ComposterBlock;
@@ -29,9 +27,11 @@ import java.util.*;
  * 2. Use seeds at composter to convert to bone meal
  * 3. Return bone meal to chests
  * 4. Update farm output data to reflect bone meal production
+ *
+ * Driven by VillagerWorkStateMachine: tryStartComposterTask decides whether the villager enters the
+ * COMPOSTING state, and processComposterTask advances the task while it stays there.
  */
 public class FarmComposterSystem {
-    private static final int CHECK_INTERVAL_TICKS = 20; // Check every 1 second (20 ticks) - more frequent for pathfinding
     private static final int SEED_RESERVE_COUNT = 64; // Always leave at least 64 seeds of each type
     private static final double CHEST_SEARCH_RADIUS = 8.0; // Search for chests within 8 blocks of lectern
     private static final double ARRIVAL_DISTANCE = 3.0; // Consider arrived when within 3 blocks
@@ -86,191 +86,133 @@ public class FarmComposterSystem {
     }
     
     /**
-     * Registers the composter system with Fabric's server tick events.
+     * Starts a composter task for the second farm villager if it is idle.
+     * If the first villager is on a deposit trip the second one follows it to the lectern chests;
+     * otherwise a task is started when there are seeds to compost.
+     * Called by VillagerWorkStateMachine to decide whether the villager enters the COMPOSTING state.
+     * @param firstVillagerData The first villager assigned to the farm
+     * @return true if the villager now has a composter task in progress
      */
-    public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            if (world.getTime() % CHECK_INTERVAL_TICKS == 0) {
-                tick(world);
-            }
-        });
-    }
-    
-    /**
-     * Performs a tick update for the given world.
-     */
-    private static void tick(ServerWorld world) {
-        SettlementManager manager = SettlementManager.getInstance(world);
-        
-        for (Settlement settlement : manager.getAllSettlements()) {
-            processSettlement(settlement, world);
+    public static boolean tryStartComposterTask(Settlement settlement, Building building,
+                                                VillagerData firstVillagerData, VillagerData villagerData,
+                                                VillagerEntity villager, ServerWorld world) {
+        ComposterTaskState state = getTaskState(villagerData.getEntityId(), building);
+        if (state.phase != ComposterTaskPhase.IDLE) {
+            return true;
         }
-    }
-    
-    /**
-     * Processes composter tasks for farm buildings with second villagers.
-     */
-    private static void processSettlement(Settlement settlement, ServerWorld world) {
-        for (Building building : settlement.getBuildings()) {
-            if (!isFarmBuilding(building)) {
-                continue;
-            }
-            
-            // CRITICAL: Only process COMPLETED buildings
-            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
-                continue; // Skip non-completed buildings
-            }
-            
-            // Get all villagers assigned to this farm
-            List<VillagerData> assignedVillagers = WorkAssignmentManager.getVillagersAssignedToBuilding(
-                settlement, building.getId()
-            );
-            
-            // Check if there's a second villager (index 1)
-            if (assignedVillagers.size() < 2) {
-                continue; // Need at least 2 villagers
-            }
-            
-            // Get the first and second villagers
-            VillagerData firstVillagerData = assignedVillagers.get(0);
-            VillagerData secondVillagerData = assignedVillagers.get(1);
-            VillagerEntity villager = getVillagerEntity(world, secondVillagerData.getEntityId());
-            
-            if (villager == null) {
-                continue;
-            }
-            
-            // Skip if second villager is depositing (let deposit system handle it)
-            if (secondVillagerData.isDepositing()) {
-                continue;
-            }
-            
-            // Check if first villager is depositing - if so, trigger second villager to go to chest
-            if (firstVillagerData.isDepositing()) {
-                // First villager is going to chest - second villager should follow
-                ComposterTaskState state = TASK_STATES.computeIfAbsent(secondVillagerData.getEntityId(), 
-                    id -> new ComposterTaskState(building.getId()));
-                
-                // Validate building still matches
-                if (!state.buildingId.equals(building.getId())) {
-                    TASK_STATES.remove(secondVillagerData.getEntityId());
-                    state = new ComposterTaskState(building.getId());
-                    TASK_STATES.put(secondVillagerData.getEntityId(), state);
-                }
+        
+        // Check if first villager is depositing - if so, second villager should follow it to the chest
+        if (firstVillagerData.isDepositing()) {
+            // Find composter in farm structure (needed for later steps)
+            BlockPos composterPos = findComposterInFarm(building, world);
+            if (composterPos == null) {
+                SettlementsMod.LOGGER.debug("No composter found in farm {} - cannot start composter task", building.getId());
+                // Fall through to the regular task start below
+            } else {
+                state.composterPos = composterPos;
                 
-                // Only trigger if second villager is idle (not already doing a task)
-                if (state.phase == ComposterTaskPhase.IDLE) {
-                    // Find composter in farm structure (needed for later steps)
-                    BlockPos composterPos = findComposterInFarm(building, world);
-                    if (composterPos == null) {
-                        SettlementsMod.LOGGER.debug("No composter found in farm {} - cannot start composter task", building.getId());
-                        // Don't continue - still process the task in case state was already set
+                // Find chests near lectern (same location first villager is going to)
+                BlockPos lecternPos = settlement.getLecternPos();
+                List<BlockPos> chestPositions = findChestsNearLectern(lecternPos, world);
+                if (!chestPositions.isEmpty()) {
+                    state.targetChestPos = chestPositions.get(0);
+                    state.phase = ComposterTaskPhase.GOING_TO_CHEST;
+                    
+                    // Pathfind to chest
+                    boolean pathStarted = VillagerNavigator.moveTo(
+                        villager,
+                        state.targetChestPos.getX() + 0.5,
+                        state.targetChestPos.getY() + 0.5,
+                        state.targetChestPos.getZ() + 0.5,
+                        1.0 // Normal speed
+                    );
+                    
+                    if (pathStarted) {
+                        SettlementsMod.LOGGER.info("Second farm villager {} following first villager to chest at {}", 
+                            villagerData.getEntityId(), state.targetChestPos);
                     } else {
-                        state.composterPos = composterPos;
-                        
-                        // Find chests near lectern (same location first villager is going to)
-                        BlockPos lecternPos = settlement.getLecternPos();
-                        List<BlockPos> chestPositions = findChestsNearLectern(lecternPos, world);
-                        if (!chestPositions.isEmpty()) {
-                            state.targetChestPos = chestPositions.get(0);
-                            state.phase = ComposterTaskPhase.GOING_TO_CHEST;
-                            
-                            // Pathfind to chest
-                            boolean pathStarted = villager.getNavigation().startMovingTo(
-                                state.targetChestPos.getX() + 0.5,
-                                state.targetChestPos.getY() + 0.5,
-                                state.targetChestPos.getZ() + 0.5,
-                                1.0 // Normal speed
-                            );
-                            
-                            if (pathStarted) {
-                                SettlementsMod.LOGGER.info("Second farm villager {} following first villager to chest at {}", 
-                                    secondVillagerData.getEntityId(), state.targetChestPos);
-                            } else {
-                                SettlementsMod.LOGGER.warn("Second farm villager {} failed to start pathfinding to chest", 
-                                    secondVillagerData.getEntityId());
-                            }
-                        } else {
-                            SettlementsMod.LOGGER.debug("No chests found near lectern for second villager to follow first");
-                        }
+                        SettlementsMod.LOGGER.warn("Second farm villager {} failed to start pathfinding to chest", 
+                            villagerData.getEntityId());
                     }
                 } else {
-                    SettlementsMod.LOGGER.debug("Second villager {} already in phase {}, not triggering follow", 
-                        secondVillagerData.getEntityId(), state.phase);
+                    SettlementsMod.LOGGER.debug("No chests found near lectern for second villager to follow first");
                 }
-                // Continue processing the task (will handle chest interaction when arrived)
             }
-            
-            // Process composter task (handles pathfinding and state management)
-            processComposterTask(settlement, building, secondVillagerData, villager, world);
+            if (state.phase != ComposterTaskPhase.IDLE) {
+                return true;
+            }
+        }
+        
+        // Step 1: Find composter in farm structure
+        BlockPos composterPos = findComposterInFarm(building, world);
+        if (composterPos == null) {
+            SettlementsMod.LOGGER.debug("No composter found in farm {}", building.getId());
+            return false; // No composter found
+        }
+        state.composterPos = composterPos;
+        
+        // Step 2: Find chests near lectern
+        BlockPos lecternPos = settlement.getLecternPos();
+        List<BlockPos> chestPositions = findChestsNearLectern(lecternPos, world);
+        if (chestPositions.isEmpty()) {
+            SettlementsMod.LOGGER.debug("No chests found near lectern for composter task");
+            return false; // No chests found
+        }
+        state.targetChestPos = chestPositions.get(0); // Use first chest
+        
+        // Check if there are seeds available
+        Map<Item, Integer> availableSeeds = checkSeedsInChests(chestPositions, world);
+        if (availableSeeds.isEmpty()) {
+            SettlementsMod.LOGGER.debug("No seeds available in chests for composter task");
+            return false; // No seeds available
+        }
+        
+        // Start task - pathfind to chest
+        state.phase = ComposterTaskPhase.GOING_TO_CHEST;
+        boolean pathStarted = VillagerNavigator.moveTo(
+            villager,
+            state.targetChestPos.getX() + 0.5,
+            state.targetChestPos.getY() + 0.5,
+            state.targetChestPos.getZ() + 0.5,
+            1.0 // Normal speed
+        );
+        
+        if (pathStarted) {
+            SettlementsMod.LOGGER.info("Second farm villager {} started composter task - going to chest at {}", 
+                villagerData.getEntityId(), state.targetChestPos);
         }
+        return true;
     }
     
     /**
-     * Processes a composter task for the second farm villager.
-     * Uses state machine to handle pathfinding and task execution.
+     * Gets a villager's task state, resetting it if the villager was reassigned to another farm.
      */
-    private static void processComposterTask(Settlement settlement, Building building, 
-                                            VillagerData villagerData, VillagerEntity villager,
-                                            ServerWorld world) {
-        UUID villagerId = villagerData.getEntityId();
+    private static ComposterTaskState getTaskState(UUID villagerId, Building building) {
         ComposterTaskState state = TASK_STATES.computeIfAbsent(villagerId, 
             id -> new ComposterTaskState(building.getId()));
         
         // Validate building still matches (in case villager was reassigned)
         if (!state.buildingId.equals(building.getId())) {
             // Building changed - reset task
-            TASK_STATES.remove(villagerId);
             state = new ComposterTaskState(building.getId());
             TASK_STATES.put(villagerId, state);
         }
-        
-        // Initialize task if needed
-        if (state.phase == ComposterTaskPhase.IDLE) {
-            // Step 1: Find composter in farm structure
-            BlockPos composterPos = findComposterInFarm(building, world);
-            if (composterPos == null) {
-                SettlementsMod.LOGGER.debug("No composter found in farm {}", building.getId());
-                return; // No composter found
-            }
-            state.composterPos = composterPos;
-            
-            // Step 2: Find chests near lectern
-            BlockPos lecternPos = settlement.getLecternPos();
-            List<BlockPos> chestPositions = findChestsNearLectern(lecternPos, world);
-            if (chestPositions.isEmpty()) {
-                SettlementsMod.LOGGER.debug("No chests found near lectern for composter task");
-                return; // No chests found
-            }
-            state.targetChestPos = chestPositions.get(0); // Use first chest
-            
-            // Check if there are seeds available
-            Map<Item, Integer> availableSeeds = checkSeedsInChests(chestPositions, world);
-            if (availableSeeds.isEmpty()) {
-                SettlementsMod.LOGGER.debug("No seeds available in chests for composter task");
-                return; // No seeds available
-            }
-            
-            // Start task - pathfind to chest
-            state.phase = ComposterTaskPhase.GOING_TO_CHEST;
-            boolean pathStarted = villager.getNavigation().startMovingTo(
-                state.targetChestPos.getX() + 0.5,
-                state.targetChestPos.getY() + 0.5,
-                state.targetChestPos.getZ() + 0.5,
-                1.0 // Normal speed
-            );
-            
-            if (pathStarted) {
-                SettlementsMod.LOGGER.info("Second farm villager {} started composter task - going to chest at {}", 
-                    villagerId, state.targetChestPos);
-            }
-            return;
-        }
+        return state;
+    }
+    
+    /**
+     * Advances a composter task that is in progress.
+     * Called by VillagerWorkStateMachine for villagers in the COMPOSTING state.
+     */
+    public static void processComposterTask(Settlement settlement, Building building, 
+                                            VillagerData villagerData, VillagerEntity villager,
+                                            ServerWorld world) {
+        ComposterTaskState state = getTaskState(villagerData.getEntityId(), building);
         
         // Handle ongoing task based on phase
         switch (state.phase) {
             case IDLE:
-                // Should not happen - IDLE state is handled at start of method
+                // Should not happen - tasks are started by tryStartComposterTask
                 break;
             case GOING_TO_CHEST:
                 handleGoingToChest(villager, state, world);
@@ -316,7 +258,8 @@ public class FarmComposterSystem {
             // Continue pathfinding - check if navigation is still active
             if (!villager.getNavigation().isFollowingPath()) {
                 // Path was interrupted or completed - restart
-                boolean pathStarted = villager.getNavigation().startMovingTo(
+                boolean pathStarted = VillagerNavigator.moveTo(
+                    villager,
                     state.targetChestPos.getX() + 0.5,
                     state.targetChestPos.getY() + 0.5,
                     state.targetChestPos.getZ() + 0.5,
@@ -387,7 +330,8 @@ public class FarmComposterSystem {
         state.chestArrivalTime = 0; // Reset for next chest visit
         
         // Pathfind to composter - MUST walk (speed 1.0)
-        boolean pathStarted = villager.getNavigation().startMovingTo(
+        boolean pathStarted = VillagerNavigator.moveTo(
+            villager,
             state.composterPos.getX() + 0.5,
             state.composterPos.getY() + 0.5,
             state.composterPos.getZ() + 0.5,
@@ -424,7 +368,8 @@ public class FarmComposterSystem {
             SettlementsMod.LOGGER.debug("Villager {} arrived at composter", villager.getUuid());
         } else {
             // Continue pathfinding
-            villager.getNavigation().startMovingTo(
+            VillagerNavigator.moveTo(
+                villager,
                 state.composterPos.getX() + 0.5,
                 state.composterPos.getY() + 0.5,
                 state.composterPos.getZ() + 0.5,
@@ -447,7 +392,8 @@ public class FarmComposterSystem {
             state.phase = ComposterTaskPhase.GOING_TO_CHEST_DEPOSIT;
             
             // Pathfind back to chest
-            boolean pathStarted = villager.getNavigation().startMovingTo(
+            boolean pathStarted = VillagerNavigator.moveTo(
+                villager,
                 state.targetChestPos.getX() + 0.5,
                 state.targetChestPos.getY() + 0.5,
                 state.targetChestPos.getZ() + 0.5,
@@ -487,7 +433,8 @@ public class FarmComposterSystem {
         } else {
             // Continue pathfinding - MUST walk (speed 1.0)
             if (!villager.getNavigation().isFollowingPath()) {
-                boolean pathStarted = villager.getNavigation().startMovingTo(
+                boolean pathStarted = VillagerNavigator.moveTo(
+                    villager,
                     state.targetChestPos.getX() + 0.5,
                     state.targetChestPos.getY() + 0.5,
                     state.targetChestPos.getZ() + 0.5,
@@ -583,14 +530,6 @@ public class FarmComposterSystem {
         return availableSeeds;
     }
     
-    /**
-     * Checks if a building is a farm building.
-     */
-    private static boolean isFarmBuilding(Building building) {
-        String structureName = building.getStructureType().getPath().toLowerCase();
-        return structureName.contains("farm");
-    }
-    
     /**
      * Finds a composter block in the farm structure.
      */
@@ -982,16 +921,5 @@ public class FarmComposterSystem {
     public static void cleanupVillagerTask(UUID villagerId) {
         TASK_STATES.remove(villagerId);
     }
-    
-    /**
-     * Gets the VillagerEntity from the world by UUID.
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, java.util.UUID entityId) {
-        try {
-            return (VillagerEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
-        }
-    }
 }
 
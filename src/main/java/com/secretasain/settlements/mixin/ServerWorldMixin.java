@@ -0,0 +1,34 @@
+package com.secretasain.settlements.mixin;
+
+import com.secretasain.settlements.road.RoadNetwork;
+import com.secretasain.settlements.settlement.BedRegistry;
+import com.secretasain.settlements.settlement.SpawnCandidateCache;
+import com.secretasain.settlements.settlement.TreeClassificationCache;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to observe block changes in server worlds.
+ * Invalidates cached tree classifications and spawn candidates around the changed block and keeps the
+ * bed registry and road networks current.
+ */
+@Mixin(ServerWorld.class)
+public abstract class ServerWorldMixin {
+    
+    @Inject(
+        at = @At("TAIL"),
+        method = "onBlockChanged"
+    )
+    private void onBlockChanged(BlockPos pos, BlockState oldBlock, BlockState newBlock, CallbackInfo ci) {
+        ServerWorld world = (ServerWorld) (Object) this;
+        TreeClassificationCache.onBlockChanged(world.getRegistryKey(), pos);
+        BedRegistry.onBlockChanged(world, pos, oldBlock, newBlock);
+        RoadNetwork.onBlockChanged(world, pos, oldBlock, newBlock);
+        SpawnCandidateCache.onBlockChanged(world, pos);
+    }
+}
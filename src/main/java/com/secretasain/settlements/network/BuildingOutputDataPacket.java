@@ -2,11 +2,12 @@ package com.secretasain.settlements.network;
 
 import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.building.StructureData;
-import com.secretasain.settlements.building.StructureBlock;
 import com.secretasain.settlements.building.StructureLoader;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.BuildingOutputConfig;
 import com.secretasain.settlements.settlement.CropStatistics;
+import com.secretasain.settlements.settlement.FarmCropHarvester;
+import com.secretasain.settlements.settlement.FarmGrowthModel;
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.SettlementManager;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
@@ -19,8 +20,6 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.state.property.Properties;
 import net.minecraft.util.Identifier;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Vec3i;
 
 import java.util.*;
 
@@ -177,6 +176,7 @@ public class BuildingOutputDataPacket {
                     buf.writeInt(stats.maxAge);
                     buf.writeLong(stats.estimatedTicksUntilHarvest);
                     buf.writeDouble(stats.avgDropsPerCrop);
+                    buf.writeDouble(stats.predictionAccuracy);
                     
                     // Write age distribution
                     buf.writeInt(stats.ageDistribution.size());
@@ -300,85 +300,52 @@ public class BuildingOutputDataPacket {
     }
     
     /**
-     * Scans crops in a farm building's area and calculates statistics.
-     * Similar to FarmCropHarvester but without harvesting - just scanning.
+     * Calculates crop statistics for a farm building from its growth model.
+     * Ages are estimated from each cell's last observation, so no rescan is needed unless
+     * the model is due for one.
      */
     private static List<CropStatistics> scanCropsAndCalculateStatistics(Building building, ServerWorld world) {
         List<CropStatistics> cropStatsList = new ArrayList<>();
         
         try {
-            // Load structure data to get the area
-            StructureData structureData = StructureLoader.loadStructure(building.getStructureType(), world.getServer());
-            if (structureData == null) {
-                SettlementsMod.LOGGER.warn("Could not load structure data for crop scanning: {}", building.getStructureType());
+            FarmGrowthModel model = FarmCropHarvester.getSyncedGrowthModel(building, world, world.getServer());
+            if (model == null) {
+                SettlementsMod.LOGGER.warn("Could not load growth model for crop statistics: {}", building.getStructureType());
                 return cropStatsList;
             }
             
-            // Get building position and rotation
-            BlockPos buildingPos = building.getPosition();
-            int rotation = building.getRotation();
+            long now = world.getTime();
             
             // Map to collect crop data: cropType -> (age -> count)
             Map<String, Map<Integer, Integer>> cropData = new HashMap<>();
             Map<String, Identifier> cropItemIds = new HashMap<>();
             Map<String, Integer> cropMaxAges = new HashMap<>();
+            Map<String, Block> cropBlocks = new HashMap<>();
+            Map<String, Long> cropTicksRemaining = new HashMap<>();
             
-            // CRITICAL: Iterate through actual structure blocks (same as BlockPlacementScheduler)
-            // This ensures we scan exactly the same area where blocks were placed, including rotation
-            for (net.minecraft.util.math.BlockPos relativePos : structureData.getBuildOrder()) {
-                StructureBlock structureBlock = structureData.getBlockAt(relativePos);
-                if (structureBlock == null) {
+            for (FarmGrowthModel.CropCell cell : model.getCells()) {
+                BlockState cropState = cell.getObservedState();
+                CropInfo cropInfo = getCropInfo(cropState, cropState.getBlock());
+                if (cropInfo == null) {
                     continue;
                 }
                 
-                // Apply rotation to relative position (same formula as BlockPlacementScheduler)
-                BlockPos rotatedPos = applyRotation(relativePos, rotation, structureData.getDimensions());
+                String cropType = cropInfo.type;
+                int age = model.estimateAge(cell, now);
                 
-                // Calculate absolute world position
-                BlockPos worldPos = buildingPos.add(rotatedPos);
+                // Initialize maps if needed
+                cropData.putIfAbsent(cropType, new HashMap<>());
+                cropItemIds.putIfAbsent(cropType, cropInfo.itemId);
+                cropMaxAges.putIfAbsent(cropType, cropInfo.maxAge);
+                cropBlocks.putIfAbsent(cropType, cropState.getBlock());
                 
-                // Check if chunk is loaded
-                if (!world.getChunkManager().isChunkLoaded(worldPos.getX() >> 4, worldPos.getZ() >> 4)) {
-                    continue;
-                }
+                // Count this crop
+                Map<Integer, Integer> ageMap = cropData.get(cropType);
+                ageMap.put(age, ageMap.getOrDefault(age, 0) + 1);
                 
-                // Check if this structure block is farmland (from the NBT structure)
-                BlockState structureBlockState = structureBlock.getBlockState();
-                if (structureBlockState.getBlock() instanceof FarmlandBlock ||
-                    structureBlockState.getBlock() == net.minecraft.block.Blocks.DIRT ||
-                    structureBlockState.getBlock() == net.minecraft.block.Blocks.GRASS_BLOCK) {
-                    // This position should be farmland - check if it actually is farmland in the world
-                    BlockState worldBlockState = world.getBlockState(worldPos);
-                    Block worldBlock = worldBlockState.getBlock();
-                    
-                    // Check if this is farmland in the world
-                    if (worldBlock instanceof FarmlandBlock) {
-                        // Check the block above for crops
-                        BlockPos cropPos = worldPos.up();
-                        if (!world.getChunkManager().isChunkLoaded(cropPos.getX() >> 4, cropPos.getZ() >> 4)) {
-                            continue;
-                        }
-                        
-                        BlockState cropState = world.getBlockState(cropPos);
-                        Block cropBlock = cropState.getBlock();
-                        
-                        // Get crop type and age
-                        CropInfo cropInfo = getCropInfo(cropState, cropBlock);
-                        if (cropInfo != null) {
-                            String cropType = cropInfo.type;
-                            int age = cropInfo.age;
-                            int maxAge = cropInfo.maxAge;
-                            
-                            // Initialize maps if needed
-                            cropData.putIfAbsent(cropType, new HashMap<>());
-                            cropItemIds.putIfAbsent(cropType, cropInfo.itemId);
-                            cropMaxAges.putIfAbsent(cropType, maxAge);
-                            
-                            // Count this crop
-                            Map<Integer, Integer> ageMap = cropData.get(cropType);
-                            ageMap.put(age, ageMap.getOrDefault(age, 0) + 1);
-                        }
-                    }
+                if (age < cropInfo.maxAge) {
+                    long remaining = Math.max(0L, cell.getPredictedMatureTime() - now);
+                    cropTicksRemaining.merge(cropType, remaining, Long::sum);
                 }
             }
             
@@ -401,23 +368,10 @@ public class BuildingOutputDataPacket {
                 }
                 int averageAge = totalCount > 0 ? totalAge / totalCount : 0;
                 
-                // Estimate ticks until harvest for immature crops
-                // Average growth time per stage: ~4286 ticks (25 minutes / 7 stages for AGE_7 crops)
-                // For AGE_3 crops: ~10000 ticks per stage (25 minutes / 3 stages)
-                long avgTicksPerStage = maxAge == 7 ? 4286L : 10000L;
+                // Average predicted ticks until maturity for immature crops
                 long estimatedTicksUntilHarvest = 0;
                 if (immatureCount > 0) {
-                    // Calculate average ticks remaining for all immature crops
-                    long totalTicksRemaining = 0;
-                    for (Map.Entry<Integer, Integer> ageEntry : ageDistribution.entrySet()) {
-                        int age = ageEntry.getKey();
-                        int count = ageEntry.getValue();
-                        if (age < maxAge) {
-                            int stagesRemaining = maxAge - age;
-                            totalTicksRemaining += (long) stagesRemaining * avgTicksPerStage * count;
-                        }
-                    }
-                    estimatedTicksUntilHarvest = totalTicksRemaining / immatureCount;
+                    estimatedTicksUntilHarvest = cropTicksRemaining.getOrDefault(cropType, 0L) / immatureCount;
                 }
                 
                 // Average drops per crop (typically 1-3, average 2)
@@ -425,7 +379,8 @@ public class BuildingOutputDataPacket {
                 
                 CropStatistics stats = new CropStatistics(
                     cropType, cropItemId, totalCount, matureCount, immatureCount,
-                    ageDistribution, averageAge, maxAge, estimatedTicksUntilHarvest, avgDropsPerCrop
+                    ageDistribution, averageAge, maxAge, estimatedTicksUntilHarvest, avgDropsPerCrop,
+                    model.getPredictionAccuracy(cropBlocks.get(cropType))
                 );
                 cropStatsList.add(stats);
             }
@@ -546,34 +501,4 @@ public class BuildingOutputDataPacket {
                 return 2.0; // Default average
         }
     }
-    
-    /**
-     * Applies rotation to a relative position.
-     * Uses the same formula as BlockPlacementScheduler.applyRotation to ensure consistency.
-     * Rotates around the origin (0, 0, 0) - same formula used for placing blocks.
-     * @param pos The relative position
-     * @param rotation Rotation in degrees (0, 90, 180, 270)
-     * @param dimensions Structure dimensions (unused, kept for compatibility)
-     * @return Rotated position
-     */
-    private static BlockPos applyRotation(BlockPos pos, int rotation, Vec3i dimensions) {
-        int x = pos.getX();
-        int z = pos.getZ();
-        
-        switch (rotation) {
-            case 90:
-                // Rotate 90 degrees clockwise around origin: (x, y, z) -> (-z, y, x)
-                return new BlockPos(-z, pos.getY(), x);
-            case 180:
-                // Rotate 180 degrees around origin: (x, y, z) -> (-x, y, -z)
-                return new BlockPos(-x, pos.getY(), -z);
-            case 270:
-                // Rotate 270 degrees clockwise around origin: (x, y, z) -> (z, y, -x)
-                return new BlockPos(z, pos.getY(), -x);
-            case 0:
-            default:
-                return pos;
-        }
-    }
 }
-
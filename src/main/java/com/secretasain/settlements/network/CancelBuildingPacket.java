@@ -140,6 +140,10 @@ public class CancelBuildingPacket {
         
         // Remove building from settlement
         settlement.getBuildings().remove(building);
+        com.secretasain.settlements.settlement.LumberyardItemTracker.clear(building.getId());
+        com.secretasain.settlements.settlement.TreeFellingScheduler.clear(building.getId());
+        com.secretasain.settlements.settlement.GolemPathfindingSystem.onBuildingRemoved(world, building.getId());
+        com.secretasain.settlements.settlement.SpawnCandidateCache.remove(world, building.getId());
         
         return materialsReturned;
     }
@@ -0,0 +1,259 @@
+package com.secretasain.settlements.pathfinding;
+
+import com.secretasain.settlements.SettlementsMod;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.entity.ai.pathing.EntityNavigation;
+import net.minecraft.entity.ai.pathing.Path;
+import net.minecraft.entity.ai.pathing.PathNode;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Single entry point for settlement systems that move villagers.
+ * Replaces direct calls to villager.getNavigation().startMovingTo(...), which compute a fresh vanilla
+ * path on every call:
+ * - A request for the target the villager is already walking to (within DEDUP_TOLERANCE blocks)
+ *   keeps the current path and only updates the speed.
+ * - Paths that were computed recently are cached per destination. A villager standing on or next to
+ *   a cached path to the same destination (e.g., building -> lectern chest and back) joins it at the
+ *   nearest node instead of pathfinding again.
+ *
+ * Cached paths expire after CACHE_TTL_TICKS. A cached path that left the villager stuck (it asks for
+ * the same destination again without following a path) is dropped and recomputed.
+ */
+public class VillagerNavigator {
+    private static final int DEDUP_TOLERANCE = 1; // Targets within 1 block of the current path's target are the same
+    private static final int JOIN_TOLERANCE = 1; // Villager must be within 1 block of a cached path node to join it
+    private static final int MIN_CACHED_PATH_LENGTH = 8; // Short paths are cheap to compute - not worth caching
+    private static final long CACHE_TTL_TICKS = 600; // Cached paths expire after 30 seconds
+    private static final int MAX_CACHED_DESTINATIONS = 128;
+    private static final int MAX_PATHS_PER_DESTINATION = 4;
+    private static final int STATS_LOG_INTERVAL_TICKS = 12000; // Log path statistics every 10 minutes
+
+    // Recently computed paths by destination (least recently used destinations are evicted first)
+    private static final Map<DestinationKey, List<CachedPath>> PATH_CACHE =
+        new LinkedHashMap<DestinationKey, List<CachedPath>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DestinationKey, List<CachedPath>> eldest) {
+                return size() > MAX_CACHED_DESTINATIONS;
+            }
+        };
+
+    // Cached path each villager was last sent along (to detect cached paths that got it stuck)
+    private static final Map<VillagerEntity, CachedPath> LAST_SERVED = new WeakHashMap<>();
+
+    private static long requests = 0;
+    private static long dedupedRequests = 0;
+    private static long cacheHits = 0;
+    private static long pathsComputed = 0;
+
+    /**
+     * A destination block in a specific world.
+     */
+    private static class DestinationKey {
+        final RegistryKey<World> worldKey;
+        final long target;
+
+        DestinationKey(RegistryKey<World> worldKey, BlockPos target) {
+            this.worldKey = worldKey;
+            this.target = target.asLong();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DestinationKey)) return false;
+            DestinationKey that = (DestinationKey) o;
+            return target == that.target && worldKey == that.worldKey;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * worldKey.hashCode() + Long.hashCode(target);
+        }
+    }
+
+    /**
+     * A computed path kept for reuse.
+     */
+    private static class CachedPath {
+        final List<PathNode> nodes;
+        final BlockPos target;
+        final long computedAt;
+
+        CachedPath(Path path, long computedAt) {
+            this.nodes = new ArrayList<>(path.getLength());
+            for (int i = 0; i < path.getLength(); i++) {
+                this.nodes.add(path.getNode(i));
+            }
+            this.target = path.getTarget();
+            this.computedAt = computedAt;
+        }
+
+        /**
+         * Finds the furthest node along the path that the position is next to.
+         * @return The node index, or -1 if the position is not next to the path
+         */
+        int findJoinIndex(BlockPos pos) {
+            int joinIndex = -1;
+            for (int i = 0; i < nodes.size(); i++) {
+                PathNode node = nodes.get(i);
+                if (Math.abs(node.x - pos.getX()) <= JOIN_TOLERANCE
+                    && Math.abs(node.y - pos.getY()) <= JOIN_TOLERANCE
+                    && Math.abs(node.z - pos.getZ()) <= JOIN_TOLERANCE) {
+                    joinIndex = i;
+                }
+            }
+            return joinIndex;
+        }
+
+        /**
+         * Creates a fresh path over the cached nodes, starting at the given node.
+         * Nodes are shared - vanilla only reads them once pathfinding is done.
+         */
+        Path createPath(int startIndex) {
+            Path path = new Path(new ArrayList<>(nodes), target, true);
+            path.setCurrentNodeIndex(startIndex);
+            return path;
+        }
+    }
+
+    /**
+     * Registers the periodic statistics log.
+     */
+    public static void register() {
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            if (world.getTime() % STATS_LOG_INTERVAL_TICKS == 0 && world.getRegistryKey() == World.OVERWORLD) {
+                SettlementsMod.LOGGER.debug("Villager navigation: {} requests, {} deduplicated, {} cached paths reused, {} paths computed",
+                    requests, dedupedRequests, cacheHits, pathsComputed);
+            }
+        });
+    }
+
+    /**
+     * Moves a villager to a position, reusing its current path or a cached path when possible.
+     * Drop-in replacement for villager.getNavigation().startMovingTo(x, y, z, speed).
+     * @return true if the villager is moving towards the target
+     */
+    public static boolean moveTo(VillagerEntity villager, double x, double y, double z, double speed) {
+        requests++;
+        EntityNavigation navigation = villager.getNavigation();
+        BlockPos target = BlockPos.ofFloored(x, y, z);
+
+        // Already walking there - keep the current path
+        Path currentPath = navigation.getCurrentPath();
+        if (navigation.isFollowingPath() && currentPath != null && isSameTarget(currentPath.getTarget(), target)) {
+            navigation.setSpeed(speed);
+            dedupedRequests++;
+            return true;
+        }
+
+        World world = villager.getWorld();
+        long now = world.getTime();
+        DestinationKey key = new DestinationKey(world.getRegistryKey(), target);
+
+        // A cached path served last time stopped short of the target - drop it and recompute
+        CachedPath lastServed = LAST_SERVED.remove(villager);
+        if (lastServed != null && lastServed.target.equals(target) && !isSameTarget(villager.getBlockPos(), target)) {
+            List<CachedPath> paths = PATH_CACHE.get(key);
+            if (paths != null) {
+                paths.remove(lastServed);
+            }
+        } else if (startCachedPath(villager, navigation, key, speed, now)) {
+            cacheHits++;
+            return true;
+        }
+
+        // Compute a new path (same as startMovingTo)
+        Path path = navigation.findPathTo(x, y, z, 1);
+        pathsComputed++;
+        if (path != null && path.reachesTarget() && path.getLength() >= MIN_CACHED_PATH_LENGTH) {
+            List<CachedPath> paths = PATH_CACHE.computeIfAbsent(key, k -> new ArrayList<>(MAX_PATHS_PER_DESTINATION));
+            if (paths.size() >= MAX_PATHS_PER_DESTINATION) {
+                paths.remove(0); // Oldest first
+            }
+            paths.add(new CachedPath(path, now));
+        }
+        return navigation.startMovingAlong(path, speed);
+    }
+
+    /**
+     * Forgets every cached path (e.g., after large terrain changes).
+     */
+    public static void clearCache() {
+        PATH_CACHE.clear();
+        LAST_SERVED.clear();
+    }
+
+    /**
+     * Gets the number of move requests that did not need a new path computation.
+     */
+    public static long getPathComputationsAvoided() {
+        return dedupedRequests + cacheHits;
+    }
+
+    /**
+     * Gets the number of move requests answered by keeping the villager's current path.
+     */
+    public static long getDedupedRequestCount() {
+        return dedupedRequests;
+    }
+
+    /**
+     * Gets the number of move requests answered from the path cache.
+     */
+    public static long getCacheHitCount() {
+        return cacheHits;
+    }
+
+    /**
+     * Gets the number of vanilla path computations performed.
+     */
+    public static long getPathsComputedCount() {
+        return pathsComputed;
+    }
+
+    private static boolean startCachedPath(VillagerEntity villager, EntityNavigation navigation,
+                                           DestinationKey key, double speed, long now) {
+        List<CachedPath> paths = PATH_CACHE.get(key);
+        if (paths == null) {
+            return false;
+        }
+
+        BlockPos villagerPos = villager.getBlockPos();
+        Iterator<CachedPath> iterator = paths.iterator();
+        while (iterator.hasNext()) {
+            CachedPath cached = iterator.next();
+            if (now - cached.computedAt > CACHE_TTL_TICKS || now < cached.computedAt) {
+                iterator.remove();
+                continue;
+            }
+
+            int joinIndex = cached.findJoinIndex(villagerPos);
+            if (joinIndex < 0 || joinIndex >= cached.nodes.size() - 1) {
+                continue; // Not on this path, or already at its end
+            }
+
+            if (navigation.startMovingAlong(cached.createPath(joinIndex), speed)) {
+                LAST_SERVED.put(villager, cached);
+                return true;
+            }
+        }
+
+        if (paths.isEmpty()) {
+            PATH_CACHE.remove(key);
+        }
+        return false;
+    }
+
+    private static boolean isSameTarget(BlockPos current, BlockPos requested) {
+        return current != null
+            && Math.abs(current.getX() - requested.getX()) <= DEDUP_TOLERANCE
+            && Math.abs(current.getY() - requested.getY()) <= DEDUP_TOLERANCE
+            && Math.abs(current.getZ() - requested.getZ()) <= DEDUP_TOLERANCE;
+    }
+}
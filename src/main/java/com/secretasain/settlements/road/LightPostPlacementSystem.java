@@ -1,27 +1,50 @@
 package com.secretasain.settlements.road;
 
 import com.secretasain.settlements.settlement.Settlement;
-import net.minecraft.block.Block;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 
 import java.util.*;
 
 /**
  * Handles detection of dark areas and placement of fence light posts.
+ * The area around the roads is sampled once per run (LightSampleGrid), and posts are chosen greedily:
+ * each pick is the spot whose torch would light the most still-dark road blocks, until every road
+ * block is lit to DARK_LIGHT_LEVEL or no spot can help. Existing and chosen posts are kept in a
+ * PositionGrid, so spacing checks only look at nearby posts.
  */
 public class LightPostPlacementSystem {
     private static final int DARK_LIGHT_LEVEL = 7; // Light level threshold (below 7 is dark)
     private static final int ROAD_DETECTION_RADIUS = 8; // Must be within 8 blocks of road
     private static final int LIGHT_POST_SPACING = 4; // Minimum spacing between light posts
+    private static final int TORCH_LIGHT_LEVEL = 14; // Light level of a torch, dropping by 1 per block (Manhattan distance)
+    private static final int TORCH_REACH = TORCH_LIGHT_LEVEL - DARK_LIGHT_LEVEL; // Distance a torch lights to DARK_LIGHT_LEVEL
     
     /**
-     * Finds dark areas near roads that need light posts.
+     * A spot a light post could be placed at, with the number of dark road blocks it would light.
+     */
+    private static class PostCandidate {
+        final BlockPos pos; // Fence position
+        int gain;
+        
+        PostCandidate(BlockPos pos, int gain) {
+            this.pos = pos;
+            this.gain = gain;
+        }
+    }
+    
+    /**
+     * Finds where light posts should be placed to light the settlement's roads.
      * @param settlement The settlement to scan
      * @param world The server world
-     * @return List of positions where light posts should be placed
+     * @return Fence positions of the light posts to place, most useful first
      */
     public static List<BlockPos> findDarkAreas(Settlement settlement, ServerWorld world) {
         List<BlockPos> darkAreas = new ArrayList<>();
@@ -31,91 +54,101 @@ public class LightPostPlacementSystem {
         }
         
         // Get all roads in settlement
-        Set<BlockPos> roads = RoadDetector.findRoads(settlement, world);
+        LongSet roads = RoadNetwork.get(settlement, world).getRoadKeys();
         if (roads.isEmpty()) {
             return darkAreas; // No roads, no need for light posts
         }
         
-        // Get existing light posts (fence blocks with torch/lantern on top)
-        Set<BlockPos> existingLightPosts = findExistingLightPosts(settlement, world);
+        LightSampleGrid samples = LightSampleGrid.sample(world, roads, ROAD_DETECTION_RADIUS, ROAD_DETECTION_RADIUS + LIGHT_POST_SPACING);
         
-        // Scan area around roads for dark spots
-        for (BlockPos road : roads) {
-            // Check positions within detection radius of this road
-            for (int x = -ROAD_DETECTION_RADIUS; x <= ROAD_DETECTION_RADIUS; x++) {
-                for (int z = -ROAD_DETECTION_RADIUS; z <= ROAD_DETECTION_RADIUS; z++) {
-                    // Check distance from road
-                    double distanceSq = x * x + z * z;
-                    if (distanceSq > ROAD_DETECTION_RADIUS * ROAD_DETECTION_RADIUS) {
-                        continue;
-                    }
-                    
-                    BlockPos checkPos = road.add(x, 0, z);
-                    
-                    // Check if position is suitable for light post
-                    if (shouldPlaceLightPost(checkPos, world, existingLightPosts)) {
-                        darkAreas.add(checkPos);
-                    }
-                }
+        // Dark road blocks, by column: the light is measured where villagers walk, above the path
+        Long2IntOpenHashMap darkRoads = new Long2IntOpenHashMap();
+        darkRoads.defaultReturnValue(Integer.MIN_VALUE);
+        for (Long2IntMap.Entry entry : samples.getRoadLight().long2IntEntrySet()) {
+            if (entry.getIntValue() < DARK_LIGHT_LEVEL) {
+                long road = entry.getLongKey();
+                darkRoads.put(ChunkPos.toLong(BlockPos.unpackLongX(road), BlockPos.unpackLongZ(road)), BlockPos.unpackLongY(road) + 1);
             }
         }
-        
-        return darkAreas;
-    }
-    
-    /**
-     * Checks if a light post should be placed at the given position.
-     * @param pos Position to check
-     * @param world The server world
-     * @param existingLightPosts Set of existing light post positions
-     * @return true if light post should be placed
-     */
-    public static boolean shouldPlaceLightPost(BlockPos pos, ServerWorld world, Set<BlockPos> existingLightPosts) {
-        // Check if position is within settlement bounds
-        // (This will be checked by the caller, but we validate here too)
-        
-        // Check if light post already exists nearby
-        for (BlockPos existing : existingLightPosts) {
-            if (pos.getSquaredDistance(existing) < LIGHT_POST_SPACING * LIGHT_POST_SPACING) {
-                return false; // Too close to existing light post
-            }
+        if (darkRoads.isEmpty()) {
+            return darkAreas; // Roads are lit
         }
         
-        // Get ground level
-        int topY = world.getTopY(net.minecraft.world.Heightmap.Type.WORLD_SURFACE, pos.getX(), pos.getZ());
-        BlockPos groundPos = new BlockPos(pos.getX(), topY, pos.getZ());
-        
-        // Check light level at ground position
-        int lightLevel = world.getLightLevel(groundPos);
-        if (lightLevel >= DARK_LIGHT_LEVEL) {
-            return false; // Not dark enough
-        }
-        
-        // Check if position is suitable (solid block below, air above)
-        BlockState groundState = world.getBlockState(groundPos);
-        BlockState belowState = world.getBlockState(groundPos.down());
-        BlockState aboveState = world.getBlockState(groundPos.up());
-        
-        // Need air at ground level and solid block below
-        if (!groundState.isAir() && !groundState.isReplaceable()) {
-            return false; // Blocked
+        // Existing light posts
+        PositionGrid lightPosts = new PositionGrid(LIGHT_POST_SPACING * 4);
+        LongArrayList existingPosts = samples.getExistingPosts();
+        for (int i = 0; i < existingPosts.size(); i++) {
+            lightPosts.add(existingPosts.getLong(i));
         }
         
-        if (belowState.isAir() || !belowState.isSolidBlock(world, groundPos.down())) {
-            return false; // No solid ground
+        // Greedy coverage: best candidates first, gains re-checked lazily as roads get lit
+        PriorityQueue<PostCandidate> candidates = new PriorityQueue<>((a, b) -> Integer.compare(b.gain, a.gain));
+        for (Long2IntMap.Entry entry : samples.getPostSpots().long2IntEntrySet()) {
+            BlockPos pos = new BlockPos(ChunkPos.getPackedX(entry.getLongKey()), entry.getIntValue(), ChunkPos.getPackedZ(entry.getLongKey()));
+            if (!isFarFromPosts(pos, lightPosts)) {
+                continue;
+            }
+            int gain = countLitRoads(pos, darkRoads, false);
+            if (gain > 0) {
+                candidates.add(new PostCandidate(pos, gain));
+            }
         }
         
-        if (!aboveState.isAir()) {
-            return false; // Blocked above (can't place fence)
+        while (!candidates.isEmpty() && !darkRoads.isEmpty()) {
+            PostCandidate candidate = candidates.poll();
+            if (!isFarFromPosts(candidate.pos, lightPosts)) {
+                continue; // Too close to a post chosen meanwhile
+            }
+            int gain = countLitRoads(candidate.pos, darkRoads, false);
+            if (gain < candidate.gain) {
+                // Some of its roads were lit by other posts - requeue with the current gain
+                if (gain > 0) {
+                    candidate.gain = gain;
+                    candidates.add(candidate);
+                }
+                continue;
+            }
+            countLitRoads(candidate.pos, darkRoads, true);
+            lightPosts.add(candidate.pos.asLong());
+            darkAreas.add(candidate.pos);
         }
         
-        // Check for water or lava
-        if (groundState.getBlock() == Blocks.WATER || groundState.getBlock() == Blocks.LAVA ||
-            belowState.getBlock() == Blocks.WATER || belowState.getBlock() == Blocks.LAVA) {
-            return false; // Water or lava
+        return darkAreas;
+    }
+    
+    /**
+     * Checks if a position keeps LIGHT_POST_SPACING from every light post.
+     */
+    private static boolean isFarFromPosts(BlockPos pos, PositionGrid lightPosts) {
+        return lightPosts.findNearest(pos, LIGHT_POST_SPACING * LIGHT_POST_SPACING) == null;
+    }
+    
+    /**
+     * Counts the dark road blocks a light post's torch would light to DARK_LIGHT_LEVEL.
+     * Estimates the light as the torch's level less the Manhattan distance, ignoring walls.
+     * @param fencePos Fence position of the post (the torch is above it)
+     * @param darkRoads Dark road blocks: column -> Y of the light measurement
+     * @param remove Whether to remove the counted road blocks from darkRoads
+     * @return Number of road blocks lit
+     */
+    private static int countLitRoads(BlockPos fencePos, Long2IntOpenHashMap darkRoads, boolean remove) {
+        int torchY = fencePos.getY() + 1;
+        int count = 0;
+        for (int dx = -TORCH_REACH; dx <= TORCH_REACH; dx++) {
+            int reachZ = TORCH_REACH - Math.abs(dx);
+            for (int dz = -reachZ; dz <= reachZ; dz++) {
+                long column = ChunkPos.toLong(fencePos.getX() + dx, fencePos.getZ() + dz);
+                int y = darkRoads.get(column);
+                if (y == Integer.MIN_VALUE || Math.abs(y - torchY) > reachZ - Math.abs(dz)) {
+                    continue;
+                }
+                count++;
+                if (remove) {
+                    darkRoads.remove(column);
+                }
+            }
         }
-        
-        return true;
+        return count;
     }
     
     /**
@@ -159,57 +192,6 @@ public class LightPostPlacementSystem {
         return true;
     }
     
-    /**
-     * Finds existing light posts in the settlement.
-     * Light posts are fence blocks with torch/lantern on top.
-     * @param settlement The settlement to scan
-     * @param world The server world
-     * @return Set of light post positions (fence positions)
-     */
-    private static Set<BlockPos> findExistingLightPosts(Settlement settlement, ServerWorld world) {
-        Set<BlockPos> lightPosts = new HashSet<>();
-        
-        if (settlement == null || world == null || settlement.getLecternPos() == null) {
-            return lightPosts;
-        }
-        
-        BlockPos center = settlement.getLecternPos();
-        int radius = settlement.getRadius();
-        
-        // Scan for fence blocks with torch/lantern on top
-        int scanStep = 4; // Scan every 4 blocks
-        for (int x = center.getX() - radius; x <= center.getX() + radius; x += scanStep) {
-            for (int z = center.getZ() - radius; z <= center.getZ() + radius; z += scanStep) {
-                double distanceSq = center.getSquaredDistance(x, center.getY(), z);
-                if (distanceSq > radius * radius) {
-                    continue;
-                }
-                
-                int topY = world.getTopY(net.minecraft.world.Heightmap.Type.WORLD_SURFACE, x, z);
-                BlockPos fencePos = new BlockPos(x, topY, z);
-                BlockPos abovePos = fencePos.up();
-                
-                BlockState fenceState = world.getBlockState(fencePos);
-                BlockState aboveState = world.getBlockState(abovePos);
-                
-                // Check if this is a fence with torch/lantern on top
-                Block fenceBlock = fenceState.getBlock();
-                Block aboveBlock = aboveState.getBlock();
-                
-                if ((fenceBlock == Blocks.OAK_FENCE || fenceBlock == Blocks.SPRUCE_FENCE ||
-                     fenceBlock == Blocks.BIRCH_FENCE || fenceBlock == Blocks.JUNGLE_FENCE ||
-                     fenceBlock == Blocks.ACACIA_FENCE || fenceBlock == Blocks.DARK_OAK_FENCE ||
-                     fenceBlock == Blocks.CRIMSON_FENCE || fenceBlock == Blocks.WARPED_FENCE) &&
-                    (aboveBlock == Blocks.TORCH || aboveBlock == Blocks.LANTERN ||
-                     aboveBlock == Blocks.SOUL_TORCH || aboveBlock == Blocks.SOUL_LANTERN)) {
-                    lightPosts.add(fencePos);
-                }
-            }
-        }
-        
-        return lightPosts;
-    }
-    
     /**
      * Processes light post placement for a settlement.
      * Finds dark areas and places light posts (limited by materials).
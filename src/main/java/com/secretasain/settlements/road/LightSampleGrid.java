@@ -0,0 +1,190 @@
+package com.secretasain.settlements.road;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.LightType;
+import net.minecraft.world.chunk.ChunkNibbleArray;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * One pass of light and terrain samples around a settlement's roads, for light post placement.
+ * Every column within a radius of a road is sampled exactly once, however many roads it is near:
+ * the columns are deduplicated first and then visited chunk by chunk, reading the chunk's heightmap
+ * and blocks directly. Light levels are read from the light sections' nibble arrays, fetched once
+ * per chunk section.
+ *
+ * The sample records the light above every road block, the columns a light post can stand in, and
+ * the existing light posts (a fence with a torch or lantern on top) near the roads.
+ */
+class LightSampleGrid {
+    private final ServerWorld world;
+    private final Long2ObjectOpenHashMap<ChunkNibbleArray[]> lightSections = new Long2ObjectOpenHashMap<>(); // Section -> {block, sky}
+    private final Long2IntOpenHashMap roadLight = new Long2IntOpenHashMap(); // Road block -> light level above it
+    private final Long2IntOpenHashMap postSpots = new Long2IntOpenHashMap(); // Column -> Y a light post's fence would go at
+    private final LongArrayList existingPosts = new LongArrayList(); // Fence positions of existing light posts
+
+    private LightSampleGrid(ServerWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Samples the columns around roads.
+     * @param world The server world
+     * @param roadKeys Packed positions of the road blocks
+     * @param spotRadius Distance from a road a light post may be placed at
+     * @param postRadius Distance from a road existing light posts are looked for at (at least spotRadius)
+     * @return The samples
+     */
+    static LightSampleGrid sample(ServerWorld world, LongSet roadKeys, int spotRadius, int postRadius) {
+        LightSampleGrid grid = new LightSampleGrid(world);
+
+        // Deduplicate the columns near roads, grouped by chunk
+        LongOpenHashSet columns = new LongOpenHashSet();
+        LongOpenHashSet spotColumns = new LongOpenHashSet();
+        Long2ObjectOpenHashMap<LongArrayList> columnsByChunk = new Long2ObjectOpenHashMap<>();
+        LongIterator roads = roadKeys.iterator();
+        while (roads.hasNext()) {
+            long road = roads.nextLong();
+            int roadX = BlockPos.unpackLongX(road);
+            int roadZ = BlockPos.unpackLongZ(road);
+            BlockPos above = BlockPos.fromLong(road).up();
+            grid.roadLight.put(road, grid.getLightLevel(above));
+
+            for (int dx = -postRadius; dx <= postRadius; dx++) {
+                for (int dz = -postRadius; dz <= postRadius; dz++) {
+                    int distanceSq = dx * dx + dz * dz;
+                    if (distanceSq > postRadius * postRadius) {
+                        continue;
+                    }
+                    int x = roadX + dx;
+                    int z = roadZ + dz;
+                    long column = ChunkPos.toLong(x, z);
+                    if (distanceSq <= spotRadius * spotRadius) {
+                        spotColumns.add(column);
+                    }
+                    if (columns.add(column)) {
+                        columnsByChunk.computeIfAbsent(ChunkPos.toLong(x >> 4, z >> 4), chunk -> new LongArrayList()).add(column);
+                    }
+                }
+            }
+        }
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (Long2ObjectMap.Entry<LongArrayList> entry : columnsByChunk.long2ObjectEntrySet()) {
+            long chunkKey = entry.getLongKey();
+            WorldChunk chunk = world.getChunkManager().getWorldChunk(ChunkPos.getPackedX(chunkKey), ChunkPos.getPackedZ(chunkKey));
+            if (chunk == null) {
+                continue; // Not loaded
+            }
+            Heightmap heightmap = chunk.getHeightmap(Heightmap.Type.WORLD_SURFACE);
+            LongArrayList chunkColumns = entry.getValue();
+            for (int i = 0; i < chunkColumns.size(); i++) {
+                long column = chunkColumns.getLong(i);
+                int x = ChunkPos.getPackedX(column);
+                int z = ChunkPos.getPackedZ(column);
+                int topY = heightmap.get(x & 15, z & 15); // First air block above the surface
+
+                // An existing light post is the top of its column
+                BlockState top = chunk.getBlockState(pos.set(x, topY - 1, z));
+                if (isLight(top) && chunk.getBlockState(pos.set(x, topY - 2, z)).isIn(BlockTags.WOODEN_FENCES)) {
+                    grid.existingPosts.add(BlockPos.asLong(x, topY - 2, z));
+                    continue;
+                }
+
+                if (spotColumns.contains(column) && canHoldPost(chunk, pos, x, topY, z)) {
+                    grid.postSpots.put(column, topY);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Gets the light level above each road block.
+     * @return Road block (BlockPos.asLong) -> light level
+     */
+    Long2IntOpenHashMap getRoadLight() {
+        return roadLight;
+    }
+
+    /**
+     * Gets the columns a light post can be placed in.
+     * @return Column (ChunkPos.toLong packing) -> Y of the post's fence
+     */
+    Long2IntOpenHashMap getPostSpots() {
+        return postSpots;
+    }
+
+    /**
+     * Gets the fence positions (BlockPos.asLong) of the existing light posts near the roads.
+     */
+    LongArrayList getExistingPosts() {
+        return existingPosts;
+    }
+
+    /**
+     * Reads the light level at a position from its section's nibble arrays.
+     * Same value as world.getLightLevel: the block light or the sky light less the ambient darkness.
+     */
+    private int getLightLevel(BlockPos pos) {
+        long sectionKey = ChunkSectionPos.toLong(pos);
+        ChunkNibbleArray[] sections = lightSections.get(sectionKey);
+        if (sections == null) {
+            ChunkSectionPos sectionPos = ChunkSectionPos.from(pos);
+            sections = new ChunkNibbleArray[] {
+                world.getLightingProvider().get(LightType.BLOCK).getLightSection(sectionPos),
+                world.getLightingProvider().get(LightType.SKY).getLightSection(sectionPos)
+            };
+            lightSections.put(sectionKey, sections);
+        }
+        if (sections[0] == null || sections[1] == null) {
+            // Sections without stored light (e.g. empty sky) are worked out by the lighting engine
+            return world.getLightLevel(pos);
+        }
+
+        int x = pos.getX() & 15;
+        int y = pos.getY() & 15;
+        int z = pos.getZ() & 15;
+        int skyLight = sections[1].get(x, y, z) - world.getAmbientDarkness();
+        return Math.max(sections[0].get(x, y, z), skyLight);
+    }
+
+    /**
+     * Checks if a light post (fence and torch) fits on top of a column: a free ground position on
+     * solid, dry ground with air above.
+     */
+    private static boolean canHoldPost(WorldChunk chunk, BlockPos.Mutable pos, int x, int groundY, int z) {
+        BlockState groundState = chunk.getBlockState(pos.set(x, groundY, z));
+        if (!groundState.isAir() && !groundState.isReplaceable()) {
+            return false; // Blocked
+        }
+        if (!chunk.getBlockState(pos.set(x, groundY + 1, z)).isAir()) {
+            return false; // Blocked above (can't place torch)
+        }
+        BlockState belowState = chunk.getBlockState(pos.set(x, groundY - 1, z));
+        if (belowState.isAir() || !belowState.isSolidBlock(chunk, pos)) {
+            return false; // No solid ground
+        }
+        // Check for water or lava
+        return !groundState.isOf(Blocks.WATER) && !groundState.isOf(Blocks.LAVA)
+            && !belowState.isOf(Blocks.WATER) && !belowState.isOf(Blocks.LAVA);
+    }
+
+    private static boolean isLight(BlockState state) {
+        return state.isOf(Blocks.TORCH) || state.isOf(Blocks.LANTERN)
+            || state.isOf(Blocks.SOUL_TORCH) || state.isOf(Blocks.SOUL_LANTERN);
+    }
+}
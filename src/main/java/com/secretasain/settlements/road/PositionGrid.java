@@ -0,0 +1,128 @@
+package com.secretasain.settlements.road;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * Packed block positions bucketed in a grid of square horizontal cells, for nearest-position queries
+ * that only look at nearby cells.
+ */
+class PositionGrid {
+    private final int cellSize;
+    private final Long2ObjectOpenHashMap<LongArrayList> cells = new Long2ObjectOpenHashMap<>();
+    private int size;
+
+    /**
+     * @param cellSize Cell size in blocks (horizontal)
+     */
+    PositionGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds a packed position (BlockPos.asLong). The caller makes sure it is not added twice.
+     */
+    void add(long key) {
+        cells.computeIfAbsent(getCellKey(key), cell -> new LongArrayList()).add(key);
+        size++;
+    }
+
+    /**
+     * Removes a packed position.
+     */
+    void remove(long key) {
+        long cellKey = getCellKey(key);
+        LongArrayList cell = cells.get(cellKey);
+        if (cell == null || !cell.rem(key)) {
+            return;
+        }
+        size--;
+        if (cell.isEmpty()) {
+            cells.remove(cellKey);
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Finds the nearest position by searching rings of cells outwards.
+     * The search stops once no unsearched cell can hold a closer position.
+     * @param pos The position to search from
+     * @param maxDistanceSq Maximum distance to search (squared)
+     * @return Nearest position, or null if none found within maxDistanceSq
+     */
+    BlockPos findNearest(BlockPos pos, double maxDistanceSq) {
+        if (size == 0) {
+            return null;
+        }
+
+        int centerX = Math.floorDiv(pos.getX(), cellSize);
+        int centerZ = Math.floorDiv(pos.getZ(), cellSize);
+        int maxRing = (int) Math.ceil(Math.sqrt(maxDistanceSq) / cellSize) + 1;
+        NearestSearch search = new NearestSearch(pos, maxDistanceSq);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Any position in this ring or beyond is at least (ring - 1) whole cells away horizontally
+            double ringMinDistance = Math.max(0, ring - 1) * (double) cellSize;
+            if (ringMinDistance * ringMinDistance > search.nearestDistanceSq) {
+                break;
+            }
+            if (ring == 0) {
+                searchCell(centerX, centerZ, search);
+                continue;
+            }
+            // Only the cells on this ring's border - inner cells were searched in earlier rings
+            for (int d = -ring; d <= ring; d++) {
+                searchCell(centerX + d, centerZ - ring, search);
+                searchCell(centerX + d, centerZ + ring, search);
+                if (d > -ring && d < ring) {
+                    searchCell(centerX - ring, centerZ + d, search);
+                    searchCell(centerX + ring, centerZ + d, search);
+                }
+            }
+        }
+        return search.found ? BlockPos.fromLong(search.nearest) : null;
+    }
+
+    /**
+     * Checks the positions in one cell against the nearest position found so far.
+     */
+    private void searchCell(int cellX, int cellZ, NearestSearch search) {
+        LongArrayList cell = cells.get(ChunkPos.toLong(cellX, cellZ));
+        if (cell == null) {
+            return;
+        }
+        for (int i = 0; i < cell.size(); i++) {
+            long key = cell.getLong(i);
+            double distanceSq = search.pos.getSquaredDistance(BlockPos.unpackLongX(key), BlockPos.unpackLongY(key), BlockPos.unpackLongZ(key));
+            if (distanceSq < search.nearestDistanceSq) {
+                search.nearestDistanceSq = distanceSq;
+                search.nearest = key;
+                search.found = true;
+            }
+        }
+    }
+
+    private long getCellKey(long key) {
+        return ChunkPos.toLong(Math.floorDiv(BlockPos.unpackLongX(key), cellSize), Math.floorDiv(BlockPos.unpackLongZ(key), cellSize));
+    }
+
+    /**
+     * State of a nearest-position query.
+     */
+    private static class NearestSearch {
+        final BlockPos pos;
+        double nearestDistanceSq;
+        long nearest;
+        boolean found;
+
+        NearestSearch(BlockPos pos, double maxDistanceSq) {
+            this.pos = pos;
+            this.nearestDistanceSq = maxDistanceSq;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.secretasain.settlements.road;
+
+import com.secretasain.settlements.SettlementsMod;
+import com.secretasain.settlements.pathfinding.VillagerNavigator;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A road segment a villager is turning into path blocks with a shovel.
+ * Jobs are saved with the settlement, so they survive restarts.
+ *
+ * The villager walks along the segment towards a point WALK_AHEAD blocks past its progress and
+ * converts every block of the segment within reach as it passes, up to MAX_BLOCKS_PER_BATCH per job
+ * tick. Navigation is only issued when that walk target changes (or the villager stopped short of it),
+ * and only the blocks being converted are read.
+ * A block the villager can't get within reach of in RoadPlacementConfig's target timeout (unreachable,
+ * or the villager keeps getting stuck) is skipped.
+ * Each job tracks the blocks it converted and the time it spent working, for a blocks/minute figure.
+ */
+public class RoadJob {
+    private static final double REACH_SQ = 4.0 * 4.0; // Villagers convert blocks within 4 blocks
+    private static final int MAX_BLOCKS_PER_BATCH = 4; // Blocks converted per job tick
+    private static final int WALK_AHEAD = 6; // Blocks of the segment to walk ahead of the progress
+
+    private final UUID villagerId;
+    private final List<BlockPos> positions; // Ground positions, in order
+    private int currentIndex;
+    private int blocksConverted;
+    private long workingTicks; // Ticks spent with the villager loaded and working
+    private BlockPos walkTarget; // Last navigation target (not saved - re-issued after a restart)
+    private int ticksOnTarget; // Ticks spent without reaching the current block (not saved)
+
+    /**
+     * @param villagerId The villager doing the job
+     * @param positions Ground positions of the segment, in the order to convert them
+     */
+    public RoadJob(UUID villagerId, List<BlockPos> positions) {
+        this.villagerId = villagerId;
+        this.positions = positions;
+    }
+
+    /**
+     * Advances the job.
+     * @param world The server world
+     * @param villager The villager doing the job (loaded)
+     * @param elapsedTicks Ticks since the previous update
+     * @return Number of blocks converted in this update
+     */
+    public int tick(ServerWorld world, VillagerEntity villager, int elapsedTicks) {
+        workingTicks += elapsedTicks;
+        int converted = 0;
+
+        // Convert the blocks within reach, in order
+        while (currentIndex < positions.size() && converted < MAX_BLOCKS_PER_BATCH) {
+            BlockPos pos = positions.get(currentIndex);
+            if (villager.squaredDistanceTo(pos.getX() + 0.5, pos.getY() + 1, pos.getZ() + 0.5) > REACH_SQ) {
+                break;
+            }
+            if (convert(world, villager, pos)) {
+                converted++;
+            }
+            currentIndex++;
+            ticksOnTarget = 0;
+        }
+        blocksConverted += converted;
+
+        // Give up on a block the villager can't get to
+        if (!isComplete()) {
+            ticksOnTarget += elapsedTicks;
+            if (ticksOnTarget >= RoadPlacementConfig.getTargetTimeoutTicks()) {
+                SettlementsMod.LOGGER.debug("Road placement: Villager {} could not reach {} - skipping it",
+                    villagerId, positions.get(currentIndex));
+                currentIndex++;
+                ticksOnTarget = 0;
+            }
+        }
+
+        if (isComplete()) {
+            return converted;
+        }
+
+        // Walk along the segment; only re-issue navigation for a new target or after stopping short
+        BlockPos target = positions.get(Math.min(currentIndex + WALK_AHEAD, positions.size() - 1)).up();
+        if (!target.equals(walkTarget) || villager.getNavigation().isIdle()) {
+            walkTarget = target;
+            VillagerNavigator.moveTo(villager, target.getX() + 0.5, target.getY(), target.getZ() + 0.5, 0.6);
+        }
+        return converted;
+    }
+
+    /**
+     * Turns one ground block into a path block if a shovel can.
+     * @return true if the block was converted
+     */
+    private boolean convert(ServerWorld world, VillagerEntity villager, BlockPos pos) {
+        BlockState state = world.getBlockState(pos);
+        // Don't convert blocks that aren't grass/dirt (stone, stairs, existing paths, etc.)
+        if (!state.isOf(Blocks.GRASS_BLOCK) && !state.isOf(Blocks.DIRT)
+            && !state.isOf(Blocks.COARSE_DIRT) && !state.isOf(Blocks.PODZOL)) {
+            return false;
+        }
+        // Same rule as using a shovel: the block above must be air
+        if (!world.getBlockState(pos.up()).isAir()) {
+            return false;
+        }
+
+        // Give villager a shovel if they don't have one
+        if (!hasShovel(villager)) {
+            villager.getInventory().addStack(new ItemStack(Items.IRON_SHOVEL));
+        }
+
+        world.setBlockState(pos, Blocks.DIRT_PATH.getDefaultState(), 3); // 3 = NOTIFY_NEIGHBORS | BLOCK_UPDATE
+        world.playSound(null, pos,
+            net.minecraft.sound.SoundEvents.ITEM_SHOVEL_FLATTEN,
+            net.minecraft.sound.SoundCategory.BLOCKS, 1.0f, 1.0f);
+        world.spawnParticles(
+            new net.minecraft.particle.BlockStateParticleEffect(net.minecraft.particle.ParticleTypes.BLOCK, state),
+            pos.getX() + 0.5, pos.getY() + 1.0, pos.getZ() + 0.5,
+            10, 0.2, 0.1, 0.2, 0.1);
+        return true;
+    }
+
+    private static boolean hasShovel(VillagerEntity villager) {
+        for (int i = 0; i < villager.getInventory().size(); i++) {
+            if (villager.getInventory().getStack(i).getItem() instanceof net.minecraft.item.ShovelItem) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public UUID getVillagerId() {
+        return villagerId;
+    }
+
+    /**
+     * Gets the positions not converted yet.
+     */
+    public List<BlockPos> getRemainingPositions() {
+        return new ArrayList<>(positions.subList(Math.min(currentIndex, positions.size()), positions.size()));
+    }
+
+    public List<BlockPos> getPositions() {
+        return positions;
+    }
+
+    public boolean isComplete() {
+        return currentIndex >= positions.size();
+    }
+
+    /**
+     * Gets the current progress (0.0 to 1.0).
+     */
+    public double getProgress() {
+        if (positions.isEmpty()) {
+            return 1.0;
+        }
+        return (double) currentIndex / positions.size();
+    }
+
+    public int getBlocksConverted() {
+        return blocksConverted;
+    }
+
+    public long getWorkingTicks() {
+        return workingTicks;
+    }
+
+    /**
+     * Gets the job's throughput.
+     * @return Blocks converted per minute of work (1200 ticks), or 0 before any work
+     */
+    public double getBlocksPerMinute() {
+        if (workingTicks == 0) {
+            return 0.0;
+        }
+        return blocksConverted * 1200.0 / workingTicks;
+    }
+
+    /**
+     * Serializes this job to NBT.
+     */
+    public NbtCompound toNbt() {
+        NbtCompound nbt = new NbtCompound();
+        nbt.putUuid("villagerId", villagerId);
+        long[] packedPositions = new long[positions.size()];
+        for (int i = 0; i < packedPositions.length; i++) {
+            packedPositions[i] = positions.get(i).asLong();
+        }
+        nbt.putLongArray("positions", packedPositions);
+        nbt.putInt("currentIndex", currentIndex);
+        nbt.putInt("blocksConverted", blocksConverted);
+        nbt.putLong("workingTicks", workingTicks);
+        return nbt;
+    }
+
+    /**
+     * Creates a job from NBT data.
+     */
+    public static RoadJob fromNbt(NbtCompound nbt) {
+        List<BlockPos> positions = new ArrayList<>();
+        for (long packedPos : nbt.getLongArray("positions")) {
+            positions.add(BlockPos.fromLong(packedPos));
+        }
+        RoadJob job = new RoadJob(nbt.getUuid("villagerId"), positions);
+        job.currentIndex = nbt.getInt("currentIndex");
+        job.blocksConverted = nbt.getInt("blocksConverted");
+        job.workingTicks = nbt.getLong("workingTicks");
+        return job;
+    }
+}
@@ -0,0 +1,339 @@
+package com.secretasain.settlements.road;
+
+import com.secretasain.settlements.SettlementsMod;
+import com.secretasain.settlements.settlement.Building;
+import com.secretasain.settlements.settlement.Settlement;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plans a settlement's road layout as a whole.
+ * The layout is grown like Prim's minimum spanning tree over the settlement's terminals (the lectern
+ * and one door per completed building): the tree starts as the lectern plus the existing roads, and
+ * the terminal closest to the tree is connected next, to the nearest point of the tree, by a
+ * terrain-cost RoadPathSearch. Since new roads may join the tree anywhere - not only at other
+ * terminals - the result is a Steiner-style network without overlapping parallel roads.
+ *
+ * Each connection becomes a road segment in the plan's work list, in the order the tree grew, so
+ * the roads nearest the center are built first and several workers can take segments in parallel.
+ * Buildings are planned once; the plan only grows when new buildings are completed. A door no road
+ * could be found from is retried after FAILED_RETRY_TICKS, since the terrain may have changed.
+ *
+ * Planning runs in three stages: the terrain around the settlement is copied into a
+ * RoadTerrainSnapshot on the server thread, the searches for all pending terminals run on a small
+ * worker pool against that snapshot and a copy of the tree, and the finished segments are applied
+ * back to the plan on the server thread (tick).
+ */
+public class RoadLayoutPlanner {
+    private static final int TREE_CELL_SIZE = 16; // Grid cell size for nearest-tree queries
+    private static final double MAX_CONNECT_DISTANCE = 64.0; // Terminals farther than this from the tree wait for it to grow
+    private static final int MAX_SEARCH_NODES = 16384; // Enough for a winding 256-block road
+    private static final int SNAPSHOT_MARGIN = 16; // Blocks beyond the settlement radius roads may run through
+    private static final int MAX_SNAPSHOTS_PER_TICK = 1; // Terrain captures per world per tick
+    private static final long FAILED_RETRY_TICKS = 6000; // Retry doors no road was found from after 5 minutes
+    private static final int WORKER_THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    // Plans per settlement
+    private static final Map<UUID, RoadLayoutPlan> PLANS = new HashMap<>();
+
+    private static ExecutorService executor; // Created on first use
+
+    /**
+     * Road layout of a single settlement. Only touched on the server thread.
+     */
+    private static class RoadLayoutPlan {
+        final Settlement settlement;
+        final RegistryKey<World> worldKey;
+        final Set<UUID> plannedBuildings = new HashSet<>();
+        final List<BlockPos> pendingTerminals = new ArrayList<>(); // Doors not yet connected
+        final List<BlockPos> failedTerminals = new ArrayList<>(); // Doors no road was found from, retried later
+        long retryFailedAt; // World time the failed doors are retried at
+        final LongOpenHashSet tree = new LongOpenHashSet(); // Ground positions of existing and planned roads
+        final Deque<List<BlockPos>> workList = new ArrayDeque<>(); // Segments not yet handed to a worker
+        Future<PlanningResult> running; // Planning job on the worker pool
+        boolean stalled; // No pending terminal is close enough to the tree
+
+        RoadLayoutPlan(Settlement settlement, RegistryKey<World> worldKey) {
+            this.settlement = settlement;
+            this.worldKey = worldKey;
+        }
+    }
+
+    /**
+     * Output of a planning job.
+     */
+    private static class PlanningResult {
+        final List<List<BlockPos>> segments = new ArrayList<>(); // In the order they joined the tree
+        final List<BlockPos> unconnected = new ArrayList<>(); // Terminals too far from the tree
+        final List<BlockPos> failed = new ArrayList<>(); // Terminals no road could be found from
+    }
+
+    /**
+     * Adds newly completed buildings to a settlement's plan, creating the plan on first use.
+     * @param settlement The settlement
+     * @param world The server world
+     * @param server The Minecraft server (for structure loading)
+     */
+    public static void update(Settlement settlement, ServerWorld world, MinecraftServer server) {
+        if (settlement.getLecternPos() == null) {
+            return;
+        }
+
+        RoadLayoutPlan plan = PLANS.get(settlement.getId());
+        if (plan == null || plan.settlement != settlement) {
+            // New, or the settlement was reloaded
+            if (plan != null && plan.running != null) {
+                plan.running.cancel(true);
+            }
+            plan = new RoadLayoutPlan(settlement, world.getRegistryKey());
+            PLANS.put(settlement.getId(), plan);
+
+            // The tree starts as the lectern, the existing roads and the roads villagers are building
+            plan.tree.add(settlement.getLecternPos().down().asLong());
+            plan.tree.addAll(RoadNetwork.get(settlement, world).getRoadKeys());
+            for (RoadJob job : settlement.getRoadJobs()) {
+                for (BlockPos pos : job.getPositions()) {
+                    plan.tree.add(pos.asLong());
+                }
+            }
+        }
+
+        for (Building building : settlement.getBuildings()) {
+            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED
+                || plan.plannedBuildings.contains(building.getId())) {
+                continue;
+            }
+            plan.plannedBuildings.add(building.getId());
+            BlockPos door = findTerminalDoor(building, server, settlement.getLecternPos());
+            if (door != null) { // Buildings without doors get no road
+                plan.pendingTerminals.add(door);
+                plan.stalled = false;
+            }
+        }
+    }
+
+    /**
+     * Takes the next road segment to build.
+     * @param settlement The settlement
+     * @return Ground positions of the segment, ordered from the building towards the tree, or null if none is ready
+     */
+    public static List<BlockPos> pollSegment(Settlement settlement) {
+        RoadLayoutPlan plan = PLANS.get(settlement.getId());
+        if (plan == null || plan.settlement != settlement) {
+            return null;
+        }
+        return plan.workList.poll();
+    }
+
+    /**
+     * Puts the unbuilt rest of a segment back, to be handed out next.
+     * @param settlement The settlement
+     * @param positions Ground positions not converted yet, in order
+     */
+    public static void returnSegment(Settlement settlement, List<BlockPos> positions) {
+        RoadLayoutPlan plan = PLANS.get(settlement.getId());
+        if (plan == null || plan.settlement != settlement || positions.isEmpty()) {
+            return; // Without a plan the positions are replanned from scratch
+        }
+        plan.workList.addFirst(positions);
+    }
+
+    /**
+     * Applies finished planning jobs and starts new ones for the world's settlements.
+     * @param world The server world
+     */
+    public static void tick(ServerWorld world) {
+        int snapshots = 0;
+        for (RoadLayoutPlan plan : PLANS.values()) {
+            if (plan.worldKey != world.getRegistryKey()) {
+                continue;
+            }
+
+            if (plan.running != null) {
+                if (plan.running.isDone()) {
+                    applyResult(plan, world.getTime());
+                }
+                continue; // One job per settlement at a time
+            }
+
+            if (!plan.failedTerminals.isEmpty() && world.getTime() >= plan.retryFailedAt) {
+                plan.pendingTerminals.addAll(plan.failedTerminals);
+                plan.failedTerminals.clear();
+                plan.stalled = false;
+            }
+
+            if (plan.stalled || plan.pendingTerminals.isEmpty() || plan.settlement.isAbstractSimulated()
+                || snapshots >= MAX_SNAPSHOTS_PER_TICK) {
+                continue;
+            }
+            startPlanning(plan, world);
+            snapshots++;
+        }
+    }
+
+    /**
+     * Stops the worker pool and forgets all plans (server stopping).
+     */
+    public static void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        PLANS.clear();
+    }
+
+    /**
+     * Captures the settlement's terrain and hands the pending terminals to the worker pool.
+     */
+    private static void startPlanning(RoadLayoutPlan plan, ServerWorld world) {
+        BlockPos center = plan.settlement.getLecternPos();
+        int extent = plan.settlement.getRadius() + SNAPSHOT_MARGIN;
+        RoadTerrainSnapshot terrain = RoadTerrainSnapshot.capture(world,
+            center.getX() - extent, center.getZ() - extent, center.getX() + extent, center.getZ() + extent);
+
+        // The job works on copies, so the plan stays owned by the server thread
+        List<BlockPos> terminals = new ArrayList<>(plan.pendingTerminals);
+        LongOpenHashSet tree = new LongOpenHashSet(plan.tree);
+        plan.pendingTerminals.clear();
+        plan.running = getExecutor().submit(() -> connectTerminals(terminals, tree, terrain));
+    }
+
+    /**
+     * Connects terminals to the tree, closest first. Runs on the worker pool.
+     */
+    private static PlanningResult connectTerminals(List<BlockPos> terminals, LongOpenHashSet tree, RoadTerrainSnapshot terrain) {
+        PlanningResult result = new PlanningResult();
+        PositionGrid treeGrid = new PositionGrid(TREE_CELL_SIZE);
+        LongIterator iterator = tree.iterator();
+        while (iterator.hasNext()) {
+            treeGrid.add(iterator.nextLong());
+        }
+
+        while (!terminals.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            // Pick the terminal closest to the tree
+            int bestIndex = -1;
+            BlockPos bestTarget = null;
+            double bestDistanceSq = MAX_CONNECT_DISTANCE * MAX_CONNECT_DISTANCE;
+            for (int i = 0; i < terminals.size(); i++) {
+                BlockPos terminal = terminals.get(i);
+                BlockPos target = treeGrid.findNearest(terminal, bestDistanceSq);
+                if (target != null) {
+                    bestDistanceSq = terminal.getSquaredDistance(target);
+                    bestIndex = i;
+                    bestTarget = target;
+                }
+            }
+            if (bestIndex < 0) {
+                result.unconnected.addAll(terminals); // Too far from the tree until new buildings are added
+                break;
+            }
+            BlockPos terminal = terminals.remove(bestIndex);
+
+            // Tree positions are ground blocks; the search ends standing on top of one
+            // Off the server thread, so the search runs to completion in one step
+            RoadPathSearch search = new RoadPathSearch(terminal, bestTarget.up(), terrain, MAX_SEARCH_NODES);
+            if (search.step(Integer.MAX_VALUE, Long.MAX_VALUE) != RoadPathSearch.Status.FOUND) {
+                result.failed.add(terminal);
+                continue;
+            }
+
+            // Cut the path where it first meets the tree, so it never runs alongside an existing road
+            List<BlockPos> segment = new ArrayList<>();
+            for (BlockPos pos : search.getPath()) {
+                if (tree.contains(pos.asLong())) {
+                    break;
+                }
+                segment.add(pos);
+            }
+            for (BlockPos pos : segment) {
+                if (tree.add(pos.asLong())) {
+                    treeGrid.add(pos.asLong());
+                }
+            }
+            if (!segment.isEmpty()) {
+                result.segments.add(segment);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds a finished job's segments to the plan's tree and work list.
+     */
+    private static void applyResult(RoadLayoutPlan plan, long worldTime) {
+        Future<PlanningResult> running = plan.running;
+        plan.running = null;
+        PlanningResult result;
+        try {
+            result = running.get();
+        } catch (CancellationException e) {
+            return;
+        } catch (InterruptedException | ExecutionException e) {
+            SettlementsMod.LOGGER.warn("Road layout planning failed for settlement {}", plan.settlement.getName(), e);
+            return;
+        }
+
+        for (List<BlockPos> segment : result.segments) {
+            for (BlockPos pos : segment) {
+                plan.tree.add(pos.asLong());
+            }
+            plan.workList.add(segment);
+        }
+        // Terminals added while the job ran may still connect; the leftovers alone wait for new buildings
+        plan.stalled = plan.pendingTerminals.isEmpty();
+        plan.pendingTerminals.addAll(result.unconnected);
+        if (!result.failed.isEmpty()) {
+            plan.failedTerminals.addAll(result.failed);
+            plan.retryFailedAt = worldTime + FAILED_RETRY_TICKS;
+        }
+
+        SettlementsMod.LOGGER.debug("Road layout for settlement {}: {} new segments, {} doors too far, {} doors unreachable",
+            plan.settlement.getName(), result.segments.size(), result.unconnected.size(), result.failed.size());
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "Settlements Road Planner #" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the doorway of a building closest to the lectern (the lower door half, where a villager stands).
+     */
+    private static BlockPos findTerminalDoor(Building building, MinecraftServer server, BlockPos lecternPos) {
+        List<BlockPos> doors = BuildingDoorDetector.findDoors(building, server);
+        Set<BlockPos> doorSet = new HashSet<>(doors);
+        BlockPos best = null;
+        double bestDistanceSq = Double.MAX_VALUE;
+        for (BlockPos door : doors) {
+            if (doorSet.contains(door.down())) {
+                continue; // Upper door half
+            }
+            double distanceSq = door.getSquaredDistance(lecternPos);
+            if (distanceSq < bestDistanceSq) {
+                best = door;
+                bestDistanceSq = distanceSq;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,247 @@
+package com.secretasain.settlements.road;
+
+import com.secretasain.settlements.SettlementsMod;
+import com.secretasain.settlements.settlement.Settlement;
+import com.secretasain.settlements.settlement.SettlementManager;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.*;
+
+/**
+ * Per-settlement graph of road (path) blocks.
+ * The road blocks themselves are saved with the settlement (Settlement.getRoads). They are seeded
+ * once by scanning the chunk sections in the settlement radius that contain path blocks - chunk by
+ * chunk as they are loaded - and afterwards kept current from block change events (ServerWorldMixin).
+ *
+ * Roads are bucketed in a grid of CELL_SIZE x CELL_SIZE columns, so nearest-road queries only look at
+ * nearby cells. Edges are not stored: two road blocks are connected when they are horizontally
+ * adjacent and at most one block apart in height, which is derived from the position set on demand.
+ */
+public class RoadNetwork {
+    private static final int CELL_SIZE = 16; // Grid cell size in blocks (horizontal)
+
+    // Networks per settlement
+    private static final Map<UUID, RoadNetwork> NETWORKS = new HashMap<>();
+
+    private final Settlement settlement;
+    private final PositionGrid grid = new PositionGrid(CELL_SIZE);
+    private LongOpenHashSet pendingChunks; // Chunks the seed scan has not reached yet (null if not scanning)
+
+    private RoadNetwork(Settlement settlement) {
+        this.settlement = settlement;
+        LongIterator iterator = settlement.getRoads().iterator();
+        while (iterator.hasNext()) {
+            grid.add(iterator.nextLong());
+        }
+    }
+
+    /**
+     * Gets a settlement's road network, continuing the seed scan over newly loaded chunks if it has
+     * not completed yet.
+     * @param settlement The settlement
+     * @param world The server world
+     * @return The road network
+     */
+    public static RoadNetwork get(Settlement settlement, ServerWorld world) {
+        RoadNetwork network = NETWORKS.get(settlement.getId());
+        if (network == null || network.settlement != settlement) {
+            // New, or the settlement was reloaded
+            network = new RoadNetwork(settlement);
+            NETWORKS.put(settlement.getId(), network);
+        }
+        if (!settlement.isRoadsScanned()) {
+            network.continueSeedScan(world);
+        }
+        return network;
+    }
+
+    /**
+     * Forgets all networks (server stopping). They are rebuilt from the settlements' saved roads.
+     */
+    public static void clear() {
+        NETWORKS.clear();
+    }
+
+    /**
+     * Records path blocks placed or removed inside a settlement.
+     * Called for every block change in a server world, so non-path changes return at once.
+     */
+    public static void onBlockChanged(ServerWorld world, BlockPos pos, BlockState oldState, BlockState newState) {
+        boolean wasRoad = oldState.isOf(Blocks.DIRT_PATH);
+        boolean isRoad = newState.isOf(Blocks.DIRT_PATH);
+        if (wasRoad == isRoad) {
+            return;
+        }
+
+        SettlementManager manager = SettlementManager.getInstance(world);
+        Settlement settlement = manager.findSettlementAt(pos);
+        if (settlement == null) {
+            return;
+        }
+
+        long key = pos.asLong();
+        RoadNetwork network = NETWORKS.get(settlement.getId());
+        if (network != null && network.settlement != settlement) {
+            network = null; // Stale - rebuilt from the settlement's roads on next use
+        }
+        if (isRoad) {
+            if (settlement.getRoads().add(key) && network != null) {
+                network.grid.add(key);
+            }
+        } else if (settlement.getRoads().remove(key) && network != null) {
+            network.grid.remove(key);
+        }
+        manager.markDirty();
+    }
+
+    /**
+     * Checks if a position is a road block.
+     */
+    public boolean isRoad(BlockPos pos) {
+        return settlement.getRoads().contains(pos.asLong());
+    }
+
+    /**
+     * Gets the number of road blocks.
+     */
+    public int getRoadCount() {
+        return settlement.getRoads().size();
+    }
+
+    /**
+     * Gets the packed positions (BlockPos.asLong) of all road blocks.
+     * @return Read-only view of the road positions
+     */
+    public LongSet getRoadKeys() {
+        return LongSets.unmodifiable(settlement.getRoads());
+    }
+
+    /**
+     * Gets all road block positions.
+     * @return A new set of road positions
+     */
+    public Set<BlockPos> getRoadPositions() {
+        Set<BlockPos> positions = new HashSet<>(settlement.getRoads().size() * 2);
+        LongIterator iterator = settlement.getRoads().iterator();
+        while (iterator.hasNext()) {
+            positions.add(BlockPos.fromLong(iterator.nextLong()));
+        }
+        return positions;
+    }
+
+    /**
+     * Gets the road blocks connected to a road block (horizontally adjacent, at most one block up or down).
+     */
+    public List<BlockPos> getConnectedRoads(BlockPos road) {
+        List<BlockPos> connected = new ArrayList<>(4);
+        LongOpenHashSet roads = settlement.getRoads();
+        for (Direction direction : Direction.Type.HORIZONTAL) {
+            for (int dy = -1; dy <= 1; dy++) {
+                long key = BlockPos.asLong(road.getX() + direction.getOffsetX(), road.getY() + dy, road.getZ() + direction.getOffsetZ());
+                if (roads.contains(key)) {
+                    connected.add(BlockPos.fromLong(key));
+                }
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * Finds the nearest road block to a position, looking only at nearby grid cells.
+     * @param pos The position to search from
+     * @param maxDistanceSq Maximum distance to search (squared)
+     * @return Nearest road position, or null if none found within maxDistanceSq
+     */
+    public BlockPos findNearestRoad(BlockPos pos, double maxDistanceSq) {
+        return grid.findNearest(pos, maxDistanceSq);
+    }
+
+    /**
+     * Scans the loaded chunks the seed scan has not reached yet.
+     * Only chunk sections whose palette contains path blocks are read block by block.
+     */
+    private void continueSeedScan(ServerWorld world) {
+        BlockPos center = settlement.getLecternPos();
+        if (center == null) {
+            return;
+        }
+        if (pendingChunks == null) {
+            pendingChunks = new LongOpenHashSet();
+            int radius = settlement.getRadius();
+            for (int chunkX = (center.getX() - radius) >> 4; chunkX <= (center.getX() + radius) >> 4; chunkX++) {
+                for (int chunkZ = (center.getZ() - radius) >> 4; chunkZ <= (center.getZ() + radius) >> 4; chunkZ++) {
+                    pendingChunks.add(ChunkPos.toLong(chunkX, chunkZ));
+                }
+            }
+        }
+
+        int before = settlement.getRoads().size();
+        LongIterator iterator = pendingChunks.iterator();
+        while (iterator.hasNext()) {
+            long chunkKey = iterator.nextLong();
+            WorldChunk chunk = world.getChunkManager().getWorldChunk(ChunkPos.getPackedX(chunkKey), ChunkPos.getPackedZ(chunkKey));
+            if (chunk == null) {
+                continue; // Not loaded - scanned when it is
+            }
+            scanChunk(chunk);
+            iterator.remove();
+        }
+
+        boolean changed = settlement.getRoads().size() != before;
+        if (pendingChunks.isEmpty()) {
+            pendingChunks = null;
+            settlement.setRoadsScanned(true);
+            changed = true;
+            SettlementsMod.LOGGER.debug("Road network for settlement {} seeded: {} road blocks",
+                settlement.getName(), settlement.getRoads().size());
+        }
+        if (changed) {
+            SettlementManager.getInstance(world).markDirty();
+        }
+    }
+
+    private void scanChunk(WorldChunk chunk) {
+        BlockPos center = settlement.getLecternPos();
+        double radiusSq = (double) settlement.getRadius() * settlement.getRadius();
+        int startX = chunk.getPos().getStartX();
+        int startZ = chunk.getPos().getStartZ();
+        ChunkSection[] sections = chunk.getSectionArray();
+
+        for (int index = 0; index < sections.length; index++) {
+            ChunkSection section = sections[index];
+            if (section.isEmpty() || !section.getBlockStateContainer().hasAny(state -> state.isOf(Blocks.DIRT_PATH))) {
+                continue;
+            }
+            int startY = ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(index));
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (!section.getBlockState(x, y, z).isOf(Blocks.DIRT_PATH)) {
+                            continue;
+                        }
+                        // Same bounds as Settlement.isWithinBounds
+                        if (center.getSquaredDistance(startX + x, startY + y, startZ + z) > radiusSq) {
+                            continue;
+                        }
+                        long key = BlockPos.asLong(startX + x, startY + y, startZ + z);
+                        if (settlement.getRoads().add(key)) {
+                            grid.add(key);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.secretasain.settlements.road;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A resumable A* search for a road between two positions.
+ * Nodes are terrain columns: each (x, z) column is visited at its ground height (from a
+ * RoadTerrainSnapshot), so roads follow slopes. A step may climb or drop at most MAX_STEP_HEIGHT
+ * blocks and costs CLIMB_COST extra per block of height change; stepping onto a surface that can't
+ * be turned into a path costs OTHER_SURFACE_COST extra.
+ *
+ * Node data lives in parallel primitive arrays indexed by node id, columns are keyed by packed longs,
+ * and the open set is a binary heap with an index per node, so decrease-key is O(log n).
+ * The search runs in steps bounded by a node count and a time budget (see step), so callers can
+ * spread a long road over several ticks; the total number of nodes is capped by maxNodes.
+ * The search only reads its snapshot, so it may run off the server thread.
+ */
+public class RoadPathSearch {
+    private static final double STEP_COST = 1.0;
+    private static final double CLIMB_COST = 2.0; // Extra cost per block of height change
+    private static final double OTHER_SURFACE_COST = 1.0; // Extra cost for stone, sand, etc.
+    private static final int MAX_STEP_HEIGHT = 1; // Villagers can step up or down one block
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int NOT_IN_HEAP = -1;
+    private static final int CLOSED = -2;
+    private static final int[] DIRECTION_X = {0, 0, 1, -1};
+    private static final int[] DIRECTION_Z = {-1, 1, 0, 0};
+
+    /**
+     * State of a search.
+     */
+    public enum Status {
+        SEARCHING,
+        FOUND,
+        FAILED
+    }
+
+    private final RoadTerrainSnapshot terrain;
+    private final int endX;
+    private final int endZ;
+    private final int endGroundY;
+    private final int maxNodes;
+
+    // Node data, indexed by node id
+    private long[] nodeColumn;
+    private int[] nodeY;
+    private double[] nodeG;
+    private double[] nodeF;
+    private int[] nodeParent;
+    private int[] nodeHeapIndex; // Index in the heap, NOT_IN_HEAP or CLOSED
+    private int nodeCount;
+
+    private final Long2IntOpenHashMap nodeIds = new Long2IntOpenHashMap(); // Column -> node id
+    private final LongOpenHashSet blockedColumns = new LongOpenHashSet(); // Columns checked and unusable
+
+    private int[] heap;
+    private int heapSize;
+
+    private Status status = Status.SEARCHING;
+    private List<BlockPos> path = Collections.emptyList();
+
+    /**
+     * Creates a search.
+     * @param start Starting position (where a villager stands, e.g. in a doorway)
+     * @param end Ending position (where a villager stands, e.g. on a road or next to the lectern)
+     * @param terrain Terrain covering the area the road may run through
+     * @param maxNodes Maximum number of nodes the search may create before it fails
+     */
+    public RoadPathSearch(BlockPos start, BlockPos end, RoadTerrainSnapshot terrain, int maxNodes) {
+        this.terrain = terrain;
+        this.endX = end.getX();
+        this.endZ = end.getZ();
+        this.endGroundY = end.getY() - 1;
+        this.maxNodes = maxNodes;
+
+        int capacity = Math.min(INITIAL_CAPACITY, Math.max(1, maxNodes));
+        nodeColumn = new long[capacity];
+        nodeY = new int[capacity];
+        nodeG = new double[capacity];
+        nodeF = new double[capacity];
+        nodeParent = new int[capacity];
+        nodeHeapIndex = new int[capacity];
+        heap = new int[capacity];
+        nodeIds.defaultReturnValue(-1);
+
+        // The start and end columns may be covered or hold a non-solid block (a doorway, the lectern), so
+        // their heights come from the given positions instead of the heightmap: the ground is the block
+        // below where the villager stands
+        int startNode = addNode(start.getX(), start.getZ(), start.getY() - 1, 0.0, -1);
+        push(startNode);
+    }
+
+    /**
+     * Runs the search until it finishes or a budget for this step runs out.
+     * @param maxExpansions Maximum number of nodes to expand in this step
+     * @param maxNanos Maximum time to spend in this step, in nanoseconds
+     * @return The search status after this step
+     */
+    public Status step(int maxExpansions, long maxNanos) {
+        if (status != Status.SEARCHING) {
+            return status;
+        }
+
+        long deadline = System.nanoTime() + maxNanos;
+        for (int expanded = 0; expanded < maxExpansions; expanded++) {
+            if (heapSize == 0) {
+                status = Status.FAILED; // Every reachable column explored
+                return status;
+            }
+            // Checking the clock every few nodes is enough
+            if ((expanded & 15) == 15 && System.nanoTime() - deadline > 0) {
+                break;
+            }
+
+            int current = pop();
+            nodeHeapIndex[current] = CLOSED;
+            int x = ChunkPos.getPackedX(nodeColumn[current]);
+            int z = ChunkPos.getPackedZ(nodeColumn[current]);
+            if (x == endX && z == endZ) {
+                path = reconstructPath(current);
+                status = Status.FOUND;
+                return status;
+            }
+
+            for (int direction = 0; direction < 4; direction++) {
+                if (!expandNeighbor(current, x + DIRECTION_X[direction], z + DIRECTION_Z[direction])) {
+                    status = Status.FAILED; // Node budget exhausted
+                    return status;
+                }
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Gets the search status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the ground positions of the road, from start to end.
+     * Empty unless the status is FOUND.
+     */
+    public List<BlockPos> getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the number of nodes the search created so far.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Relaxes the edge from a node to a neighboring column.
+     * @return false if the node budget is exhausted
+     */
+    private boolean expandNeighbor(int current, int x, int z) {
+        long column = ChunkPos.toLong(x, z);
+        int neighbor = nodeIds.get(column);
+        if (neighbor >= 0 && nodeHeapIndex[neighbor] == CLOSED) {
+            return true;
+        }
+
+        int groundY;
+        if (neighbor >= 0) {
+            groundY = nodeY[neighbor];
+        } else if (x == endX && z == endZ) {
+            groundY = endGroundY;
+        } else {
+            if (blockedColumns.contains(column)) {
+                return true;
+            }
+            groundY = terrain.getGroundY(x, z);
+            if (groundY == RoadTerrainSnapshot.UNUSABLE) {
+                blockedColumns.add(column);
+                return true;
+            }
+        }
+
+        int climb = Math.abs(groundY - nodeY[current]);
+        if (climb > MAX_STEP_HEIGHT) {
+            return true; // Not blocked - may be reachable from another side
+        }
+        double g = nodeG[current] + STEP_COST + climb * CLIMB_COST;
+        if (terrain.getSurface(x, z) == RoadTerrainSnapshot.SURFACE_OTHER) {
+            g += OTHER_SURFACE_COST;
+        }
+
+        if (neighbor < 0) {
+            if (nodeCount >= maxNodes) {
+                return false;
+            }
+            push(addNode(x, z, groundY, g, current));
+        } else if (g < nodeG[neighbor]) {
+            nodeG[neighbor] = g;
+            nodeF[neighbor] = g + heuristic(x, z);
+            nodeParent[neighbor] = current;
+            if (nodeHeapIndex[neighbor] == NOT_IN_HEAP) {
+                push(neighbor);
+            } else {
+                siftUp(nodeHeapIndex[neighbor]);
+            }
+        }
+        return true;
+    }
+
+    private double heuristic(int x, int z) {
+        // Manhattan distance - every step costs at least STEP_COST
+        return (Math.abs(x - endX) + Math.abs(z - endZ)) * STEP_COST;
+    }
+
+    private int addNode(int x, int z, int y, double g, int parent) {
+        if (nodeCount == nodeColumn.length) {
+            int capacity = nodeCount * 2;
+            nodeColumn = Arrays.copyOf(nodeColumn, capacity);
+            nodeY = Arrays.copyOf(nodeY, capacity);
+            nodeG = Arrays.copyOf(nodeG, capacity);
+            nodeF = Arrays.copyOf(nodeF, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeHeapIndex = Arrays.copyOf(nodeHeapIndex, capacity);
+        }
+
+        int node = nodeCount++;
+        long column = ChunkPos.toLong(x, z);
+        nodeColumn[node] = column;
+        nodeY[node] = y;
+        nodeG[node] = g;
+        nodeF[node] = g + heuristic(x, z);
+        nodeParent[node] = parent;
+        nodeHeapIndex[node] = NOT_IN_HEAP;
+        nodeIds.put(column, node);
+        return node;
+    }
+
+    private List<BlockPos> reconstructPath(int goal) {
+        List<BlockPos> result = new ArrayList<>();
+        for (int node = goal; node >= 0; node = nodeParent[node]) {
+            long column = nodeColumn[node];
+            result.add(new BlockPos(ChunkPos.getPackedX(column), nodeY[node], ChunkPos.getPackedZ(column)));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Binary min-heap on nodeF
+
+    private void push(int node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        heap[heapSize] = node;
+        nodeHeapIndex[node] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            nodeHeapIndex[heap[0]] = 0;
+            siftDown(0);
+        }
+        nodeHeapIndex[top] = NOT_IN_HEAP;
+        return top;
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parent = heap[parentIndex];
+            if (nodeF[parent] <= nodeF[node]) {
+                break;
+            }
+            heap[index] = parent;
+            nodeHeapIndex[parent] = index;
+            index = parentIndex;
+        }
+        heap[index] = node;
+        nodeHeapIndex[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        int half = heapSize >>> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            int child = heap[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < heapSize && nodeF[heap[rightIndex]] < nodeF[child]) {
+                childIndex = rightIndex;
+                child = heap[childIndex];
+            }
+            if (nodeF[node] <= nodeF[child]) {
+                break;
+            }
+            heap[index] = child;
+            nodeHeapIndex[child] = index;
+            index = childIndex;
+        }
+        heap[index] = node;
+        nodeHeapIndex[node] = index;
+    }
+}
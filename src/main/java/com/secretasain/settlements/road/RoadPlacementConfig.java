@@ -0,0 +1,67 @@
+package com.secretasain.settlements.road;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.secretasain.settlements.SettlementsMod;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Optional;
+
+/**
+ * Loads the road placement settings from JSON (data/settlements/road_placement_config.json).
+ * Defaults are used for missing fields or a missing file.
+ */
+public class RoadPlacementConfig {
+    private static final Gson GSON = new Gson();
+
+    private static boolean enabled = false; // Villagers building roads is still experimental - off unless enabled
+    private static int targetTimeoutTicks = 200; // A block not reached within 10 seconds is skipped
+
+    /**
+     * Loads the config. Called when the server starts.
+     */
+    public static void load(ResourceManager resourceManager) {
+        Identifier configId = new Identifier("settlements", "road_placement_config.json");
+        try {
+            Optional<Resource> resource = resourceManager.getResource(configId);
+            if (resource.isEmpty()) {
+                SettlementsMod.LOGGER.warn("Road placement config {} not found, using defaults", configId);
+                return;
+            }
+
+            try (InputStream stream = resource.get().getInputStream();
+                 InputStreamReader reader = new InputStreamReader(stream)) {
+                JsonObject root = GSON.fromJson(reader, JsonObject.class);
+                if (root == null) {
+                    SettlementsMod.LOGGER.error("Failed to parse road placement config - root is null");
+                    return;
+                }
+                if (root.has("enabled")) {
+                    enabled = root.get("enabled").getAsBoolean();
+                }
+                if (root.has("targetTimeoutTicks")) {
+                    targetTimeoutTicks = Math.max(1, root.get("targetTimeoutTicks").getAsInt());
+                }
+            }
+            SettlementsMod.LOGGER.info("Loaded road placement config: enabled {}, target timeout {} ticks",
+                enabled, targetTimeoutTicks);
+        } catch (Exception e) {
+            SettlementsMod.LOGGER.error("Failed to load road placement config, using defaults", e);
+        }
+    }
+
+    /**
+     * Checks if villagers build roads (road jobs are handed out and worked on).
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static int getTargetTimeoutTicks() {
+        return targetTimeoutTicks;
+    }
+}
@@ -1,6 +1,11 @@
 package com.secretasain.settlements.road;
 
+import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.settlement.Settlement;
+import com.secretasain.settlements.settlement.SettlementManager;
+import com.secretasain.settlements.settlement.VillagerData;
+import com.secretasain.settlements.settlement.VillagerEntityCache;
+import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 
@@ -8,67 +13,89 @@ import java.util.*;
 
 /**
  * Manages road placement tasks for villagers.
- * Tracks active tasks and updates them each tick.
+ * Tasks are RoadJobs stored on their settlement, so they are saved with it and resume after a restart.
+ * Jobs are updated every JOB_TICK_INTERVAL ticks; a job whose villager isn't loaded simply waits.
  */
 public class RoadPlacementTaskManager {
-    private static final Map<UUID, VillagerRoadPlacementTask> activeTasks = new HashMap<>();
-    
+    public static final int JOB_TICK_INTERVAL = 5; // Update jobs 4 times per second
+
     /**
      * Adds a new road placement task for a villager.
      * @param villagerId The villager's UUID
      * @param settlement The settlement
-     * @param pathPositions List of positions to place paths
+     * @param pathPositions List of ground positions to turn into paths, in order
+     * @param world The server world (to mark the settlement dirty)
      */
-    public static void addTask(UUID villagerId, Settlement settlement, List<BlockPos> pathPositions) {
+    public static void addTask(UUID villagerId, Settlement settlement, List<BlockPos> pathPositions, ServerWorld world) {
         if (pathPositions == null || pathPositions.isEmpty()) {
             return;
         }
-        
-        VillagerRoadPlacementTask task = new VillagerRoadPlacementTask(villagerId, settlement, pathPositions);
-        activeTasks.put(villagerId, task);
+
+        settlement.getRoadJobs().add(new RoadJob(villagerId, new ArrayList<>(pathPositions)));
+        SettlementManager.getInstance(world).markDirty();
     }
-    
+
     /**
-     * Updates all active road placement tasks.
+     * Updates the road jobs of all settlements in the world.
      * @param world The server world
      */
     public static void tick(ServerWorld world) {
-        List<UUID> completedTasks = new ArrayList<>();
-        
-        for (Map.Entry<UUID, VillagerRoadPlacementTask> entry : activeTasks.entrySet()) {
-            UUID villagerId = entry.getKey();
-            VillagerRoadPlacementTask task = entry.getValue();
-            
-            if (task.tick(world)) {
-                completedTasks.add(villagerId);
+        SettlementManager manager = SettlementManager.getInstance(world);
+        for (Settlement settlement : manager.getAllSettlements()) {
+            if (settlement.getRoadJobs().isEmpty() || settlement.isAbstractSimulated()) {
+                continue; // Nothing to do, or no player nearby
+            }
+
+            Iterator<RoadJob> iterator = settlement.getRoadJobs().iterator();
+            while (iterator.hasNext()) {
+                RoadJob job = iterator.next();
+
+                // The villager left the settlement or took a job - give the rest of the segment back
+                VillagerData villagerData = findVillagerData(settlement, job.getVillagerId());
+                if (villagerData == null || villagerData.isAssigned()) {
+                    RoadLayoutPlanner.returnSegment(settlement, job.getRemainingPositions());
+                    iterator.remove();
+                    manager.markDirty();
+                    continue;
+                }
+
+                VillagerEntity villager = VillagerEntityCache.get(world, job.getVillagerId());
+                if (villager == null || !villager.isAlive()) {
+                    continue; // Not loaded - the job waits
+                }
+
+                if (job.tick(world, villager, JOB_TICK_INTERVAL) > 0) {
+                    manager.markDirty();
+                }
+                if (job.isComplete()) {
+                    SettlementsMod.LOGGER.debug("Road placement: Villager {} finished a road segment in settlement {} ({} blocks, {} blocks/minute)",
+                        job.getVillagerId(), settlement.getName(), job.getBlocksConverted(),
+                        String.format("%.1f", job.getBlocksPerMinute()));
+                    iterator.remove();
+                    manager.markDirty();
+                }
             }
-        }
-        
-        // Remove completed tasks
-        for (UUID villagerId : completedTasks) {
-            activeTasks.remove(villagerId);
         }
     }
-    
+
     /**
      * Checks if a villager has an active road placement task.
      */
-    public static boolean hasTask(UUID villagerId) {
-        return activeTasks.containsKey(villagerId);
-    }
-    
-    /**
-     * Removes a task for a villager.
-     */
-    public static void removeTask(UUID villagerId) {
-        activeTasks.remove(villagerId);
+    public static boolean hasTask(Settlement settlement, UUID villagerId) {
+        for (RoadJob job : settlement.getRoadJobs()) {
+            if (job.getVillagerId().equals(villagerId)) {
+                return true;
+            }
+        }
+        return false;
     }
-    
-    /**
-     * Gets the number of active tasks.
-     */
-    public static int getActiveTaskCount() {
-        return activeTasks.size();
+
+    private static VillagerData findVillagerData(Settlement settlement, UUID villagerId) {
+        for (VillagerData villager : settlement.getVillagers()) {
+            if (villager.getEntityId().equals(villagerId)) {
+                return villager;
+            }
+        }
+        return null;
     }
 }
-
@@ -2,6 +2,7 @@ package com.secretasain.settlements.road;
 
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.SettlementManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ServerWorld;
@@ -10,7 +11,8 @@ import java.util.Collection;
 
 /**
  * Tick system for processing road placement tasks.
- * Runs periodically to assign road placement to unassigned villagers.
+ * Collects road layout planning results every tick and runs periodically to assign road placement to
+ * unassigned villagers. Road jobs only run when RoadPlacementConfig enables them.
  */
 public class RoadPlacementTickSystem {
     private static final int PLACEMENT_INTERVAL_TICKS = 200; // Process every 10 seconds
@@ -22,6 +24,12 @@ public class RoadPlacementTickSystem {
         ServerTickEvents.END_WORLD_TICK.register(world -> {
             tick(world);
         });
+        
+        // Stop the road planning workers with the server, and drop the road networks (they hold its settlements)
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            RoadLayoutPlanner.shutdown();
+            RoadNetwork.clear();
+        });
     }
     
     /**
@@ -29,6 +37,14 @@ public class RoadPlacementTickSystem {
      * @param world The server world to update
      */
     private static void tick(ServerWorld world) {
+        // Apply finished road layout plans and start new ones every tick
+        RoadLayoutPlanner.tick(world);
+        
+        // Update the villagers' road jobs (a few times per second, so they convert blocks as they walk)
+        if (RoadPlacementConfig.isEnabled() && world.getTime() % RoadPlacementTaskManager.JOB_TICK_INTERVAL == 0) {
+            RoadPlacementTaskManager.tick(world);
+        }
+        
         // Only run periodically to avoid performance issues
         if (world.getTime() % PLACEMENT_INTERVAL_TICKS != 0) {
             return;
@@ -42,15 +58,15 @@ public class RoadPlacementTickSystem {
         SettlementManager manager = SettlementManager.getInstance(world);
         Collection<Settlement> allSettlements = manager.getAllSettlements();
         
-        // TODO: Road placement is buggy and needs more work - commented out for now
-        // Update all active road placement tasks
-        // RoadPlacementTaskManager.tick(world);
-        
         // Process each settlement
         for (Settlement settlement : allSettlements) {
-            // TODO: Road placement is buggy and needs more work - commented out for now
-            // Process road placement (assigns new tasks to villagers)
-            // RoadPlacementSystem.processRoadPlacement(settlement, world, server);
+            if (settlement.isAbstractSimulated()) {
+                continue; // No player nearby
+            }
+            // Process road placement (assigns new tasks to villagers) - off unless enabled in the config
+            if (RoadPlacementConfig.isEnabled()) {
+                RoadPlacementSystem.processRoadPlacement(settlement, world, server);
+            }
             
             // Process light post placement (less frequently - every 2 cycles = 20 seconds)
             if (world.getTime() % (PLACEMENT_INTERVAL_TICKS * 2) == 0) {
@@ -0,0 +1,145 @@
+package com.secretasain.settlements.road;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of the terrain road planning needs, for a rectangle of columns: per column, the
+ * ground height (from the MOTION_BLOCKING_NO_LEAVES heightmap) and the kind of surface, or UNUSABLE
+ * if no road can run on it.
+ * Captured on the server thread (capture) chunk by chunk; afterwards it is safe to read from any
+ * thread, so road searches can run on the planner's worker pool.
+ */
+public final class RoadTerrainSnapshot {
+    public static final int UNUSABLE = Integer.MIN_VALUE;
+
+    // Surface kinds
+    public static final byte SURFACE_OTHER = 0; // Walkable, but can't be turned into a path
+    public static final byte SURFACE_CONVERTIBLE = 1; // Grass or dirt - a shovel turns it into a path
+    public static final byte SURFACE_ROAD = 2; // Already a path
+
+    private final int minX;
+    private final int minZ;
+    private final int sizeX;
+    private final int sizeZ;
+    private final int[] groundY;
+    private final byte[] surface;
+
+    private RoadTerrainSnapshot(int minX, int minZ, int sizeX, int sizeZ) {
+        this.minX = minX;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeZ = sizeZ;
+        this.groundY = new int[sizeX * sizeZ];
+        this.surface = new byte[sizeX * sizeZ];
+        Arrays.fill(groundY, UNUSABLE);
+    }
+
+    /**
+     * Creates a snapshot from precomputed columns (synthetic terrain, e.g. for benchmarks).
+     * @param groundY Ground height per column, indexed (x - minX) * sizeZ + (z - minZ); UNUSABLE for no road
+     * @param surface Surface kind per column, same indexing
+     */
+    static RoadTerrainSnapshot fromColumns(int minX, int minZ, int sizeX, int sizeZ, int[] groundY, byte[] surface) {
+        RoadTerrainSnapshot snapshot = new RoadTerrainSnapshot(minX, minZ, sizeX, sizeZ);
+        System.arraycopy(groundY, 0, snapshot.groundY, 0, snapshot.groundY.length);
+        System.arraycopy(surface, 0, snapshot.surface, 0, snapshot.surface.length);
+        return snapshot;
+    }
+
+    /**
+     * Copies the terrain of a rectangle of columns. Must be called on the server thread.
+     * Columns in chunks that are not loaded are UNUSABLE.
+     * @param world The server world
+     * @param minX Smallest X of the rectangle
+     * @param minZ Smallest Z of the rectangle
+     * @param maxX Largest X of the rectangle
+     * @param maxZ Largest Z of the rectangle
+     * @return The snapshot
+     */
+    public static RoadTerrainSnapshot capture(ServerWorld world, int minX, int minZ, int maxX, int maxZ) {
+        RoadTerrainSnapshot snapshot = new RoadTerrainSnapshot(minX, minZ, maxX - minX + 1, maxZ - minZ + 1);
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                WorldChunk chunk = world.getChunkManager().getWorldChunk(chunkX, chunkZ);
+                if (chunk == null) {
+                    continue; // Not loaded
+                }
+                Heightmap heightmap = chunk.getHeightmap(Heightmap.Type.MOTION_BLOCKING_NO_LEAVES);
+                int fromX = Math.max(minX, chunkX << 4);
+                int toX = Math.min(maxX, (chunkX << 4) + 15);
+                int fromZ = Math.max(minZ, chunkZ << 4);
+                int toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+
+                for (int x = fromX; x <= toX; x++) {
+                    for (int z = fromZ; z <= toZ; z++) {
+                        int y = heightmap.get(x & 15, z & 15) - 1;
+                        BlockState ground = chunk.getBlockState(pos.set(x, y, z));
+                        // Water and lava count as motion blocking, so the heightmap can end on a fluid.
+                        // Paths are not full blocks, but roads obviously run on them
+                        if (!ground.getFluidState().isEmpty() || (!ground.isSolidBlock(chunk, pos) && !ground.isOf(Blocks.DIRT_PATH))) {
+                            continue;
+                        }
+                        BlockState above = chunk.getBlockState(pos.set(x, y + 1, z));
+                        if (!above.getFluidState().isEmpty() || (!above.isAir() && !above.isReplaceable())) {
+                            continue;
+                        }
+                        int index = snapshot.index(x, z);
+                        snapshot.groundY[index] = y;
+                        snapshot.surface[index] = getSurface(ground);
+                    }
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the ground height of a column.
+     * @return The Y of the ground block, or UNUSABLE if no road can run on it (or it is outside the snapshot)
+     */
+    public int getGroundY(int x, int z) {
+        if (!contains(x, z)) {
+            return UNUSABLE;
+        }
+        return groundY[index(x, z)];
+    }
+
+    /**
+     * Gets the surface kind of a usable column (SURFACE_OTHER outside the snapshot).
+     */
+    public byte getSurface(int x, int z) {
+        if (!contains(x, z)) {
+            return SURFACE_OTHER;
+        }
+        return surface[index(x, z)];
+    }
+
+    private boolean contains(int x, int z) {
+        return x >= minX && z >= minZ && x < minX + sizeX && z < minZ + sizeZ;
+    }
+
+    private int index(int x, int z) {
+        return (x - minX) * sizeZ + (z - minZ);
+    }
+
+    private static byte getSurface(BlockState ground) {
+        if (ground.isOf(Blocks.DIRT_PATH)) {
+            return SURFACE_ROAD;
+        }
+        // Same blocks RoadJob converts
+        if (ground.isOf(Blocks.GRASS_BLOCK) || ground.isOf(Blocks.DIRT)
+            || ground.isOf(Blocks.COARSE_DIRT) || ground.isOf(Blocks.PODZOL)) {
+            return SURFACE_CONVERTIBLE;
+        }
+        return SURFACE_OTHER;
+    }
+}
@@ -0,0 +1,267 @@
+package com.secretasain.settlements.settlement;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Solves the villager -> bed assignment for a whole settlement at once.
+ * Small sets are solved optimally (minimum total walking distance) with the Hungarian algorithm;
+ * larger sets use a global greedy matching that always commits the closest remaining villager/bed
+ * pair, with beds bucketed in a coarse grid so each nearest-bed query only looks at nearby cells.
+ */
+class BedAssignmentSolver {
+    private static final int HUNGARIAN_MAX_SIZE = 48; // Hungarian is O(n^2 * m) - fine up to a few dozen
+    private static final int CELL_SIZE = 8; // Bed grid cell size in blocks (horizontal)
+
+    /**
+     * Assigns villagers to beds.
+     * @param villagers Villager positions
+     * @param beds Bed positions
+     * @return For each villager, the index of its bed in the bed list, or -1 if it got none
+     */
+    static int[] solve(List<BlockPos> villagers, List<BlockPos> beds) {
+        int[] result = new int[villagers.size()];
+        Arrays.fill(result, -1);
+        if (villagers.isEmpty() || beds.isEmpty()) {
+            return result;
+        }
+
+        if (Math.max(villagers.size(), beds.size()) <= HUNGARIAN_MAX_SIZE) {
+            solveHungarian(villagers, beds, result);
+        } else {
+            solveGreedy(villagers, beds, result);
+        }
+        return result;
+    }
+
+    /**
+     * Optimal assignment (minimum total distance) on the rectangular cost matrix.
+     * Rows are the smaller side so every row gets a column.
+     */
+    private static void solveHungarian(List<BlockPos> villagers, List<BlockPos> beds, int[] result) {
+        boolean villagersAreRows = villagers.size() <= beds.size();
+        List<BlockPos> rows = villagersAreRows ? villagers : beds;
+        List<BlockPos> columns = villagersAreRows ? beds : villagers;
+        int n = rows.size();
+        int m = columns.size();
+
+        // Standard potentials formulation, 1-indexed; column 0 is a virtual column
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] match = new int[m + 1]; // Column -> row
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int row = 1; row <= n; row++) {
+            match[0] = row;
+            int column0 = 0;
+            Arrays.fill(minSlack, Double.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[column0] = true;
+                int row0 = match[column0];
+                double delta = Double.MAX_VALUE;
+                int column1 = 0;
+                for (int column = 1; column <= m; column++) {
+                    if (used[column]) {
+                        continue;
+                    }
+                    double slack = distance(rows.get(row0 - 1), columns.get(column - 1)) - u[row0] - v[column];
+                    if (slack < minSlack[column]) {
+                        minSlack[column] = slack;
+                        way[column] = column0;
+                    }
+                    if (minSlack[column] < delta) {
+                        delta = minSlack[column];
+                        column1 = column;
+                    }
+                }
+                for (int column = 0; column <= m; column++) {
+                    if (used[column]) {
+                        u[match[column]] += delta;
+                        v[column] -= delta;
+                    } else {
+                        minSlack[column] -= delta;
+                    }
+                }
+                column0 = column1;
+            } while (match[column0] != 0);
+
+            // Flip the augmenting path
+            do {
+                int column1 = way[column0];
+                match[column0] = match[column1];
+                column0 = column1;
+            } while (column0 != 0);
+        }
+
+        for (int column = 1; column <= m; column++) {
+            if (match[column] == 0) {
+                continue;
+            }
+            if (villagersAreRows) {
+                result[match[column] - 1] = column - 1;
+            } else {
+                result[column - 1] = match[column] - 1;
+            }
+        }
+    }
+
+    /**
+     * Global greedy matching: repeatedly commits the closest villager/bed pair.
+     * Each villager keeps its nearest free bed in a priority queue; when that bed is taken by a
+     * closer villager, the villager's nearest free bed is searched again in the grid.
+     */
+    private static void solveGreedy(List<BlockPos> villagers, List<BlockPos> beds, int[] result) {
+        BedGrid grid = new BedGrid(beds);
+        boolean[] taken = new boolean[beds.size()];
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(villagers.size());
+
+        for (int villager = 0; villager < villagers.size(); villager++) {
+            Candidate candidate = grid.findNearest(villager, villagers.get(villager), taken);
+            if (candidate != null) {
+                queue.add(candidate);
+            }
+        }
+
+        int remainingBeds = beds.size();
+        while (!queue.isEmpty() && remainingBeds > 0) {
+            Candidate candidate = queue.poll();
+            if (taken[candidate.bed]) {
+                // Taken by a closer villager - look again
+                Candidate next = grid.findNearest(candidate.villager, villagers.get(candidate.villager), taken);
+                if (next != null) {
+                    queue.add(next);
+                }
+                continue;
+            }
+            taken[candidate.bed] = true;
+            result[candidate.villager] = candidate.bed;
+            remainingBeds--;
+        }
+    }
+
+    private static double distance(BlockPos a, BlockPos b) {
+        return Math.sqrt(a.getSquaredDistance(b));
+    }
+
+    /**
+     * A villager's nearest free bed at the time it was searched.
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        final int villager;
+        final int bed;
+        final double distanceSq;
+
+        Candidate(int villager, int bed, double distanceSq) {
+            this.villager = villager;
+            this.bed = bed;
+            this.distanceSq = distanceSq;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(distanceSq, other.distanceSq);
+        }
+    }
+
+    /**
+     * Beds bucketed by horizontal grid cell.
+     */
+    private static class BedGrid {
+        private final List<BlockPos> beds;
+        private final Long2ObjectOpenHashMap<IntArrayList> cells = new Long2ObjectOpenHashMap<>();
+        private final int maxRing; // Rings needed to cover every cell from anywhere inside the bed bounds
+
+        // Current search state
+        private int bestBed;
+        private double bestDistanceSq;
+
+        BedGrid(List<BlockPos> beds) {
+            this.beds = beds;
+            int minCellX = Integer.MAX_VALUE;
+            int maxCellX = Integer.MIN_VALUE;
+            int minCellZ = Integer.MAX_VALUE;
+            int maxCellZ = Integer.MIN_VALUE;
+            for (int i = 0; i < beds.size(); i++) {
+                int cellX = Math.floorDiv(beds.get(i).getX(), CELL_SIZE);
+                int cellZ = Math.floorDiv(beds.get(i).getZ(), CELL_SIZE);
+                cells.computeIfAbsent(cellKey(cellX, cellZ), key -> new IntArrayList()).add(i);
+                minCellX = Math.min(minCellX, cellX);
+                maxCellX = Math.max(maxCellX, cellX);
+                minCellZ = Math.min(minCellZ, cellZ);
+                maxCellZ = Math.max(maxCellZ, cellZ);
+            }
+            this.maxRing = Math.max(maxCellX - minCellX, maxCellZ - minCellZ);
+        }
+
+        /**
+         * Finds the nearest free bed by searching rings of cells outwards from the villager.
+         * The search stops once no unsearched cell can hold a closer bed.
+         */
+        Candidate findNearest(int villager, BlockPos pos, boolean[] taken) {
+            int centerX = Math.floorDiv(pos.getX(), CELL_SIZE);
+            int centerZ = Math.floorDiv(pos.getZ(), CELL_SIZE);
+            bestBed = -1;
+            bestDistanceSq = Double.MAX_VALUE;
+
+            // Villagers outside the bed bounds need extra rings to reach them
+            int limit = maxRing + Math.max(
+                Math.abs(centerX - Math.floorDiv(beds.get(0).getX(), CELL_SIZE)),
+                Math.abs(centerZ - Math.floorDiv(beds.get(0).getZ(), CELL_SIZE)));
+
+            for (int ring = 0; ring <= limit; ring++) {
+                // Any bed in this ring or beyond is at least (ring - 1) whole cells away horizontally
+                double ringMinDistance = Math.max(0, ring - 1) * (double) CELL_SIZE;
+                if (bestBed >= 0 && ringMinDistance * ringMinDistance > bestDistanceSq) {
+                    break;
+                }
+                if (ring == 0) {
+                    searchCell(centerX, centerZ, pos, taken);
+                    continue;
+                }
+                // Only the cells on this ring's border - inner cells were searched in earlier rings
+                for (int d = -ring; d <= ring; d++) {
+                    searchCell(centerX + d, centerZ - ring, pos, taken);
+                    searchCell(centerX + d, centerZ + ring, pos, taken);
+                    if (d > -ring && d < ring) {
+                        searchCell(centerX - ring, centerZ + d, pos, taken);
+                        searchCell(centerX + ring, centerZ + d, pos, taken);
+                    }
+                }
+            }
+            return bestBed >= 0 ? new Candidate(villager, bestBed, bestDistanceSq) : null;
+        }
+
+        /**
+         * Checks the free beds in one cell against the best bed found so far.
+         */
+        private void searchCell(int cellX, int cellZ, BlockPos pos, boolean[] taken) {
+            IntArrayList cell = cells.get(cellKey(cellX, cellZ));
+            if (cell == null) {
+                return;
+            }
+            for (int i = 0; i < cell.size(); i++) {
+                int bed = cell.getInt(i);
+                if (taken[bed]) {
+                    continue;
+                }
+                double distanceSq = pos.getSquaredDistance(beds.get(bed));
+                if (distanceSq < bestDistanceSq) {
+                    bestDistanceSq = distanceSq;
+                    bestBed = bed;
+                }
+            }
+        }
+
+        private static long cellKey(int cellX, int cellZ) {
+            return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+        }
+    }
+}
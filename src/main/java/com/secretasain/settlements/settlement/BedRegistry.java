@@ -0,0 +1,463 @@
+package com.secretasain.settlements.settlement;
+
+import com.secretasain.settlements.SettlementsMod;
+import com.secretasain.settlements.building.BlockPlacementScheduler;
+import com.secretasain.settlements.building.StructureBlock;
+import com.secretasain.settlements.building.StructureData;
+import com.secretasain.settlements.building.StructureLoader;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.BedBlock;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.enums.BedPart;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Per-settlement registry of the beds villagers can sleep in.
+ * Beds come from the compiled structure of each completed building (bed heads, rotated into world
+ * space) plus loose beds placed inside the settlement, which are recorded when they are placed and
+ * saved with the settlement. Presence and occupancy are kept up to date from block change events
+ * (ServerWorldMixin), so the sleep system never scans the world for beds.
+ *
+ * Villagers are matched to beds once per night, in one batch (BedAssignmentSolver), the first time
+ * a villager of the settlement asks for its bed after dusk. Assignments are stored in VillagerData,
+ * so they survive a restart mid-night; villagers that arrive later take the nearest bed still free.
+ */
+public class BedRegistry {
+    // Beds per settlement
+    private static final Map<UUID, SettlementBeds> REGISTRIES = new HashMap<>();
+
+    // All registered beds by packed head position, per world (for block change events)
+    private static final Map<RegistryKey<World>, Long2ObjectOpenHashMap<Bed>> BEDS_BY_POS = new HashMap<>();
+
+    /**
+     * A bed (identified by its head block).
+     */
+    public static class Bed {
+        private final BlockPos pos;
+        private final UUID buildingId; // Null for loose beds
+        private boolean present = true;
+        private boolean occupied = false;
+        private UUID assignedVillager = null;
+        private long unusableNight = -1; // Night the bed was found unusable (no headroom, failed to sleep)
+
+        Bed(BlockPos pos, UUID buildingId) {
+            this.pos = pos;
+            this.buildingId = buildingId;
+        }
+
+        public BlockPos getPos() {
+            return pos;
+        }
+
+        public UUID getBuildingId() {
+            return buildingId;
+        }
+
+        public boolean isPresent() {
+            return present;
+        }
+
+        public boolean isOccupied() {
+            return occupied;
+        }
+
+        boolean isFree(long night) {
+            return present && !occupied && assignedVillager == null && unusableNight != night;
+        }
+    }
+
+    /**
+     * Beds of a single settlement.
+     */
+    private static class SettlementBeds {
+        final RegistryKey<World> worldKey;
+        final Long2ObjectOpenHashMap<Bed> beds = new Long2ObjectOpenHashMap<>();
+        long fingerprint = Long.MIN_VALUE; // Forces the first build
+        long assignedNight = -1; // Night the batch assignment last ran
+
+        SettlementBeds(RegistryKey<World> worldKey) {
+            this.worldKey = worldKey;
+        }
+    }
+
+    /**
+     * Registers the registry with Fabric's server lifecycle events.
+     */
+    public static void register() {
+        // Beds are re-derived from the settlements of the next server
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            REGISTRIES.clear();
+            BEDS_BY_POS.clear();
+        });
+    }
+
+    /**
+     * Gets the bed assigned to a villager for tonight, matching the whole settlement on the first
+     * request of the night.
+     * @param settlement The villager's settlement
+     * @param villagerData The villager's settlement data
+     * @param villager The loaded villager entity
+     * @param world The server world
+     * @return Position of the bed's head, or null if no bed is free
+     */
+    static BlockPos getAssignedBed(Settlement settlement, VillagerData villagerData, VillagerEntity villager, ServerWorld world) {
+        SettlementBeds beds = get(settlement, world);
+        long night = getNight(world);
+        if (beds.assignedNight != night) {
+            assignForNight(beds, settlement, world, night);
+        }
+
+        BlockPos bedPos = villagerData.getAssignedBed(night);
+        if (bedPos != null) {
+            Bed bed = beds.beds.get(bedPos.asLong());
+            if (bed != null && bed.present && bed.unusableNight != night
+                && villagerData.getEntityId().equals(bed.assignedVillager)) {
+                return bedPos;
+            }
+            releaseBed(beds, villagerData, night);
+        }
+
+        // Arrived after the dusk matching, or lost its bed - take the nearest bed still free
+        Bed bed = findNearestFreeBed(beds, villager.getBlockPos(), night);
+        if (bed == null) {
+            return null;
+        }
+        claimBed(bed, villagerData, night);
+        SettlementManager.getInstance(world).markDirty();
+        return bed.pos;
+    }
+
+    /**
+     * Releases a villager's bed after it could not sleep in it; the bed is skipped for the rest of the night.
+     */
+    static void markBedUnusable(Settlement settlement, VillagerData villagerData, ServerWorld world) {
+        SettlementBeds beds = REGISTRIES.get(settlement.getId());
+        if (beds == null) {
+            return;
+        }
+        long night = getNight(world);
+        Bed bed = releaseBed(beds, villagerData, night);
+        if (bed != null) {
+            bed.unusableNight = night;
+        }
+    }
+
+    /**
+     * Gets the number of registered beds in a settlement (present or not).
+     */
+    public static int getBedCount(Settlement settlement, ServerWorld world) {
+        return get(settlement, world).beds.size();
+    }
+
+    /**
+     * Updates bed presence and occupancy after a block change, and records beds placed inside a
+     * settlement. Called for every block change in a server world, so non-bed changes return at once.
+     */
+    public static void onBlockChanged(ServerWorld world, BlockPos pos, BlockState oldState, BlockState newState) {
+        boolean wasBedHead = isBedHead(oldState);
+        boolean isBedHead = isBedHead(newState);
+        if (!wasBedHead && !isBedHead) {
+            return;
+        }
+
+        Long2ObjectOpenHashMap<Bed> index = BEDS_BY_POS.get(world.getRegistryKey());
+        Bed bed = index == null ? null : index.get(pos.asLong());
+        if (bed != null) {
+            bed.present = isBedHead;
+            bed.occupied = isBedHead && newState.get(BedBlock.OCCUPIED);
+            if (!isBedHead && bed.buildingId == null) {
+                // Loose bed broken - forget it (the registry is rebuilt on next use)
+                SettlementManager manager = SettlementManager.getInstance(world);
+                Settlement settlement = manager.findSettlementAt(pos);
+                if (settlement != null && settlement.getLooseBeds().remove(pos)) {
+                    manager.markDirty();
+                }
+            }
+            return;
+        }
+
+        if (isBedHead && !wasBedHead) {
+            // New bed - record it as a loose bed if it is inside a settlement
+            SettlementManager manager = SettlementManager.getInstance(world);
+            Settlement settlement = manager.findSettlementAt(pos);
+            if (settlement != null && !settlement.getLooseBeds().contains(pos)) {
+                settlement.getLooseBeds().add(pos.toImmutable());
+                manager.markDirty();
+            }
+        }
+    }
+
+    /**
+     * Gets a settlement's beds, rebuilding them if its buildings or loose beds changed.
+     */
+    private static SettlementBeds get(Settlement settlement, ServerWorld world) {
+        SettlementBeds beds = REGISTRIES.computeIfAbsent(settlement.getId(), id -> new SettlementBeds(world.getRegistryKey()));
+
+        if (!settlement.isLooseBedsScanned()) {
+            scanLooseBeds(settlement, world);
+        }
+
+        long current = computeFingerprint(settlement);
+        if (current != beds.fingerprint) {
+            rebuild(beds, settlement, world);
+            beds.fingerprint = computeFingerprint(settlement); // Rebuild may drop loose beds that belong to a building
+        }
+        return beds;
+    }
+
+    /**
+     * Re-derives the settlement's beds from its building structures and loose beds.
+     * Beds that still exist keep their occupancy and assignment.
+     */
+    private static void rebuild(SettlementBeds beds, Settlement settlement, ServerWorld world) {
+        Long2ObjectOpenHashMap<Bed> index = BEDS_BY_POS.computeIfAbsent(beds.worldKey, key -> new Long2ObjectOpenHashMap<>());
+        Long2ObjectOpenHashMap<Bed> previous = new Long2ObjectOpenHashMap<>(beds.beds);
+        beds.beds.clear();
+
+        // Beds from the compiled structures of completed buildings
+        MinecraftServer server = world.getServer();
+        for (Building building : settlement.getBuildings()) {
+            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED || server == null) {
+                continue;
+            }
+            StructureData structureData = StructureLoader.loadStructure(building.getStructureType(), server);
+            if (structureData == null) {
+                continue;
+            }
+            for (StructureBlock structureBlock : structureData.getBlocks()) {
+                if (isBedHead(structureBlock.getBlockState())) {
+                    BlockPos rotatedPos = BlockPlacementScheduler.applyRotation(structureBlock.getRelativePos(),
+                        building.getRotation(), structureData.getDimensions());
+                    addBed(beds, previous, world, building.getPosition().add(rotatedPos), building.getId());
+                }
+            }
+        }
+
+        // Loose beds (a bed that is part of a building is no longer loose)
+        boolean looseChanged = settlement.getLooseBeds().removeIf(pos -> beds.beds.containsKey(pos.asLong()));
+        for (BlockPos pos : settlement.getLooseBeds()) {
+            addBed(beds, previous, world, pos, null);
+        }
+        if (looseChanged) {
+            SettlementManager.getInstance(world).markDirty();
+        }
+
+        // Drop beds that are gone
+        for (Bed removed : previous.values()) {
+            index.remove(removed.pos.asLong()); // Villagers assigned to it pick a new bed on their next request
+        }
+        for (Bed bed : beds.beds.values()) {
+            index.put(bed.pos.asLong(), bed);
+        }
+
+        SettlementsMod.LOGGER.debug("Bed registry for settlement {}: {} beds", settlement.getName(), beds.beds.size());
+    }
+
+    private static void addBed(SettlementBeds beds, Long2ObjectOpenHashMap<Bed> previous, ServerWorld world,
+                               BlockPos pos, UUID buildingId) {
+        long key = pos.asLong();
+        if (beds.beds.containsKey(key)) {
+            return;
+        }
+        Bed bed = previous.remove(key);
+        if (bed == null || !Objects.equals(bed.buildingId, buildingId)) {
+            bed = new Bed(pos, buildingId);
+            // Seed presence and occupancy from the world if it is loaded; events keep them current afterwards
+            if (world.getChunkManager().isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4)) {
+                BlockState state = world.getBlockState(pos);
+                bed.present = isBedHead(state);
+                bed.occupied = bed.present && state.get(BedBlock.OCCUPIED);
+            }
+        }
+        beds.beds.put(key, bed);
+    }
+
+    /**
+     * Matches every employed villager of the settlement to a bed for the night in one batch.
+     * Assignments already stored for tonight (e.g., from before a restart) are kept.
+     */
+    private static void assignForNight(SettlementBeds beds, Settlement settlement, ServerWorld world, long night) {
+        for (Bed bed : beds.beds.values()) {
+            bed.assignedVillager = null;
+            // Beds without room above can't be slept in - skip them tonight
+            if (bed.present && world.getChunkManager().isChunkLoaded(bed.pos.getX() >> 4, bed.pos.getZ() >> 4)
+                && !hasHeadroom(world, bed.pos)) {
+                bed.unusableNight = night;
+            }
+        }
+        beds.assignedNight = night;
+
+        List<VillagerData> unassigned = new ArrayList<>();
+        List<BlockPos> villagerPositions = new ArrayList<>();
+        int kept = 0;
+        for (VillagerData villagerData : settlement.getVillagers()) {
+            if (!villagerData.isEmployed() || !villagerData.isAssigned()) {
+                continue;
+            }
+            BlockPos keptPos = villagerData.getAssignedBed(night);
+            Bed keptBed = keptPos != null ? beds.beds.get(keptPos.asLong()) : null;
+            if (keptBed != null && keptBed.isFree(night)) {
+                keptBed.assignedVillager = villagerData.getEntityId();
+                kept++;
+                continue;
+            }
+            villagerData.clearAssignedBed();
+
+            VillagerEntity villager = VillagerEntityCache.get(world, villagerData.getEntityId());
+            BlockPos villagerPos = villager != null ? villager.getBlockPos() : villagerData.getLastKnownPos();
+            if (villagerPos != null) {
+                unassigned.add(villagerData);
+                villagerPositions.add(villagerPos);
+            }
+        }
+
+        List<Bed> freeBeds = new ArrayList<>();
+        List<BlockPos> bedPositions = new ArrayList<>();
+        for (Bed bed : beds.beds.values()) {
+            if (bed.isFree(night)) {
+                freeBeds.add(bed);
+                bedPositions.add(bed.pos);
+            }
+        }
+
+        int[] solution = BedAssignmentSolver.solve(villagerPositions, bedPositions);
+        int assigned = kept;
+        for (int i = 0; i < solution.length; i++) {
+            if (solution[i] >= 0) {
+                claimBed(freeBeds.get(solution[i]), unassigned.get(i), night);
+                assigned++;
+            }
+        }
+        SettlementManager.getInstance(world).markDirty();
+
+        SettlementsMod.LOGGER.debug("Assigned {} villagers to beds in settlement {} ({} beds)",
+            assigned, settlement.getName(), beds.beds.size());
+    }
+
+    private static Bed findNearestFreeBed(SettlementBeds beds, BlockPos from, long night) {
+        Bed nearest = null;
+        double nearestDistanceSq = Double.MAX_VALUE;
+        for (Bed bed : beds.beds.values()) {
+            if (!bed.isFree(night)) {
+                continue;
+            }
+            double distanceSq = from.getSquaredDistance(bed.pos);
+            if (distanceSq < nearestDistanceSq) {
+                nearestDistanceSq = distanceSq;
+                nearest = bed;
+            }
+        }
+        return nearest;
+    }
+
+    private static void claimBed(Bed bed, VillagerData villagerData, long night) {
+        bed.assignedVillager = villagerData.getEntityId();
+        villagerData.setAssignedBed(bed.pos, night);
+    }
+
+    private static Bed releaseBed(SettlementBeds beds, VillagerData villagerData, long night) {
+        BlockPos bedPos = villagerData.getAssignedBed(night);
+        villagerData.clearAssignedBed();
+        if (bedPos == null) {
+            return null;
+        }
+        Bed bed = beds.beds.get(bedPos.asLong());
+        if (bed != null && villagerData.getEntityId().equals(bed.assignedVillager)) {
+            bed.assignedVillager = null;
+        }
+        return bed;
+    }
+
+    /**
+     * One-time scan for beds that were placed before loose beds were recorded.
+     * Uses the same coarse search the sleep system used to run every second.
+     */
+    private static void scanLooseBeds(Settlement settlement, ServerWorld world) {
+        BlockPos center = settlement.getLecternPos();
+        if (center == null || !world.getChunkManager().isChunkLoaded(center.getX() >> 4, center.getZ() >> 4)) {
+            return; // Try again once the settlement is loaded
+        }
+
+        Set<BlockPos> found = new LinkedHashSet<>();
+        // Around completed buildings
+        for (Building building : settlement.getBuildings()) {
+            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
+                continue;
+            }
+            BlockPos buildingPos = building.getPosition();
+            for (int x = -5; x <= 5; x++) {
+                for (int y = -2; y <= 5; y++) {
+                    for (int z = -5; z <= 5; z++) {
+                        checkLooseBed(world, buildingPos.add(x, y, z), found);
+                    }
+                }
+            }
+        }
+        // Coarse grid over the settlement radius
+        int radius = settlement.getRadius();
+        for (int x = -radius; x <= radius; x += 4) {
+            for (int z = -radius; z <= radius; z += 4) {
+                for (int y = -5; y <= 10; y++) {
+                    checkLooseBed(world, center.add(x, y, z), found);
+                }
+            }
+        }
+
+        for (BlockPos pos : found) {
+            if (!settlement.getLooseBeds().contains(pos)) {
+                settlement.getLooseBeds().add(pos);
+            }
+        }
+        settlement.setLooseBedsScanned(true);
+        SettlementManager.getInstance(world).markDirty();
+    }
+
+    private static void checkLooseBed(ServerWorld world, BlockPos pos, Set<BlockPos> found) {
+        if (!world.getChunkManager().isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4)) {
+            return;
+        }
+        BlockState state = world.getBlockState(pos);
+        if (state.getBlock() instanceof BedBlock) {
+            // Record the head, whichever half was hit
+            BlockPos head = isBedHead(state) ? pos : pos.offset(state.get(BedBlock.FACING));
+            found.add(head.toImmutable());
+        }
+    }
+
+    private static boolean hasHeadroom(ServerWorld world, BlockPos bedPos) {
+        BlockPos above = bedPos.up();
+        return world.getBlockState(above).isAir() && world.getBlockState(above.up()).isAir();
+    }
+
+    private static boolean isBedHead(BlockState state) {
+        return state.getBlock() instanceof BedBlock && state.get(BedBlock.PART) == BedPart.HEAD;
+    }
+
+    /**
+     * Gets the index of the current night (constant from dusk until the next dawn).
+     */
+    private static long getNight(ServerWorld world) {
+        return world.getTimeOfDay() / 24000L;
+    }
+
+    private static long computeFingerprint(Settlement settlement) {
+        long hash = 17;
+        for (Building building : settlement.getBuildings()) {
+            hash = hash * 31 + building.getId().hashCode();
+            hash = hash * 31 + building.getStatus().ordinal();
+            hash = hash * 31 + building.getPosition().asLong();
+            hash = hash * 31 + building.getRotation();
+            hash = hash * 31 + building.getStructureType().hashCode();
+        }
+        hash = hash * 31 + settlement.getLooseBeds().hashCode();
+        return hash;
+    }
+}
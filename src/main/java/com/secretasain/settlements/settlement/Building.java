@@ -24,6 +24,7 @@ public class Building {
     private List<BlockPos> ghostBlockPositions; // Positions where ghost blocks are placed
     private int rotation; // Rotation in degrees (0, 90, 180, 270)
     private NbtCompound customData; // Custom data for building-specific features (town hall, trader hut, etc.)
+    private final Map<String, BuildingAttachment> attachments = new HashMap<>(); // Parsed custom data entries, by key (not saved directly)
     
     /**
      * Creates a new building with the given parameters.
@@ -186,6 +187,7 @@ public class Building {
         nbt.put("ghostBlockPositions", ghostList);
         
         // Save custom data if present
+        writeAttachments();
         if (customData != null && !customData.isEmpty()) {
             nbt.put("customData", customData);
         }
@@ -372,15 +374,55 @@ public class Building {
         if (customData == null) {
             customData = new NbtCompound();
         }
+        writeAttachments(); // Readers of the raw data see the attachments' current state
         return customData;
     }
     
     /**
      * Sets the custom data for this building.
+     * Attachments are dropped, so they are parsed again from the new data.
      * @param data NBT compound containing custom data
      */
     public void setCustomData(NbtCompound data) {
         this.customData = data != null ? data.copy() : new NbtCompound();
+        attachments.clear();
+    }
+    
+    /**
+     * Gets an attachment of this building.
+     * @param key The custom data key the attachment is saved under
+     * @param type The attachment's class
+     * @return The attachment, or null if none is attached under the key
+     */
+    public <T extends BuildingAttachment> T getAttachment(String key, Class<T> type) {
+        BuildingAttachment attachment = attachments.get(key);
+        return type.isInstance(attachment) ? type.cast(attachment) : null;
+    }
+    
+    /**
+     * Attaches data to this building. It is written to the custom data under its key when dirty.
+     * @param key The custom data key to save the attachment under
+     * @param attachment The attachment
+     */
+    public void setAttachment(String key, BuildingAttachment attachment) {
+        attachments.put(key, attachment);
+    }
+    
+    /**
+     * Writes the dirty attachments to the custom data.
+     */
+    private void writeAttachments() {
+        if (attachments.isEmpty()) {
+            return;
+        }
+        if (customData == null) {
+            customData = new NbtCompound();
+        }
+        for (Map.Entry<String, BuildingAttachment> entry : attachments.entrySet()) {
+            if (entry.getValue().isDirty()) {
+                customData.put(entry.getKey(), entry.getValue().writeNbt());
+            }
+        }
     }
     
     @Override
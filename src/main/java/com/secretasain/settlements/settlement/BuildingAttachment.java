@@ -0,0 +1,22 @@
+package com.secretasain.settlements.settlement;
+
+import net.minecraft.nbt.NbtCompound;
+
+/**
+ * Typed building-specific data kept in memory alongside a Building.
+ * Attachments are parsed from the building's custom data once, then used directly; a changed
+ * attachment is only written back to the custom data when the building is saved.
+ */
+public interface BuildingAttachment {
+    /**
+     * Checks if the attachment changed since it was last written to the building's custom data.
+     * @return true if it needs writing
+     */
+    boolean isDirty();
+
+    /**
+     * Serializes the attachment for the building's custom data and clears its dirty flag.
+     * @return NBT compound
+     */
+    NbtCompound writeNbt();
+}
@@ -0,0 +1,165 @@
+package com.secretasain.settlements.settlement;
+
+import com.secretasain.settlements.building.StructureData;
+import com.secretasain.settlements.building.StructureLoader;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3i;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Union of the bounding boxes of every building in a world, bucketed by chunk.
+ * Answers "is this block inside any building" by looking only at the buildings overlapping the
+ * block's chunk, instead of loading the structure of every building of every settlement per block.
+ *
+ * The index is rebuilt lazily when the set of buildings (ids, positions, rotations or structures)
+ * changes; a cheap fingerprint over all buildings is compared on each get().
+ */
+public class BuildingBoundsIndex {
+    private static final Map<RegistryKey<World>, BuildingBoundsIndex> INDEXES = new HashMap<>();
+
+    private final Long2ObjectOpenHashMap<List<Bounds>> boundsByChunk = new Long2ObjectOpenHashMap<>();
+    private long fingerprint;
+
+    /**
+     * Bounding box of a single building.
+     */
+    private static class Bounds {
+        final UUID buildingId;
+        final BlockBox box;
+
+        Bounds(UUID buildingId, BlockBox box) {
+            this.buildingId = buildingId;
+            this.box = box;
+        }
+    }
+
+    private BuildingBoundsIndex() {
+    }
+
+    /**
+     * Gets the index for a world, rebuilding it if any building was added, removed or moved.
+     * @param world The server world
+     * @param server The Minecraft server (for structure loading)
+     * @return The up-to-date index
+     */
+    public static BuildingBoundsIndex get(ServerWorld world, MinecraftServer server) {
+        BuildingBoundsIndex index = INDEXES.computeIfAbsent(world.getRegistryKey(), key -> {
+            BuildingBoundsIndex created = new BuildingBoundsIndex();
+            created.fingerprint = Long.MIN_VALUE; // Force the first build
+            return created;
+        });
+
+        Collection<Settlement> settlements = SettlementManager.getInstance(world).getAllSettlements();
+        long current = computeFingerprint(settlements);
+        if (current != index.fingerprint) {
+            index.rebuild(settlements, server);
+            index.fingerprint = current;
+        }
+        return index;
+    }
+
+    /**
+     * Checks if a position lies inside any building other than the excluded one.
+     * @param pos The position to check
+     * @param excludedBuildingId Building to ignore (e.g., the lumberyard doing the check), or null
+     * @return true if the position is inside another building's bounds
+     */
+    public boolean contains(BlockPos pos, UUID excludedBuildingId) {
+        List<Bounds> candidates = boundsByChunk.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (candidates == null) {
+            return false;
+        }
+        for (Bounds bounds : candidates) {
+            if (bounds.box.contains(pos) && !bounds.buildingId.equals(excludedBuildingId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the world-space bounding box of a building, accounting for its rotation.
+     * @return The bounding box, or null if the structure could not be loaded
+     */
+    public static BlockBox computeBounds(Building building, MinecraftServer server) {
+        StructureData structureData = StructureLoader.loadStructure(building.getStructureType(), server);
+        if (structureData == null) {
+            return null;
+        }
+
+        Vec3i size = structureData.getDimensions();
+        BlockPos buildingPos = building.getPosition();
+
+        // Rotate the far corner the same way blocks are rotated when placed (around the building origin)
+        int x = size.getX() - 1;
+        int z = size.getZ() - 1;
+        int rotatedX;
+        int rotatedZ;
+        switch (building.getRotation()) {
+            case 90:
+                rotatedX = -z;
+                rotatedZ = x;
+                break;
+            case 180:
+                rotatedX = -x;
+                rotatedZ = -z;
+                break;
+            case 270:
+                rotatedX = z;
+                rotatedZ = -x;
+                break;
+            case 0:
+            default:
+                rotatedX = x;
+                rotatedZ = z;
+                break;
+        }
+
+        BlockPos corner = buildingPos.add(rotatedX, size.getY() - 1, rotatedZ);
+        return BlockBox.create(buildingPos, corner);
+    }
+
+    private void rebuild(Collection<Settlement> settlements, MinecraftServer server) {
+        boundsByChunk.clear();
+        for (Settlement settlement : settlements) {
+            for (Building building : settlement.getBuildings()) {
+                BlockBox box = computeBounds(building, server);
+                if (box == null) {
+                    continue;
+                }
+                Bounds bounds = new Bounds(building.getId(), box);
+                for (int chunkX = box.getMinX() >> 4; chunkX <= box.getMaxX() >> 4; chunkX++) {
+                    for (int chunkZ = box.getMinZ() >> 4; chunkZ <= box.getMaxZ() >> 4; chunkZ++) {
+                        List<Bounds> chunkBounds = boundsByChunk.get(ChunkPos.toLong(chunkX, chunkZ));
+                        if (chunkBounds == null) {
+                            chunkBounds = new ArrayList<>(2);
+                            boundsByChunk.put(ChunkPos.toLong(chunkX, chunkZ), chunkBounds);
+                        }
+                        chunkBounds.add(bounds);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long computeFingerprint(Collection<Settlement> settlements) {
+        long hash = 17;
+        for (Settlement settlement : settlements) {
+            for (Building building : settlement.getBuildings()) {
+                hash = hash * 31 + building.getId().hashCode();
+                hash = hash * 31 + building.getPosition().asLong();
+                hash = hash * 31 + building.getRotation();
+                hash = hash * 31 + building.getStructureType().hashCode();
+            }
+        }
+        return hash;
+    }
+}
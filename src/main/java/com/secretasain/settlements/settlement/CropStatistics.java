@@ -21,10 +21,19 @@ public class CropStatistics {
     public final long estimatedTicksUntilHarvest;  // Average ticks until next harvest (for immature crops)
     public final double expectedItemsPerHarvest;   // Expected items when all mature (matureCount * avgDropsPerCrop)
     public final double avgDropsPerCrop;             // Average drops per crop harvest (typically 1-3, avg 2)
+    public final double predictionAccuracy;          // Fraction of correct maturity predictions (0.0-1.0, -1 if unknown)
     
     public CropStatistics(String cropType, Identifier cropItemId, int totalCount, int matureCount, 
                          int immatureCount, Map<Integer, Integer> ageDistribution, int averageAge, 
                          int maxAge, long estimatedTicksUntilHarvest, double avgDropsPerCrop) {
+        this(cropType, cropItemId, totalCount, matureCount, immatureCount, ageDistribution, averageAge,
+            maxAge, estimatedTicksUntilHarvest, avgDropsPerCrop, -1.0);
+    }
+    
+    public CropStatistics(String cropType, Identifier cropItemId, int totalCount, int matureCount, 
+                         int immatureCount, Map<Integer, Integer> ageDistribution, int averageAge, 
+                         int maxAge, long estimatedTicksUntilHarvest, double avgDropsPerCrop,
+                         double predictionAccuracy) {
         this.cropType = cropType;
         this.cropItemId = cropItemId;
         this.totalCount = totalCount;
@@ -36,6 +45,14 @@ public class CropStatistics {
         this.estimatedTicksUntilHarvest = estimatedTicksUntilHarvest;
         this.avgDropsPerCrop = avgDropsPerCrop;
         this.expectedItemsPerHarvest = matureCount * avgDropsPerCrop;
+        this.predictionAccuracy = predictionAccuracy;
+    }
+    
+    /**
+     * Checks if the farm's growth model has checked any maturity predictions for this crop yet.
+     */
+    public boolean hasPredictionAccuracy() {
+        return predictionAccuracy >= 0.0;
     }
     
     /**
@@ -0,0 +1,349 @@
+package com.secretasain.settlements.settlement;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.*;
+
+/**
+ * Maintains settlement membership for one entity type (villagers, golems).
+ * Loaded entities are tracked through entity load/unload events; every MOVE_CHECK_INTERVAL_TICKS the
+ * tracked entities are checked for chunk-section crossings, and only an entity that changed section
+ * has its settlement membership re-evaluated. Entities inside a settlement are marked as seen in
+ * world time, and members not seen for the tracker's timeout are removed.
+ *
+ * The full-radius entity scan remains as a low-frequency reconciliation pass (one settlement every
+ * RECONCILE_INTERVAL_TICKS, in rotation) to catch anything the events missed.
+ *
+ * @param <E> The tracked entity type
+ * @param <D> The membership data kept in the settlement
+ * @param <T> The per-entity tracking entry (subclasses may keep their own state on it)
+ */
+abstract class EntityMembershipTracker<E extends Entity, D extends SettlementMember, T extends EntityMembershipTracker.Tracked<E, D>> {
+    private static final int MOVE_CHECK_INTERVAL_TICKS = 10; // Check tracked entities for section crossings every 10 ticks
+    private static final int CLEANUP_INTERVAL_TICKS = 100; // Refresh last-seen times and remove stale members every 5 seconds
+    private static final int RECONCILE_INTERVAL_TICKS = 1200; // Full-radius scan of one settlement every minute
+
+    private final Class<E> entityType;
+    private final long timeoutTicks;
+    private final Map<ServerWorld, WorldScanData> worldData = new HashMap<>();
+
+    /**
+     * @param entityType The tracked entity class
+     * @param timeoutTicks Members not seen for this long (in world time) are removed
+     */
+    EntityMembershipTracker(Class<E> entityType, long timeoutTicks) {
+        this.entityType = entityType;
+        this.timeoutTicks = timeoutTicks;
+    }
+
+    /**
+     * A loaded entity and the settlement it was last found in.
+     */
+    static class Tracked<E extends Entity, D> {
+        final E entity;
+        long sectionKey = Long.MIN_VALUE; // Forces evaluation on the first check
+        Settlement settlement; // Settlement the entity is inside (null if none)
+        D data; // Membership data in that settlement
+
+        Tracked(E entity) {
+            this.entity = entity;
+        }
+    }
+
+    /**
+     * Creates the tracking entry for a loaded entity.
+     */
+    abstract T createTracked(E entity);
+
+    /**
+     * Gets a settlement's member list for this entity type.
+     */
+    abstract List<D> getMembers(Settlement settlement);
+
+    /**
+     * Creates membership data for an entity found inside a settlement.
+     */
+    abstract D createMember(E entity);
+
+    /**
+     * Scans the full radius of a settlement for entities of this type.
+     */
+    abstract List<D> scanForMembers(Settlement settlement, ServerWorld world);
+
+    /**
+     * Called after members were added to or removed from a settlement.
+     */
+    void onMembersChanged(Settlement settlement) {
+    }
+
+    /**
+     * Registers the tracker with Fabric's entity, tick and lifecycle events.
+     */
+    void registerEvents() {
+        ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
+            if (entityType.isInstance(entity)) {
+                getData(world).track(entityType.cast(entity));
+            }
+        });
+
+        // Fired on death, discard, dimension change and chunk unload - membership is kept until the timeout
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            if (entityType.isInstance(entity)) {
+                getData(world).untrack(entity.getUuid());
+            }
+        });
+
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            getData(world).tick(world);
+        });
+
+        // Tracking data holds the old server's worlds and settlements
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            worldData.clear();
+        });
+    }
+
+    /**
+     * Gets the loaded entities tracked in a world.
+     * @return The tracked entities (do not modify; may contain removed entities until the next move check)
+     */
+    Collection<T> getTracked(ServerWorld world) {
+        WorldScanData data = worldData.get(world);
+        return data != null ? data.tracked.values() : Collections.emptyList();
+    }
+
+    /**
+     * Finds a loaded entity in any world.
+     * @return The tracked entity, or null if it is not loaded
+     */
+    T getTracked(UUID entityId) {
+        for (WorldScanData data : worldData.values()) {
+            T tracked = data.tracked.get(entityId);
+            if (tracked != null) {
+                return tracked;
+            }
+        }
+        return null;
+    }
+
+    private WorldScanData getData(ServerWorld world) {
+        return worldData.computeIfAbsent(world, w -> new WorldScanData());
+    }
+
+    /**
+     * Per-world tracking data and state.
+     */
+    private class WorldScanData {
+        private final Map<UUID, T> tracked = new HashMap<>();
+        private int currentSettlementIndex = 0;
+        private List<UUID> settlementIds = new ArrayList<>();
+
+        void track(E entity) {
+            tracked.put(entity.getUuid(), createTracked(entity));
+        }
+
+        void untrack(UUID entityId) {
+            tracked.remove(entityId);
+        }
+
+        /**
+         * Performs a tick update.
+         * @param world The server world
+         */
+        void tick(ServerWorld world) {
+            long worldTime = world.getTime();
+            SettlementManager manager = SettlementManager.getInstance(world);
+            Collection<Settlement> allSettlements = manager.getAllSettlements();
+
+            // Re-evaluate membership for entities that crossed a chunk section
+            if (worldTime % MOVE_CHECK_INTERVAL_TICKS == 0) {
+                checkMovedEntities(allSettlements, manager);
+            }
+
+            // Refresh last-seen times, then clean up old members
+            if (worldTime % CLEANUP_INTERVAL_TICKS == 0) {
+                refreshSeenMembers(worldTime);
+                cleanupOldMembers(allSettlements, worldTime);
+            }
+
+            // Low-frequency reconciliation scan, one settlement at a time
+            if (worldTime % RECONCILE_INTERVAL_TICKS == 0) {
+                updateSettlementList(allSettlements);
+                scanNextSettlement(world, manager);
+            }
+        }
+
+        /**
+         * Re-evaluates membership for tracked entities whose chunk section changed.
+         */
+        private void checkMovedEntities(Collection<Settlement> settlements, SettlementManager manager) {
+            boolean changed = false;
+            Iterator<T> iterator = tracked.values().iterator();
+            while (iterator.hasNext()) {
+                T entry = iterator.next();
+                if (entry.entity.isRemoved()) {
+                    iterator.remove();
+                    continue;
+                }
+
+                BlockPos pos = entry.entity.getBlockPos();
+                long sectionKey = ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+                if (sectionKey == entry.sectionKey) {
+                    continue;
+                }
+                entry.sectionKey = sectionKey;
+                changed |= updateMembership(entry, pos, settlements);
+            }
+
+            if (changed) {
+                manager.markDirty();
+            }
+        }
+
+        /**
+         * Finds the settlement an entity is inside and adds it as a member if it is new.
+         * @return true if an entity was added to a settlement
+         */
+        private boolean updateMembership(T entry, BlockPos pos, Collection<Settlement> settlements) {
+            entry.settlement = null;
+            entry.data = null;
+
+            for (Settlement settlement : settlements) {
+                if (!settlement.isWithinBounds(pos)) {
+                    continue;
+                }
+                entry.settlement = settlement;
+
+                UUID entityId = entry.entity.getUuid();
+                List<D> members = getMembers(settlement);
+                for (D data : members) {
+                    if (data.getEntityId().equals(entityId)) {
+                        entry.data = data;
+                        return false;
+                    }
+                }
+
+                // Add new member
+                entry.data = createMember(entry.entity);
+                members.add(entry.data);
+                onMembersChanged(settlement);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Marks every tracked entity that is inside a settlement as seen.
+         */
+        private void refreshSeenMembers(long worldTime) {
+            for (T entry : tracked.values()) {
+                if (entry.data != null && !entry.entity.isRemoved()) {
+                    entry.data.markSeen(entry.entity.getBlockPos(), worldTime);
+                }
+            }
+        }
+
+        /**
+         * Updates the list of settlement IDs to reconcile.
+         */
+        private void updateSettlementList(Collection<Settlement> settlements) {
+            settlementIds.clear();
+            for (Settlement settlement : settlements) {
+                settlementIds.add(settlement.getId());
+            }
+            // Reset index if list changed
+            if (currentSettlementIndex >= settlementIds.size()) {
+                currentSettlementIndex = 0;
+            }
+        }
+
+        /**
+         * Reconciles the next settlement in rotation.
+         */
+        private void scanNextSettlement(ServerWorld world, SettlementManager manager) {
+            if (settlementIds.isEmpty()) {
+                return;
+            }
+
+            // Get next settlement in rotation
+            UUID settlementId = settlementIds.get(currentSettlementIndex);
+            Settlement settlement = manager.getSettlement(settlementId);
+
+            if (settlement != null) {
+                scanSettlement(settlement, world, manager);
+            }
+
+            // Move to next settlement
+            currentSettlementIndex = (currentSettlementIndex + 1) % settlementIds.size();
+        }
+
+        /**
+         * Scans a specific settlement for entities the events missed.
+         */
+        private void scanSettlement(Settlement settlement, ServerWorld world, SettlementManager manager) {
+            List<D> found = scanForMembers(settlement, world);
+
+            // Update settlement's member list
+            List<D> members = getMembers(settlement);
+            Map<UUID, D> existingMembers = new HashMap<>();
+            for (D member : members) {
+                existingMembers.put(member.getEntityId(), member);
+            }
+
+            long worldTime = world.getTime();
+            for (D member : found) {
+                UUID entityId = member.getEntityId();
+                D existing = existingMembers.get(entityId);
+                if (existing != null) {
+                    // Update existing member (position, last seen - assignments are preserved)
+                    existing.markSeen(member.getLastKnownPos(), worldTime);
+                } else {
+                    // Add new member
+                    member.markSeen(member.getLastKnownPos(), worldTime);
+                    members.add(member);
+                    onMembersChanged(settlement);
+                }
+
+                // Force the next move check to re-link the tracked entry with its data
+                T entry = tracked.get(entityId);
+                if (entry != null) {
+                    entry.sectionKey = Long.MIN_VALUE;
+                }
+            }
+
+            // Mark settlement as dirty to trigger save
+            manager.markDirty();
+        }
+
+        /**
+         * Removes members that haven't been seen for too long (in world time).
+         */
+        private void cleanupOldMembers(Collection<Settlement> settlements, long worldTime) {
+            for (Settlement settlement : settlements) {
+                if (settlement.isAbstractSimulated()) {
+                    continue; // Members are expected to be unloaded - keep them until full simulation resumes
+                }
+                List<D> members = getMembers(settlement);
+                int oldSize = members.size();
+                members.removeIf(member -> {
+                    long lastSeen = member.getLastSeen();
+                    if (lastSeen < 0 || lastSeen > worldTime) {
+                        // Never seen yet, or saved with an older timestamp format - start the timeout now
+                        member.markSeen(member.getLastKnownPos(), worldTime);
+                        return false;
+                    }
+                    return worldTime - lastSeen > timeoutTicks;
+                });
+                if (members.size() < oldSize) {
+                    onMembersChanged(settlement);
+                }
+            }
+        }
+    }
+}
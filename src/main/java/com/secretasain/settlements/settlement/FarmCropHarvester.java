@@ -16,6 +16,7 @@ import net.minecraft.util.math.Vec3i;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Handles active crop harvesting for farm buildings.
@@ -84,6 +85,8 @@ public class FarmCropHarvester {
     
     /**
      * Harvests mature crops in a farm building's area.
+     * Only cells the farm's growth model predicts to be mature are checked; the full structure
+     * scan runs only when the model needs a resync.
      * @param building The farm building
      * @param world The server world
      * @param server The Minecraft server (for structure loading)
@@ -97,18 +100,74 @@ public class FarmCropHarvester {
             return harvestedItems;
         }
         
+        FarmGrowthModel model = getSyncedGrowthModel(building, world, server);
+        if (model == null) {
+            return harvestedItems;
+        }
+        
+        long now = world.getTime();
+        for (BlockPos cropPos : model.pollDueCells(now)) {
+            // Check if chunk is loaded
+            if (!world.getChunkManager().isChunkLoaded(cropPos.getX() >> 4, cropPos.getZ() >> 4)) {
+                model.defer(cropPos, now);
+                continue;
+            }
+            
+            // Crop must still be on farmland
+            if (!(world.getBlockState(cropPos.down()).getBlock() instanceof FarmlandBlock)) {
+                model.forget(cropPos);
+                continue;
+            }
+            
+            BlockState cropState = world.getBlockState(cropPos);
+            Block cropBlock = cropState.getBlock();
+            
+            // Check if crop is mature and harvestable
+            if (isMatureCrop(cropState, cropBlock)) {
+                model.recordPrediction(cropBlock, true);
+                List<ItemStack> drops = harvestCrop(cropPos, cropState, cropBlock, world, server);
+                harvestedItems.addAll(drops);
+                // Track the replanted crop (forgotten if it could not be replanted)
+                model.observe(cropPos, world.getBlockState(cropPos), now);
+            } else {
+                if (model.observe(cropPos, cropState, now)) {
+                    model.recordPrediction(cropBlock, false);
+                }
+            }
+        }
+        
+        return harvestedItems;
+    }
+    
+    /**
+     * Gets the growth model for a farm building, running a full scan of the farm's cells first
+     * if the model is new or due for a periodic resync.
+     * @param building The farm building
+     * @param world The server world
+     * @param server The Minecraft server (for structure loading)
+     * @return The synced growth model, or null if the structure could not be loaded
+     */
+    public static FarmGrowthModel getSyncedGrowthModel(Building building, ServerWorld world, MinecraftServer server) {
+        FarmGrowthModel model = FarmGrowthModel.getOrCreate(building);
+        long now = world.getTime();
+        if (!model.needsResync(now)) {
+            return model;
+        }
+        
         // Load structure data to get the area
         StructureData structureData = StructureLoader.loadStructure(building.getStructureType(), server);
         if (structureData == null) {
             SettlementsMod.LOGGER.warn("Could not load structure data for building {}: {}", 
                 building.getId(), building.getStructureType());
-            return harvestedItems;
+            return null;
         }
         
         // Get building position and rotation
         BlockPos buildingPos = building.getPosition();
         int rotation = building.getRotation();
         
+        Set<Long> seen = model.beginResync(now);
+        
         // CRITICAL: Iterate through actual structure blocks (same as BlockPlacementScheduler)
         // This ensures we scan exactly the same area where blocks were placed, including rotation
         for (net.minecraft.util.math.BlockPos relativePos : structureData.getBuildOrder()) {
@@ -117,47 +176,37 @@ public class FarmCropHarvester {
                 continue;
             }
             
+            // Check if this structure block is farmland (from the NBT structure)
+            BlockState structureBlockState = structureBlock.getBlockState();
+            if (!(structureBlockState.getBlock() instanceof FarmlandBlock ||
+                structureBlockState.getBlock() == Blocks.DIRT ||
+                structureBlockState.getBlock() == Blocks.GRASS_BLOCK)) {
+                continue;
+            }
+            
             // Apply rotation to relative position (same formula as BlockPlacementScheduler)
             BlockPos rotatedPos = applyRotation(relativePos, rotation, structureData.getDimensions());
             
             // Calculate absolute world position
             BlockPos worldPos = buildingPos.add(rotatedPos);
+            BlockPos cropPos = worldPos.up();
             
-            // Check if chunk is loaded
+            // Cells in unloaded chunks keep their previous prediction
             if (!world.getChunkManager().isChunkLoaded(worldPos.getX() >> 4, worldPos.getZ() >> 4)) {
+                seen.add(cropPos.asLong());
                 continue;
             }
             
-            // Check if this structure block is farmland (from the NBT structure)
-            BlockState structureBlockState = structureBlock.getBlockState();
-            if (structureBlockState.getBlock() instanceof FarmlandBlock ||
-                structureBlockState.getBlock() == Blocks.DIRT ||
-                structureBlockState.getBlock() == Blocks.GRASS_BLOCK) {
-                // This position should be farmland - check if it actually is farmland in the world
-                BlockState worldBlockState = world.getBlockState(worldPos);
-                Block worldBlock = worldBlockState.getBlock();
-                
-                // Check if this is farmland in the world
-                if (worldBlock instanceof FarmlandBlock) {
-                    // Check the block above for crops
-                    BlockPos cropPos = worldPos.up();
-                    if (!world.getChunkManager().isChunkLoaded(cropPos.getX() >> 4, cropPos.getZ() >> 4)) {
-                        continue;
-                    }
-                    
-                    BlockState cropState = world.getBlockState(cropPos);
-                    Block cropBlock = cropState.getBlock();
-                    
-                    // Check if crop is mature and harvestable
-                    if (isMatureCrop(cropState, cropBlock)) {
-                        List<ItemStack> drops = harvestCrop(cropPos, cropState, cropBlock, world, server);
-                        harvestedItems.addAll(drops);
-                    }
+            // This position should be farmland - check if it actually is farmland in the world
+            if (world.getBlockState(worldPos).getBlock() instanceof FarmlandBlock) {
+                if (model.observe(cropPos, world.getBlockState(cropPos), now)) {
+                    seen.add(cropPos.asLong());
                 }
             }
         }
         
-        return harvestedItems;
+        model.endResync(seen);
+        return model;
     }
     
     /**
@@ -0,0 +1,463 @@
+package com.secretasain.settlements.settlement;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.Registries;
+import net.minecraft.state.property.Properties;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.*;
+
+/**
+ * Crop growth model for a single farm building.
+ * Tracks when each crop cell was planted and last observed, and predicts when it will be mature.
+ * Harvesting polls only the cells whose predicted maturity time has passed instead of rescanning
+ * the whole farm every task cycle. A full rescan still runs every RESYNC_INTERVAL_TICKS to pick up
+ * crops planted or broken by players.
+ *
+ * Models are attached to their farm building and saved in its custom data, so the learned growth
+ * rates and tracked cells survive restarts (SettlementCatchUpEngine estimates missed harvests from
+ * them). A loaded model still runs a full rescan on its first harvest pass.
+ */
+public class FarmGrowthModel implements BuildingAttachment {
+    private static final String KEY = "farmGrowthModel";
+
+    private static final long RESYNC_INTERVAL_TICKS = 6000L; // Full rescan every 5 minutes to catch external changes
+    private static final long RECHECK_DELAY_TICKS = 200L; // Minimum wait before re-checking a mispredicted cell
+    private static final long UNLOADED_RETRY_TICKS = 200L; // Retry delay for cells in unloaded chunks
+    private static final double DEFAULT_TICKS_PER_STAGE_AGE_7 = 4286.0; // ~25 minutes / 7 stages (wheat, carrots, potatoes)
+    private static final double DEFAULT_TICKS_PER_STAGE_AGE_3 = 10000.0; // ~25 minutes / 3 stages (beetroot, nether wart)
+    private static final double RATE_SMOOTHING = 0.2; // Weight of a new growth sample in the learned rate
+
+    private final Map<Long, CropCell> cells; // Crop position (packed) -> cell
+    private final PriorityQueue<QueueEntry> readyQueue; // Ordered by predicted maturity time
+    private final Map<Block, Double> ticksPerStage; // Learned growth rate per crop block
+    private final Map<Block, int[]> predictionResults; // Crop block -> {correct, total}
+    private long lastResyncTime; // Not saved - a loaded model rescans first
+    private boolean dirty; // Changed since last written to the building's custom data
+
+    /**
+     * State of a single crop cell (the block above a farmland block).
+     */
+    public static class CropCell {
+        final long pos;
+        BlockState observedState;
+        int observedAge;
+        int maxAge;
+        long observedTime; // World time of the last observation
+        long plantedTime; // World time the crop was planted (or first seen)
+        long stageStartTime = Long.MIN_VALUE; // Estimated world time the observed age was reached (MIN_VALUE = unknown)
+        long predictedMatureTime;
+
+        CropCell(long pos) {
+            this.pos = pos;
+        }
+
+        public BlockPos getPos() {
+            return BlockPos.fromLong(pos);
+        }
+
+        public BlockState getObservedState() {
+            return observedState;
+        }
+
+        public int getMaxAge() {
+            return maxAge;
+        }
+
+        public long getPlantedTime() {
+            return plantedTime;
+        }
+
+        public long getPredictedMatureTime() {
+            return predictedMatureTime;
+        }
+    }
+
+    /**
+     * Immutable queue entry. Stale entries (cell removed or re-predicted) are skipped when polled.
+     */
+    private static class QueueEntry {
+        final long pos;
+        final long time;
+
+        QueueEntry(long pos, long time) {
+            this.pos = pos;
+            this.time = time;
+        }
+    }
+
+    private FarmGrowthModel() {
+        this.cells = new HashMap<>();
+        this.readyQueue = new PriorityQueue<>(Comparator.comparingLong(e -> e.time));
+        this.ticksPerStage = new HashMap<>();
+        this.predictionResults = new HashMap<>();
+        this.lastResyncTime = Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets the growth model for a farm building, creating an empty one if needed.
+     */
+    public static FarmGrowthModel getOrCreate(Building building) {
+        FarmGrowthModel model = get(building);
+        if (model == null) {
+            model = new FarmGrowthModel();
+            model.dirty = true;
+            building.setAttachment(KEY, model);
+        }
+        return model;
+    }
+
+    /**
+     * Gets the growth model for a farm building, loading it from the building's custom data if needed.
+     * @return The model, or null if the farm has never been scanned
+     */
+    public static FarmGrowthModel get(Building building) {
+        FarmGrowthModel model = building.getAttachment(KEY, FarmGrowthModel.class);
+        if (model == null) {
+            NbtCompound customData = building.getCustomData();
+            if (customData.contains(KEY, 10)) { // 10 = NbtCompound
+                model = fromNbt(customData.getCompound(KEY));
+                building.setAttachment(KEY, model);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Checks whether a harvest pass for this farm could do any work.
+     * @return true if the model needs a rescan or at least one cell is predicted mature
+     */
+    public static boolean isHarvestDue(Building building, long worldTime) {
+        FarmGrowthModel model = get(building);
+        return model == null || model.needsResync(worldTime) || model.hasDueCells(worldTime);
+    }
+
+    /**
+     * Records a crop planted by a villager so it is tracked without waiting for the next rescan.
+     */
+    public static void recordPlanting(Building building, BlockPos cropPos, BlockState cropState, long worldTime) {
+        FarmGrowthModel model = get(building);
+        if (model != null) {
+            model.forget(cropPos);
+            model.observe(cropPos, cropState, worldTime);
+            CropCell cell = model.cells.get(cropPos.asLong());
+            if (cell != null) {
+                cell.stageStartTime = worldTime; // Planted just now, so its first stage started now
+            }
+        }
+    }
+
+    public boolean needsResync(long worldTime) {
+        return lastResyncTime == Long.MIN_VALUE || worldTime - lastResyncTime >= RESYNC_INTERVAL_TICKS;
+    }
+
+    /**
+     * Starts a full rescan. Every cell found should be passed to observe(), then endResync() drops the rest.
+     * @return The set that collects positions seen during the rescan
+     */
+    public Set<Long> beginResync(long worldTime) {
+        lastResyncTime = worldTime;
+        return new HashSet<>();
+    }
+
+    /**
+     * Finishes a full rescan, forgetting cells that no longer hold a crop.
+     */
+    public void endResync(Set<Long> seenPositions) {
+        if (cells.keySet().retainAll(seenPositions)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Records the current state of a crop cell and updates its maturity prediction.
+     * If the crop has advanced since the last observation, the stage change is dated to the midpoint
+     * between the last observation at the old age and this one, and the time since the previous
+     * dated change refines the learned growth rate for this crop type. Dating changes to when they
+     * were first seen would overestimate the stage time whenever scans are infrequent.
+     * @param cropPos Position of the crop block
+     * @param cropState Current block state at that position
+     * @param worldTime Current world time
+     * @return true if the position holds a trackable crop
+     */
+    public boolean observe(BlockPos cropPos, BlockState cropState, long worldTime) {
+        int maxAge = getMaxAge(cropState);
+        if (maxAge <= 0) {
+            forget(cropPos);
+            return false;
+        }
+
+        long key = cropPos.asLong();
+        int age = getAge(cropState);
+        Block block = cropState.getBlock();
+        CropCell cell = cells.get(key);
+
+        if (cell == null || cell.observedState.getBlock() != block || age < cell.observedAge) {
+            // New crop (or replanted / replaced since last seen)
+            cell = new CropCell(key);
+            cell.plantedTime = worldTime;
+            cells.put(key, cell);
+        } else if (age > cell.observedAge && worldTime > cell.observedTime) {
+            if (age >= maxAge && worldTime < cell.predictedMatureTime) {
+                // Matured before the predicted time - the harvest would have been late
+                recordPrediction(block, false);
+            }
+            long changeTime = cell.observedTime + (worldTime - cell.observedTime) / 2;
+            if (cell.stageStartTime != Long.MIN_VALUE && changeTime > cell.stageStartTime) {
+                double sample = (double) (changeTime - cell.stageStartTime) / (age - cell.observedAge);
+                double current = getTicksPerStage(block, maxAge);
+                ticksPerStage.put(block, current + (sample - current) * RATE_SMOOTHING);
+            }
+            cell.stageStartTime = changeTime;
+        }
+
+        cell.observedState = cropState;
+        cell.observedAge = age;
+        cell.maxAge = maxAge;
+        cell.observedTime = worldTime;
+        dirty = true;
+
+        long predicted = worldTime + Math.round((maxAge - age) * getTicksPerStage(block, maxAge));
+        if (age < maxAge) {
+            predicted = Math.max(predicted, worldTime + RECHECK_DELAY_TICKS);
+        }
+        schedule(cell, predicted);
+        return true;
+    }
+
+    /**
+     * Stops tracking a crop cell.
+     */
+    public void forget(BlockPos cropPos) {
+        if (cells.remove(cropPos.asLong()) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Pushes a cell's next check back, e.g. because its chunk is not loaded.
+     */
+    public void defer(BlockPos cropPos, long worldTime) {
+        CropCell cell = cells.get(cropPos.asLong());
+        if (cell != null) {
+            schedule(cell, worldTime + UNLOADED_RETRY_TICKS);
+        }
+    }
+
+    /**
+     * Removes and returns all cells predicted to be mature at the given time.
+     * Each returned cell must be re-observed, forgotten or deferred by the caller.
+     */
+    public List<BlockPos> pollDueCells(long worldTime) {
+        List<BlockPos> due = new ArrayList<>();
+        while (!readyQueue.isEmpty() && readyQueue.peek().time <= worldTime) {
+            QueueEntry entry = readyQueue.poll();
+            CropCell cell = cells.get(entry.pos);
+            if (cell != null && cell.predictedMatureTime == entry.time) {
+                due.add(BlockPos.fromLong(entry.pos));
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Checks whether any tracked cell is predicted mature at the given time.
+     */
+    public boolean hasDueCells(long worldTime) {
+        while (!readyQueue.isEmpty()) {
+            QueueEntry head = readyQueue.peek();
+            CropCell cell = cells.get(head.pos);
+            if (cell != null && cell.predictedMatureTime == head.time) {
+                return head.time <= worldTime;
+            }
+            readyQueue.poll(); // Drop stale entry
+        }
+        return false;
+    }
+
+    /**
+     * Records whether a cell predicted to be mature actually was.
+     */
+    public void recordPrediction(Block cropBlock, boolean correct) {
+        int[] result = predictionResults.computeIfAbsent(cropBlock, b -> new int[2]);
+        if (correct) {
+            result[0]++;
+        }
+        result[1]++;
+        dirty = true;
+    }
+
+    /**
+     * Gets the fraction of maturity predictions that were correct for a crop block.
+     * @return Accuracy in 0.0-1.0, or -1.0 if no predictions have been checked yet
+     */
+    public double getPredictionAccuracy(Block cropBlock) {
+        int[] result = predictionResults.get(cropBlock);
+        if (result == null || result[1] == 0) {
+            return -1.0;
+        }
+        return (double) result[0] / result[1];
+    }
+
+    /**
+     * Estimates a cell's current age from its last observation and the learned growth rate.
+     */
+    public int estimateAge(CropCell cell, long worldTime) {
+        if (cell.observedAge >= cell.maxAge) {
+            return cell.maxAge;
+        }
+        double perStage = getTicksPerStage(cell.observedState.getBlock(), cell.maxAge);
+        int grown = (int) ((worldTime - cell.observedTime) / perStage);
+        return Math.min(cell.maxAge, cell.observedAge + Math.max(0, grown));
+    }
+
+    /**
+     * Gets the expected ticks for a cell's crop to grow from planted to mature, using the learned rate.
+     */
+    public double getGrowthTicks(CropCell cell) {
+        return getTicksPerStage(cell.observedState.getBlock(), cell.maxAge) * cell.maxAge;
+    }
+
+    public Collection<CropCell> getCells() {
+        return Collections.unmodifiableCollection(cells.values());
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public NbtCompound writeNbt() {
+        dirty = false;
+        return toNbt();
+    }
+
+    /**
+     * Serializes the learned growth rates, prediction results and tracked cells.
+     */
+    public NbtCompound toNbt() {
+        NbtCompound nbt = new NbtCompound();
+
+        NbtCompound ratesNbt = new NbtCompound();
+        for (Map.Entry<Block, Double> entry : ticksPerStage.entrySet()) {
+            ratesNbt.putDouble(Registries.BLOCK.getId(entry.getKey()).toString(), entry.getValue());
+        }
+        nbt.put("ticksPerStage", ratesNbt);
+
+        NbtCompound predictionsNbt = new NbtCompound();
+        for (Map.Entry<Block, int[]> entry : predictionResults.entrySet()) {
+            predictionsNbt.putIntArray(Registries.BLOCK.getId(entry.getKey()).toString(), entry.getValue());
+        }
+        nbt.put("predictionResults", predictionsNbt);
+
+        NbtList cellList = new NbtList();
+        for (CropCell cell : cells.values()) {
+            NbtCompound cellNbt = new NbtCompound();
+            cellNbt.putLong("pos", cell.pos);
+            cellNbt.putString("block", Registries.BLOCK.getId(cell.observedState.getBlock()).toString());
+            cellNbt.putInt("age", cell.observedAge);
+            cellNbt.putLong("observedTime", cell.observedTime);
+            cellNbt.putLong("plantedTime", cell.plantedTime);
+            cellNbt.putLong("stageStartTime", cell.stageStartTime);
+            cellNbt.putLong("predictedMatureTime", cell.predictedMatureTime);
+            cellList.add(cellNbt);
+        }
+        nbt.put("cells", cellList);
+        return nbt;
+    }
+
+    /**
+     * Creates a model from NBT data. Cells whose crop block no longer exists are dropped.
+     */
+    public static FarmGrowthModel fromNbt(NbtCompound nbt) {
+        FarmGrowthModel model = new FarmGrowthModel();
+
+        NbtCompound ratesNbt = nbt.getCompound("ticksPerStage");
+        for (String key : ratesNbt.getKeys()) {
+            Block block = getBlock(key);
+            if (block != null) {
+                model.ticksPerStage.put(block, ratesNbt.getDouble(key));
+            }
+        }
+
+        NbtCompound predictionsNbt = nbt.getCompound("predictionResults");
+        for (String key : predictionsNbt.getKeys()) {
+            Block block = getBlock(key);
+            int[] result = predictionsNbt.getIntArray(key);
+            if (block != null && result.length == 2) {
+                model.predictionResults.put(block, result);
+            }
+        }
+
+        NbtList cellList = nbt.getList("cells", 10); // 10 = NbtCompound
+        for (int i = 0; i < cellList.size(); i++) {
+            NbtCompound cellNbt = cellList.getCompound(i);
+            Block block = getBlock(cellNbt.getString("block"));
+            if (block == null) {
+                continue;
+            }
+            BlockState state = block.getDefaultState();
+            int maxAge = getMaxAge(state);
+            if (maxAge <= 0) {
+                continue;
+            }
+            int age = Math.min(maxAge, Math.max(0, cellNbt.getInt("age")));
+            state = maxAge == 7 ? state.with(Properties.AGE_7, age) : state.with(Properties.AGE_3, age);
+
+            CropCell cell = new CropCell(cellNbt.getLong("pos"));
+            cell.observedState = state;
+            cell.observedAge = age;
+            cell.maxAge = maxAge;
+            cell.observedTime = cellNbt.getLong("observedTime");
+            cell.plantedTime = cellNbt.getLong("plantedTime");
+            cell.stageStartTime = cellNbt.getLong("stageStartTime");
+            model.cells.put(cell.pos, cell);
+            model.schedule(cell, cellNbt.getLong("predictedMatureTime"));
+        }
+        return model;
+    }
+
+    private static Block getBlock(String id) {
+        Identifier blockId = Identifier.tryParse(id);
+        if (blockId == null || !Registries.BLOCK.containsId(blockId)) {
+            return null;
+        }
+        return Registries.BLOCK.get(blockId);
+    }
+
+    private void schedule(CropCell cell, long time) {
+        cell.predictedMatureTime = time;
+        readyQueue.add(new QueueEntry(cell.pos, time));
+    }
+
+    private double getTicksPerStage(Block block, int maxAge) {
+        Double learned = ticksPerStage.get(block);
+        if (learned != null) {
+            return learned;
+        }
+        return maxAge == 7 ? DEFAULT_TICKS_PER_STAGE_AGE_7 : DEFAULT_TICKS_PER_STAGE_AGE_3;
+    }
+
+    private static int getAge(BlockState state) {
+        if (state.contains(Properties.AGE_7)) {
+            return state.get(Properties.AGE_7);
+        } else if (state.contains(Properties.AGE_3)) {
+            return state.get(Properties.AGE_3);
+        }
+        return 0;
+    }
+
+    private static int getMaxAge(BlockState state) {
+        if (state.contains(Properties.AGE_7)) {
+            return 7;
+        } else if (state.contains(Properties.AGE_3)) {
+            return 3;
+        }
+        return 0;
+    }
+}
@@ -3,7 +3,6 @@ package com.secretasain.settlements.settlement;
 import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.building.StructureData;
 import com.secretasain.settlements.building.StructureLoader;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.block.*;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.item.Item;
@@ -20,9 +19,9 @@ import java.util.*;
 /**
  * System for farm villagers to maintain farmland and plant seeds.
  * The first assigned villager (index 0) repairs broken farmland and plants seeds.
+ * Driven by VillagerWorkStateMachine for villagers in the WORKING state.
  */
 public class FarmMaintenanceSystem {
-    private static final int CHECK_INTERVAL_TICKS = 100; // Check every 5 seconds
     private static final int FIX_INTERVAL_TICKS = 200; // Fix one block every 10 seconds (to avoid lag)
     
     // Track maintenance state per building
@@ -45,90 +44,27 @@ public class FarmMaintenanceSystem {
     }
     
     /**
-     * Registers the farm maintenance system with Fabric's server tick events.
+     * Runs farmland maintenance for a farm's first villager if it is close enough to the farm.
+     * Called periodically by VillagerWorkStateMachine for villagers in the WORKING state.
      */
-    public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            if (world.getTime() % CHECK_INTERVAL_TICKS == 0) {
-                tick(world);
-            }
-        });
-        
-        SettlementsMod.LOGGER.info("FarmMaintenanceSystem registered - will check for farmland maintenance every {} ticks", CHECK_INTERVAL_TICKS);
-    }
-    
-    /**
-     * Performs a tick update for the given world.
-     */
-    private static void tick(ServerWorld world) {
-        // Check if it's work hours (daytime: 1000-12000 ticks, roughly 6 AM to 6 PM)
-        long timeOfDay = world.getTimeOfDay() % 24000;
-        boolean isWorkHours = timeOfDay >= 1000 && timeOfDay < 12000;
+    static void handleMaintenance(Building building, VillagerData villagerData, VillagerEntity villager, ServerWorld world) {
+        // Check if villager is close enough to building to work
+        BlockPos buildingPos = building.getPosition();
+        double distanceSq = villager.getPos().squaredDistanceTo(
+            buildingPos.getX() + 0.5,
+            buildingPos.getY() + 0.5,
+            buildingPos.getZ() + 0.5
+        );
         
-        if (!isWorkHours) {
-            return; // Villagers don't work at night
+        double distance = Math.sqrt(distanceSq);
+        if (distance > 16.0) { // Within 16 blocks
+            SettlementsMod.LOGGER.info("Villager {} is too far from farm building {} (distance: {} blocks)", 
+                villagerData.getEntityId(), building.getId(), String.format("%.2f", distance));
+            return; // Villager is too far from building
         }
         
-        SettlementManager manager = SettlementManager.getInstance(world);
-        Collection<Settlement> allSettlements = manager.getAllSettlements();
-        
-        for (Settlement settlement : allSettlements) {
-            processSettlement(settlement, world);
-        }
-    }
-    
-    /**
-     * Processes farm maintenance for all farm buildings in a settlement.
-     */
-    private static void processSettlement(Settlement settlement, ServerWorld world) {
-        for (Building building : settlement.getBuildings()) {
-            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
-                continue;
-            }
-            
-            // Check if this is a farm building
-            if (!isFarmBuilding(building)) {
-                continue;
-            }
-            
-            // Get all villagers assigned to this farm
-            List<VillagerData> assignedVillagers = WorkAssignmentManager.getVillagersAssignedToBuilding(
-                settlement, building.getId()
-            );
-            
-            // Only the first villager (index 0) should do maintenance
-            if (assignedVillagers.isEmpty()) {
-                SettlementsMod.LOGGER.info("Farm building {} has no assigned villagers - skipping maintenance", building.getId());
-                continue;
-            }
-            
-            VillagerData firstVillagerData = assignedVillagers.get(0);
-            VillagerEntity villager = getVillagerEntity(world, firstVillagerData.getEntityId());
-            if (villager == null || villager.isRemoved()) {
-                continue;
-            }
-            
-            // Check if villager is close enough to building to work
-            BlockPos buildingPos = building.getPosition();
-            double distanceSq = villager.getPos().squaredDistanceTo(
-                buildingPos.getX() + 0.5,
-                buildingPos.getY() + 0.5,
-                buildingPos.getZ() + 0.5
-            );
-            
-            double distance = Math.sqrt(distanceSq);
-            if (distance > 16.0) { // Within 16 blocks
-                SettlementsMod.LOGGER.info("Villager {} is too far from farm building {} (distance: {} blocks)", 
-                    firstVillagerData.getEntityId(), building.getId(), String.format("%.2f", distance));
-                continue; // Villager is too far from building
-            }
-            
-            // SettlementsMod.LOGGER.info("Processing farm maintenance for building {} with villager {} (distance: {} blocks)", 
-            //     building.getId(), firstVillagerData.getEntityId(), String.format("%.2f", distance));
-            
-            // Process maintenance for this farm
-            processFarmMaintenance(building, villager, world);
-        }
+        // Process maintenance for this farm
+        processFarmMaintenance(building, villager, world);
     }
     
     /**
@@ -366,6 +302,7 @@ public class FarmMaintenanceSystem {
             }
             
             world.setBlockState(cropPos, cropState, Block.NOTIFY_NEIGHBORS | Block.NOTIFY_LISTENERS);
+            FarmGrowthModel.recordPlanting(building, cropPos, cropState, world.getTime());
             
             // Consume one seed from settlement storage
             consumeSeed(settlement, seedItem, world);
@@ -681,25 +618,6 @@ public class FarmMaintenanceSystem {
         }
     }
     
-    /**
-     * Checks if a building is a farm building.
-     */
-    private static boolean isFarmBuilding(Building building) {
-        String structureName = building.getStructureType().getPath().toLowerCase();
-        return structureName.contains("farm");
-    }
-    
-    /**
-     * Gets the VillagerEntity from the world by UUID.
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID entityId) {
-        try {
-            return (VillagerEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-    
     /**
      * Finds the settlement that contains the given building.
      */
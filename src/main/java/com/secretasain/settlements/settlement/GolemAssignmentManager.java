@@ -64,6 +64,7 @@ public class GolemAssignmentManager {
         
         // Assign to new wall station
         golem.setAssignedWallStationId(buildingId);
+        GolemPathfindingSystem.invalidate(golemId); // Check the new station on the next pass
         SettlementsMod.LOGGER.info("Assigned golem {} to wall station {}", golemId, buildingId);
         return true;
     }
@@ -9,10 +9,10 @@ import java.util.UUID;
 /**
  * Data class representing an iron golem associated with a settlement.
  */
-public class GolemData {
+public class GolemData implements SettlementMember {
     private UUID entityId;
     private BlockPos lastKnownPos;
-    private long lastSeen;
+    private long lastSeen; // World time the golem was last seen inside the settlement (-1 if not yet seen)
     private UUID assignedWallStationId; // Wall building this golem is assigned to (null if unassigned)
     private String name;
 
@@ -20,7 +20,7 @@ public class GolemData {
         this.entityId = entityId;
         this.lastKnownPos = lastKnownPos;
         this.name = name;
-        this.lastSeen = System.currentTimeMillis();
+        this.lastSeen = -1;
         this.assignedWallStationId = null;
     }
 
@@ -34,9 +34,22 @@ public class GolemData {
 
     public void setLastKnownPos(BlockPos lastKnownPos) {
         this.lastKnownPos = lastKnownPos;
-        this.lastSeen = System.currentTimeMillis();
     }
 
+    /**
+     * Records that the golem was seen inside the settlement.
+     * @param pos Current position of the golem
+     * @param worldTime Current world time
+     */
+    public void markSeen(BlockPos pos, long worldTime) {
+        this.lastKnownPos = pos;
+        this.lastSeen = worldTime;
+    }
+
+    /**
+     * Gets the world time the golem was last seen inside the settlement.
+     * @return World time, or -1 if the golem has not been seen yet
+     */
     public long getLastSeen() {
         return lastSeen;
     }
@@ -88,7 +101,7 @@ public class GolemData {
         UUID entityId = nbt.getUuid("entityId");
         BlockPos lastKnownPos = nbt.contains("lastKnownPos") ? BlockPos.fromLong(nbt.getLong("lastKnownPos")) : null;
         String name = nbt.getString("name");
-        long lastSeen = nbt.contains("lastSeen") ? nbt.getLong("lastSeen") : System.currentTimeMillis();
+        long lastSeen = nbt.contains("lastSeen") ? nbt.getLong("lastSeen") : -1;
         UUID assignedWallStationId = nbt.contains("assignedWallStationId") ? nbt.getUuid("assignedWallStationId") : null;
 
         GolemData data = new GolemData(entityId, lastKnownPos, name);
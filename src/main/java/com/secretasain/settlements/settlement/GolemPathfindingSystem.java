@@ -5,18 +5,42 @@ import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.entity.passive.IronGolemEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
 
-import java.util.Collection;
-import java.util.UUID;
+import java.util.*;
 
 /**
  * Handles pathfinding for assigned golems to their wall stations.
  * Makes golems stay within a small radius of their assigned wall station persistently.
+ *
+ * Loaded golems come from GolemScanningSystem's event-tracked set. A golem is only re-resolved
+ * (settlement, assignment, wall station, distance) once it has moved further than it could go without
+ * leaving its radius (at most MOVE_THRESHOLD blocks) since it was last checked, while it is known to be
+ * outside its radius, after its assignment changed or its wall station was removed, and at least every
+ * RECHECK_INTERVAL_TICKS. Golems standing at their post cost one distance check per pass.
  */
 public class GolemPathfindingSystem {
     private static final int PATHFINDING_INTERVAL_TICKS = 40; // Update pathfinding every 2 seconds (40 ticks)
+    private static final long RECHECK_INTERVAL_TICKS = 1200; // Re-check every golem at least once a minute
     private static final double WALL_STATION_RADIUS = 16.0; // Golems must stay within 16 blocks of their wall station
     private static final double WALL_STATION_RADIUS_SQ = WALL_STATION_RADIUS * WALL_STATION_RADIUS; // Squared distance for comparison
+    private static final double MOVE_THRESHOLD = 4.0; // Re-check a golem once it moved 4 blocks from where it was last checked
+    
+    /**
+     * Where a golem was when it was last checked (kept on GolemScanningSystem's tracked golem).
+     */
+    static class StationCheck {
+        Vec3d checkedPos; // Null forces a check on the next pass
+        long checkedTime;
+        double allowedMoveSq; // Squared distance the golem may move before it could be outside its radius
+        UUID stationId; // Wall station the golem was checked against (null if unassigned)
+        boolean outsideRadius; // Was outside its wall station radius at the last check
+        
+        boolean needsCheck(IronGolemEntity entity, long worldTime) {
+            return checkedPos == null || outsideRadius || worldTime - checkedTime >= RECHECK_INTERVAL_TICKS
+                || entity.getPos().squaredDistanceTo(checkedPos) > allowedMoveSq;
+        }
+    }
     
     /**
      * Registers the pathfinding system with Fabric's server tick events.
@@ -27,6 +51,30 @@ public class GolemPathfindingSystem {
         });
     }
     
+    /**
+     * Forces a golem to be checked on the next pass (e.g., after its assignment changed).
+     * @param golemId The golem's entity UUID
+     */
+    public static void invalidate(UUID golemId) {
+        GolemScanningSystem.TrackedGolem golem = GolemScanningSystem.getTrackedGolem(golemId);
+        if (golem != null) {
+            golem.stationCheck.checkedPos = null;
+        }
+    }
+    
+    /**
+     * Forces every golem guarding a wall station to be checked on the next pass (the station was removed).
+     * @param world The world the building was in
+     * @param buildingId The removed building's ID
+     */
+    public static void onBuildingRemoved(ServerWorld world, UUID buildingId) {
+        for (GolemScanningSystem.TrackedGolem golem : GolemScanningSystem.getTrackedGolems(world)) {
+            if (buildingId.equals(golem.stationCheck.stationId)) {
+                golem.stationCheck.checkedPos = null;
+            }
+        }
+    }
+    
     /**
      * Performs a tick update for the given world.
      * @param world The server world to update
@@ -37,100 +85,126 @@ public class GolemPathfindingSystem {
             return;
         }
         
-        SettlementManager manager = SettlementManager.getInstance(world);
-        Collection<Settlement> allSettlements = manager.getAllSettlements();
+        long worldTime = world.getTime();
+        Map<UUID, GolemEntry> golemIndex = null; // Built only if a golem in this world needs a check
+        for (GolemScanningSystem.TrackedGolem golem : GolemScanningSystem.getTrackedGolems(world)) {
+            StationCheck check = golem.stationCheck;
+            if (golem.entity.isRemoved() || !check.needsCheck(golem.entity, worldTime)) {
+                continue;
+            }
+            
+            if (golemIndex == null) {
+                golemIndex = buildGolemIndex(world);
+            }
+            check.checkedPos = golem.entity.getPos();
+            check.checkedTime = worldTime;
+            check.allowedMoveSq = MOVE_THRESHOLD * MOVE_THRESHOLD;
+            check.stationId = null;
+            check.outsideRadius = false;
+            GolemEntry entry = golemIndex.get(golem.entity.getUuid());
+            if (entry != null) {
+                processGolem(entry.settlement, entry.data, golem.entity, world, check);
+            }
+        }
+    }
+    
+    /**
+     * A golem's settlement membership.
+     */
+    private static class GolemEntry {
+        final Settlement settlement;
+        final GolemData data;
         
-        // Process each settlement
-        for (Settlement settlement : allSettlements) {
-            processSettlement(settlement, world);
+        GolemEntry(Settlement settlement, GolemData data) {
+            this.settlement = settlement;
+            this.data = data;
         }
     }
     
     /**
-     * Processes pathfinding for all assigned golems in a settlement.
+     * Indexes the assigned golems of all settlements in a world by UUID.
      */
-    private static void processSettlement(Settlement settlement, ServerWorld world) {
-        for (GolemData golemData : settlement.getGolems()) {
-            // Only process assigned golems
-            if (!golemData.isAssigned()) {
-                continue;
-            }
-            
-            UUID buildingId = golemData.getAssignedWallStationId();
-            if (buildingId == null) {
-                continue;
-            }
-            
-            // Find the building
-            Building building = settlement.getBuildings().stream()
-                .filter(b -> b.getId().equals(buildingId))
-                .findFirst()
-                .orElse(null);
-            
-            if (building == null) {
-                // Building was removed, unassign the golem
-                SettlementsMod.LOGGER.warn("Wall station {} not found for assigned golem {}, unassigning", 
-                    buildingId, golemData.getEntityId());
-                golemData.setAssignedWallStationId(null);
-                continue;
-            }
-            
-            // Only pathfind to completed buildings
-            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
-                continue;
-            }
-            
-            // Verify it's actually a wall station
-            if (!WallStationDetector.isWallStation(building)) {
-                SettlementsMod.LOGGER.warn("Building {} is not a wall station for assigned golem {}, unassigning", 
-                    buildingId, golemData.getEntityId());
-                golemData.setAssignedWallStationId(null);
-                continue;
-            }
-            
-            // Get the actual golem entity
-            IronGolemEntity golem = getGolemEntity(world, golemData.getEntityId());
-            if (golem == null) {
-                continue; // Golem not loaded or doesn't exist
-            }
-            
-            // Calculate target position (building center)
-            BlockPos buildingPos = building.getPosition();
-            BlockPos targetPos = findTargetPosition(buildingPos, world);
-            
-            // Calculate distance from golem to building center
-            double distanceSq = golem.getPos().squaredDistanceTo(
-                targetPos.getX() + 0.5, 
-                targetPos.getY() + 0.5, 
-                targetPos.getZ() + 0.5
-            );
-            
-            // Always enforce radius - if golem is outside the work radius, pathfind back
-            if (distanceSq > WALL_STATION_RADIUS_SQ) {
-                // Golem is outside work radius, pathfind back to wall station
-                boolean pathStarted = golem.getNavigation().startMovingTo(
-                    targetPos.getX() + 0.5,
-                    targetPos.getY() + 0.5,
-                    targetPos.getZ() + 0.5,
-                    1.0 // Speed modifier (normal speed)
-                );
-                
-                if (pathStarted) {
-                    SettlementsMod.LOGGER.debug("Golem {} outside wall station radius ({} blocks), pathfinding back to wall station at {}", 
-                        golemData.getEntityId(), Math.sqrt(distanceSq), targetPos);
+    private static Map<UUID, GolemEntry> buildGolemIndex(ServerWorld world) {
+        Map<UUID, GolemEntry> index = new HashMap<>();
+        for (Settlement settlement : SettlementManager.getInstance(world).getAllSettlements()) {
+            for (GolemData golemData : settlement.getGolems()) {
+                if (golemData.isAssigned()) {
+                    index.put(golemData.getEntityId(), new GolemEntry(settlement, golemData));
                 }
             }
         }
+        return index;
     }
     
     /**
-     * Gets the IronGolemEntity from the world by UUID.
+     * Keeps an assigned golem within the radius of its wall station, recording the result in the check.
      */
-    private static IronGolemEntity getGolemEntity(ServerWorld world, UUID entityId) {
-        try {
-            return (IronGolemEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
+    private static void processGolem(Settlement settlement, GolemData golemData, IronGolemEntity golem, ServerWorld world,
+                                     StationCheck check) {
+        UUID buildingId = golemData.getAssignedWallStationId();
+        if (buildingId == null) {
+            return;
+        }
+        check.stationId = buildingId;
+        
+        // Find the building
+        Building building = settlement.getBuildings().stream()
+            .filter(b -> b.getId().equals(buildingId))
+            .findFirst()
+            .orElse(null);
+        
+        if (building == null) {
+            // Building was removed, unassign the golem
+            SettlementsMod.LOGGER.warn("Wall station {} not found for assigned golem {}, unassigning", 
+                buildingId, golemData.getEntityId());
+            golemData.setAssignedWallStationId(null);
+            return;
+        }
+        
+        // Only pathfind to completed buildings
+        if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
+            return;
+        }
+        
+        // Verify it's actually a wall station
+        if (!WallStationDetector.isWallStation(building)) {
+            SettlementsMod.LOGGER.warn("Building {} is not a wall station for assigned golem {}, unassigning", 
+                buildingId, golemData.getEntityId());
+            golemData.setAssignedWallStationId(null);
+            return;
+        }
+        
+        // Calculate target position (building center)
+        BlockPos buildingPos = building.getPosition();
+        BlockPos targetPos = findTargetPosition(buildingPos, world);
+        
+        // Calculate distance from golem to building center
+        double distanceSq = golem.getPos().squaredDistanceTo(
+            targetPos.getX() + 0.5, 
+            targetPos.getY() + 0.5, 
+            targetPos.getZ() + 0.5
+        );
+        
+        // Always enforce radius - if golem is outside the work radius, pathfind back
+        if (distanceSq <= WALL_STATION_RADIUS_SQ) {
+            // Re-check before the golem could have walked out of the radius
+            double allowedMove = Math.min(MOVE_THRESHOLD, WALL_STATION_RADIUS - Math.sqrt(distanceSq));
+            check.allowedMoveSq = allowedMove * allowedMove;
+            return;
+        }
+        check.outsideRadius = true;
+        
+        // Golem is outside work radius, pathfind back to wall station
+        boolean pathStarted = golem.getNavigation().startMovingTo(
+            targetPos.getX() + 0.5,
+            targetPos.getY() + 0.5,
+            targetPos.getZ() + 0.5,
+            1.0 // Speed modifier (normal speed)
+        );
+        
+        if (pathStarted) {
+            SettlementsMod.LOGGER.debug("Golem {} outside wall station radius ({} blocks), pathfinding back to wall station at {}", 
+                golemData.getEntityId(), Math.sqrt(distanceSq), targetPos);
         }
     }
     
@@ -12,6 +12,7 @@ import java.util.UUID;
 
 /**
  * Handles scanning and tracking of iron golems within settlements.
+ * The full-radius scan is only used by GolemScanningSystem's low-frequency reconciliation pass.
  */
 public class GolemTracker {
     
@@ -55,26 +56,33 @@ public class GolemTracker {
         
         // Convert IronGolemEntity to GolemData
         for (IronGolemEntity golem : golems) {
-            UUID entityId = golem.getUuid();
-            BlockPos lastKnownPos = golem.getBlockPos();
-            
-            // Get golem name (custom name or generate one)
-            String name = golem.hasCustomName() 
-                ? golem.getCustomName().getString() 
-                : generateGolemName(golem);
-            
-            GolemData data = new GolemData(
-                entityId,
-                lastKnownPos,
-                name
-            );
-            
-            foundGolems.add(data);
+            foundGolems.add(createGolemData(golem));
         }
         
         return foundGolems;
     }
     
+    /**
+     * Creates settlement data for a golem entity.
+     * @param golem The golem entity
+     * @return New GolemData for the golem (not assigned)
+     */
+    public static GolemData createGolemData(IronGolemEntity golem) {
+        UUID entityId = golem.getUuid();
+        BlockPos lastKnownPos = golem.getBlockPos();
+        
+        // Get golem name (custom name or generate one)
+        String name = golem.hasCustomName() 
+            ? golem.getCustomName().getString() 
+            : generateGolemName(golem);
+        
+        return new GolemData(
+            entityId,
+            lastKnownPos,
+            name
+        );
+    }
+    
     /**
      * Generates a name for a golem if it doesn't have a custom name.
      * @param golem The golem entity
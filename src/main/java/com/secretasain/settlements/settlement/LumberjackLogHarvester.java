@@ -3,12 +3,14 @@ package com.secretasain.settlements.settlement;
 import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.building.StructureData;
 import com.secretasain.settlements.building.StructureLoader;
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.minecraft.block.*;
 import net.minecraft.block.Blocks;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.state.property.Properties;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3i;
 
@@ -29,6 +31,10 @@ public class LumberjackLogHarvester {
     private static final int MIN_LEAVES_COUNT = 5; // Minimum number of leaves blocks nearby to be considered a tree (STRICT)
     private static final int MIN_CONNECTED_LOGS = 3; // Minimum connected logs in trunk pattern (STRICT)
     private static final int MAX_TREE_SIZE = 64; // Maximum tree size for harvesting (prevents harvesting huge structures)
+    private static final int MAX_TREE_LOGS = 512; // Hard limit on logs visited per tree (mega jungle trees stay well below this)
+    
+    // Shared flood fill for tree counting and felling (server thread only)
+    private static final TreeFloodFill FLOOD_FILL = new TreeFloodFill();
     
     /**
      * Harvests logs in the area around a lumberyard building.
@@ -45,6 +51,11 @@ public class LumberjackLogHarvester {
             return harvestedItems;
         }
         
+        // Trees queued by the previous cycle are still being felled - wait for them to finish
+        if (TreeFellingScheduler.hasPendingJobs(building.getId())) {
+            return harvestedItems;
+        }
+        
         // Load structure data to get the building center
         StructureData structureData = StructureLoader.loadStructure(building.getStructureType(), server);
         if (structureData == null) {
@@ -60,6 +71,9 @@ public class LumberjackLogHarvester {
         Vec3i size = structureData.getDimensions();
         BlockPos centerPos = buildingPos.add(size.getX() / 2, size.getY() / 2, size.getZ() / 2);
         
+        // Bounds of every building, so logs that are part of a structure are skipped
+        BuildingBoundsIndex buildingBounds = BuildingBoundsIndex.get(world, server);
+        
         // Scan for logs in a radius around the building center
         // Track which trees we've already started harvesting to avoid harvesting the same tree multiple times
         java.util.Set<BlockPos> processedTreeStarts = new java.util.HashSet<>();
@@ -96,12 +110,13 @@ public class LumberjackLogHarvester {
                         }
                         
                         // Check if this log is part of a natural tree (not a building)
-                        if (isNaturalTree(building, checkPos, blockState, block, world, server)) {
-                            // Harvest the entire tree (all connected logs)
-                            List<ItemStack> treeDrops = harvestTree(checkPos, blockState, block, building, world, server);
-                            harvestedItems.addAll(treeDrops);
+                        if (isNaturalTree(building, checkPos, blockState, block, world, buildingBounds)) {
+                            // Queue the entire tree (all connected logs) for felling
+                            int logsQueued = harvestTree(checkPos, blockState, block, building, world, buildingBounds);
                             
-                            if (!treeDrops.isEmpty()) {
+                            if (logsQueued < 0) {
+                                processedTreeStarts.add(checkPos); // Too big to be a tree - don't fill it again from its other logs
+                            } else if (logsQueued > 0) {
                                 treesHarvested++;
                                 processedTreeStarts.add(checkPos); // Mark this tree as processed
                                 
@@ -109,11 +124,12 @@ public class LumberjackLogHarvester {
                                 LumberyardItemCollectorSystem.recordTreeHarvest(
                                     building.getId(), 
                                     checkPos, 
-                                    world.getTime()
+                                    world
                                 );
+                                LumberyardItemTracker.recordHarvestSite(building.getId(), world, checkPos);
                                 
-                                SettlementsMod.LOGGER.info("Harvested entire tree starting at {} ({} items)", 
-                                    checkPos, treeDrops.size());
+                                SettlementsMod.LOGGER.info("Queued tree starting at {} for felling ({} logs)", 
+                                    checkPos, logsQueued);
                             }
                         } else {
                             SettlementsMod.LOGGER.debug("Skipping log {} at {} - not a natural tree", 
@@ -124,11 +140,12 @@ public class LumberjackLogHarvester {
             }
         }
         
-        if (!harvestedItems.isEmpty()) {
-            SettlementsMod.LOGGER.info("Lumberjack harvested {} items from {} trees around building {}", 
-                harvestedItems.size(), treesHarvested, building.getId());
+        if (treesHarvested > 0) {
+            SettlementsMod.LOGGER.info("Lumberjack queued {} trees for felling around building {}", 
+                treesHarvested, building.getId());
         }
         
+        // Drops are handed to the lumberjack by TreeFellingScheduler as each tree comes down
         return harvestedItems;
     }
     
@@ -147,7 +164,7 @@ public class LumberjackLogHarvester {
      * @param blockState The block state
      * @return true if the block is a log
      */
-    private static boolean isLogBlock(Block block, BlockState blockState) {
+    static boolean isLogBlock(Block block, BlockState blockState) {
         // Check for mangrove roots explicitly (they don't extend PillarBlock)
         if (block == Blocks.MANGROVE_ROOTS || block == Blocks.MUDDY_MANGROVE_ROOTS) {
             return true;
@@ -200,32 +217,83 @@ public class LumberjackLogHarvester {
     
     /**
      * Checks if a log block is part of a natural tree (not a building structure or manually placed).
+     * The classification is cached per trunk base and reused until a block around the tree changes.
      * @param currentBuilding The lumberyard building (to exclude from building checks)
      * @param logPos The position of the log
      * @param logState The block state of the log
      * @param logBlock The log block
      * @param world The server world
-     * @param server The Minecraft server
+     * @param buildingBounds Bounds of all buildings in the world
      * @return true if the log is part of a natural tree
      */
     private static boolean isNaturalTree(Building currentBuilding, BlockPos logPos, BlockState logState, 
-                                        Block logBlock, ServerWorld world, MinecraftServer server) {
+                                        Block logBlock, ServerWorld world, BuildingBoundsIndex buildingBounds) {
         // First, check if this log is within any building's bounds (exclude it)
-        SettlementManager manager = SettlementManager.getInstance(world);
-        for (Settlement settlement : manager.getAllSettlements()) {
-            for (Building building : settlement.getBuildings()) {
-                // Skip the current lumberyard building itself
-                if (building.getId().equals(currentBuilding.getId())) {
-                    continue;
-                }
-                
-                // Check if log is within this building's structure bounds
-                if (isLogWithinBuilding(logPos, building, world, server)) {
-                    return false; // This log is part of a building structure
+        if (buildingBounds.contains(logPos, currentBuilding.getId())) {
+            return false; // This log is part of a building structure
+        }
+        
+        BlockPos trunkBase = findTrunkBase(logPos, world);
+        Boolean cached = TreeClassificationCache.get(world.getRegistryKey(), trunkBase);
+        if (cached != null) {
+            return cached;
+        }
+        
+        boolean isNatural = classifyTree(logPos, logBlock, world);
+        
+        // Only cache when every block the classification looked at was loaded. The entry is shared by
+        // every log of the trunk, so the region runs from below the trunk base up past this log
+        // (trunk base and log share a column).
+        BlockBox region = new BlockBox(
+            trunkBase.getX() - LEAF_CHECK_RADIUS, trunkBase.getY() - Math.max(LEAF_CHECK_RADIUS, TREE_TRUNK_CHECK_DOWN + 1),
+            trunkBase.getZ() - LEAF_CHECK_RADIUS, trunkBase.getX() + LEAF_CHECK_RADIUS,
+            logPos.getY() + Math.max(LEAF_CHECK_RADIUS, TREE_HEIGHT_CHECK), trunkBase.getZ() + LEAF_CHECK_RADIUS);
+        if (isRegionLoaded(region, world)) {
+            TreeClassificationCache.put(world.getRegistryKey(), trunkBase, isNatural, region);
+        }
+        
+        return isNatural;
+    }
+    
+    /**
+     * Finds the bottom log of the trunk column a log belongs to.
+     */
+    private static BlockPos findTrunkBase(BlockPos logPos, ServerWorld world) {
+        BlockPos base = logPos;
+        for (int y = 1; y <= TREE_TRUNK_CHECK_DOWN; y++) {
+            BlockPos belowPos = logPos.down(y);
+            if (!world.getChunkManager().isChunkLoaded(belowPos.getX() >> 4, belowPos.getZ() >> 4)) {
+                break;
+            }
+            BlockState belowState = world.getBlockState(belowPos);
+            if (!isLogBlock(belowState.getBlock(), belowState)) {
+                break;
+            }
+            base = belowPos;
+        }
+        return base;
+    }
+    
+    private static boolean isRegionLoaded(BlockBox region, ServerWorld world) {
+        for (int chunkX = region.getMinX() >> 4; chunkX <= region.getMaxX() >> 4; chunkX++) {
+            for (int chunkZ = region.getMinZ() >> 4; chunkZ <= region.getMaxZ() >> 4; chunkZ++) {
+                if (!world.getChunkManager().isChunkLoaded(chunkX, chunkZ)) {
+                    return false;
                 }
             }
         }
-        
+        return true;
+    }
+    
+    /**
+     * Classifies a log by the blocks around it: leaves nearby, a trunk standing on natural terrain,
+     * and a mostly vertical shape.
+     * @param logPos The position of the log
+     * @param logBlock The log block
+     * @param world The server world
+     * @return true if the log looks like part of a natural tree
+     */
+    private static boolean classifyTree(BlockPos logPos, Block logBlock, ServerWorld world) {
         // Check if this log is part of a natural tree by looking for:
         // 1. Multiple leaves nearby (MIN_LEAVES_COUNT or more)
         // 2. Tree trunk pattern (logs connected vertically going down to natural terrain)
@@ -585,204 +653,35 @@ public class LumberjackLogHarvester {
         return isNatural;
     }
     
-    /**
-     * Checks if a log position is within a building's structure bounds.
-     * @param logPos The position of the log
-     * @param building The building to check
-     * @param world The server world
-     * @param server The Minecraft server
-     * @return true if the log is within the building's bounds
-     */
-    private static boolean isLogWithinBuilding(BlockPos logPos, Building building, ServerWorld world, 
-                                              MinecraftServer server) {
-        // Load the building's structure data
-        StructureData structureData = StructureLoader.loadStructure(building.getStructureType(), server);
-        if (structureData == null) {
-            return false;
-        }
-        
-        BlockPos buildingPos = building.getPosition();
-        Vec3i size = structureData.getDimensions();
-        int rotation = building.getRotation();
-        
-        // Calculate building bounds (accounting for rotation)
-        // For simplicity, we'll use a bounding box approach
-        int minX = buildingPos.getX();
-        int maxX = buildingPos.getX() + size.getX();
-        int minY = buildingPos.getY();
-        int maxY = buildingPos.getY() + size.getY();
-        int minZ = buildingPos.getZ();
-        int maxZ = buildingPos.getZ() + size.getZ();
-        
-        // Handle rotation (simplified - assumes 0, 90, 180, 270 degree rotations)
-        if (rotation == 90 || rotation == 270) {
-            // Swap X and Z dimensions
-            int tempMin = minX;
-            int tempMax = maxX;
-            minX = minZ;
-            maxX = maxZ;
-            minZ = tempMin;
-            maxZ = tempMax;
-        }
-        
-        // Check if log is within building bounds
-        boolean withinBounds = logPos.getX() >= minX && logPos.getX() < maxX &&
-                              logPos.getY() >= minY && logPos.getY() < maxY &&
-                              logPos.getZ() >= minZ && logPos.getZ() < maxZ;
-        
-        if (withinBounds) {
-            SettlementsMod.LOGGER.debug("Log at {} is within building {} bounds ({}, {}, {}) to ({}, {}, {})", 
-                logPos, building.getId(), minX, minY, minZ, maxX, maxY, maxZ);
-        }
-        
-        return withinBounds;
-    }
-    
     /**
      * Harvests an entire tree starting from the given log position.
-     * Finds all connected logs and harvests them all, including branches.
+     * Finds all connected logs, including branches, and queues them with TreeFellingScheduler.
      * @param startPos The starting position of a log in the tree
      * @param startState The block state of the starting log
      * @param startBlock The block type of the starting log
      * @param building The lumberyard building (for building exclusion checks)
      * @param world The server world
-     * @param server The Minecraft server
-     * @return List of all dropped items from the tree
+     * @param buildingBounds Bounds of all buildings in the world
+     * @return Number of logs queued for felling, or -1 if the connected logs exceed MAX_TREE_LOGS
      */
-    private static List<ItemStack> harvestTree(BlockPos startPos, BlockState startState, Block startBlock,
-                                              Building building, ServerWorld world, MinecraftServer server) {
-        List<ItemStack> allDrops = new ArrayList<>();
-        java.util.Set<BlockPos> visitedLogs = new java.util.HashSet<>(); // Track visited positions to avoid infinite loops
-        java.util.Queue<BlockPos> logsToHarvest = new java.util.LinkedList<>();
-        
-        // Start with the initial log
-        logsToHarvest.add(startPos);
-        
+    private static int harvestTree(BlockPos startPos, BlockState startState, Block startBlock,
+                                   Building building, ServerWorld world, BuildingBoundsIndex buildingBounds) {
         // Find all connected logs in the tree using breadth-first search
-        // This ensures we find all logs including branches, not just the main trunk
-        while (!logsToHarvest.isEmpty()) {
-            BlockPos currentPos = logsToHarvest.poll();
-            
-            // Skip if already processed
-            if (visitedLogs.contains(currentPos)) {
-                continue;
-            }
-            
-            // Check if chunk is loaded
-            if (!world.getChunkManager().isChunkLoaded(currentPos.getX() >> 4, currentPos.getZ() >> 4)) {
-                continue;
-            }
-            
-            BlockState currentState = world.getBlockState(currentPos);
-            Block currentBlock = currentState.getBlock();
-            
-            // Check if this is still a log block (might have been harvested already)
-            if (!isLogBlock(currentBlock, currentState)) {
-                continue;
-            }
-            
-            // Check if this log is part of a building (don't harvest building logs)
-            if (isLogWithinAnyBuilding(currentPos, building, world, server)) {
-                continue;
-            }
-            
-            // Check distance from start - prevent harvesting logs that are too far (unrelated trees)
-            double distanceSq = startPos.getSquaredDistance(currentPos);
-            if (distanceSq > MAX_TREE_SIZE * MAX_TREE_SIZE) {
-                SettlementsMod.LOGGER.debug("Skipping log at {} - too far from tree start ({} blocks)", 
-                    currentPos, Math.sqrt(distanceSq));
-                continue;
-            }
-            
-            // Mark as visited before harvesting to avoid processing twice
-            visitedLogs.add(currentPos);
-            
-            // Harvest this log
-            List<ItemStack> drops = harvestLog(currentPos, currentState, currentBlock, world);
-            allDrops.addAll(drops);
-            
-            // Find connected logs by checking ALL 26 neighbors in a 3x3x3 cube
-            // This ensures we find all touching logs including diagonals at different Y levels
-            // This is critical for acacia trees (many horizontal branches), jungle 2x2 trees, and mangrove trees
-            for (int dx = -1; dx <= 1; dx++) {
-                for (int dy = -1; dy <= 1; dy++) {
-                    for (int dz = -1; dz <= 1; dz++) {
-                        // Skip the center block (currentPos itself)
-                        if (dx == 0 && dy == 0 && dz == 0) {
-                            continue;
-                        }
-                        
-                        BlockPos neighborPos = currentPos.add(dx, dy, dz);
-                        
-                        // Skip if already processed
-                        if (visitedLogs.contains(neighborPos)) {
-                            continue;
-                        }
-                        
-                        // Check if chunk is loaded
-                        if (!world.getChunkManager().isChunkLoaded(neighborPos.getX() >> 4, neighborPos.getZ() >> 4)) {
-                            continue;
-                        }
-                        
-                        BlockState neighborState = world.getBlockState(neighborPos);
-                        Block neighborBlock = neighborState.getBlock();
-                        
-                        // Check if neighbor is a log
-                        if (isLogBlock(neighborBlock, neighborState)) {
-                            // Check distance from start to prevent harvesting unrelated logs
-                            double neighborDistanceSq = startPos.getSquaredDistance(neighborPos);
-                            if (neighborDistanceSq <= MAX_TREE_SIZE * MAX_TREE_SIZE) {
-                                logsToHarvest.add(neighborPos);
-                            }
-                        }
-                        
-                        // Also check for leaves above - if there are leaves above, there might be more logs above them
-                        // This helps with acacia trees and jungle trees that have leaves between branches
-                        if (dy > 0 && neighborBlock instanceof LeavesBlock) {
-                            // Check a few blocks above the leaves for more logs
-                            for (int checkY = 1; checkY <= 3; checkY++) {
-                                BlockPos aboveLeafPos = neighborPos.up(checkY);
-                                
-                                // Skip if already processed
-                                if (visitedLogs.contains(aboveLeafPos)) {
-                                    continue;
-                                }
-                                
-                                // Check if chunk is loaded
-                                if (!world.getChunkManager().isChunkLoaded(aboveLeafPos.getX() >> 4, aboveLeafPos.getZ() >> 4)) {
-                                    break;
-                                }
-                                
-                                // Check distance from start
-                                double aboveDistanceSq = startPos.getSquaredDistance(aboveLeafPos);
-                                if (aboveDistanceSq > MAX_TREE_SIZE * MAX_TREE_SIZE) {
-                                    break;
-                                }
-                                
-                                BlockState aboveState = world.getBlockState(aboveLeafPos);
-                                Block aboveBlock = aboveState.getBlock();
-                                
-                                // If we find a log above the leaves, add it to the queue
-                                if (isLogBlock(aboveBlock, aboveState)) {
-                                    logsToHarvest.add(aboveLeafPos);
-                                    break; // Found a log, stop checking further up
-                                }
-                                
-                                // If we hit a non-leaf, non-log block, stop checking
-                                if (!(aboveBlock instanceof LeavesBlock)) {
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        // ALL 26 neighbors are followed so diagonal branches at different Y levels are found -
+        // critical for acacia trees (many horizontal branches), jungle 2x2 trees, and mangrove trees.
+        // Logs inside buildings are never part of the tree.
+        LongList treeLogs = FLOOD_FILL.fill(world, startPos, MAX_TREE_SIZE, MAX_TREE_LOGS, true, true,
+            (pos, state) -> isLogBlock(state.getBlock(), state) && !buildingBounds.contains(pos, building.getId()));
+        
+        // A truncated fill would fell part of the structure and leave floating logs behind
+        if (FLOOD_FILL.wasTruncated()) {
+            SettlementsMod.LOGGER.debug("Logs at {} exceed {} connected blocks - not a harvestable tree", 
+                startPos, MAX_TREE_LOGS);
+            return -1;
         }
         
-        SettlementsMod.LOGGER.info("Harvested entire tree starting at {}: {} logs, {} total items", 
-            startPos, visitedLogs.size(), allDrops.size());
-        
-        return allDrops;
+        // Logs are broken a few at a time by the felling scheduler
+        return TreeFellingScheduler.queueTree(building, world, startPos, treeLogs);
     }
     
     /**
@@ -790,76 +689,8 @@ public class LumberjackLogHarvester {
      * Used for logging purposes.
      */
     private static int countLogsInTree(BlockPos startPos, Block startBlock, ServerWorld world) {
-        java.util.Set<BlockPos> visited = new java.util.HashSet<>();
-        java.util.Queue<BlockPos> toVisit = new java.util.LinkedList<>();
-        
-        toVisit.add(startPos);
-        visited.add(startPos);
-        
-        while (!toVisit.isEmpty()) {
-            BlockPos currentPos = toVisit.poll();
-            
-            if (!world.getChunkManager().isChunkLoaded(currentPos.getX() >> 4, currentPos.getZ() >> 4)) {
-                continue;
-            }
-            
-            BlockState currentState = world.getBlockState(currentPos);
-            Block currentBlock = currentState.getBlock();
-            
-            if (!isLogBlock(currentBlock, currentState)) {
-                continue;
-            }
-            
-            // Check neighbors
-            BlockPos[] directions = {
-                currentPos.up(), currentPos.down(),
-                currentPos.north(), currentPos.south(),
-                currentPos.east(), currentPos.west()
-            };
-            
-            for (BlockPos neighborPos : directions) {
-                if (visited.contains(neighborPos)) {
-                    continue;
-                }
-                
-                if (!world.getChunkManager().isChunkLoaded(neighborPos.getX() >> 4, neighborPos.getZ() >> 4)) {
-                    continue;
-                }
-                
-                BlockState neighborState = world.getBlockState(neighborPos);
-                Block neighborBlock = neighborState.getBlock();
-                
-                if (isLogBlock(neighborBlock, neighborState)) {
-                    if (startPos.getSquaredDistance(neighborPos) <= MAX_TREE_SIZE * MAX_TREE_SIZE) {
-                        toVisit.add(neighborPos);
-                        visited.add(neighborPos);
-                    }
-                }
-            }
-        }
-        
-        return visited.size();
-    }
-    
-    /**
-     * Checks if a log is within any building's bounds (excluding the lumberyard).
-     */
-    private static boolean isLogWithinAnyBuilding(BlockPos logPos, Building currentBuilding, 
-                                                 ServerWorld world, MinecraftServer server) {
-        SettlementManager manager = SettlementManager.getInstance(world);
-        for (Settlement settlement : manager.getAllSettlements()) {
-            for (Building building : settlement.getBuildings()) {
-                // Skip the current lumberyard building itself
-                if (building.getId().equals(currentBuilding.getId())) {
-                    continue;
-                }
-                
-                if (isLogWithinBuilding(logPos, building, world, server)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return FLOOD_FILL.fill(world, startPos, MAX_TREE_SIZE, MAX_TREE_LOGS, false, false,
+            (pos, state) -> isLogBlock(state.getBlock(), state)).size();
     }
     
     /**
@@ -871,8 +702,8 @@ public class LumberjackLogHarvester {
      * @param world The server world
      * @return List of dropped items
      */
-    private static List<ItemStack> harvestLog(BlockPos logPos, BlockState logState, Block logBlock, 
-                                              ServerWorld world) {
+    static List<ItemStack> harvestLog(BlockPos logPos, BlockState logState, Block logBlock, 
+                                      ServerWorld world) {
         // Get what would drop from breaking the log
         List<ItemStack> droppedStacks = Block.getDroppedStacks(logState, world, logPos, null);
         
@@ -1,7 +1,8 @@
 package com.secretasain.settlements.settlement;
 
 import com.secretasain.settlements.SettlementsMod;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import com.secretasain.settlements.pathfinding.VillagerNavigator;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.block.BlockState;
@@ -17,7 +18,6 @@ import net.minecraft.item.Items;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Box;
 
 import java.util.*;
 
@@ -29,9 +29,11 @@ import java.util.*;
  * 
  * Note: Composting is handled by the farmer's composter system (FarmComposterSystem),
  * which takes compostable items from chests and converts them to bone meal.
+ * 
+ * Driven by VillagerWorkStateMachine for villagers in the COLLECTING state.
  */
 public class LumberyardItemCollectorSystem {
-    private static final int CHECK_INTERVAL_TICKS = 10; // Check every 0.5 seconds (10 ticks) - faster for quicker pickup
+    private static final double COLLECTION_RANGE = 32.0; // Collector works within 32 blocks of the lumberyard
     private static final double ITEM_SEARCH_RADIUS = 16.0; // Search for items within 16 blocks of harvested trees
     private static final double CHEST_SEARCH_RADIUS = 8.0; // Search for chests within 8 blocks of lectern
     private static final double ARRIVAL_DISTANCE = 3.0; // Consider arrived when within 3 blocks
@@ -99,101 +101,52 @@ public class LumberyardItemCollectorSystem {
     }
     
     /**
-     * Registers the item collector system with Fabric's server tick events.
+     * Registers the cleanup of the harvest locations and collection tasks when the server stops.
      */
     public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            if (world.getTime() % CHECK_INTERVAL_TICKS == 0) {
-                tick(world);
-            }
+        // The expiry timers are dropped with the server, so the harvest locations go with them
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            HARVESTED_TREES.clear();
+            TASK_STATES.clear();
         });
     }
     
     /**
      * Records a tree harvest location for item collection.
-     * Called by LumberjackLogHarvester when a tree is harvested.
-     */
-    public static void recordTreeHarvest(UUID buildingId, BlockPos treePosition, long worldTime) {
-        HARVESTED_TREES.computeIfAbsent(buildingId, k -> new ArrayList<>()).add(
-            new TreeHarvestLocation(treePosition, worldTime)
-        );
-        
-        // Clean up old harvest locations (older than timeout)
-        List<TreeHarvestLocation> locations = HARVESTED_TREES.get(buildingId);
-        if (locations != null) {
-            locations.removeIf(loc -> (worldTime - loc.harvestTime) > TREE_HARVEST_TIMEOUT);
-        }
-    }
-    
-    /**
-     * Performs a tick update for the given world.
+     * Called by LumberjackLogHarvester when a tree is harvested. The location is dropped by a
+     * SettlementTimerWheel timer once it is older than TREE_HARVEST_TIMEOUT.
      */
-    private static void tick(ServerWorld world) {
-        SettlementManager manager = SettlementManager.getInstance(world);
+    public static void recordTreeHarvest(UUID buildingId, BlockPos treePosition, ServerWorld world) {
+        long worldTime = world.getTime();
+        TreeHarvestLocation location = new TreeHarvestLocation(treePosition, worldTime);
+        HARVESTED_TREES.computeIfAbsent(buildingId, k -> new ArrayList<>()).add(location);
         
-        for (Settlement settlement : manager.getAllSettlements()) {
-            processSettlement(settlement, world);
-        }
+        SettlementTimerWheel.schedule(world, worldTime + TREE_HARVEST_TIMEOUT + 1, () -> {
+            List<TreeHarvestLocation> locations = HARVESTED_TREES.get(buildingId);
+            if (locations != null && locations.remove(location) && locations.isEmpty()) {
+                HARVESTED_TREES.remove(buildingId);
+            }
+        });
     }
     
     /**
-     * Processes collection tasks for lumberyard buildings with second villagers.
+     * Checks if the collector villager is close enough to its lumberyard to collect (within 32 blocks).
      */
-    private static void processSettlement(Settlement settlement, ServerWorld world) {
-        for (Building building : settlement.getBuildings()) {
-            if (!isLumberyardBuilding(building)) {
-                continue;
-            }
-            
-            // CRITICAL: Only process COMPLETED buildings
-            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
-                continue; // Skip non-completed buildings
-            }
-            
-            // Get all villagers assigned to this lumberyard
-            List<VillagerData> assignedVillagers = WorkAssignmentManager.getVillagersAssignedToBuilding(
-                settlement, building.getId()
-            );
-            
-            // Check if there's a second villager (index 1)
-            if (assignedVillagers.size() < 2) {
-                continue; // Need at least 2 villagers
-            }
-            
-            // Get the second villager
-            VillagerData secondVillagerData = assignedVillagers.get(1);
-            VillagerEntity villager = getVillagerEntity(world, secondVillagerData.getEntityId());
-            
-            if (villager == null) {
-                continue;
-            }
-            
-            // Skip if second villager is depositing (let deposit system handle it)
-            if (secondVillagerData.isDepositing()) {
-                continue;
-            }
-            
-            // Check if villager is close enough to building to work (within 32 blocks)
-            BlockPos buildingPos = building.getPosition();
-            double distanceSq = villager.getPos().squaredDistanceTo(
-                buildingPos.getX() + 0.5,
-                buildingPos.getY() + 0.5,
-                buildingPos.getZ() + 0.5
-            );
-            
-            if (distanceSq > 32.0 * 32.0) {
-                continue; // Villager is too far from building to work
-            }
-            
-            // Process collection task
-            processCollectionTask(settlement, building, secondVillagerData, villager, world);
-        }
+    static boolean isWithinCollectionRange(Building building, VillagerEntity villager) {
+        BlockPos buildingPos = building.getPosition();
+        double distanceSq = villager.getPos().squaredDistanceTo(
+            buildingPos.getX() + 0.5,
+            buildingPos.getY() + 0.5,
+            buildingPos.getZ() + 0.5
+        );
+        return distanceSq <= COLLECTION_RANGE * COLLECTION_RANGE;
     }
     
     /**
      * Processes a collection task for the second lumberyard villager.
+     * Called by VillagerWorkStateMachine for villagers in the COLLECTING state.
      */
-    private static void processCollectionTask(Settlement settlement, Building building,
+    static void processCollectionTask(Settlement settlement, Building building,
                                             VillagerData villagerData, VillagerEntity villager,
                                             ServerWorld world) {
         UUID villagerId = villagerData.getEntityId();
@@ -221,7 +174,7 @@ public class LumberyardItemCollectorSystem {
             shouldSearchForNewItem = true;
         } else if (state.phase == CollectionTaskPhase.GOING_TO_ITEM) {
             // Check if target item still exists
-            ItemEntity targetItem = findItemAtPosition(state.targetItemPos, world);
+            ItemEntity targetItem = findItemAtPosition(state.buildingId, state.targetItemPos);
             if (targetItem == null || targetItem.isRemoved()) {
                 // Item is gone - search for a new one
                 shouldSearchForNewItem = true;
@@ -229,13 +182,19 @@ public class LumberyardItemCollectorSystem {
             }
         }
         
+        // Pick up drops the harvest sites did not see (around the building, reloaded chunks)
+        if (shouldSearchForNewItem || world.getTime() % 40 == 0) {
+            LumberyardItemTracker.scanAroundBuilding(building.getId(), world, building.getPosition(),
+                ITEM_SEARCH_RADIUS * 2, ITEM_SEARCH_RADIUS);
+        }
+        
         if (shouldSearchForNewItem) {
             
             // Find items near harvested trees OR around the building area OR near villager
             ItemEntity nearbyItem = null;
             
             // First, try to find items very close to villager (within pickup radius)
-            nearbyItem = findItemNearVillager(villager, world, ITEM_PICKUP_RADIUS);
+            nearbyItem = findItemNearVillager(state.buildingId, villager, ITEM_PICKUP_RADIUS);
             if (nearbyItem != null) {
                 SettlementsMod.LOGGER.debug("Found item very close to villager: {} at {}", 
                     nearbyItem.getStack().getItem(), nearbyItem.getBlockPos());
@@ -245,7 +204,7 @@ public class LumberyardItemCollectorSystem {
             if (nearbyItem == null) {
                 List<TreeHarvestLocation> harvestLocations = HARVESTED_TREES.getOrDefault(building.getId(), new ArrayList<>());
                 if (!harvestLocations.isEmpty()) {
-                    nearbyItem = findItemNearHarvestedTrees(harvestLocations, world);
+                    nearbyItem = findItemNearHarvestedTrees(building.getId(), harvestLocations, world);
                     if (nearbyItem != null) {
                         SettlementsMod.LOGGER.debug("Found item near harvested tree: {} at {}", 
                             nearbyItem.getStack().getItem(), nearbyItem.getBlockPos());
@@ -264,7 +223,7 @@ public class LumberyardItemCollectorSystem {
             
             // If still no items, try searching in a larger radius around villager
             if (nearbyItem == null) {
-                nearbyItem = findItemNearVillager(villager, world, ITEM_SEARCH_RADIUS);
+                nearbyItem = findItemNearVillager(state.buildingId, villager, ITEM_SEARCH_RADIUS);
                 if (nearbyItem != null) {
                     SettlementsMod.LOGGER.debug("Found item near villager (larger radius): {} at {}", 
                         nearbyItem.getStack().getItem(), nearbyItem.getBlockPos());
@@ -289,7 +248,8 @@ public class LumberyardItemCollectorSystem {
             state.phase = CollectionTaskPhase.GOING_TO_ITEM;
             
             // Pathfind to item at high speed
-            boolean pathStarted = villager.getNavigation().startMovingTo(
+            boolean pathStarted = VillagerNavigator.moveTo(
+                villager,
                 nearbyItem.getX(),
                 nearbyItem.getY(),
                 nearbyItem.getZ(),
@@ -316,7 +276,7 @@ public class LumberyardItemCollectorSystem {
         
         // ALWAYS check if villager is within pickup radius of any item (opportunistic collection)
         // This allows the villager to pick up items even when going to chest/composter
-        ItemEntity veryCloseItem = findItemNearVillager(villager, world, ITEM_PICKUP_RADIUS);
+        ItemEntity veryCloseItem = findItemNearVillager(state.buildingId, villager, ITEM_PICKUP_RADIUS);
         if (veryCloseItem != null) {
             // Item is within pickup radius - collect it immediately (interrupt current task if needed)
             state.targetItemPos = veryCloseItem.getBlockPos();
@@ -334,11 +294,11 @@ public class LumberyardItemCollectorSystem {
             // Only search for items if idle
             if (state.phase == CollectionTaskPhase.IDLE) {
                 // Search for nearby items
-                ItemEntity nearbyItem = findItemNearVillager(villager, world, ITEM_SEARCH_RADIUS);
+                ItemEntity nearbyItem = findItemNearVillager(state.buildingId, villager, ITEM_SEARCH_RADIUS);
                 if (nearbyItem == null) {
                     List<TreeHarvestLocation> harvestLocations = HARVESTED_TREES.getOrDefault(building.getId(), new ArrayList<>());
                     if (!harvestLocations.isEmpty()) {
-                        nearbyItem = findItemNearHarvestedTrees(harvestLocations, world);
+                        nearbyItem = findItemNearHarvestedTrees(building.getId(), harvestLocations, world);
                     }
                 }
                 if (nearbyItem == null) {
@@ -349,7 +309,8 @@ public class LumberyardItemCollectorSystem {
                     // Found an item - start collecting it at high speed
                     state.targetItemPos = nearbyItem.getBlockPos();
                     state.phase = CollectionTaskPhase.GOING_TO_ITEM;
-                    villager.getNavigation().startMovingTo(
+                    VillagerNavigator.moveTo(
+                        villager,
                         nearbyItem.getX(),
                         nearbyItem.getY(),
                         nearbyItem.getZ(),
@@ -380,55 +341,24 @@ public class LumberyardItemCollectorSystem {
     }
     
     /**
-     * Finds an item entity near harvested trees.
+     * Finds a tracked item entity near harvested trees.
      */
-    private static ItemEntity findItemNearHarvestedTrees(List<TreeHarvestLocation> harvestLocations, ServerWorld world) {
-        long currentTime = world.getTime();
+    private static ItemEntity findItemNearHarvestedTrees(UUID buildingId, List<TreeHarvestLocation> harvestLocations, ServerWorld world) {
+        List<ItemEntity> candidates = LumberyardItemTracker.getCandidates(buildingId);
+        if (candidates.isEmpty()) {
+            return null;
+        }
         
+        // Old harvest locations expire from the list; the age check only backs up the expiry timers
+        long worldTime = world.getTime();
         for (TreeHarvestLocation location : harvestLocations) {
-            // Skip old harvest locations
-            if ((currentTime - location.harvestTime) > TREE_HARVEST_TIMEOUT) {
+            if (worldTime - location.harvestTime > TREE_HARVEST_TIMEOUT) {
                 continue;
             }
-            
-            // Search for items in a box around the harvest location
-            Box searchBox = new Box(
-                location.position.getX() - ITEM_SEARCH_RADIUS,
-                location.position.getY() - ITEM_SEARCH_RADIUS,
-                location.position.getZ() - ITEM_SEARCH_RADIUS,
-                location.position.getX() + ITEM_SEARCH_RADIUS,
-                location.position.getY() + ITEM_SEARCH_RADIUS,
-                location.position.getZ() + ITEM_SEARCH_RADIUS
-            );
-            
-            List<ItemEntity> items = world.getEntitiesByType(
-                net.minecraft.entity.EntityType.ITEM,
-                searchBox,
-                entity -> entity instanceof ItemEntity && !entity.isRemoved() && !entity.getStack().isEmpty()
-            );
-            
-            if (!items.isEmpty()) {
-                // Filter out log items (those should go through normal deposit system)
-                // Only collect saplings, sticks, apples, and other tree drops
-                items.removeIf(item -> {
-                    Item itemType = item.getStack().getItem();
-                    String itemName = itemType.getTranslationKey().toLowerCase();
-                    return itemName.contains("log") || itemName.contains("wood") || itemName.contains("plank");
-                });
-                
-                if (!items.isEmpty()) {
-                    // Return the closest item
-                    ItemEntity closest = items.get(0);
-                    double closestDist = location.position.getSquaredDistance(closest.getBlockPos());
-                    for (ItemEntity item : items) {
-                        double dist = location.position.getSquaredDistance(item.getBlockPos());
-                        if (dist < closestDist) {
-                            closest = item;
-                            closestDist = dist;
-                        }
-                    }
-                    return closest;
-                }
+            // Return the closest tracked item in a box around the harvest location
+            ItemEntity closest = findClosestInBox(candidates, location.position, ITEM_SEARCH_RADIUS, ITEM_SEARCH_RADIUS);
+            if (closest != null) {
+                return closest;
             }
         }
         
@@ -436,51 +366,34 @@ public class LumberyardItemCollectorSystem {
     }
     
     /**
-     * Finds items around the building area (fallback if no items near harvested trees).
+     * Finds tracked items around the building area (fallback if no items near harvested trees).
      */
     private static ItemEntity findItemsAroundBuilding(Building building, ServerWorld world) {
-        BlockPos buildingPos = building.getPosition();
-        
         // Search in a larger area around the building
-        Box searchBox = new Box(
-            buildingPos.getX() - ITEM_SEARCH_RADIUS * 2,
-            buildingPos.getY() - ITEM_SEARCH_RADIUS,
-            buildingPos.getZ() - ITEM_SEARCH_RADIUS * 2,
-            buildingPos.getX() + ITEM_SEARCH_RADIUS * 2,
-            buildingPos.getY() + ITEM_SEARCH_RADIUS,
-            buildingPos.getZ() + ITEM_SEARCH_RADIUS * 2
-        );
-        
-        List<ItemEntity> items = world.getEntitiesByType(
-            net.minecraft.entity.EntityType.ITEM,
-            searchBox,
-            entity -> entity instanceof ItemEntity && !entity.isRemoved() && !entity.getStack().isEmpty()
-        );
-        
-        if (!items.isEmpty()) {
-            // Filter out log items - only collect tree drops (saplings, sticks, apples, etc.)
-            items.removeIf(item -> {
-                Item itemType = item.getStack().getItem();
-                String itemName = itemType.getTranslationKey().toLowerCase();
-                return itemName.contains("log") || itemName.contains("wood") || itemName.contains("plank");
-            });
-            
-            if (!items.isEmpty()) {
-                // Return the closest item to building
-                ItemEntity closest = items.get(0);
-                double closestDist = buildingPos.getSquaredDistance(closest.getBlockPos());
-                for (ItemEntity item : items) {
-                    double dist = buildingPos.getSquaredDistance(item.getBlockPos());
-                    if (dist < closestDist) {
-                        closest = item;
-                        closestDist = dist;
-                    }
-                }
-                return closest;
+        return findClosestInBox(LumberyardItemTracker.getCandidates(building.getId()), building.getPosition(),
+            ITEM_SEARCH_RADIUS * 2, ITEM_SEARCH_RADIUS);
+    }
+    
+    /**
+     * Returns the candidate closest to the center within a box of the given horizontal and vertical radius.
+     */
+    private static ItemEntity findClosestInBox(List<ItemEntity> candidates, BlockPos center, 
+                                               double horizontalRadius, double verticalRadius) {
+        ItemEntity closest = null;
+        double closestDist = Double.MAX_VALUE;
+        for (ItemEntity item : candidates) {
+            if (Math.abs(item.getX() - center.getX()) > horizontalRadius ||
+                Math.abs(item.getY() - center.getY()) > verticalRadius ||
+                Math.abs(item.getZ() - center.getZ()) > horizontalRadius) {
+                continue;
+            }
+            double dist = center.getSquaredDistance(item.getBlockPos());
+            if (dist < closestDist) {
+                closest = item;
+                closestDist = dist;
             }
         }
-        
-        return null;
+        return closest;
     }
     
     /**
@@ -488,7 +401,7 @@ public class LumberyardItemCollectorSystem {
      */
     private static void handleGoingToItem(VillagerEntity villager, CollectionTaskState state, ServerWorld world) {
         // Check if item still exists
-        ItemEntity item = findItemAtPosition(state.targetItemPos, world);
+        ItemEntity item = findItemAtPosition(state.buildingId, state.targetItemPos);
         if (item == null || item.isRemoved()) {
             // Item no longer exists - just search for a new one instead of resetting
             // Don't lose collected items!
@@ -505,7 +418,7 @@ public class LumberyardItemCollectorSystem {
         } else {
             // Continue pathfinding
             if (!villager.getNavigation().isFollowingPath()) {
-                villager.getNavigation().startMovingTo(item.getX(), item.getY(), item.getZ(), 1.0);
+                VillagerNavigator.moveTo(villager, item.getX(), item.getY(), item.getZ(), 1.0);
             }
         }
     }
@@ -518,10 +431,10 @@ public class LumberyardItemCollectorSystem {
                                            VillagerData villagerData, VillagerEntity villager,
                                            CollectionTaskState state, ServerWorld world) {
         // Find item near villager (not just at target position, in case it moved)
-        ItemEntity item = findItemNearVillager(villager, world, ITEM_PICKUP_RADIUS);
+        ItemEntity item = findItemNearVillager(state.buildingId, villager, ITEM_PICKUP_RADIUS);
         if (item == null || item.isRemoved()) {
             // Try to find item at original target position
-            item = findItemAtPosition(state.targetItemPos, world);
+            item = findItemAtPosition(state.buildingId, state.targetItemPos);
             if (item == null || item.isRemoved()) {
                 // Item no longer exists - continue searching
                 SettlementsMod.LOGGER.debug("Item no longer exists, continuing search for villager {}", 
@@ -536,7 +449,7 @@ public class LumberyardItemCollectorSystem {
         if (distanceSq > ITEM_PICKUP_RADIUS_SQ) {
             // Not close enough yet - continue pathfinding at high speed
             if (!villager.getNavigation().isFollowingPath()) {
-                villager.getNavigation().startMovingTo(item.getX(), item.getY(), item.getZ(), ITEM_COLLECTION_SPEED);
+                VillagerNavigator.moveTo(villager, item.getX(), item.getY(), item.getZ(), ITEM_COLLECTION_SPEED);
             }
             return;
         }
@@ -553,17 +466,11 @@ public class LumberyardItemCollectorSystem {
         BlockPos collectionLocation = item.getBlockPos();
         
         Item itemType = itemStack.getItem();
-        Identifier itemId = Registries.ITEM.getId(itemType);
-        if (itemId == null) {
-            state.phase = CollectionTaskPhase.IDLE;
-            return;
-        }
-        String itemKey = itemId.toString();
         
         // Add ALL items to villager's accumulated items (same system as farmer villager)
         // Deposit everything to chests - no composting
         int totalCount = itemStack.getCount();
-        villagerData.addAccumulatedItem(itemKey, totalCount);
+        villagerData.addAccumulatedItem(itemType, totalCount);
         SettlementManager.getInstance(world).markDirty();
         
         // Also keep a copy in collectedItems for sapling planting logic and tracking
@@ -620,17 +527,8 @@ public class LumberyardItemCollectorSystem {
                         villagerData.getEntityId(), plantPos);
                     
                     // Remove one sapling from accumulated items since we planted it (don't deposit it)
-                    Identifier saplingItemId = Registries.ITEM.getId(itemType);
-                    if (saplingItemId != null) {
-                        String saplingKey = saplingItemId.toString();
-                        int currentCount = villagerData.getAccumulatedItems().getOrDefault(saplingKey, 0);
-                        if (currentCount > 0) {
-                            villagerData.getAccumulatedItems().put(saplingKey, currentCount - 1);
-                            if (currentCount - 1 == 0) {
-                                villagerData.getAccumulatedItems().remove(saplingKey);
-                            }
-                            SettlementManager.getInstance(world).markDirty();
-                        }
+                    if (villagerData.removeAccumulatedItem(itemType, 1) > 0) {
+                        SettlementManager.getInstance(world).markDirty();
                     }
                     
                     // Remove one sapling from collected items since we planted it
@@ -654,12 +552,13 @@ public class LumberyardItemCollectorSystem {
             
             // CHAINING: If we haven't collected enough saplings yet, look for nearby saplings in 3x3 area
             if (state.saplingCount < SAPLINGS_BEFORE_PLANT) {
-                ItemEntity nearbySapling = findNearbySapling(villager, collectionLocation, world);
+                ItemEntity nearbySapling = findNearbySapling(state.buildingId, villager, collectionLocation);
                 if (nearbySapling != null) {
                     // Found a nearby sapling - chain to it immediately at high speed
                     state.targetItemPos = nearbySapling.getBlockPos();
                     state.phase = CollectionTaskPhase.GOING_TO_ITEM;
-                    villager.getNavigation().startMovingTo(
+                    VillagerNavigator.moveTo(
+                        villager,
                         nearbySapling.getX(),
                         nearbySapling.getY(),
                         nearbySapling.getZ(),
@@ -694,62 +593,29 @@ public class LumberyardItemCollectorSystem {
     }
     
     /**
-     * Finds an item entity near the villager.
+     * Finds a tracked item entity near the villager.
      */
-    private static ItemEntity findItemNearVillager(VillagerEntity villager, ServerWorld world, double radius) {
-        Box searchBox = new Box(
-            villager.getX() - radius,
-            villager.getY() - radius,
-            villager.getZ() - radius,
-            villager.getX() + radius,
-            villager.getY() + radius,
-            villager.getZ() + radius
-        );
-        
-        List<ItemEntity> items = world.getEntitiesByType(
-            net.minecraft.entity.EntityType.ITEM,
-            searchBox,
-            entity -> entity instanceof ItemEntity && !entity.isRemoved() && !entity.getStack().isEmpty()
-        );
-        
-        if (!items.isEmpty()) {
-            // Filter out log items
-            items.removeIf(item -> {
-                Item itemType = item.getStack().getItem();
-                String itemName = itemType.getTranslationKey().toLowerCase();
-                return itemName.contains("log") || itemName.contains("wood") || itemName.contains("plank");
-            });
-            
-            if (!items.isEmpty()) {
-                // Return the closest item
-                ItemEntity closest = items.get(0);
-                double closestDist = villager.getPos().squaredDistanceTo(closest.getX(), closest.getY(), closest.getZ());
-                for (ItemEntity item : items) {
-                    double dist = villager.getPos().squaredDistanceTo(item.getX(), item.getY(), item.getZ());
-                    if (dist < closestDist) {
-                        closest = item;
-                        closestDist = dist;
-                    }
-                }
-                return closest;
+    private static ItemEntity findItemNearVillager(UUID buildingId, VillagerEntity villager, double radius) {
+        ItemEntity closest = null;
+        double closestDist = Double.MAX_VALUE;
+        for (ItemEntity item : LumberyardItemTracker.getCandidates(buildingId)) {
+            if (Math.abs(item.getX() - villager.getX()) > radius ||
+                Math.abs(item.getY() - villager.getY()) > radius ||
+                Math.abs(item.getZ() - villager.getZ()) > radius) {
+                continue;
+            }
+            double dist = villager.getPos().squaredDistanceTo(item.getX(), item.getY(), item.getZ());
+            if (dist < closestDist) {
+                closest = item;
+                closestDist = dist;
             }
         }
-        
-        return null;
-    }
-    
-    /**
-     * Checks if a building is a lumberyard building.
-     */
-    private static boolean isLumberyardBuilding(Building building) {
-        String structureName = building.getStructureType().getPath().toLowerCase();
-        return structureName.contains("lumber") || structureName.contains("lumberyard") ||
-               structureName.contains("lumber_jack") || structureName.contains("lumberjack");
+        return closest;
     }
     
     /**
      * Checks if a lumberyard villager is actively working (collecting items).
-     * This is used by VillagerPathfindingSystem to avoid interrupting work.
+     * Used by VillagerWorkStateMachine to keep a collector that is chasing an item in the COLLECTING state.
      */
     public static boolean isVillagerActivelyWorking(UUID villagerId) {
         CollectionTaskState state = TASK_STATES.get(villagerId);
@@ -837,91 +703,52 @@ public class LumberyardItemCollectorSystem {
     }
     
     /**
-     * Finds an item entity at a specific position.
+     * Finds a tracked item entity at a specific position.
      */
-    private static ItemEntity findItemAtPosition(BlockPos pos, ServerWorld world) {
-        Box searchBox = new Box(pos).expand(1.0);
-        List<ItemEntity> items = world.getEntitiesByType(
-            net.minecraft.entity.EntityType.ITEM,
-            searchBox,
-            entity -> entity instanceof ItemEntity && !entity.isRemoved()
-        );
-        
-        if (!items.isEmpty()) {
-            // Find closest item to the position
-            ItemEntity closest = items.get(0);
-            double closestDist = pos.getSquaredDistance(closest.getBlockPos());
-            for (ItemEntity item : items) {
-                double dist = pos.getSquaredDistance(item.getBlockPos());
-                if (dist < closestDist) {
-                    closest = item;
-                    closestDist = dist;
-                }
+    private static ItemEntity findItemAtPosition(UUID buildingId, BlockPos pos) {
+        // Same extent as new Box(pos).expand(1.0)
+        ItemEntity closest = null;
+        double closestDist = Double.MAX_VALUE;
+        for (ItemEntity item : LumberyardItemTracker.getCandidates(buildingId)) {
+            if (item.getX() < pos.getX() - 1.0 || item.getX() > pos.getX() + 2.0 ||
+                item.getY() < pos.getY() - 1.0 || item.getY() > pos.getY() + 2.0 ||
+                item.getZ() < pos.getZ() - 1.0 || item.getZ() > pos.getZ() + 2.0) {
+                continue;
+            }
+            double dist = pos.getSquaredDistance(item.getBlockPos());
+            if (dist < closestDist) {
+                closest = item;
+                closestDist = dist;
             }
-            return closest;
         }
-        
-        return null;
+        return closest;
     }
     
-    /**
-     * Gets the VillagerEntity from the world by UUID.
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID entityId) {
-        try {
-            return (VillagerEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
-        }
-    }
     
     /**
-     * Finds a nearby sapling in a 3x3 area around the given location for chaining.
+     * Finds a nearby tracked sapling in a 3x3 area around the given location for chaining.
      * Returns the closest sapling item entity, or null if none found.
      */
-    private static ItemEntity findNearbySapling(VillagerEntity villager, BlockPos centerPos, ServerWorld world) {
-        // Search in a 3x3 area around the collection location
-        Box searchBox = new Box(
-            centerPos.getX() - SAPLING_CHAIN_RADIUS,
-            centerPos.getY() - SAPLING_CHAIN_RADIUS,
-            centerPos.getZ() - SAPLING_CHAIN_RADIUS,
-            centerPos.getX() + SAPLING_CHAIN_RADIUS,
-            centerPos.getY() + SAPLING_CHAIN_RADIUS,
-            centerPos.getZ() + SAPLING_CHAIN_RADIUS
-        );
-        
-        List<ItemEntity> items = world.getEntitiesByType(
-            net.minecraft.entity.EntityType.ITEM,
-            searchBox,
-            entity -> {
-                if (!(entity instanceof ItemEntity) || entity.isRemoved()) {
-                    return false;
-                }
-                ItemEntity itemEntity = (ItemEntity) entity;
-                ItemStack stack = itemEntity.getStack();
-                if (stack.isEmpty()) {
-                    return false;
-                }
-                // Only look for saplings
-                return isSapling(stack.getItem());
+    private static ItemEntity findNearbySapling(UUID buildingId, VillagerEntity villager, BlockPos centerPos) {
+        ItemEntity closest = null;
+        double closestDist = Double.MAX_VALUE;
+        for (ItemEntity item : LumberyardItemTracker.getCandidates(buildingId)) {
+            // Only look for saplings
+            if (!isSapling(item.getStack().getItem())) {
+                continue;
             }
-        );
-        
-        if (items.isEmpty()) {
-            return null;
-        }
-        
-        // Return the closest sapling to the villager
-        ItemEntity closest = items.get(0);
-        double closestDist = villager.getPos().squaredDistanceTo(closest.getX(), closest.getY(), closest.getZ());
-        for (ItemEntity item : items) {
+            if (Math.abs(item.getX() - centerPos.getX()) > SAPLING_CHAIN_RADIUS ||
+                Math.abs(item.getY() - centerPos.getY()) > SAPLING_CHAIN_RADIUS ||
+                Math.abs(item.getZ() - centerPos.getZ()) > SAPLING_CHAIN_RADIUS) {
+                continue;
+            }
+            // Return the closest sapling to the villager
             double dist = villager.getPos().squaredDistanceTo(item.getX(), item.getY(), item.getZ());
             if (dist < closestDist) {
                 closest = item;
                 closestDist = dist;
             }
         }
-        
         return closest;
     }
     
@@ -1116,25 +943,14 @@ public class LumberyardItemCollectorSystem {
             
             // Remove one sapling from accumulated items since we planted it (don't deposit it)
             Item saplingItem = saplingToPlant.getItem();
-            Identifier saplingItemId = Registries.ITEM.getId(saplingItem);
-            if (saplingItemId != null) {
-                String saplingKey = saplingItemId.toString();
-                SettlementManager manager = SettlementManager.getInstance(world);
-                VillagerData villagerData = manager.getAllSettlements().stream()
-                    .flatMap(s -> s.getVillagers().stream())
-                    .filter(v -> v.getEntityId().equals(villager.getUuid()))
-                    .findFirst()
-                    .orElse(null);
-                if (villagerData != null) {
-                    int currentCount = villagerData.getAccumulatedItems().getOrDefault(saplingKey, 0);
-                    if (currentCount > 0) {
-                        villagerData.getAccumulatedItems().put(saplingKey, currentCount - 1);
-                        if (currentCount - 1 == 0) {
-                            villagerData.getAccumulatedItems().remove(saplingKey);
-                        }
-                        manager.markDirty();
-                    }
-                }
+            SettlementManager manager = SettlementManager.getInstance(world);
+            VillagerData villagerData = manager.getAllSettlements().stream()
+                .flatMap(s -> s.getVillagers().stream())
+                .filter(v -> v.getEntityId().equals(villager.getUuid()))
+                .findFirst()
+                .orElse(null);
+            if (villagerData != null && villagerData.removeAccumulatedItem(saplingItem, 1) > 0) {
+                manager.markDirty();
             }
             
             // Remove one sapling from collected items
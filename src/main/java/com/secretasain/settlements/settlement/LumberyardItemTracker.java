@@ -0,0 +1,200 @@
+package com.secretasain.settlements.settlement;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.item.Item;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Tracks item entities dropped around each lumberyard's own tree harvests.
+ * When a lumberjack fells a tree, the harvest site is registered here. Item entities that load
+ * (spawn) near an active site - saplings, sticks and apples from decaying leaves - are added to that
+ * lumberyard's candidate list, and dropped again when they are picked up, merged or despawn.
+ * The item collector reads this small list instead of querying the world's entity sections.
+ * Drops that loaded before a site was registered, lie around the lumberyard itself or come back
+ * with their chunk are picked up by a one-off entity query when a site is registered and by a
+ * low-frequency query around the building.
+ */
+public class LumberyardItemTracker {
+    private static final double SITE_RADIUS = 16.0; // Items within 16 blocks of a harvest site belong to the lumberyard
+    private static final long SITE_TIMEOUT = 6000; // Harvest sites stop accepting items after 5 minutes (6000 ticks)
+    private static final long BUILDING_SCAN_INTERVAL = 200; // Query around the lumberyard at most every 10 seconds
+
+    // Active harvest sites per lumberyard building
+    private static final Map<UUID, List<HarvestSite>> SITES = new HashMap<>();
+
+    // Tracked item entities per lumberyard building
+    private static final Map<UUID, List<ItemEntity>> CANDIDATES = new HashMap<>();
+
+    // Reverse lookup for O(1) removal on unload
+    private static final Map<ItemEntity, UUID> OWNERS = new IdentityHashMap<>();
+
+    // Last world time the area around each lumberyard was queried
+    private static final Map<UUID, Long> LAST_BUILDING_SCAN = new HashMap<>();
+
+    /**
+     * A tree harvest location that item drops are attributed to.
+     */
+    private static class HarvestSite {
+        final RegistryKey<World> worldKey;
+        final BlockPos position;
+        final long harvestTime;
+
+        HarvestSite(RegistryKey<World> worldKey, BlockPos position, long harvestTime) {
+            this.worldKey = worldKey;
+            this.position = position;
+            this.harvestTime = harvestTime;
+        }
+    }
+
+    /**
+     * Registers the entity load/unload handlers that keep candidate lists up to date.
+     */
+    public static void register() {
+        ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
+            if (entity instanceof ItemEntity && !SITES.isEmpty()) {
+                onItemLoaded((ItemEntity) entity, world);
+            }
+        });
+
+        // Fired on pickup, merge, despawn and chunk unload
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            if (entity instanceof ItemEntity) {
+                untrack((ItemEntity) entity);
+            }
+        });
+
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            SITES.clear();
+            CANDIDATES.clear();
+            OWNERS.clear();
+            LAST_BUILDING_SCAN.clear();
+        });
+    }
+
+    /**
+     * Records a tree harvest site for a lumberyard so drops near it are tracked.
+     */
+    public static void recordHarvestSite(UUID buildingId, ServerWorld world, BlockPos position) {
+        long worldTime = world.getTime();
+        List<HarvestSite> sites = SITES.computeIfAbsent(buildingId, k -> new ArrayList<>());
+        sites.removeIf(site -> (worldTime - site.harvestTime) > SITE_TIMEOUT);
+        sites.add(new HarvestSite(world.getRegistryKey(), position, worldTime));
+
+        // Adopt drops that are already lying around the site
+        adoptItems(buildingId, world, new Box(position).expand(SITE_RADIUS));
+    }
+
+    /**
+     * Queries the area around a lumberyard for untracked drops, at most once per BUILDING_SCAN_INTERVAL.
+     * Covers items that never loaded near a harvest site: drops around the building itself, drops from
+     * older harvests and drops that reloaded with their chunk.
+     */
+    public static void scanAroundBuilding(UUID buildingId, ServerWorld world, BlockPos center,
+                                          double horizontalRadius, double verticalRadius) {
+        long worldTime = world.getTime();
+        Long lastScan = LAST_BUILDING_SCAN.get(buildingId);
+        if (lastScan != null && (worldTime - lastScan) < BUILDING_SCAN_INTERVAL) {
+            return;
+        }
+        LAST_BUILDING_SCAN.put(buildingId, worldTime);
+        adoptItems(buildingId, world, new Box(center).expand(horizontalRadius, verticalRadius, horizontalRadius));
+    }
+
+    /**
+     * Gets the live item entities tracked for a lumberyard.
+     * Removed or emptied entities are pruned before returning.
+     * @return The candidate list (do not modify)
+     */
+    public static List<ItemEntity> getCandidates(UUID buildingId) {
+        List<ItemEntity> candidates = CANDIDATES.get(buildingId);
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+        candidates.removeIf(item -> {
+            if (item.isRemoved() || item.getStack().isEmpty() || !isCollectible(item.getStack().getItem())) {
+                OWNERS.remove(item);
+                return true;
+            }
+            return false;
+        });
+        return Collections.unmodifiableList(candidates);
+    }
+
+    /**
+     * Clears all tracking for a lumberyard (e.g., when the building is removed).
+     */
+    public static void clear(UUID buildingId) {
+        SITES.remove(buildingId);
+        LAST_BUILDING_SCAN.remove(buildingId);
+        List<ItemEntity> candidates = CANDIDATES.remove(buildingId);
+        if (candidates != null) {
+            for (ItemEntity item : candidates) {
+                OWNERS.remove(item);
+            }
+        }
+    }
+
+    /**
+     * Checks if an item is a tree drop the collector should pick up.
+     * Logs, wood and planks go through the lumberjack's normal deposit instead.
+     */
+    public static boolean isCollectible(Item item) {
+        String itemName = item.getTranslationKey().toLowerCase();
+        return !(itemName.contains("log") || itemName.contains("wood") || itemName.contains("plank"));
+    }
+
+    private static void onItemLoaded(ItemEntity item, ServerWorld world) {
+        if (OWNERS.containsKey(item) || item.getStack().isEmpty() || !isCollectible(item.getStack().getItem())) {
+            return;
+        }
+
+        long worldTime = world.getTime();
+        RegistryKey<World> worldKey = world.getRegistryKey();
+        for (Map.Entry<UUID, List<HarvestSite>> entry : SITES.entrySet()) {
+            for (HarvestSite site : entry.getValue()) {
+                if (site.worldKey != worldKey || (worldTime - site.harvestTime) > SITE_TIMEOUT) {
+                    continue;
+                }
+                if (Math.abs(item.getX() - site.position.getX()) <= SITE_RADIUS &&
+                    Math.abs(item.getY() - site.position.getY()) <= SITE_RADIUS &&
+                    Math.abs(item.getZ() - site.position.getZ()) <= SITE_RADIUS) {
+                    CANDIDATES.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(item);
+                    OWNERS.put(item, entry.getKey());
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void adoptItems(UUID buildingId, ServerWorld world, Box box) {
+        List<ItemEntity> items = world.getEntitiesByType(EntityType.ITEM, box,
+            item -> !OWNERS.containsKey(item) && !item.getStack().isEmpty() && isCollectible(item.getStack().getItem()));
+        if (items.isEmpty()) {
+            return;
+        }
+        List<ItemEntity> candidates = CANDIDATES.computeIfAbsent(buildingId, k -> new ArrayList<>());
+        for (ItemEntity item : items) {
+            candidates.add(item);
+            OWNERS.put(item, buildingId);
+        }
+    }
+
+    private static void untrack(ItemEntity item) {
+        UUID buildingId = OWNERS.remove(item);
+        if (buildingId != null) {
+            List<ItemEntity> candidates = CANDIDATES.get(buildingId);
+            if (candidates != null) {
+                candidates.remove(item);
+            }
+        }
+    }
+}
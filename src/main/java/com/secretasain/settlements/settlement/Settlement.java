@@ -1,5 +1,6 @@
 package com.secretasain.settlements.settlement;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtList;
 import net.minecraft.util.math.BlockPos;
@@ -21,6 +22,14 @@ public class Settlement {
     private Map<String, Integer> materials; // Using String for ResourceLocation key for now
     private int level; // Settlement level (1-5)
     private com.secretasain.settlements.ender.EnderUpgrade enderUpgrade; // Ender upgrade for teleportation
+    private List<BlockPos> looseBeds; // Beds placed inside the settlement but outside any building
+    private boolean looseBedsScanned; // Whether the one-time scan for pre-existing loose beds has run
+    private long simulatedSince; // World time the settlement switched to abstract simulation (-1 if fully simulated)
+    private long catchUpFrom; // World time catch-up production has been applied up to (-1 if no catch-up pending)
+    private long catchUpTo; // World time catch-up production ends at
+    private LongOpenHashSet roads; // Packed positions of the path blocks inside the settlement
+    private boolean roadsScanned; // Whether the one-time section scan for existing path blocks has completed
+    private List<com.secretasain.settlements.road.RoadJob> roadJobs; // Road segments villagers are building
 
     /**
      * Creates a new settlement with the given parameters.
@@ -40,6 +49,14 @@ public class Settlement {
         this.materials = new HashMap<>();
         this.level = 1; // Start at level 1
         this.enderUpgrade = null; // No ender upgrade by default
+        this.looseBeds = new ArrayList<>();
+        this.looseBedsScanned = false;
+        this.simulatedSince = -1;
+        this.catchUpFrom = -1;
+        this.catchUpTo = -1;
+        this.roads = new LongOpenHashSet();
+        this.roadsScanned = false;
+        this.roadJobs = new ArrayList<>();
     }
 
     /**
@@ -104,6 +121,33 @@ public class Settlement {
             );
         }
         
+        // Load loose beds
+        if (nbt.contains("looseBeds", 12)) { // 12 = NbtLongArray
+            for (long packedPos : nbt.getLongArray("looseBeds")) {
+                settlement.looseBeds.add(BlockPos.fromLong(packedPos));
+            }
+        }
+        settlement.looseBedsScanned = nbt.getBoolean("looseBedsScanned");
+        settlement.simulatedSince = nbt.contains("simulatedSince") ? nbt.getLong("simulatedSince") : -1;
+        settlement.catchUpFrom = nbt.contains("catchUpFrom") ? nbt.getLong("catchUpFrom") : -1;
+        settlement.catchUpTo = nbt.contains("catchUpTo") ? nbt.getLong("catchUpTo") : -1;
+        
+        // Load roads
+        if (nbt.contains("roads", 12)) { // 12 = NbtLongArray
+            for (long packedPos : nbt.getLongArray("roads")) {
+                settlement.roads.add(packedPos);
+            }
+        }
+        settlement.roadsScanned = nbt.getBoolean("roadsScanned");
+        
+        // Load road jobs
+        if (nbt.contains("roadJobs", 9)) { // 9 = NbtList type
+            NbtList roadJobList = nbt.getList("roadJobs", 10); // 10 = NbtCompound type
+            for (int i = 0; i < roadJobList.size(); i++) {
+                settlement.roadJobs.add(com.secretasain.settlements.road.RoadJob.fromNbt(roadJobList.getCompound(i)));
+            }
+        }
+        
         return settlement;
     }
 
@@ -154,6 +198,28 @@ public class Settlement {
             nbt.put("enderUpgrade", enderUpgrade.toNbt());
         }
         
+        // Save loose beds
+        long[] packedBeds = new long[looseBeds.size()];
+        for (int i = 0; i < packedBeds.length; i++) {
+            packedBeds[i] = looseBeds.get(i).asLong();
+        }
+        nbt.putLongArray("looseBeds", packedBeds);
+        nbt.putBoolean("looseBedsScanned", looseBedsScanned);
+        nbt.putLong("simulatedSince", simulatedSince);
+        nbt.putLong("catchUpFrom", catchUpFrom);
+        nbt.putLong("catchUpTo", catchUpTo);
+        
+        // Save roads
+        nbt.putLongArray("roads", roads.toLongArray());
+        nbt.putBoolean("roadsScanned", roadsScanned);
+        
+        // Save road jobs
+        NbtList roadJobList = new NbtList();
+        for (com.secretasain.settlements.road.RoadJob job : roadJobs) {
+            roadJobList.add(job.toNbt());
+        }
+        nbt.put("roadJobs", roadJobList);
+        
         return nbt;
     }
 
@@ -222,6 +288,81 @@ public class Settlement {
         this.enderUpgrade = upgrade;
     }
     
+    public List<BlockPos> getLooseBeds() {
+        return looseBeds;
+    }
+    
+    public boolean isLooseBedsScanned() {
+        return looseBedsScanned;
+    }
+    
+    public void setLooseBedsScanned(boolean looseBedsScanned) {
+        this.looseBedsScanned = looseBedsScanned;
+    }
+    
+    /**
+     * Gets the packed positions (BlockPos.asLong) of the path blocks inside the settlement.
+     * Maintained by RoadNetwork.
+     */
+    public LongOpenHashSet getRoads() {
+        return roads;
+    }
+    
+    public boolean isRoadsScanned() {
+        return roadsScanned;
+    }
+    
+    public void setRoadsScanned(boolean roadsScanned) {
+        this.roadsScanned = roadsScanned;
+    }
+    
+    /**
+     * Gets the road segments villagers are building. Managed by RoadPlacementTaskManager.
+     */
+    public List<com.secretasain.settlements.road.RoadJob> getRoadJobs() {
+        return roadJobs;
+    }
+    
+    /**
+     * Gets the world time the settlement switched to abstract simulation.
+     * @return World time, or -1 if the settlement is fully simulated
+     */
+    public long getSimulatedSince() {
+        return simulatedSince;
+    }
+    
+    public void setSimulatedSince(long worldTime) {
+        this.simulatedSince = worldTime;
+    }
+    
+    public boolean isAbstractSimulated() {
+        return simulatedSince >= 0;
+    }
+    
+    /**
+     * Gets the world time catch-up production has been applied up to.
+     * @return World time, or -1 if no catch-up is pending
+     */
+    public long getCatchUpFrom() {
+        return catchUpFrom;
+    }
+    
+    public long getCatchUpTo() {
+        return catchUpTo;
+    }
+    
+    /**
+     * Sets the pending catch-up window (from = -1 clears it).
+     */
+    public void setCatchUp(long from, long to) {
+        this.catchUpFrom = from;
+        this.catchUpTo = from >= 0 ? to : -1;
+    }
+    
+    public boolean hasPendingCatchUp() {
+        return catchUpFrom >= 0 && catchUpFrom < catchUpTo;
+    }
+    
     /**
      * Updates the settlement level based on current stats.
      * Returns true if the level changed.
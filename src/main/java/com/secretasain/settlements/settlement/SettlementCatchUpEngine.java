@@ -0,0 +1,127 @@
+package com.secretasain.settlements.settlement;
+
+import com.secretasain.settlements.SettlementsMod;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.item.Item;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.*;
+
+/**
+ * Applies the production a settlement missed while it was not simulated in full (no player nearby,
+ * or its chunks were unloaded).
+ * The missed world time window is stored on the settlement (catchUpFrom/catchUpTo) and applied in
+ * slices of at most SLICE_TICKS, one slice per tick per world, so a long absence never lands in a
+ * single tick. Each slice's production is computed analytically by SettlementSimulationLod's estimators:
+ * - passive buildings: expected BuildingOutputConfig output per work task, for the work tasks whose
+ *   200-tick cadence falls inside the slice's work hours
+ * - farms: crop cycles from the learned FarmGrowthModel growth rate that complete inside the slice,
+ *   minus the items used to replant
+ * Output goes to the workers' accumulated items up to a full load; the rest is deposited at the lectern.
+ * The window survives restarts, so an interrupted catch-up resumes where it stopped.
+ *
+ * Lumberyard output is not estimated (tree growth can't be predicted from the stored state).
+ */
+public class SettlementCatchUpEngine {
+    private static final long SLICE_TICKS = 24000; // At most one in-game day of production per batch
+    private static final int MAX_BATCHES_PER_TICK = 1; // Batches applied per world per tick
+
+    /**
+     * Registers the catch-up engine with Fabric's server tick events.
+     */
+    public static void register() {
+        ServerTickEvents.END_WORLD_TICK.register(SettlementCatchUpEngine::tick);
+    }
+
+    /**
+     * Queues the production missed between two world times.
+     * The window is capped at SimulationLodConfig's max simulated ticks; an unfinished window is
+     * extended by the new missed time.
+     */
+    static void schedule(Settlement settlement, long fromTime, long toTime) {
+        long missed = toTime - fromTime;
+        if (missed <= 0) {
+            return; // Nothing missed (or the time was saved by an older version as a time of day)
+        }
+        if (settlement.hasPendingCatchUp()) {
+            missed += settlement.getCatchUpTo() - settlement.getCatchUpFrom();
+        }
+        missed = Math.min(missed, SimulationLodConfig.getMaxSimulatedTicks());
+        if (missed > 0) {
+            settlement.setCatchUp(toTime - missed, toTime);
+        }
+    }
+
+    private static void tick(ServerWorld world) {
+        SettlementManager manager = SettlementManager.getInstance(world);
+        int budget = MAX_BATCHES_PER_TICK;
+        for (Settlement settlement : manager.getAllSettlements()) {
+            if (budget <= 0) {
+                break;
+            }
+            if (!settlement.hasPendingCatchUp()) {
+                continue;
+            }
+            BlockPos lecternPos = settlement.getLecternPos();
+            if (lecternPos == null || !world.getChunkManager().isChunkLoaded(lecternPos.getX() >> 4, lecternPos.getZ() >> 4)) {
+                continue; // Deposits need the lectern area loaded
+            }
+            applyBatch(settlement, world);
+            manager.markDirty();
+            budget--;
+        }
+    }
+
+    /**
+     * Applies the next slice of a settlement's catch-up window.
+     */
+    private static void applyBatch(Settlement settlement, ServerWorld world) {
+        long from = settlement.getCatchUpFrom();
+        long to = Math.min(from + SLICE_TICKS, settlement.getCatchUpTo());
+        long workTasks = SettlementSimulationLod.getWorkTasks(world, from, to);
+
+        Random random = new Random();
+        Map<VillagerData, Object2IntOpenHashMap<Item>> outputs = new LinkedHashMap<>();
+        for (Building building : settlement.getBuildings()) {
+            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
+                continue;
+            }
+            String buildingType = TaskExecutionSystem.getBuildingType(building);
+            if (buildingType == null || "lumberyard".equals(buildingType)) {
+                continue;
+            }
+            List<VillagerData> workers = new ArrayList<>();
+            for (VillagerData villagerData : WorkAssignmentManager.getVillagersAssignedToBuilding(settlement, building.getId())) {
+                if (villagerData.isEmployed()) {
+                    workers.add(villagerData);
+                }
+            }
+            if (workers.isEmpty()) {
+                continue;
+            }
+
+            if ("farm".equals(buildingType)) {
+                // The first farm villager harvests
+                SettlementSimulationLod.estimateFarmOutput(building, world, from, to, random,
+                    outputs.computeIfAbsent(workers.get(0), v -> new Object2IntOpenHashMap<>()));
+            } else {
+                for (VillagerData worker : workers) {
+                    SettlementSimulationLod.estimatePassiveOutput(buildingType, workTasks, random,
+                        outputs.computeIfAbsent(worker, v -> new Object2IntOpenHashMap<>()));
+                }
+            }
+        }
+
+        int total = 0;
+        for (Map.Entry<VillagerData, Object2IntOpenHashMap<Item>> entry : outputs.entrySet()) {
+            total += SettlementSimulationLod.handOver(settlement, entry.getKey(), entry.getValue(), world);
+        }
+
+        boolean finished = to >= settlement.getCatchUpTo();
+        settlement.setCatchUp(finished ? -1 : to, settlement.getCatchUpTo());
+        SettlementsMod.LOGGER.debug("Settlement {} caught up {} ticks of production ({} items){}",
+            settlement.getName(), to - from, total, finished ? " - done" : "");
+    }
+}
@@ -277,9 +277,10 @@ public class SettlementManager {
             if (existingVillagers.containsKey(entityId)) {
                 // Update existing villager (position, last seen)
                 VillagerData existing = existingVillagers.get(entityId);
-                existing.setLastKnownPos(found.getLastKnownPos());
+                existing.markSeen(found.getLastKnownPos(), world.getTime());
             } else {
                 // Add new villager
+                found.markSeen(found.getLastKnownPos(), world.getTime());
                 settlement.getVillagers().add(found);
             }
         }
@@ -0,0 +1,28 @@
+package com.secretasain.settlements.settlement;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.UUID;
+
+/**
+ * Membership data of an entity in a settlement (villagers, golems), as kept up to date by
+ * EntityMembershipTracker.
+ */
+public interface SettlementMember {
+    UUID getEntityId();
+
+    BlockPos getLastKnownPos();
+
+    /**
+     * Records that the entity was seen inside the settlement.
+     * @param pos Current position of the entity
+     * @param worldTime Current world time
+     */
+    void markSeen(BlockPos pos, long worldTime);
+
+    /**
+     * Gets the world time the entity was last seen inside the settlement.
+     * @return World time, or -1 if the entity has not been seen yet
+     */
+    long getLastSeen();
+}
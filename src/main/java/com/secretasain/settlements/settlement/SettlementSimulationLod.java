@@ -0,0 +1,256 @@
+package com.secretasain.settlements.settlement;
+
+import com.secretasain.settlements.SettlementsMod;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
+import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.state.property.Properties;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.GameRules;
+
+import java.util.*;
+
+/**
+ * Simulation level of detail for settlements.
+ * A settlement with no player within its radius plus SimulationLodConfig's active radius, or whose
+ * lectern chunk is not loaded, switches to abstract simulation: the entity-based systems (work state
+ * machine, membership timeouts, light posts) skip it, and only the time it went abstract is recorded.
+ * When it comes back into full simulation, the missed time is handed to SettlementCatchUpEngine,
+ * which applies the production estimated here over the following ticks: passive building outputs
+ * from BuildingOutputConfig per work task, farm harvests from the learned crop growth rates, handed
+ * to the workers' accumulated items with anything beyond a full load deposited at the lectern.
+ *
+ * Lumberyard output is not estimated (tree growth can't be predicted from the stored state).
+ */
+public class SettlementSimulationLod {
+    private static final long DAY_TICKS = 24000;
+    private static final long WORK_START_TICK = 1000; // Same work hours as VillagerWorkStateMachine
+    private static final long WORK_END_TICK = 12000;
+    private static final long TASK_INTERVAL_TICKS = 200; // Same building work task interval as VillagerWorkStateMachine
+    private static final int LOOT_SAMPLE_ROLLS = 16; // Loot rolls averaged for a crop's expected drops per harvest
+
+    /**
+     * Registers the LOD check with Fabric's server tick events.
+     */
+    public static void register() {
+        ServerTickEvents.END_WORLD_TICK.register(SettlementSimulationLod::tick);
+    }
+
+    private static void tick(ServerWorld world) {
+        if (world.getTime() % SimulationLodConfig.getCheckIntervalTicks() != 0) {
+            return;
+        }
+
+        SettlementManager manager = SettlementManager.getInstance(world);
+        // World time keeps running with doDaylightCycle off, unlike the time of day
+        long worldTime = world.getTime();
+        for (Settlement settlement : manager.getAllSettlements()) {
+            if (settlement.getLecternPos() == null) {
+                continue;
+            }
+            BlockPos lecternPos = settlement.getLecternPos();
+            boolean active = world.getChunkManager().isChunkLoaded(lecternPos.getX() >> 4, lecternPos.getZ() >> 4)
+                && isPlayerNearby(settlement, world);
+
+            if (!settlement.isAbstractSimulated() && !active) {
+                settlement.setSimulatedSince(worldTime);
+                manager.markDirty();
+                SettlementsMod.LOGGER.debug("Settlement {} switched to abstract simulation", settlement.getName());
+            } else if (settlement.isAbstractSimulated() && active) {
+                SettlementCatchUpEngine.schedule(settlement, settlement.getSimulatedSince(), worldTime);
+                resumeFullSimulation(settlement, world);
+                manager.markDirty();
+                SettlementsMod.LOGGER.debug("Settlement {} resumed full simulation", settlement.getName());
+            }
+        }
+    }
+
+    private static boolean isPlayerNearby(Settlement settlement, ServerWorld world) {
+        BlockPos center = settlement.getLecternPos();
+        double range = settlement.getRadius() + SimulationLodConfig.getActiveRadius();
+        double rangeSq = range * range;
+        for (PlayerEntity player : world.getPlayers()) {
+            if (player.isSpectator()) {
+                continue;
+            }
+            double dx = player.getX() - (center.getX() + 0.5);
+            double dz = player.getZ() - (center.getZ() + 0.5);
+            if (dx * dx + dz * dz <= rangeSq) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Leaves abstract simulation: restarts the membership timeouts, since members were not
+     * expected to be loaded while no player was nearby.
+     */
+    private static void resumeFullSimulation(Settlement settlement, ServerWorld world) {
+        long worldTime = world.getTime();
+        for (VillagerData villagerData : settlement.getVillagers()) {
+            villagerData.markSeen(villagerData.getLastKnownPos(), worldTime);
+        }
+        for (GolemData golemData : settlement.getGolems()) {
+            golemData.markSeen(golemData.getLastKnownPos(), worldTime);
+        }
+        settlement.setSimulatedSince(-1);
+    }
+
+    /**
+     * Adds the expected passive output of a number of work tasks (see TaskExecutionSystem).
+     */
+    static void estimatePassiveOutput(String buildingType, long workTasks, Random random,
+                                      Object2IntOpenHashMap<Item> output) {
+        List<BuildingOutputConfig.OutputEntry> entries = BuildingOutputConfig.getOutputs(buildingType);
+        int totalWeight = 0;
+        for (BuildingOutputConfig.OutputEntry entry : entries) {
+            totalWeight += entry.weight;
+        }
+        if (totalWeight == 0 || workTasks <= 0) {
+            return;
+        }
+
+        // Each task rolls one entry, weighted, with a uniform count between min and max
+        for (BuildingOutputConfig.OutputEntry entry : entries) {
+            double expected = workTasks * ((double) entry.weight / totalWeight) * (entry.minCount + entry.maxCount) / 2.0;
+            int count = roundRandomly(expected, random);
+            if (count > 0) {
+                output.addTo(entry.item, count);
+            }
+        }
+    }
+
+    /**
+     * Adds the harvests of a farm's tracked crop cells whose growth cycles complete in the window,
+     * minus the items used to replant.
+     */
+    static void estimateFarmOutput(Building building, ServerWorld world, long from, long to, Random random,
+                                   Object2IntOpenHashMap<Item> output) {
+        FarmGrowthModel model = FarmGrowthModel.get(building);
+        if (model == null) {
+            return; // Farm never scanned - nothing to estimate from
+        }
+
+        // Count harvests per crop type
+        Map<Block, Long> harvests = new HashMap<>();
+        Map<Block, FarmGrowthModel.CropCell> samples = new HashMap<>();
+        for (FarmGrowthModel.CropCell cell : model.getCells()) {
+            double growthTicks = model.getGrowthTicks(cell);
+            if (growthTicks <= 0) {
+                continue;
+            }
+            long cellHarvests = (long) Math.floor(to / growthTicks) - (long) Math.floor(from / growthTicks);
+            if (cellHarvests > 0) {
+                Block crop = cell.getObservedState().getBlock();
+                harvests.merge(crop, cellHarvests, Long::sum);
+                samples.putIfAbsent(crop, cell);
+            }
+        }
+
+        for (Map.Entry<Block, Long> entry : harvests.entrySet()) {
+            FarmGrowthModel.CropCell sample = samples.get(entry.getKey());
+            BlockState matureState = getMatureState(sample.getObservedState());
+            BlockPos pos = sample.getPos();
+            long count = entry.getValue();
+
+            // Expected drops per harvest, averaged over a few loot rolls
+            Object2DoubleOpenHashMap<Item> perHarvest = new Object2DoubleOpenHashMap<>();
+            for (int roll = 0; roll < LOOT_SAMPLE_ROLLS; roll++) {
+                for (ItemStack drop : Block.getDroppedStacks(matureState, world, pos, null)) {
+                    perHarvest.addTo(drop.getItem(), (double) drop.getCount() / LOOT_SAMPLE_ROLLS);
+                }
+            }
+
+            // Each harvest replants one of the crop's own items
+            Item replantItem = entry.getKey().getPickStack(world, pos, matureState).getItem();
+            for (Object2DoubleMap.Entry<Item> drop : perHarvest.object2DoubleEntrySet()) {
+                double expected = drop.getDoubleValue() * count;
+                if (drop.getKey() == replantItem) {
+                    expected -= count;
+                }
+                int dropCount = roundRandomly(Math.max(0, expected), random);
+                if (dropCount > 0) {
+                    output.addTo(drop.getKey(), dropCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives output to a worker up to a full load; the rest goes straight to the lectern.
+     * @return Number of items handed over
+     */
+    static int handOver(Settlement settlement, VillagerData worker, Object2IntMap<Item> items, ServerWorld world) {
+        int capacity = Math.max(0, VillagerDepositSystem.DEPOSIT_THRESHOLD - worker.getTotalAccumulatedItems());
+        Object2IntOpenHashMap<Item> overflow = new Object2IntOpenHashMap<>();
+        int total = 0;
+        for (Object2IntMap.Entry<Item> entry : items.object2IntEntrySet()) {
+            int count = entry.getIntValue();
+            int carried = Math.min(count, capacity);
+            worker.addAccumulatedItem(entry.getKey(), carried);
+            capacity -= carried;
+            if (count > carried) {
+                overflow.put(entry.getKey(), count - carried);
+            }
+            total += count;
+        }
+        if (!overflow.isEmpty()) {
+            VillagerDepositSystem.depositToLectern(settlement, overflow, world);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of building work tasks whose cadence falls inside the work hours of a world time window.
+     * World times are mapped to times of day with the current offset between the two. Cadences are
+     * counted from time of day 0, so consecutive windows add up exactly.
+     */
+    static long getWorkTasks(ServerWorld world, long fromTime, long toTime) {
+        long timeOfDay = world.getTimeOfDay();
+        if (!world.getGameRules().getBoolean(GameRules.DO_DAYLIGHT_CYCLE)) {
+            // The time of day is frozen - villagers either work the whole window or not at all
+            long dayTime = Math.floorMod(timeOfDay, DAY_TICKS);
+            boolean workHours = dayTime >= WORK_START_TICK && dayTime < WORK_END_TICK;
+            return workHours ? toTime / TASK_INTERVAL_TICKS - fromTime / TASK_INTERVAL_TICKS : 0;
+        }
+        long offset = timeOfDay - world.getTime();
+        return getWorkTicks(toTime + offset) / TASK_INTERVAL_TICKS - getWorkTicks(fromTime + offset) / TASK_INTERVAL_TICKS;
+    }
+
+    /**
+     * Gets the number of work-hour ticks between time of day 0 and the given time of day.
+     */
+    private static long getWorkTicks(long timeOfDay) {
+        long days = Math.floorDiv(timeOfDay, DAY_TICKS);
+        long dayTime = Math.floorMod(timeOfDay, DAY_TICKS);
+        long today = Math.max(0, Math.min(dayTime, WORK_END_TICK) - WORK_START_TICK);
+        return days * (WORK_END_TICK - WORK_START_TICK) + today;
+    }
+
+    private static BlockState getMatureState(BlockState state) {
+        if (state.contains(Properties.AGE_7)) {
+            return state.with(Properties.AGE_7, 7);
+        } else if (state.contains(Properties.AGE_3)) {
+            return state.with(Properties.AGE_3, 3);
+        }
+        return state;
+    }
+
+    /**
+     * Rounds a non-negative expected value up or down with probability equal to its fraction.
+     */
+    private static int roundRandomly(double value, Random random) {
+        double floor = Math.floor(value);
+        int count = (int) Math.min(Integer.MAX_VALUE, floor);
+        return random.nextDouble() < value - floor ? count + 1 : count;
+    }
+}
@@ -0,0 +1,203 @@
+package com.secretasain.settlements.settlement;
+
+import com.secretasain.settlements.SettlementsMod;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Deadlines for timed settlement events (despawns, spawn cooldowns, harvest timeouts), keyed on world
+ * time, in a hierarchical timer wheel per world.
+ *
+ * The wheel has LEVELS levels of SLOTS slots. Level 0 slots are one tick wide; each higher level's
+ * slots are SLOTS times wider than the level below. A timer goes into the lowest level whose range
+ * covers its delay, and when the wheel reaches a higher-level slot its timers are cascaded down into
+ * finer slots. Each tick only touches the timers in the current level 0 slot (plus a cascade every
+ * SLOTS ticks), so the cost follows the number of expiring timers, not the number of timers pending.
+ * Deadlines beyond the wheel's range wait in the last top-level slot and are re-placed as it cascades.
+ *
+ * Timers run on the server thread at the end of their world's tick. Cancelled timers are dropped
+ * when their slot comes up.
+ */
+public class SettlementTimerWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS; // 64 slots per level
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4; // Covers 64^4 ticks (about 9 days)
+
+    // Wheels per world
+    private static final Map<RegistryKey<World>, SettlementTimerWheel> WHEELS = new HashMap<>();
+
+    private final List<Timer>[][] slots;
+    private List<Timer> overdue = new ArrayList<>(); // Scheduled for a time the wheel already passed
+    private long currentTime; // Last tick processed
+    private int pending;
+
+    /**
+     * A scheduled deadline.
+     */
+    public static final class Timer {
+        private final long deadline;
+        private final Runnable action;
+        private boolean cancelled;
+
+        private Timer(long deadline, Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+
+        /**
+         * Cancels the timer; it will not run.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private SettlementTimerWheel(long currentTime) {
+        this.currentTime = currentTime;
+        this.slots = new List[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[level][slot] = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Registers the tick handler that advances the wheels.
+     */
+    public static void register() {
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            SettlementTimerWheel wheel = WHEELS.get(world.getRegistryKey());
+            if (wheel != null) {
+                wheel.advance(world.getTime());
+            }
+        });
+
+        // Timers hold references into the old server's state
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            WHEELS.clear();
+        });
+    }
+
+    /**
+     * Schedules an action for a world time.
+     * @param world The world whose time the deadline is in
+     * @param deadline World time to run the action at (a time already passed runs on the next tick)
+     * @param action The action
+     * @return The timer, which can be cancelled
+     */
+    public static Timer schedule(ServerWorld world, long deadline, Runnable action) {
+        SettlementTimerWheel wheel = WHEELS.computeIfAbsent(world.getRegistryKey(),
+            key -> new SettlementTimerWheel(world.getTime()));
+        Timer timer = new Timer(deadline, action);
+        wheel.insert(timer);
+        wheel.pending++;
+        return timer;
+    }
+
+    /**
+     * Gets the number of timers waiting in a world's wheel (including cancelled ones not yet dropped).
+     */
+    public static int getPendingCount(ServerWorld world) {
+        SettlementTimerWheel wheel = WHEELS.get(world.getRegistryKey());
+        return wheel != null ? wheel.pending : 0;
+    }
+
+    /**
+     * Places a timer in the slot its deadline falls into, relative to currentTime.
+     */
+    private void insert(Timer timer) {
+        long delay = timer.deadline - currentTime;
+        if (delay <= 0) {
+            overdue.add(timer);
+            return;
+        }
+
+        long deadline = timer.deadline;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delay < 1L << (SLOT_BITS * (level + 1))) {
+                slots[level][(int) (deadline >> (SLOT_BITS * level)) & SLOT_MASK].add(timer);
+                return;
+            }
+        }
+        // Beyond the wheel's range: park in the top-level slot reached last, re-placed when it cascades
+        long parkTime = currentTime + (1L << (SLOT_BITS * LEVELS)) - 1;
+        slots[LEVELS - 1][(int) (parkTime >> (SLOT_BITS * (LEVELS - 1))) & SLOT_MASK].add(timer);
+    }
+
+    /**
+     * Runs every timer due up to a world time.
+     */
+    private void advance(long time) {
+        if (!overdue.isEmpty()) {
+            List<Timer> due = overdue;
+            overdue = new ArrayList<>();
+            for (Timer timer : due) {
+                run(timer);
+            }
+        }
+
+        while (currentTime < time) {
+            long tick = ++currentTime;
+
+            // At each level boundary, move the level's current slot down into finer slots
+            for (int level = 1; level < LEVELS; level++) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                List<Timer> slot = slots[level][(int) (tick >> (SLOT_BITS * level)) & SLOT_MASK];
+                if (slot.isEmpty()) {
+                    continue;
+                }
+                List<Timer> cascading = new ArrayList<>(slot);
+                slot.clear();
+                for (Timer timer : cascading) {
+                    if (timer.cancelled) {
+                        pending--;
+                    } else if (timer.deadline <= tick) {
+                        slots[0][(int) tick & SLOT_MASK].add(timer); // Due this tick
+                    } else {
+                        insert(timer);
+                    }
+                }
+            }
+
+            List<Timer> slot = slots[0][(int) tick & SLOT_MASK];
+            if (!slot.isEmpty()) {
+                // Actions may schedule new timers, so run from a copy
+                List<Timer> due = new ArrayList<>(slot);
+                slot.clear();
+                for (Timer timer : due) {
+                    run(timer);
+                }
+            }
+        }
+    }
+
+    private void run(Timer timer) {
+        pending--;
+        if (timer.cancelled) {
+            return;
+        }
+        try {
+            timer.action.run();
+        } catch (Exception e) {
+            SettlementsMod.LOGGER.warn("Settlement timer due at {} failed", timer.deadline, e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.secretasain.settlements.settlement;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.secretasain.settlements.SettlementsMod;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Optional;
+
+/**
+ * Loads the settlement simulation level-of-detail settings from JSON
+ * (data/settlements/simulation_lod.json). Defaults are used for missing fields or a missing file.
+ */
+public class SimulationLodConfig {
+    private static final Gson GSON = new Gson();
+
+    private static int activeRadius = 128; // Blocks beyond the settlement radius a player must be within for full simulation
+    private static int checkIntervalTicks = 100; // How often player proximity is checked
+    private static long maxSimulatedTicks = 168000; // Output is estimated for at most 7 days of abstract simulation
+
+    /**
+     * Loads the config. Called when the server starts.
+     */
+    public static void load(ResourceManager resourceManager) {
+        Identifier configId = new Identifier("settlements", "simulation_lod.json");
+        try {
+            Optional<Resource> resource = resourceManager.getResource(configId);
+            if (resource.isEmpty()) {
+                SettlementsMod.LOGGER.warn("Simulation LOD config {} not found, using defaults", configId);
+                return;
+            }
+
+            try (InputStream stream = resource.get().getInputStream();
+                 InputStreamReader reader = new InputStreamReader(stream)) {
+                JsonObject root = GSON.fromJson(reader, JsonObject.class);
+                if (root == null) {
+                    SettlementsMod.LOGGER.error("Failed to parse simulation LOD config - root is null");
+                    return;
+                }
+                if (root.has("active_radius")) {
+                    activeRadius = Math.max(0, root.get("active_radius").getAsInt());
+                }
+                if (root.has("check_interval_ticks")) {
+                    checkIntervalTicks = Math.max(1, root.get("check_interval_ticks").getAsInt());
+                }
+                if (root.has("max_simulated_ticks")) {
+                    maxSimulatedTicks = Math.max(0, root.get("max_simulated_ticks").getAsLong());
+                }
+            }
+            SettlementsMod.LOGGER.info("Loaded simulation LOD config: active radius {}, check interval {} ticks, max simulated {} ticks",
+                activeRadius, checkIntervalTicks, maxSimulatedTicks);
+        } catch (Exception e) {
+            SettlementsMod.LOGGER.error("Failed to load simulation LOD config, using defaults", e);
+        }
+    }
+
+    public static int getActiveRadius() {
+        return activeRadius;
+    }
+
+    public static int getCheckIntervalTicks() {
+        return checkIntervalTicks;
+    }
+
+    public static long getMaxSimulatedTicks() {
+        return maxSimulatedTicks;
+    }
+}
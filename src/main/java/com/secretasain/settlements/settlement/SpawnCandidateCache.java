@@ -0,0 +1,420 @@
+package com.secretasain.settlements.settlement;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Validated spawn positions around buildings (town halls, trader huts), so spawning can pick a
+ * position without searching the terrain.
+ *
+ * For every column within RADIUS of a building the cache stores the spot an entity would stand on
+ * (the first free two-block space on opaque ground, searching down from above the building), if that
+ * ground is accepted by the caller's Ground rule: spawns only accept natural surface blocks, while
+ * approach targets accept any opaque ground. Each rule has its own candidates. Candidates are grouped
+ * by their distance from the building, so a random candidate in a distance range is picked with a
+ * handful of list lookups.
+ *
+ * Columns are probed on use rather than when the building completes, so buildings that never spawn
+ * anything cost nothing. A use probes the requested rings nearest first, at most
+ * MAX_PROBES_PER_REFRESH columns, so the first uses around a new building only see its inner rings
+ * until the rest has been probed (isWarmingUp). A block change in a cached column (reported by
+ * ServerWorldMixin) only marks that column dirty; it is probed again the next time the building's
+ * candidates are used. Dirty columns in unloaded chunks are set aside per chunk and become dirty
+ * again once their chunk is loaded. Entries are dropped when their building is removed.
+ * Candidates are only checked against terrain - callers still check for entities in the way.
+ */
+public class SpawnCandidateCache {
+    public static final int RADIUS = 48; // Columns cached around each building
+    private static final int SCAN_HEIGHT = 24; // Blocks below/above the building the ground is looked for in
+    private static final int MAX_PROBES_PER_REFRESH = 512; // Columns probed per use (a full entry is ~7,200)
+
+    // Safe ground blocks: dirt variants, grass, path, sand, gravel, etc.
+    // Unsafe: stone, wood planks, bricks, concrete, etc. (building materials)
+    private static final Set<Block> SAFE_GROUND = Set.of(
+        Blocks.DIRT, Blocks.GRASS_BLOCK, Blocks.PODZOL, Blocks.COARSE_DIRT, Blocks.DIRT_PATH,
+        Blocks.FARMLAND, Blocks.SAND, Blocks.RED_SAND, Blocks.GRAVEL, Blocks.CLAY,
+        Blocks.MYCELIUM, Blocks.SNOW_BLOCK, Blocks.SOUL_SAND, Blocks.SOUL_SOIL
+    );
+
+    private static final Map<RegistryKey<World>, WorldCache> CACHES = new HashMap<>();
+
+    /**
+     * Which ground a candidate may stand on, and where in a column it is looked for.
+     */
+    public enum Ground {
+        // Spawns: natural surface blocks only, so entities don't spawn on or in buildings.
+        // Searches down from 2 above the building, then up if the building is below ground level.
+        NATURAL(2, SCAN_HEIGHT, SCAN_HEIGHT, true),
+        // Approach targets: any opaque ground (paving, planks, stone), searching down from 5 above
+        // the building to 15 below it
+        ANY_OPAQUE(5, 15, 0, false);
+
+        final int startAbove; // Blocks above the building the downward search starts at
+        final int depth; // Blocks below the building the downward search ends at
+        final int maxAbove; // Blocks above the building the upward search ends at (no upward search if below startAbove)
+        final boolean naturalOnly; // Whether the ground must be in SAFE_GROUND
+
+        Ground(int startAbove, int depth, int maxAbove, boolean naturalOnly) {
+            this.startAbove = startAbove;
+            this.depth = depth;
+            this.maxAbove = maxAbove;
+            this.naturalOnly = naturalOnly;
+        }
+    }
+
+    /**
+     * Cached candidates for a single world.
+     */
+    private static class WorldCache {
+        final Map<Ground, Map<UUID, Entry>> entries = new EnumMap<>(Ground.class); // Rule -> building -> entry
+        final Long2ObjectOpenHashMap<List<Entry>> entriesByChunk = new Long2ObjectOpenHashMap<>(); // Chunk -> entries covering it
+    }
+
+    /**
+     * The candidates around one building.
+     */
+    private static class Entry {
+        final BlockPos center;
+        final Ground ground;
+        final LongArrayList[] rings = new LongArrayList[RADIUS + 1]; // Distance -> candidate positions
+        final Long2IntOpenHashMap indexByColumn = new Long2IntOpenHashMap(); // Column -> index in its ring
+        final LongOpenHashSet[] dirtyColumns = new LongOpenHashSet[RADIUS + 1]; // Distance -> columns to probe
+        final Long2ObjectOpenHashMap<LongArrayList> unloadedColumns = new Long2ObjectOpenHashMap<>(); // Chunk -> dirty columns waiting for it to load
+
+        Entry(BlockPos center, Ground ground) {
+            this.center = center.toImmutable();
+            this.ground = ground;
+            for (int ring = 0; ring <= RADIUS; ring++) {
+                rings[ring] = new LongArrayList();
+                dirtyColumns[ring] = new LongOpenHashSet();
+            }
+            indexByColumn.defaultReturnValue(-1);
+            for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+                for (int dz = -RADIUS; dz <= RADIUS; dz++) {
+                    if (dx * dx + dz * dz <= RADIUS * RADIUS) {
+                        markDirty(center.getX() + dx, center.getZ() + dz);
+                    }
+                }
+            }
+        }
+
+        void markDirty(int x, int z) {
+            dirtyColumns[ringOf(x, z)].add(ChunkPos.toLong(x, z));
+        }
+
+        boolean covers(BlockPos pos) {
+            int dx = pos.getX() - center.getX();
+            int dz = pos.getZ() - center.getZ();
+            return dx * dx + dz * dz <= RADIUS * RADIUS
+                && pos.getY() >= center.getY() - ground.depth - 1
+                && pos.getY() <= center.getY() + Math.max(ground.startAbove, ground.maxAbove) + 2;
+        }
+
+        int ringOf(int x, int z) {
+            int dx = x - center.getX();
+            int dz = z - center.getZ();
+            return (int) Math.sqrt(dx * dx + dz * dz);
+        }
+
+        /**
+         * Probes the dirty columns in loaded chunks of the given rings, nearest ring first, up to
+         * MAX_PROBES_PER_REFRESH columns. Whatever is left is probed on the next use.
+         */
+        void refresh(ServerWorld world, int fromRing, int toRing) {
+            // Columns whose chunk has been loaded since are dirty again (one check per waiting chunk)
+            if (!unloadedColumns.isEmpty()) {
+                ObjectIterator<Long2ObjectMap.Entry<LongArrayList>> chunks = unloadedColumns.long2ObjectEntrySet().fastIterator();
+                while (chunks.hasNext()) {
+                    Long2ObjectMap.Entry<LongArrayList> chunk = chunks.next();
+                    long chunkKey = chunk.getLongKey();
+                    if (!world.getChunkManager().isChunkLoaded(ChunkPos.getPackedX(chunkKey), ChunkPos.getPackedZ(chunkKey))) {
+                        continue;
+                    }
+                    LongIterator columns = chunk.getValue().iterator();
+                    while (columns.hasNext()) {
+                        long column = columns.nextLong();
+                        markDirty(ChunkPos.getPackedX(column), ChunkPos.getPackedZ(column));
+                    }
+                    chunks.remove();
+                }
+            }
+
+            BlockPos.Mutable pos = new BlockPos.Mutable();
+            int probes = 0;
+            for (int ringIndex = fromRing; ringIndex <= toRing; ringIndex++) {
+                LongOpenHashSet dirty = dirtyColumns[ringIndex];
+                if (dirty.isEmpty()) {
+                    continue;
+                }
+                LongArrayList ring = rings[ringIndex];
+                LongIterator iterator = dirty.iterator();
+                while (iterator.hasNext()) {
+                    if (probes >= MAX_PROBES_PER_REFRESH) {
+                        return;
+                    }
+                    long column = iterator.nextLong();
+                    int x = ChunkPos.getPackedX(column);
+                    int z = ChunkPos.getPackedZ(column);
+                    iterator.remove();
+                    if (!world.getChunkManager().isChunkLoaded(x >> 4, z >> 4)) {
+                        // Set aside until the chunk is loaded, so later uses don't walk it again
+                        unloadedColumns.computeIfAbsent(ChunkPos.toLong(x >> 4, z >> 4), key -> new LongArrayList()).add(column);
+                        continue;
+                    }
+                    probes++;
+                    removeCandidate(column, x, z);
+                    int y = findSpawnY(world, pos, x, z);
+                    if (y != Integer.MIN_VALUE) {
+                        indexByColumn.put(column, ring.size());
+                        ring.add(BlockPos.asLong(x, y, z));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks if loaded columns in the given rings are still waiting to be probed.
+         */
+        boolean hasDirtyColumns(int fromRing, int toRing) {
+            for (int ring = fromRing; ring <= toRing; ring++) {
+                if (!dirtyColumns[ring].isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void removeCandidate(long column, int x, int z) {
+            int index = indexByColumn.remove(column);
+            if (index < 0) {
+                return;
+            }
+            // Swap the ring's last candidate into the freed index
+            LongArrayList ring = rings[ringOf(x, z)];
+            long last = ring.removeLong(ring.size() - 1);
+            if (index < ring.size()) {
+                ring.set(index, last);
+                indexByColumn.put(ChunkPos.toLong(BlockPos.unpackLongX(last), BlockPos.unpackLongZ(last)), index);
+            }
+        }
+
+        /**
+         * Finds where an entity would spawn in a column.
+         * @return The Y of the spawn position, or Integer.MIN_VALUE if the column has no safe one
+         */
+        int findSpawnY(ServerWorld world, BlockPos.Mutable pos, int x, int z) {
+            // Search downward first to avoid spawning on top of buildings
+            int startY = Math.min(center.getY() + ground.startAbove, world.getTopY() - 2);
+            int minY = Math.max(center.getY() - ground.depth, world.getBottomY() + 1);
+            for (int y = startY; y >= minY; y--) {
+                if (isStandable(world, pos, x, y, z)) {
+                    return isAccepted(world.getBlockState(pos.set(x, y - 1, z))) ? y : Integer.MIN_VALUE;
+                }
+            }
+            // No ground found below - the building is below ground level, search up
+            int maxY = Math.min(center.getY() + ground.maxAbove, world.getTopY() - 2);
+            for (int y = startY + 1; y <= maxY; y++) {
+                if (isStandable(world, pos, x, y, z)) {
+                    return isAccepted(world.getBlockState(pos.set(x, y - 1, z))) ? y : Integer.MIN_VALUE;
+                }
+            }
+            return Integer.MIN_VALUE;
+        }
+
+        boolean isAccepted(BlockState groundState) {
+            return !ground.naturalOnly || isSafeGround(groundState);
+        }
+    }
+
+    /**
+     * Registers the handler that clears the cache when the server stops.
+     */
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            CACHES.clear();
+        });
+    }
+
+    /**
+     * Picks a random spawn candidate around a building.
+     * Candidates are on natural ground with two blocks of air above; entities are not checked.
+     * @param world The server world
+     * @param building The building
+     * @param minDistance Minimum horizontal distance from the building's position
+     * @param maxDistance Maximum horizontal distance from the building's position (at most RADIUS)
+     * @return Spawn position (the block the entity's feet are in), or null if there is none in range
+     */
+    public static BlockPos pick(ServerWorld world, Building building, int minDistance, int maxDistance) {
+        int from = Math.max(0, minDistance);
+        int to = Math.min(RADIUS, maxDistance);
+        Entry entry = getEntry(world, building, Ground.NATURAL);
+        entry.refresh(world, from, to);
+
+        int total = 0;
+        for (int ring = from; ring <= to; ring++) {
+            total += entry.rings[ring].size();
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        int index = world.getRandom().nextInt(total);
+        for (int ring = from; ring <= to; ring++) {
+            LongArrayList candidates = entry.rings[ring];
+            if (index < candidates.size()) {
+                return BlockPos.fromLong(candidates.getLong(index));
+            }
+            index -= candidates.size();
+        }
+        return null; // Not reached
+    }
+
+    /**
+     * Gets the candidate closest to a building, for callers that need a stable target.
+     * @param world The server world
+     * @param building The building
+     * @param ground Which ground the candidate may stand on
+     * @param minDistance Minimum horizontal distance from the building's position
+     * @param maxDistance Maximum horizontal distance from the building's position (at most RADIUS)
+     * @return Position (the block the entity's feet are in), or null if there is none in range
+     */
+    public static BlockPos nearest(ServerWorld world, Building building, Ground ground, int minDistance, int maxDistance) {
+        int from = Math.max(0, minDistance);
+        int to = Math.min(RADIUS, maxDistance);
+        Entry entry = getEntry(world, building, ground);
+        entry.refresh(world, from, to);
+
+        for (int ring = from; ring <= to; ring++) {
+            LongArrayList candidates = entry.rings[ring];
+            if (!candidates.isEmpty()) {
+                return BlockPos.fromLong(candidates.getLong(0));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a building's spawn candidates in a distance range are still being filled in, i.e. the
+     * last pick could not probe every loaded column in range. An empty pick is then not conclusive.
+     * @param world The server world
+     * @param building The building
+     * @param minDistance Minimum horizontal distance from the building's position
+     * @param maxDistance Maximum horizontal distance from the building's position (at most RADIUS)
+     * @return true if loaded columns in range have not been probed yet
+     */
+    public static boolean isWarmingUp(ServerWorld world, Building building, int minDistance, int maxDistance) {
+        Entry entry = getEntry(world, building, Ground.NATURAL);
+        return entry.hasDirtyColumns(Math.max(0, minDistance), Math.min(RADIUS, maxDistance));
+    }
+
+    /**
+     * Marks the cached column of a changed block dirty in every building's candidates that cover it.
+     * Called for every block change in a server world, so the common case is one map lookup.
+     */
+    public static void onBlockChanged(ServerWorld world, BlockPos pos) {
+        if (CACHES.isEmpty()) {
+            return;
+        }
+        WorldCache cache = CACHES.get(world.getRegistryKey());
+        if (cache == null) {
+            return;
+        }
+        List<Entry> entries = cache.entriesByChunk.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (entries == null) {
+            return;
+        }
+        for (Entry entry : entries) {
+            if (entry.covers(pos)) {
+                entry.markDirty(pos.getX(), pos.getZ());
+            }
+        }
+    }
+
+    /**
+     * Drops a building's candidates. Called when the building is removed from its settlement.
+     * @param world The world the building was in
+     * @param buildingId The building's ID
+     */
+    public static void remove(ServerWorld world, UUID buildingId) {
+        WorldCache cache = CACHES.get(world.getRegistryKey());
+        if (cache == null) {
+            return;
+        }
+        for (Map<UUID, Entry> entries : cache.entries.values()) {
+            Entry entry = entries.remove(buildingId);
+            if (entry != null) {
+                unindex(cache, entry);
+            }
+        }
+    }
+
+    /**
+     * Gets a building's entry for a ground rule, creating it (all columns dirty) on first use or after the building moved.
+     */
+    private static Entry getEntry(ServerWorld world, Building building, Ground ground) {
+        WorldCache cache = CACHES.computeIfAbsent(world.getRegistryKey(), key -> new WorldCache());
+        Map<UUID, Entry> entries = cache.entries.computeIfAbsent(ground, key -> new HashMap<>());
+        Entry entry = entries.get(building.getId());
+        if (entry != null && entry.center.equals(building.getPosition())) {
+            return entry;
+        }
+        if (entry != null) {
+            unindex(cache, entry);
+        }
+
+        entry = new Entry(building.getPosition(), ground);
+        entries.put(building.getId(), entry);
+        BlockPos center = entry.center;
+        for (int chunkX = (center.getX() - RADIUS) >> 4; chunkX <= (center.getX() + RADIUS) >> 4; chunkX++) {
+            for (int chunkZ = (center.getZ() - RADIUS) >> 4; chunkZ <= (center.getZ() + RADIUS) >> 4; chunkZ++) {
+                cache.entriesByChunk.computeIfAbsent(ChunkPos.toLong(chunkX, chunkZ), key -> new ArrayList<>(2)).add(entry);
+            }
+        }
+        return entry;
+    }
+
+    private static void unindex(WorldCache cache, Entry entry) {
+        BlockPos center = entry.center;
+        for (int chunkX = (center.getX() - RADIUS) >> 4; chunkX <= (center.getX() + RADIUS) >> 4; chunkX++) {
+            for (int chunkZ = (center.getZ() - RADIUS) >> 4; chunkZ <= (center.getZ() + RADIUS) >> 4; chunkZ++) {
+                long chunkKey = ChunkPos.toLong(chunkX, chunkZ);
+                List<Entry> entries = cache.entriesByChunk.get(chunkKey);
+                if (entries != null) {
+                    entries.remove(entry);
+                    if (entries.isEmpty()) {
+                        cache.entriesByChunk.remove(chunkKey);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks for opaque ground below and air at and above a position.
+     */
+    private static boolean isStandable(ServerWorld world, BlockPos.Mutable pos, int x, int y, int z) {
+        return world.getBlockState(pos.set(x, y - 1, z)).isOpaque()
+            && world.getBlockState(pos.set(x, y, z)).isAir()
+            && world.getBlockState(pos.set(x, y + 1, z)).isAir();
+    }
+
+    private static boolean isSafeGround(BlockState groundState) {
+        return SAFE_GROUND.contains(groundState.getBlock());
+    }
+}
@@ -1,7 +1,6 @@
 package com.secretasain.settlements.settlement;
 
 import com.secretasain.settlements.SettlementsMod;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.MinecraftServer;
@@ -14,137 +13,52 @@ import java.util.*;
 /**
  * Handles automated task execution for assigned villagers.
  * Villagers perform work at their assigned buildings and generate outputs.
+ * Driven by VillagerWorkStateMachine for villagers in the WORKING state.
  */
 public class TaskExecutionSystem {
-    private static final int TASK_INTERVAL_TICKS = 200; // Execute tasks every 2.5 seconds (50 ticks)
     private static final double WORK_DISTANCE_SQ = 16.0 * 16.0; // Villager must be within 16 blocks to work
     private static final double LUMBERYARD_WORK_DISTANCE_SQ = 32.0 * 32.0; // Lumberyard villagers can work within 32 blocks (for tree harvesting)
     
     /**
-     * Registers the task execution system with Fabric's server tick events.
+     * Runs a villager's work task if it is close enough to its building.
+     * Called periodically by VillagerWorkStateMachine for villagers in the WORKING state.
+     * @param buildingType The building type (see getBuildingType)
+     * @param villagerIndex The villager's index among the building's assigned villagers
      */
-    public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            tick(world);
-        });
-    }
-    
-    /**
-     * Performs a tick update for the given world.
-     * @param world The server world to update
-     */
-    private static void tick(ServerWorld world) {
-        // Only run periodically to avoid performance issues
-        if (world.getTime() % TASK_INTERVAL_TICKS != 0) {
-            return;
-        }
+    static void handleWork(Settlement settlement, VillagerData villagerData, Building building,
+                           VillagerEntity villager, ServerWorld world, String buildingType, int villagerIndex) {
+        // Check if villager is close enough to building to work
+        BlockPos buildingPos = building.getPosition();
+        double distanceSq = villager.getPos().squaredDistanceTo(
+            buildingPos.getX() + 0.5,
+            buildingPos.getY() + 0.5,
+            buildingPos.getZ() + 0.5
+        );
         
-        SettlementManager manager = SettlementManager.getInstance(world);
-        Collection<Settlement> allSettlements = manager.getAllSettlements();
+        // Use larger work distance for lumberyard buildings
+        boolean isLumberyard = "lumberyard".equals(buildingType);
+        double workDistanceSq = isLumberyard ? LUMBERYARD_WORK_DISTANCE_SQ : WORK_DISTANCE_SQ;
+        
+        if (distanceSq > workDistanceSq) {
+            return; // Villager is too far from building to work
+        }
         
-        // Process each settlement
-        for (Settlement settlement : allSettlements) {
-            processSettlement(settlement, world);
+        // For lumberyard buildings, only the first villager (index 0) should harvest logs
+        // The second villager (index 1) collects items in the COLLECTING state
+        if (isLumberyard && villagerIndex != 0) {
+            return;
         }
+        
+        // Execute task based on building type
+        executeTask(settlement, villagerData, building, villager, world);
     }
     
     /**
-     * Processes task execution for all assigned villagers in a settlement.
+     * Gets the config building type of a building (farm, lumberyard, wall, ...).
+     * @return The building type, or null if the building produces no outputs
      */
-    private static void processSettlement(Settlement settlement, ServerWorld world) {
-        // Check if it's work hours (daytime: 1000-12000 ticks, roughly 6 AM to 6 PM)
-        long timeOfDay = world.getTimeOfDay() % 24000;
-        boolean isWorkHours = timeOfDay >= 1000 && timeOfDay < 12000;
-        
-        if (!isWorkHours) {
-            return; // Villagers don't work at night
-        }
-        
-        for (VillagerData villagerData : settlement.getVillagers()) {
-            // Only process employed and assigned villagers
-            if (!villagerData.isEmployed() || !villagerData.isAssigned()) {
-                continue;
-            }
-            
-            UUID buildingId = villagerData.getAssignedBuildingId();
-            if (buildingId == null) {
-                continue;
-            }
-            
-            // Find the building
-            Building building = settlement.getBuildings().stream()
-                .filter(b -> b.getId().equals(buildingId))
-                .findFirst()
-                .orElse(null);
-            
-            if (building == null || building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
-                continue;
-            }
-            
-            // Get the actual villager entity
-            VillagerEntity villager = getVillagerEntity(world, villagerData.getEntityId());
-            if (villager == null) {
-                continue; // Villager not loaded or doesn't exist
-            }
-            
-            // Check if villager is close enough to building to work
-            BlockPos buildingPos = building.getPosition();
-            double distanceSq = villager.getPos().squaredDistanceTo(
-                buildingPos.getX() + 0.5,
-                buildingPos.getY() + 0.5,
-                buildingPos.getZ() + 0.5
-            );
-            
-            // Determine building type to check work distance
-            Identifier structureType = building.getStructureType();
-            String structureName = getStructureName(structureType);
-            String buildingType = determineBuildingType(structureName);
-            boolean isLumberyard = "lumberyard".equals(buildingType);
-            
-            // Use larger work distance for lumberyard buildings
-            double workDistanceSq = isLumberyard ? LUMBERYARD_WORK_DISTANCE_SQ : WORK_DISTANCE_SQ;
-            
-            if (distanceSq > workDistanceSq) {
-                continue; // Villager is too far from building to work
-            }
-            
-            // Skip if villager is currently depositing (let deposit system handle it)
-            if (villagerData.isDepositing()) {
-                continue;
-            }
-            
-            // For lumberyard buildings, only the first villager (index 0) should harvest logs
-            // The second villager (index 1) is handled by LumberyardItemCollectorSystem
-            if (isLumberyard) {
-                // Get all villagers assigned to this building
-                List<VillagerData> assignedVillagers = WorkAssignmentManager.getVillagersAssignedToBuilding(
-                    settlement, building.getId()
-                );
-                
-                // Find this villager's index
-                int villagerIndex = -1;
-                for (int i = 0; i < assignedVillagers.size(); i++) {
-                    if (assignedVillagers.get(i).getEntityId().equals(villagerData.getEntityId())) {
-                        villagerIndex = i;
-                        break;
-                    }
-                }
-                
-                // Only first villager (index 0) should harvest logs
-                // Second villager (index 1) is handled by LumberyardItemCollectorSystem
-                if (villagerIndex != 0) {
-                    continue; // Skip non-first villagers for lumberyard
-                }
-                
-                // Also check if first villager is actively working (shouldn't happen, but just in case)
-                if (LumberyardItemCollectorSystem.isVillagerActivelyWorking(villagerData.getEntityId())) {
-                    continue; // Let item collector system handle it
-                }
-            }
-            
-            // Execute task based on building type
-            executeTask(settlement, villagerData, building, villager, world);
-        }
+    static String getBuildingType(Building building) {
+        return determineBuildingType(getStructureName(building.getStructureType()));
     }
     
     /**
@@ -165,9 +79,9 @@ public class TaskExecutionSystem {
         
         // For farm buildings, use active crop harvesting instead of passive generation
         if ("farm".equals(buildingType)) {
-            // Use active harvesting system
+            // Use active harvesting system, skipping the pass when no crop is predicted mature
             MinecraftServer server = world.getServer();
-            if (server != null) {
+            if (server != null && FarmGrowthModel.isHarvestDue(building, world.getTime())) {
                 outputs = FarmCropHarvester.harvestCrops(building, world, server);
             } else {
                 outputs = new java.util.ArrayList<>();
@@ -192,11 +106,7 @@ public class TaskExecutionSystem {
         
         // Add outputs to villager's accumulated items (not directly to storage)
         for (ItemStack output : outputs) {
-            Identifier itemId = net.minecraft.registry.Registries.ITEM.getId(output.getItem());
-            if (itemId != null) {
-                String itemKey = itemId.toString();
-                villagerData.addAccumulatedItem(itemKey, output.getCount());
-            }
+            villagerData.addAccumulatedItem(output.getItem(), output.getCount());
         }
         
         // Mark settlement as dirty to save accumulated items
@@ -209,7 +119,7 @@ public class TaskExecutionSystem {
     /**
      * Gets the structure name from the identifier.
      */
-    private static String getStructureName(Identifier structureType) {
+    static String getStructureName(Identifier structureType) {
         String path = structureType.getPath();
         if (path.contains("/")) {
             path = path.substring(path.lastIndexOf('/') + 1);
@@ -223,7 +133,7 @@ public class TaskExecutionSystem {
     /**
      * Determines the building type for config lookup.
      */
-    private static String determineBuildingType(String structureName) {
+    static String determineBuildingType(String structureName) {
         if (structureName.contains("wall") || structureName.contains("fence") || structureName.contains("gate")) {
             return "wall";
         } else if (structureName.contains("barracks")) {
@@ -243,18 +153,4 @@ public class TaskExecutionSystem {
         
         return null; // Unknown building type
     }
-    
-    
-    /**
-     * Gets the VillagerEntity from the world by UUID.
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID entityId) {
-        try {
-            return (VillagerEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-    
 }
-
@@ -0,0 +1,127 @@
+package com.secretasain.settlements.settlement;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Caches whether a log cluster is a natural tree or player-built, keyed by the base of its trunk.
+ * Each entry remembers the block region its classification looked at; any block change inside that
+ * region (reported by ServerWorldMixin) drops the entry, so a tree is only re-classified after
+ * something around it actually changed.
+ */
+public class TreeClassificationCache {
+    private static final Map<RegistryKey<World>, WorldCache> CACHES = new HashMap<>();
+
+    /**
+     * Cached classifications for a single world.
+     */
+    private static class WorldCache {
+        final Long2ObjectOpenHashMap<Entry> entries = new Long2ObjectOpenHashMap<>(); // Trunk base -> entry
+        final Long2ObjectOpenHashMap<LongList> basesBySection = new Long2ObjectOpenHashMap<>(); // Chunk section -> trunk bases
+    }
+
+    /**
+     * A single classification and the region it depends on.
+     */
+    private static class Entry {
+        final boolean natural;
+        final BlockBox region;
+
+        Entry(boolean natural, BlockBox region) {
+            this.natural = natural;
+            this.region = region;
+        }
+    }
+
+    /**
+     * Registers the cache with Fabric's server lifecycle events.
+     */
+    public static void register() {
+        // Classifications belong to the server's worlds - never carry them into the next one
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> CACHES.clear());
+    }
+
+    /**
+     * Gets a cached classification.
+     * @param worldKey The world
+     * @param trunkBase Base of the trunk the log belongs to
+     * @return true/false for a natural/player-built cluster, or null if not cached
+     */
+    public static Boolean get(RegistryKey<World> worldKey, BlockPos trunkBase) {
+        WorldCache cache = CACHES.get(worldKey);
+        if (cache == null) {
+            return null;
+        }
+        Entry entry = cache.entries.get(trunkBase.asLong());
+        return entry == null ? null : entry.natural;
+    }
+
+    /**
+     * Caches a classification.
+     * @param worldKey The world
+     * @param trunkBase Base of the trunk the log belongs to
+     * @param natural true if the cluster is a natural tree
+     * @param region Blocks the classification depended on (changes inside it invalidate the entry)
+     */
+    public static void put(RegistryKey<World> worldKey, BlockPos trunkBase, boolean natural, BlockBox region) {
+        WorldCache cache = CACHES.computeIfAbsent(worldKey, key -> new WorldCache());
+        long baseKey = trunkBase.asLong();
+        if (cache.entries.put(baseKey, new Entry(natural, region)) != null) {
+            return; // Already indexed by section
+        }
+        for (int sectionX = region.getMinX() >> 4; sectionX <= region.getMaxX() >> 4; sectionX++) {
+            for (int sectionY = region.getMinY() >> 4; sectionY <= region.getMaxY() >> 4; sectionY++) {
+                for (int sectionZ = region.getMinZ() >> 4; sectionZ <= region.getMaxZ() >> 4; sectionZ++) {
+                    long sectionKey = ChunkSectionPos.asLong(sectionX, sectionY, sectionZ);
+                    LongList bases = cache.basesBySection.get(sectionKey);
+                    if (bases == null) {
+                        bases = new LongArrayList(4);
+                        cache.basesBySection.put(sectionKey, bases);
+                    }
+                    bases.add(baseKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every classification whose region contains the changed block.
+     * Called for every block change in a server world, so the common case is one map lookup.
+     */
+    public static void onBlockChanged(RegistryKey<World> worldKey, BlockPos pos) {
+        if (CACHES.isEmpty()) {
+            return;
+        }
+        WorldCache cache = CACHES.get(worldKey);
+        if (cache == null) {
+            return;
+        }
+        long sectionKey = ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        LongList bases = cache.basesBySection.get(sectionKey);
+        if (bases == null) {
+            return;
+        }
+        for (int i = bases.size() - 1; i >= 0; i--) {
+            long baseKey = bases.getLong(i);
+            Entry entry = cache.entries.get(baseKey);
+            if (entry == null) {
+                bases.removeLong(i); // Stale - entry was dropped via another section
+            } else if (entry.region.contains(pos)) {
+                cache.entries.remove(baseKey);
+                bases.removeLong(i);
+            }
+        }
+        if (bases.isEmpty()) {
+            cache.basesBySection.remove(sectionKey);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.secretasain.settlements.settlement;
+
+import com.secretasain.settlements.SettlementsMod;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Hand;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.*;
+
+/**
+ * Fells trees over several ticks instead of breaking every log in one call.
+ * LumberjackLogHarvester queues one job per qualifying tree; each job breaks its logs top-down
+ * (so an interrupted job never leaves floating logs) at TICKS_PER_LOG ticks per log, with a global
+ * cap of MAX_BREAKS_PER_TICK log breaks per world tick. The lumberjack villager swings and shows
+ * block-breaking progress in step with the job.
+ *
+ * Jobs are stored in the lumberyard's custom data when queued, so a restart mid-fell resumes the
+ * job. Logs that are already gone when a job resumes are simply skipped.
+ */
+public class TreeFellingScheduler {
+    private static final int TICKS_PER_LOG = 4; // Each log takes 4 ticks to chop (5 logs/second per lumberjack)
+    private static final int MAX_BREAKS_PER_TICK = 4; // Global cap on log breaks per world tick
+    private static final String JOBS_KEY = "fellingJobs";
+
+    // Pending jobs per lumberyard building (head job is the one being felled)
+    private static final Map<UUID, BuildingJobs> JOBS = new LinkedHashMap<>();
+
+    // Worlds whose persisted jobs have been restored
+    private static final Set<ServerWorld> RESTORED_WORLDS = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * Jobs queued for a single lumberyard building.
+     */
+    private static class BuildingJobs {
+        final Settlement settlement;
+        final Building building;
+        final ServerWorld world;
+        final ArrayDeque<FellingJob> queue = new ArrayDeque<>();
+
+        BuildingJobs(Settlement settlement, Building building, ServerWorld world) {
+            this.settlement = settlement;
+            this.building = building;
+            this.world = world;
+        }
+    }
+
+    /**
+     * A single tree being felled.
+     */
+    private static class FellingJob {
+        final BlockPos treePos;
+        final long[] logs; // Packed positions, sorted top-down
+        int nextLog;
+        int ticksOnLog;
+
+        FellingJob(BlockPos treePos, long[] logs) {
+            this.treePos = treePos;
+            this.logs = logs;
+        }
+
+        boolean isDone() {
+            return nextLog >= logs.length;
+        }
+
+        NbtCompound toNbt() {
+            NbtCompound nbt = new NbtCompound();
+            nbt.putLong("treePos", treePos.asLong());
+            nbt.putLongArray("logs", logs);
+            return nbt;
+        }
+
+        static FellingJob fromNbt(NbtCompound nbt) {
+            return new FellingJob(BlockPos.fromLong(nbt.getLong("treePos")), nbt.getLongArray("logs"));
+        }
+    }
+
+    /**
+     * Registers the felling scheduler with Fabric's server tick events.
+     */
+    public static void register() {
+        ServerTickEvents.END_WORLD_TICK.register(TreeFellingScheduler::tick);
+
+        // Jobs hold the world and building they were queued for - drop them with the server
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            JOBS.clear();
+            RESTORED_WORLDS.clear();
+        });
+    }
+
+    /**
+     * Checks if a lumberyard still has trees being felled.
+     */
+    public static boolean hasPendingJobs(UUID buildingId) {
+        BuildingJobs jobs = JOBS.get(buildingId);
+        return jobs != null && !jobs.queue.isEmpty();
+    }
+
+    /**
+     * Queues a tree for staged felling.
+     * @param building The lumberyard building
+     * @param world The server world
+     * @param treePos Position the tree was found at
+     * @param treeLogs Packed log positions from the flood fill (copied)
+     * @return Number of logs queued
+     */
+    public static int queueTree(Building building, ServerWorld world, BlockPos treePos, LongList treeLogs) {
+        if (treeLogs.isEmpty()) {
+            return 0;
+        }
+        Settlement settlement = findSettlement(building.getId(), world);
+        if (settlement == null) {
+            return 0;
+        }
+
+        // Sort top-down so an interrupted fell only ever leaves a stump
+        long[] logs = treeLogs.toLongArray();
+        LongArrays.mergeSort(logs, (a, b) -> Integer.compare(BlockPos.unpackLongY(b), BlockPos.unpackLongY(a)));
+
+        BuildingJobs jobs = JOBS.get(building.getId());
+        if (jobs == null || jobs.world != world || jobs.building != building) {
+            jobs = new BuildingJobs(settlement, building, world);
+            JOBS.put(building.getId(), jobs);
+        }
+        jobs.queue.add(new FellingJob(treePos, logs));
+        saveJobs(jobs);
+        return logs.length;
+    }
+
+    /**
+     * Drops all jobs for a building (e.g., when the building is removed).
+     */
+    public static void clear(UUID buildingId) {
+        JOBS.remove(buildingId);
+    }
+
+    private static void tick(ServerWorld world) {
+        if (RESTORED_WORLDS.add(world)) {
+            restoreJobs(world);
+        }
+        if (JOBS.isEmpty()) {
+            return;
+        }
+
+        int budget = MAX_BREAKS_PER_TICK;
+        Iterator<BuildingJobs> iterator = JOBS.values().iterator();
+        while (iterator.hasNext()) {
+            BuildingJobs jobs = iterator.next();
+            if (jobs.world != world) {
+                continue;
+            }
+
+            FellingJob job = jobs.queue.peek();
+            if (job == null) {
+                iterator.remove();
+                continue;
+            }
+
+            if (budget > 0 && advanceJob(jobs, job)) {
+                budget--;
+            }
+
+            if (job.isDone()) {
+                finishJob(jobs, job);
+                if (jobs.queue.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances a job by one tick.
+     * @return true if a log was broken this tick
+     */
+    private static boolean advanceJob(BuildingJobs jobs, FellingJob job) {
+        ServerWorld world = jobs.world;
+        BlockPos logPos = BlockPos.fromLong(job.logs[job.nextLog]);
+
+        // Wait for the chunk to load rather than skipping the log
+        if (!world.getChunkManager().isChunkLoaded(logPos.getX() >> 4, logPos.getZ() >> 4)) {
+            return false;
+        }
+
+        BlockState logState = world.getBlockState(logPos);
+        if (!LumberjackLogHarvester.isLogBlock(logState.getBlock(), logState)) {
+            // Already gone (broken by a player, or before a restart) - move on
+            job.nextLog++;
+            job.ticksOnLog = 0;
+            return false;
+        }
+
+        VillagerEntity lumberjack = getLumberjack(jobs);
+        job.ticksOnLog++;
+
+        if (job.ticksOnLog < TICKS_PER_LOG) {
+            if (lumberjack != null) {
+                lumberjack.getLookControl().lookAt(logPos.getX() + 0.5, logPos.getY() + 0.5, logPos.getZ() + 0.5);
+                world.setBlockBreakingInfo(lumberjack.getId(), logPos, job.ticksOnLog * 10 / TICKS_PER_LOG);
+                if (job.ticksOnLog % 2 == 1) {
+                    lumberjack.swingHand(Hand.MAIN_HAND);
+                }
+            }
+            return false;
+        }
+
+        // Chop the log
+        List<ItemStack> drops = LumberjackLogHarvester.harvestLog(logPos, logState, logState.getBlock(), world);
+        if (lumberjack != null) {
+            world.setBlockBreakingInfo(lumberjack.getId(), logPos, -1);
+            lumberjack.swingHand(Hand.MAIN_HAND);
+        }
+        // Hand drops to the lumberjack as each log comes down; drop them in place if nobody is assigned
+        VillagerData lumberjackData = getLumberjackData(jobs);
+        for (ItemStack drop : drops) {
+            if (lumberjackData != null) {
+                lumberjackData.addAccumulatedItem(drop.getItem(), drop.getCount());
+            } else {
+                Block.dropStack(world, logPos, drop);
+            }
+        }
+
+        job.nextLog++;
+        job.ticksOnLog = 0;
+        return true;
+    }
+
+    /**
+     * Removes a finished job from the building's persisted queue.
+     */
+    private static void finishJob(BuildingJobs jobs, FellingJob job) {
+        jobs.queue.poll();
+        saveJobs(jobs); // Also saves the drops accumulated by the lumberjack
+        SettlementsMod.LOGGER.info("Finished felling tree at {} for lumberyard {} ({} logs)",
+            job.treePos, jobs.building.getId(), job.logs.length);
+    }
+
+    /**
+     * Writes the building's pending jobs to its custom data and marks the settlement dirty.
+     */
+    private static void saveJobs(BuildingJobs jobs) {
+        NbtCompound customData = jobs.building.getCustomData();
+        if (jobs.queue.isEmpty()) {
+            customData.remove(JOBS_KEY);
+        } else {
+            NbtList jobList = new NbtList();
+            for (FellingJob job : jobs.queue) {
+                jobList.add(job.toNbt());
+            }
+            customData.put(JOBS_KEY, jobList);
+        }
+        SettlementManager.getInstance(jobs.world).markDirty();
+    }
+
+    /**
+     * Restores jobs that were persisted before the last shutdown.
+     */
+    private static void restoreJobs(ServerWorld world) {
+        SettlementManager manager = SettlementManager.getInstance(world);
+        for (Settlement settlement : manager.getAllSettlements()) {
+            for (Building building : settlement.getBuildings()) {
+                NbtCompound customData = building.getCustomData();
+                if (!customData.contains(JOBS_KEY, 9)) { // 9 = NbtList
+                    continue;
+                }
+                NbtList jobList = customData.getList(JOBS_KEY, 10); // 10 = NbtCompound
+                // Rebuild the entry so it points at this world's building, never at a stale one
+                BuildingJobs jobs = new BuildingJobs(settlement, building, world);
+                JOBS.put(building.getId(), jobs);
+                for (int i = 0; i < jobList.size(); i++) {
+                    jobs.queue.add(FellingJob.fromNbt(jobList.getCompound(i)));
+                }
+                SettlementsMod.LOGGER.info("Resumed {} tree felling jobs for lumberyard {}", jobList.size(), building.getId());
+            }
+        }
+    }
+
+    /**
+     * Gets the data of the villager that fells trees (first villager assigned to the lumberyard).
+     */
+    private static VillagerData getLumberjackData(BuildingJobs jobs) {
+        List<VillagerData> assigned = WorkAssignmentManager.getVillagersAssignedToBuilding(
+            jobs.settlement, jobs.building.getId());
+        return assigned.isEmpty() ? null : assigned.get(0);
+    }
+
+    private static VillagerEntity getLumberjack(BuildingJobs jobs) {
+        VillagerData data = getLumberjackData(jobs);
+        return data == null ? null : VillagerEntityCache.get(jobs.world, data.getEntityId());
+    }
+
+    private static Settlement findSettlement(UUID buildingId, ServerWorld world) {
+        for (Settlement settlement : SettlementManager.getInstance(world).getAllSettlements()) {
+            for (Building building : settlement.getBuildings()) {
+                if (building.getId().equals(buildingId)) {
+                    return settlement;
+                }
+            }
+        }
+        return null;
+    }
+}
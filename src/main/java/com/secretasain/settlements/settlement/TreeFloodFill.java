@@ -0,0 +1,191 @@
+package com.secretasain.settlements.settlement;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.LeavesBlock;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+
+/**
+ * Bounded breadth-first flood fill over connected log blocks.
+ * Positions are handled as packed longs (BlockPos.asLong) with a primitive open-addressing visited
+ * set and a single BlockPos.Mutable cursor, so a fill allocates no BlockPos per neighbor.
+ * The queue, visited set and result list are reused between fills; an instance is not thread-safe
+ * and is meant to be used from the server thread only.
+ *
+ * Every fill is bounded by a maximum distance from the start block and a hard node limit.
+ */
+public class TreeFloodFill {
+    private static final int LEAF_BRIDGE_HEIGHT = 3; // Look up to 3 blocks above leaves for more logs
+
+    /**
+     * Decides whether a block reached by the fill belongs to the tree.
+     */
+    @FunctionalInterface
+    public interface NodeFilter {
+        /**
+         * @param pos Position of the block (a shared mutable cursor - copy it if it must be kept)
+         * @param state Block state at that position
+         * @return true if the block is part of the tree
+         */
+        boolean accept(BlockPos pos, BlockState state);
+    }
+
+    /**
+     * Tells the fill whether the chunk holding a block column is loaded.
+     */
+    @FunctionalInterface
+    public interface LoadedCheck {
+        boolean isLoaded(int x, int z);
+    }
+
+    private final LongOpenHashSet visited = new LongOpenHashSet();
+    private final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+    private final LongArrayList result = new LongArrayList();
+    private final BlockPos.Mutable cursor = new BlockPos.Mutable();
+
+    private boolean truncated;
+
+    /**
+     * Collects all accepted blocks connected to the start position.
+     * @param world The server world
+     * @param start Starting block (must itself be accepted by the filter)
+     * @param maxDistance Maximum distance from the start block, in blocks
+     * @param maxNodes Hard limit on accepted blocks; the fill stops once it is reached
+     * @param diagonals true to follow all 26 neighbors, false for the 6 face neighbors only
+     * @param bridgeLeaves true to look through leaves above a block for more logs (acacia/jungle branches)
+     * @param filter Decides which blocks belong to the tree
+     * @return Packed positions in BFS order (valid until the next fill on this instance)
+     */
+    public LongList fill(ServerWorld world, BlockPos start, int maxDistance, int maxNodes,
+                         boolean diagonals, boolean bridgeLeaves, NodeFilter filter) {
+        return fill(world, (x, z) -> isLoaded(world, x, z), start, maxDistance, maxNodes,
+            diagonals, bridgeLeaves, filter);
+    }
+
+    /**
+     * Collects all accepted blocks connected to the start position in any block view.
+     * @param world The blocks to fill over
+     * @param loaded Decides which block columns may be read
+     * @see #fill(ServerWorld, BlockPos, int, int, boolean, boolean, NodeFilter)
+     */
+    public LongList fill(BlockView world, LoadedCheck loaded, BlockPos start, int maxDistance, int maxNodes,
+                         boolean diagonals, boolean bridgeLeaves, NodeFilter filter) {
+        visited.clear();
+        queue.clear();
+        result.clear();
+        truncated = false;
+
+        int startX = start.getX();
+        int startY = start.getY();
+        int startZ = start.getZ();
+        int maxDistanceSq = maxDistance * maxDistance;
+
+        long startKey = start.asLong();
+        visited.add(startKey);
+        if (!loaded.isLoaded(startX, startZ) || !filter.accept(start, world.getBlockState(start))) {
+            return result;
+        }
+        queue.enqueue(startKey);
+
+        while (!queue.isEmpty()) {
+            if (result.size() >= maxNodes) {
+                truncated = true;
+                break;
+            }
+
+            long current = queue.dequeueLong();
+            result.add(current);
+
+            int cx = BlockPos.unpackLongX(current);
+            int cy = BlockPos.unpackLongY(current);
+            int cz = BlockPos.unpackLongZ(current);
+
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dz = -1; dz <= 1; dz++) {
+                        // Skip the center block, and edges/corners when only following faces
+                        int offsets = Math.abs(dx) + Math.abs(dy) + Math.abs(dz);
+                        if (offsets == 0 || (!diagonals && offsets > 1)) {
+                            continue;
+                        }
+
+                        int nx = cx + dx;
+                        int ny = cy + dy;
+                        int nz = cz + dz;
+                        if (!withinDistance(nx - startX, ny - startY, nz - startZ, maxDistanceSq)) {
+                            continue;
+                        }
+
+                        long key = BlockPos.asLong(nx, ny, nz);
+                        if (visited.contains(key) || !loaded.isLoaded(nx, nz)) {
+                            continue;
+                        }
+
+                        BlockState state = world.getBlockState(cursor.set(nx, ny, nz));
+                        if (filter.accept(cursor, state)) {
+                            visited.add(key);
+                            queue.enqueue(key);
+                        } else if (state.getBlock() instanceof LeavesBlock) {
+                            if (bridgeLeaves && dy > 0) {
+                                bridgeLeaves(world, nx, ny, nz, startX, startY, startZ, maxDistanceSq, filter);
+                            }
+                        } else {
+                            visited.add(key); // Neither tree nor leaves - never look at it again
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether the last fill stopped because it hit the node limit.
+     */
+    public boolean wasTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Follows a column of leaves upward looking for a log above them.
+     * Helps with acacia and jungle trees that have leaves between branches.
+     */
+    private void bridgeLeaves(BlockView world, int x, int y, int z, int startX, int startY, int startZ,
+                              int maxDistanceSq, NodeFilter filter) {
+        for (int checkY = 1; checkY <= LEAF_BRIDGE_HEIGHT; checkY++) {
+            int ay = y + checkY;
+            if (!withinDistance(x - startX, ay - startY, z - startZ, maxDistanceSq)) {
+                return;
+            }
+
+            long key = BlockPos.asLong(x, ay, z);
+            if (visited.contains(key)) {
+                continue;
+            }
+
+            BlockState state = world.getBlockState(cursor.set(x, ay, z));
+            if (filter.accept(cursor, state)) {
+                visited.add(key);
+                queue.enqueue(key);
+                return; // Found a log, stop checking further up
+            }
+            if (!(state.getBlock() instanceof LeavesBlock)) {
+                return; // Non-leaf, non-log block ends the bridge
+            }
+        }
+    }
+
+    private static boolean withinDistance(int dx, int dy, int dz, int maxDistanceSq) {
+        return dx * dx + dy * dy + dz * dz <= maxDistanceSq;
+    }
+
+    private static boolean isLoaded(ServerWorld world, int x, int z) {
+        return world.getChunkManager().isChunkLoaded(x >> 4, z >> 4);
+    }
+}
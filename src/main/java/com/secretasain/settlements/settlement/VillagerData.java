@@ -1,6 +1,12 @@
 package com.secretasain.settlements.settlement;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.item.Item;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.Objects;
@@ -9,17 +15,21 @@ import java.util.UUID;
 /**
  * Data class representing a villager associated with a settlement.
  */
-public class VillagerData {
+public class VillagerData implements SettlementMember {
     private UUID entityId;
     private BlockPos lastKnownPos;
     private String profession; // Will be replaced with VillagerProfession later
     private boolean isEmployed;
     private String name;
-    private long lastSeen;
+    private long lastSeen; // World time the villager was last seen inside the settlement (-1 if not yet seen)
     private UUID assignedBuildingId; // Building this villager is assigned to work at (null if unassigned)
-    private java.util.Map<String, Integer> accumulatedItems; // Items accumulated for deposit (item ID -> count)
+    private final Object2IntOpenHashMap<Item> accumulatedItems; // Items accumulated for deposit (item -> count)
+    private final Object2IntMap<Item> accumulatedItemsView; // Read-only view handed out to callers
+    private int totalAccumulatedItems; // Running total of accumulatedItems
     private boolean isDepositing; // Whether villager is currently on a deposit trip
     private long chestArrivalTime; // World time when villager arrived at chest (0 if not at chest)
+    private BlockPos assignedBedPos; // Bed assigned for the night (null if none)
+    private long assignedBedNight; // Night index the bed was assigned for (-1 if none)
 
     public VillagerData(UUID entityId, BlockPos lastKnownPos, String profession, boolean isEmployed, String name) {
         this.entityId = entityId;
@@ -27,11 +37,15 @@ public class VillagerData {
         this.profession = profession;
         this.isEmployed = isEmployed;
         this.name = name;
-        this.lastSeen = System.currentTimeMillis();
+        this.lastSeen = -1;
         this.assignedBuildingId = null;
-        this.accumulatedItems = new java.util.HashMap<>();
+        this.accumulatedItems = new Object2IntOpenHashMap<>();
+        this.accumulatedItemsView = Object2IntMaps.unmodifiable(accumulatedItems);
+        this.totalAccumulatedItems = 0;
         this.isDepositing = false;
         this.chestArrivalTime = 0;
+        this.assignedBedPos = null;
+        this.assignedBedNight = -1;
     }
 
     public UUID getEntityId() {
@@ -44,7 +58,16 @@ public class VillagerData {
 
     public void setLastKnownPos(BlockPos lastKnownPos) {
         this.lastKnownPos = lastKnownPos;
-        this.lastSeen = System.currentTimeMillis();
+    }
+    
+    /**
+     * Records that the villager was seen inside the settlement.
+     * @param pos Current position of the villager
+     * @param worldTime Current world time
+     */
+    public void markSeen(BlockPos pos, long worldTime) {
+        this.lastKnownPos = pos;
+        this.lastSeen = worldTime;
     }
 
     public String getProfession() {
@@ -71,6 +94,10 @@ public class VillagerData {
         this.name = name;
     }
 
+    /**
+     * Gets the world time the villager was last seen inside the settlement.
+     * @return World time, or -1 if the villager has not been seen yet
+     */
     public long getLastSeen() {
         return lastSeen;
     }
@@ -87,20 +114,48 @@ public class VillagerData {
         return assignedBuildingId != null;
     }
     
-    public java.util.Map<String, Integer> getAccumulatedItems() {
-        return accumulatedItems;
+    /**
+     * Gets the items accumulated for deposit (read-only).
+     * @return Map of item -> count
+     */
+    public Object2IntMap<Item> getAccumulatedItems() {
+        return accumulatedItemsView;
     }
     
-    public void addAccumulatedItem(String itemId, int count) {
-        accumulatedItems.put(itemId, accumulatedItems.getOrDefault(itemId, 0) + count);
+    public void addAccumulatedItem(Item item, int count) {
+        if (count <= 0) {
+            return;
+        }
+        accumulatedItems.addTo(item, count);
+        totalAccumulatedItems += count;
+    }
+    
+    /**
+     * Removes up to count of an item from the accumulated items.
+     * @return The number of items actually removed
+     */
+    public int removeAccumulatedItem(Item item, int count) {
+        int current = accumulatedItems.getInt(item);
+        int removed = Math.min(current, count);
+        if (removed <= 0) {
+            return 0;
+        }
+        if (removed == current) {
+            accumulatedItems.removeInt(item);
+        } else {
+            accumulatedItems.put(item, current - removed);
+        }
+        totalAccumulatedItems -= removed;
+        return removed;
     }
     
     public int getTotalAccumulatedItems() {
-        return accumulatedItems.values().stream().mapToInt(Integer::intValue).sum();
+        return totalAccumulatedItems;
     }
     
     public void clearAccumulatedItems() {
         accumulatedItems.clear();
+        totalAccumulatedItems = 0;
     }
     
     public boolean isDepositing() {
@@ -122,6 +177,25 @@ public class VillagerData {
     public void setChestArrivalTime(long worldTime) {
         this.chestArrivalTime = worldTime;
     }
+    
+    /**
+     * Gets the bed assigned to this villager for a night.
+     * @param night Night index (world time of day / 24000)
+     * @return The bed's head position, or null if no bed is assigned for that night
+     */
+    public BlockPos getAssignedBed(long night) {
+        return assignedBedNight == night ? assignedBedPos : null;
+    }
+    
+    public void setAssignedBed(BlockPos bedPos, long night) {
+        this.assignedBedPos = bedPos;
+        this.assignedBedNight = bedPos != null ? night : -1;
+    }
+    
+    public void clearAssignedBed() {
+        this.assignedBedPos = null;
+        this.assignedBedNight = -1;
+    }
 
     /**
      * Serializes this villager data to NBT.
@@ -141,14 +215,18 @@ public class VillagerData {
             nbt.putUuid("assignedBuildingId", assignedBuildingId);
         }
         
-        // Save accumulated items
-        net.minecraft.nbt.NbtCompound itemsNbt = new net.minecraft.nbt.NbtCompound();
-        for (java.util.Map.Entry<String, Integer> entry : accumulatedItems.entrySet()) {
-            itemsNbt.putInt(entry.getKey(), entry.getValue());
+        // Save accumulated items (keyed by item ID)
+        NbtCompound itemsNbt = new NbtCompound();
+        for (Object2IntMap.Entry<Item> entry : accumulatedItems.object2IntEntrySet()) {
+            itemsNbt.putInt(Registries.ITEM.getId(entry.getKey()).toString(), entry.getIntValue());
         }
         nbt.put("accumulatedItems", itemsNbt);
         nbt.putBoolean("isDepositing", isDepositing);
         nbt.putLong("chestArrivalTime", chestArrivalTime);
+        if (assignedBedPos != null) {
+            nbt.putLong("assignedBedPos", assignedBedPos.asLong());
+            nbt.putLong("assignedBedNight", assignedBedNight);
+        }
         
         return nbt;
     }
@@ -164,7 +242,7 @@ public class VillagerData {
         String profession = nbt.getString("profession");
         boolean isEmployed = nbt.getBoolean("isEmployed");
         String name = nbt.getString("name");
-        long lastSeen = nbt.contains("lastSeen") ? nbt.getLong("lastSeen") : System.currentTimeMillis();
+        long lastSeen = nbt.contains("lastSeen") ? nbt.getLong("lastSeen") : -1;
         UUID assignedBuildingId = nbt.contains("assignedBuildingId") ? nbt.getUuid("assignedBuildingId") : null;
         
         VillagerData data = new VillagerData(entityId, lastKnownPos, profession, isEmployed, name);
@@ -173,13 +251,20 @@ public class VillagerData {
         
         // Load accumulated items
         if (nbt.contains("accumulatedItems", 10)) {
-            net.minecraft.nbt.NbtCompound itemsNbt = nbt.getCompound("accumulatedItems");
+            NbtCompound itemsNbt = nbt.getCompound("accumulatedItems");
             for (String key : itemsNbt.getKeys()) {
-                data.accumulatedItems.put(key, itemsNbt.getInt(key));
+                Identifier itemId = Identifier.tryParse(key);
+                if (itemId != null && Registries.ITEM.containsId(itemId)) {
+                    data.addAccumulatedItem(Registries.ITEM.get(itemId), itemsNbt.getInt(key));
+                }
             }
         }
         data.isDepositing = nbt.contains("isDepositing") ? nbt.getBoolean("isDepositing") : false;
         data.chestArrivalTime = nbt.contains("chestArrivalTime") ? nbt.getLong("chestArrivalTime") : 0;
+        if (nbt.contains("assignedBedPos")) {
+            data.assignedBedPos = BlockPos.fromLong(nbt.getLong("assignedBedPos"));
+            data.assignedBedNight = nbt.getLong("assignedBedNight");
+        }
         
         return data;
     }
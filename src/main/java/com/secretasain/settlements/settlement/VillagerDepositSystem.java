@@ -1,7 +1,9 @@
 package com.secretasain.settlements.settlement;
 
 import com.secretasain.settlements.SettlementsMod;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import com.secretasain.settlements.pathfinding.VillagerNavigator;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.ChestBlock;
 import net.minecraft.block.entity.ChestBlockEntity;
@@ -10,7 +12,6 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.registry.Registries;
 import net.minecraft.server.world.ServerWorld;
-import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.*;
@@ -20,65 +21,31 @@ import java.util.*;
  * When villagers accumulate 32 items, they walk to the lectern and deposit items into nearby chests.
  */
 public class VillagerDepositSystem {
-    private static final int DEPOSIT_CHECK_INTERVAL_TICKS = 20; // Check every 1 second
-    private static final int DEPOSIT_THRESHOLD = 32; // Items needed to trigger deposit
+    static final int DEPOSIT_THRESHOLD = 32; // Items needed to trigger deposit
     private static final double LECTERN_SEARCH_RADIUS = 8.0; // Search for chests within 8 blocks of lectern
     private static final double DEPOSIT_COMPLETE_DISTANCE = 3.0; // Consider deposit complete when within 3 blocks
     private static final int MIN_CHEST_STAY_TICKS = 100; // Minimum 5 seconds (100 ticks) at chest before returning
     
     /**
-     * Registers the deposit system with Fabric's server tick events.
+     * Checks if a villager is on a deposit trip or has accumulated enough items to start one.
      */
-    public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            tick(world);
-        });
+    static boolean shouldDeposit(VillagerData villagerData) {
+        return villagerData.isDepositing() || villagerData.getTotalAccumulatedItems() >= DEPOSIT_THRESHOLD;
     }
     
     /**
-     * Performs a tick update for the given world.
+     * Starts or continues a villager's deposit trip.
+     * Called by VillagerWorkStateMachine for villagers in the DEPOSITING state.
      */
-    private static void tick(ServerWorld world) {
-        // Only run periodically
-        if (world.getTime() % DEPOSIT_CHECK_INTERVAL_TICKS != 0) {
-            return;
+    static void handleDepositing(Settlement settlement, VillagerData villagerData,
+                                 VillagerEntity villager, ServerWorld world) {
+        // Check if villager should start depositing
+        if (!villagerData.isDepositing()) {
+            startDepositTrip(settlement, villagerData, villager, world);
         }
         
-        SettlementManager manager = SettlementManager.getInstance(world);
-        Collection<Settlement> allSettlements = manager.getAllSettlements();
-        
-        for (Settlement settlement : allSettlements) {
-            processSettlement(settlement, world);
-        }
-    }
-    
-    /**
-     * Processes deposit logic for all assigned villagers in a settlement.
-     */
-    private static void processSettlement(Settlement settlement, ServerWorld world) {
-        for (VillagerData villagerData : settlement.getVillagers()) {
-            // Only process employed and assigned villagers
-            if (!villagerData.isEmployed() || !villagerData.isAssigned()) {
-                continue;
-            }
-            
-            VillagerEntity villager = getVillagerEntity(world, villagerData.getEntityId());
-            if (villager == null) {
-                continue;
-            }
-            
-            int totalItems = villagerData.getTotalAccumulatedItems();
-            
-            // Check if villager should start depositing
-            if (!villagerData.isDepositing() && totalItems >= DEPOSIT_THRESHOLD) {
-                startDepositTrip(settlement, villagerData, villager, world);
-            }
-            
-            // Handle ongoing deposit trips
-            if (villagerData.isDepositing()) {
-                handleDepositTrip(settlement, villagerData, villager, world);
-            }
-        }
+        // Handle ongoing deposit trips
+        handleDepositTrip(settlement, villagerData, villager, world);
     }
     
     /**
@@ -88,14 +55,15 @@ public class VillagerDepositSystem {
                                         VillagerEntity villager, ServerWorld world) {
         BlockPos lecternPos = settlement.getLecternPos();
         
-        // Mark villager as depositing (this disables auto-rally in VillagerPathfindingSystem)
+        // Mark villager as depositing (keeps the state machine in DEPOSITING until the trip ends)
         villagerData.setDepositing(true);
         
         // Reset chest arrival time
         villagerData.setChestArrivalTime(0);
         
         // Pathfind to lectern - MUST walk (speed 1.0 = normal walking speed)
-        boolean pathStarted = villager.getNavigation().startMovingTo(
+        boolean pathStarted = VillagerNavigator.moveTo(
+            villager,
             lecternPos.getX() + 0.5,
             lecternPos.getY() + 0.5,
             lecternPos.getZ() + 0.5,
@@ -149,7 +117,7 @@ public class VillagerDepositSystem {
             }
             
             // Villager has been at chest long enough - deposit items
-            boolean deposited = depositItemsToChests(settlement, villagerData, lecternPos, world);
+            boolean deposited = depositItemsToChests(settlement, villagerData.getAccumulatedItems(), lecternPos, world);
             
             if (deposited) {
                 // Clear accumulated items and stop depositing
@@ -176,7 +144,8 @@ public class VillagerDepositSystem {
             // Continue pathfinding to lectern - MUST walk (speed 1.0)
             // Check if navigation is still active, restart if needed
             if (!villager.getNavigation().isFollowingPath()) {
-                boolean pathStarted = villager.getNavigation().startMovingTo(
+                boolean pathStarted = VillagerNavigator.moveTo(
+                    villager,
                     lecternPos.getX() + 0.5,
                     lecternPos.getY() + 0.5,
                     lecternPos.getZ() + 0.5,
@@ -191,10 +160,21 @@ public class VillagerDepositSystem {
     }
     
     /**
-     * Deposits accumulated items into nearby chests.
+     * Deposits items into the chests near a settlement's lectern, or into settlement storage if
+     * there are none (used to hand over output estimated while the settlement was simulated).
+     */
+    static void depositToLectern(Settlement settlement, Object2IntMap<Item> items, ServerWorld world) {
+        BlockPos lecternPos = settlement.getLecternPos();
+        if (lecternPos == null || !depositItemsToChests(settlement, items, lecternPos, world)) {
+            addToSettlementMaterials(settlement, items);
+        }
+    }
+    
+    /**
+     * Deposits items into nearby chests.
      * @return true if items were deposited, false if no chests found
      */
-    private static boolean depositItemsToChests(Settlement settlement, VillagerData villagerData,
+    private static boolean depositItemsToChests(Settlement settlement, Object2IntMap<Item> items,
                                                BlockPos lecternPos, ServerWorld world) {
         // Find chests near lectern
         List<BlockPos> chestPositions = findChestsNearLectern(lecternPos, world);
@@ -204,7 +184,7 @@ public class VillagerDepositSystem {
         }
         
         // Try to deposit items into chests
-        Map<String, Integer> itemsToDeposit = new HashMap<>(villagerData.getAccumulatedItems());
+        Object2IntOpenHashMap<Item> itemsToDeposit = new Object2IntOpenHashMap<>(items);
         
         for (BlockPos chestPos : chestPositions) {
             if (itemsToDeposit.isEmpty()) {
@@ -216,23 +196,11 @@ public class VillagerDepositSystem {
                 ChestBlockEntity chestEntity = (ChestBlockEntity) world.getBlockEntity(chestPos);
                 if (chestEntity != null) {
                     // Try to add items to chest
-                    Iterator<Map.Entry<String, Integer>> iterator = itemsToDeposit.entrySet().iterator();
+                    Iterator<Object2IntMap.Entry<Item>> iterator = itemsToDeposit.object2IntEntrySet().fastIterator();
                     while (iterator.hasNext()) {
-                        Map.Entry<String, Integer> entry = iterator.next();
-                        String itemId = entry.getKey();
-                        int count = entry.getValue();
-                        
-                        Identifier itemIdentifier = Identifier.tryParse(itemId);
-                        if (itemIdentifier == null) {
-                            iterator.remove();
-                            continue;
-                        }
-                        
-                        Item item = Registries.ITEM.get(itemIdentifier);
-                        if (item == null) {
-                            iterator.remove();
-                            continue;
-                        }
+                        Object2IntMap.Entry<Item> entry = iterator.next();
+                        Item item = entry.getKey();
+                        int count = entry.getIntValue();
                         
                         // Try to add item stack to chest
                         ItemStack stack = new ItemStack(item, count);
@@ -253,12 +221,7 @@ public class VillagerDepositSystem {
         
         // If any items remain, deposit to settlement storage
         if (!itemsToDeposit.isEmpty()) {
-            for (Map.Entry<String, Integer> entry : itemsToDeposit.entrySet()) {
-                String itemId = entry.getKey();
-                int count = entry.getValue();
-                int currentCount = settlement.getMaterials().getOrDefault(itemId, 0);
-                settlement.getMaterials().put(itemId, currentCount + count);
-            }
+            addToSettlementMaterials(settlement, itemsToDeposit);
         }
         
         return true;
@@ -269,11 +232,17 @@ public class VillagerDepositSystem {
      */
     private static void depositItemsToSettlementStorage(Settlement settlement, VillagerData villagerData,
                                                         ServerWorld world) {
-        for (Map.Entry<String, Integer> entry : villagerData.getAccumulatedItems().entrySet()) {
-            String itemId = entry.getKey();
-            int count = entry.getValue();
+        addToSettlementMaterials(settlement, villagerData.getAccumulatedItems());
+    }
+    
+    /**
+     * Adds items to settlement storage (keyed by item ID string).
+     */
+    private static void addToSettlementMaterials(Settlement settlement, Object2IntMap<Item> items) {
+        for (Object2IntMap.Entry<Item> entry : items.object2IntEntrySet()) {
+            String itemId = Registries.ITEM.getId(entry.getKey()).toString();
             int currentCount = settlement.getMaterials().getOrDefault(itemId, 0);
-            settlement.getMaterials().put(itemId, currentCount + count);
+            settlement.getMaterials().put(itemId, currentCount + entry.getIntValue());
         }
     }
     
@@ -331,16 +300,5 @@ public class VillagerDepositSystem {
         
         return remaining;
     }
-    
-    /**
-     * Gets the VillagerEntity from the world by UUID.
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID entityId) {
-        try {
-            return (VillagerEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
-        }
-    }
 }
 
@@ -0,0 +1,143 @@
+package com.secretasain.settlements.settlement;
+
+import com.secretasain.settlements.SettlementsMod;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.server.world.ServerWorld;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Shared lookup from villager UUIDs to loaded VillagerEntity instances.
+ * Every settlement system resolves its villagers through here instead of calling world.getEntity
+ * on its own. Handles are weak references kept up to date by entity load/unload events; a villager
+ * that could not be found is remembered as missing for the rest of the tick, so systems asking for
+ * the same unloaded villager in one tick do not repeat the world lookup.
+ */
+public class VillagerEntityCache {
+    private static final int STATS_LOG_INTERVAL_TICKS = 12000; // Log hit/miss statistics every 10 minutes
+
+    // Loaded villagers by UUID (UUIDs are unique across worlds)
+    private static final Map<UUID, WeakReference<VillagerEntity>> HANDLES = new HashMap<>();
+
+    // Villagers that were not found during the current tick
+    private static final Set<UUID> MISSING = new HashSet<>();
+    private static ServerWorld missingWorld = null;
+    private static long missingTick = Long.MIN_VALUE;
+
+    private static long hits = 0;
+    private static long misses = 0;
+
+    /**
+     * Registers the entity load/unload handlers that keep handles up to date.
+     */
+    public static void register() {
+        ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
+            if (entity instanceof VillagerEntity) {
+                HANDLES.put(entity.getUuid(), new WeakReference<>((VillagerEntity) entity));
+                MISSING.remove(entity.getUuid());
+            }
+        });
+
+        // Fired on death, discard, dimension change and chunk unload
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            if (entity instanceof VillagerEntity) {
+                onUnloaded(entity.getUuid(), entity);
+            }
+        });
+
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            if (world.getTime() % STATS_LOG_INTERVAL_TICKS == 0 && world.getRegistryKey() == net.minecraft.world.World.OVERWORLD) {
+                SettlementsMod.LOGGER.debug("Villager entity cache: {} handles, {} hits, {} misses ({}% hit rate)",
+                    HANDLES.size(), hits, misses, String.format("%.1f", getHitRate() * 100.0));
+            }
+        });
+    }
+
+    /**
+     * Gets a loaded villager entity by UUID.
+     * @param world The server world the villager should be in
+     * @param entityId The villager's UUID
+     * @return The villager, or null if it is not loaded in this world
+     */
+    public static VillagerEntity get(ServerWorld world, UUID entityId) {
+        if (world == null || entityId == null) {
+            return null;
+        }
+
+        WeakReference<VillagerEntity> handle = HANDLES.get(entityId);
+        if (handle != null) {
+            VillagerEntity villager = handle.get();
+            if (villager != null && !villager.isRemoved()) {
+                if (villager.getWorld() == world) {
+                    hits++;
+                    return villager;
+                }
+                return null; // Loaded in another dimension
+            }
+            HANDLES.remove(entityId);
+        }
+
+        long tick = world.getTime();
+        if (tick != missingTick || world != missingWorld) {
+            MISSING.clear();
+            missingWorld = world;
+            missingTick = tick;
+        } else if (MISSING.contains(entityId)) {
+            hits++;
+            return null;
+        }
+
+        // Not seen through events (e.g., loaded before the handlers were registered) - ask the world
+        misses++;
+        Entity entity = world.getEntity(entityId);
+        if (entity instanceof VillagerEntity) {
+            VillagerEntity villager = (VillagerEntity) entity;
+            HANDLES.put(entityId, new WeakReference<>(villager));
+            return villager;
+        }
+        MISSING.add(entityId);
+        return null;
+    }
+
+    /**
+     * Drops the handle for a villager (e.g., when it dies or is removed from its settlement).
+     */
+    public static void invalidate(UUID entityId) {
+        HANDLES.remove(entityId);
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     */
+    public static long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to query the world.
+     */
+    public static long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the fraction of lookups answered from the cache.
+     * @return Hit rate in 0.0-1.0 (0.0 if there were no lookups)
+     */
+    public static double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private static void onUnloaded(UUID entityId, Entity entity) {
+        WeakReference<VillagerEntity> handle = HANDLES.get(entityId);
+        // Only drop the handle if it still points at the unloaded instance (a reload may have replaced it)
+        if (handle != null && (handle.get() == null || handle.get() == entity)) {
+            HANDLES.remove(entityId);
+        }
+    }
+}
@@ -53,6 +53,7 @@ public class VillagerEventHandlers {
     private static void handleVillagerRemoved(VillagerEntity villager, ServerWorld world) {
         UUID villagerId = villager.getUuid();
         SettlementManager manager = SettlementManager.getInstance(world);
+        VillagerEntityCache.invalidate(villagerId);
         
         // Find and remove villager from all settlements
         boolean removed = false;
@@ -1,173 +1,84 @@
 package com.secretasain.settlements.settlement;
 
 import com.secretasain.settlements.SettlementsMod;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import com.secretasain.settlements.pathfinding.VillagerNavigator;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 
-import java.util.Collection;
-import java.util.UUID;
-
 /**
  * Handles pathfinding for assigned villagers to their work buildings.
  * Makes villagers stay within a small radius of their assigned building persistently.
+ * Driven by VillagerWorkStateMachine, which only rallies villagers that are not busy elsewhere.
  */
 public class VillagerPathfindingSystem {
-    private static final int PATHFINDING_INTERVAL_TICKS = 20; // Update pathfinding every 1 second (20 ticks)
     private static final double WORK_RADIUS = 8.0; // Villagers must stay within 8 blocks of their building
     private static final double WORK_RADIUS_SQ = WORK_RADIUS * WORK_RADIUS; // Squared distance for comparison
     private static final double LUMBERYARD_WORK_RADIUS = 32.0; // Lumberyard villagers can work within 32 blocks (for tree harvesting)
     private static final double LUMBERYARD_WORK_RADIUS_SQ = LUMBERYARD_WORK_RADIUS * LUMBERYARD_WORK_RADIUS;
-    private static final long NIGHT_START_TICK = 12000; // Dusk (6 PM) - same as VillagerSleepSystem
-    private static final long DAY_START_TICK = 0; // Dawn (6 AM) - same as VillagerSleepSystem
     
     /**
-     * Registers the pathfinding system with Fabric's server tick events.
+     * Sends a villager back to its building if it has wandered outside the work radius.
+     * Called by VillagerWorkStateMachine for villagers in the WORKING and IDLE states.
+     * @param villagerData The villager's settlement data
+     * @param building The villager's assigned (completed) building
+     * @param villager The loaded villager entity
+     * @param world The server world
+     * @param isLumberyard true to use the larger lumberyard work radius
      */
-    public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            tick(world);
-        });
-    }
-    
-    /**
-     * Performs a tick update for the given world.
-     * @param world The server world to update
-     */
-    private static void tick(ServerWorld world) {
-        // Only run periodically to avoid performance issues
-        if (world.getTime() % PATHFINDING_INTERVAL_TICKS != 0) {
+    static void rallyToBuilding(VillagerData villagerData, Building building, VillagerEntity villager,
+                                ServerWorld world, boolean isLumberyard) {
+        // Skip if villager is sleeping
+        if (villager.isSleeping()) {
             return;
         }
         
-        // Skip rallying at night - let VillagerSleepSystem handle movement to beds
-        long timeOfDay = world.getTimeOfDay() % 24000;
-        boolean isNighttime = timeOfDay >= NIGHT_START_TICK || timeOfDay < DAY_START_TICK;
-        if (isNighttime) {
-            return; // Don't rally villagers at night - they should be going to bed
-        }
+        // Calculate target position (building center)
+        BlockPos buildingPos = building.getPosition();
+        BlockPos targetPos = findTargetPosition(buildingPos, world);
         
-        SettlementManager manager = SettlementManager.getInstance(world);
-        Collection<Settlement> allSettlements = manager.getAllSettlements();
+        // Calculate distance from villager to building center
+        double distanceSq = villager.getPos().squaredDistanceTo(
+            targetPos.getX() + 0.5, 
+            targetPos.getY() + 0.5, 
+            targetPos.getZ() + 0.5
+        );
         
-        // Process each settlement
-        for (Settlement settlement : allSettlements) {
-            processSettlement(settlement, world);
-        }
-    }
-    
-    /**
-     * Processes pathfinding for all assigned villagers in a settlement.
-     */
-    private static void processSettlement(Settlement settlement, ServerWorld world) {
-        for (VillagerData villagerData : settlement.getVillagers()) {
-            // Only process employed and assigned villagers
-            if (!villagerData.isEmployed() || !villagerData.isAssigned()) {
-                continue;
-            }
-            
-            // Skip pathfinding if villager is depositing (let deposit system handle movement)
-            if (villagerData.isDepositing()) {
-                continue;
-            }
-            
-            // Skip pathfinding if villager is doing composter task (let composter system handle movement)
-            if (com.secretasain.settlements.farm.FarmComposterSystem.isVillagerDoingComposterTask(villagerData.getEntityId())) {
-                continue;
-            }
-            
-            UUID buildingId = villagerData.getAssignedBuildingId();
-            if (buildingId == null) {
-                continue;
-            }
-            
-            // Find the building
-            Building building = settlement.getBuildings().stream()
-                .filter(b -> b.getId().equals(buildingId))
-                .findFirst()
-                .orElse(null);
-            
-            if (building == null) {
-                // Building was removed, unassign the villager
-                SettlementsMod.LOGGER.warn("Building {} not found for assigned villager {}, unassigning", 
-                    buildingId, villagerData.getEntityId());
-                villagerData.setAssignedBuildingId(null);
-                continue;
-            }
-            
-            // Only pathfind to completed buildings
-            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
-                continue;
-            }
-            
-            // Check if this is a lumberyard building
-            boolean isLumberyard = isLumberyardBuilding(building);
-            
-            // Skip pathfinding if lumberyard villager is actively working (harvesting trees or collecting items)
-            if (isLumberyard) {
-                if (isLumberyardVillagerActivelyWorking(villagerData.getEntityId())) {
-                    continue; // Let them work without interruption
-                }
-            }
-            
-            // Get the actual villager entity
-            VillagerEntity villager = getVillagerEntity(world, villagerData.getEntityId());
-            if (villager == null) {
-                continue; // Villager not loaded or doesn't exist
-            }
-            
-            // Skip if villager is sleeping or going to bed (VillagerSleepSystem is handling them)
-            if (villager.isSleeping()) {
-                continue; // Let them sleep
-            }
-            
-            // Calculate target position (building center)
-            BlockPos buildingPos = building.getPosition();
-            BlockPos targetPos = findTargetPosition(buildingPos, world);
-            
-            // Calculate distance from villager to building center
-            double distanceSq = villager.getPos().squaredDistanceTo(
-                targetPos.getX() + 0.5, 
-                targetPos.getY() + 0.5, 
-                targetPos.getZ() + 0.5
+        // Use larger radius for lumberyard buildings
+        double workRadiusSq = isLumberyard ? LUMBERYARD_WORK_RADIUS_SQ : WORK_RADIUS_SQ;
+        
+        // Always enforce radius - if villager is outside the work radius, pathfind back
+        if (distanceSq > workRadiusSq) {
+            // Villager is outside work radius, pathfind back to building
+            boolean pathStarted = VillagerNavigator.moveTo(
+                villager,
+                targetPos.getX() + 0.5,
+                targetPos.getY() + 0.5,
+                targetPos.getZ() + 0.5,
+                1.0 // Speed modifier (normal speed)
             );
             
-            // Use larger radius for lumberyard buildings
-            double workRadiusSq = isLumberyard ? LUMBERYARD_WORK_RADIUS_SQ : WORK_RADIUS_SQ;
-            
-            // Always enforce radius - if villager is outside the work radius, pathfind back
-            if (distanceSq > workRadiusSq) {
-                // Villager is outside work radius, pathfind back to building
-                boolean pathStarted = villager.getNavigation().startMovingTo(
-                    targetPos.getX() + 0.5,
-                    targetPos.getY() + 0.5,
-                    targetPos.getZ() + 0.5,
-                    1.0 // Speed modifier (normal speed)
-                );
-                
-                if (pathStarted) {
-                    SettlementsMod.LOGGER.debug("Villager {} outside work radius ({} blocks), pathfinding back to building at {}", 
-                        villagerData.getEntityId(), Math.sqrt(distanceSq), targetPos);
-                } else {
-                    // If pathfinding failed, try to teleport them closer (last resort)
-                    // This prevents villagers from getting stuck
-                    // BUT: Only allow teleportation if ender upgrade is active
-                    double maxRadiusSq = isLumberyard ? LUMBERYARD_WORK_RADIUS_SQ * 4 : WORK_RADIUS_SQ * 4;
-                    if (distanceSq > maxRadiusSq) { // Only if very far away (more than 2x radius)
-                        BlockPos safePos = findSafePositionNearBuilding(buildingPos, world);
-                        if (safePos != null) {
-                            // Use safe teleport which checks for ender upgrade
-                            boolean teleported = com.secretasain.settlements.pathfinding.VillagerMovementController.safeTeleport(
-                                world, villager, safePos
-                            );
-                            if (teleported) {
-                                SettlementsMod.LOGGER.info("Teleported villager {} back to building area (was {} blocks away)", 
-                                    villagerData.getEntityId(), Math.sqrt(distanceSq));
-                            } else {
-                                SettlementsMod.LOGGER.debug("Cannot teleport villager {} - no ender upgrade active", 
-                                    villagerData.getEntityId());
-                            }
+            if (pathStarted) {
+                SettlementsMod.LOGGER.debug("Villager {} outside work radius ({} blocks), pathfinding back to building at {}", 
+                    villagerData.getEntityId(), Math.sqrt(distanceSq), targetPos);
+            } else {
+                // If pathfinding failed, try to teleport them closer (last resort)
+                // This prevents villagers from getting stuck
+                // BUT: Only allow teleportation if ender upgrade is active
+                double maxRadiusSq = isLumberyard ? LUMBERYARD_WORK_RADIUS_SQ * 4 : WORK_RADIUS_SQ * 4;
+                if (distanceSq > maxRadiusSq) { // Only if very far away (more than 2x radius)
+                    BlockPos safePos = findSafePositionNearBuilding(buildingPos, world);
+                    if (safePos != null) {
+                        // Use safe teleport which checks for ender upgrade
+                        boolean teleported = com.secretasain.settlements.pathfinding.VillagerMovementController.safeTeleport(
+                            world, villager, safePos
+                        );
+                        if (teleported) {
+                            SettlementsMod.LOGGER.info("Teleported villager {} back to building area (was {} blocks away)", 
+                                villagerData.getEntityId(), Math.sqrt(distanceSq));
+                        } else {
+                            SettlementsMod.LOGGER.debug("Cannot teleport villager {} - no ender upgrade active", 
+                                villagerData.getEntityId());
                         }
                     }
                 }
@@ -175,17 +86,6 @@ public class VillagerPathfindingSystem {
         }
     }
     
-    /**
-     * Gets the VillagerEntity from the world by UUID.
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID entityId) {
-        try {
-            return (VillagerEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-    
     /**
      * Finds a good target position near the building.
      * Returns the building position (center) for now.
@@ -223,31 +123,4 @@ public class VillagerPathfindingSystem {
         // Fallback: just use building position
         return buildingPos;
     }
-    
-    /**
-     * Checks if a building is a lumberyard building.
-     */
-    private static boolean isLumberyardBuilding(Building building) {
-        String structureName = building.getStructureType().getPath().toLowerCase();
-        return structureName.contains("lumber") || structureName.contains("lumberyard") ||
-               structureName.contains("lumber_jack") || structureName.contains("lumberjack");
-    }
-    
-    /**
-     * Checks if a lumberyard villager is actively working (harvesting trees or collecting items).
-     */
-    private static boolean isLumberyardVillagerActivelyWorking(UUID villagerId) {
-        // Check if villager is collecting items (second lumberyard villager)
-        if (com.secretasain.settlements.settlement.LumberyardItemCollectorSystem.isVillagerActivelyWorking(villagerId)) {
-            return true;
-        }
-        
-        // Check if villager is harvesting logs (first lumberyard villager)
-        // Note: LumberjackLogHarvester doesn't have a state tracking system,
-        // but we can check if the villager has a navigation path to a log location
-        // For now, we'll rely on the item collector check and the increased radius
-        
-        return false;
-    }
 }
-
@@ -1,7 +1,7 @@
 package com.secretasain.settlements.settlement;
 
 import com.secretasain.settlements.SettlementsMod;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import com.secretasain.settlements.pathfinding.VillagerNavigator;
 import net.minecraft.block.BedBlock;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.passive.VillagerEntity;
@@ -13,11 +13,9 @@ import java.util.*;
 /**
  * System that makes assigned villagers return to the settlement and sleep in beds at night.
  * Respects vanilla villager sleep mechanics.
+ * Driven by VillagerWorkStateMachine, which decides when a villager enters and leaves the SLEEPING state.
  */
 public class VillagerSleepSystem {
-    private static final int CHECK_INTERVAL_TICKS = 20; // Check every second
-    private static final long NIGHT_START_TICK = 12000; // Dusk (6 PM)
-    private static final long DAY_START_TICK = 0; // Dawn (6 AM)
     private static final double ARRIVAL_DISTANCE_SQ = 9.0; // Consider arrived when within 3 blocks of bed
     
     // Track which villagers are currently going to bed
@@ -39,138 +37,67 @@ public class VillagerSleepSystem {
     }
     
     /**
-     * Registers the villager sleep system with Fabric's server tick events.
+     * Sends a villager to bed, or keeps it sleeping.
+     * Called by VillagerWorkStateMachine for villagers in the SLEEPING state.
      */
-    public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            if (world.getTime() % CHECK_INTERVAL_TICKS == 0) {
-                tick(world);
-            }
-        });
-        
-        SettlementsMod.LOGGER.info("VillagerSleepSystem registered - will check for villager sleep every {} ticks", CHECK_INTERVAL_TICKS);
-    }
-    
-    /**
-     * Performs a tick update for the given world.
-     */
-    private static void tick(ServerWorld world) {
-        long timeOfDay = world.getTimeOfDay() % 24000;
-        boolean isNighttime = timeOfDay >= NIGHT_START_TICK || timeOfDay < DAY_START_TICK;
+    static void handleSleeping(Settlement settlement, VillagerData villagerData, VillagerEntity villager, ServerWorld world) {
+        UUID villagerId = villagerData.getEntityId();
         
-        if (!isNighttime) {
-            // It's daytime - wake up any sleeping villagers and clear sleep states
-            wakeUpVillagers(world);
+        // Check if villager is already sleeping
+        if (villager.isSleeping()) {
+            BedSleepState state = villagerSleepStates.get(villagerId);
+            if (state != null) {
+                state.isSleeping = true;
+            }
             return;
         }
         
-        // It's nighttime - make assigned villagers go to bed
-        SettlementManager manager = SettlementManager.getInstance(world);
-        Collection<Settlement> allSettlements = manager.getAllSettlements();
-        
-        for (Settlement settlement : allSettlements) {
-            processSettlement(settlement, world);
+        // Check if villager is already going to bed
+        BedSleepState sleepState = villagerSleepStates.get(villagerId);
+        if (sleepState != null) {
+            // Villager is already going to bed - check if they've arrived
+            handleGoingToBed(settlement, villagerData, villager, sleepState, world);
+            return;
         }
-    }
-    
-    /**
-     * Wakes up all sleeping villagers when it becomes daytime.
-     */
-    private static void wakeUpVillagers(ServerWorld world) {
-        List<UUID> toRemove = new ArrayList<>();
         
-        for (Map.Entry<UUID, BedSleepState> entry : villagerSleepStates.entrySet()) {
-            UUID villagerId = entry.getKey();
-            BedSleepState state = entry.getValue();
-            
-            VillagerEntity villager = getVillagerEntity(world, villagerId);
-            if (villager == null || villager.isRemoved()) {
-                toRemove.add(villagerId);
-                continue;
-            }
-            
-            if (state.isSleeping) {
-                // Wake up the villager
-                villager.wakeUp();
-                SettlementsMod.LOGGER.debug("Woke up villager {} at dawn", villagerId);
-            }
-            
-            toRemove.add(villagerId);
+        // Get tonight's bed from the settlement's bed registry
+        BlockPos bedPos = BedRegistry.getAssignedBed(settlement, villagerData, villager, world);
+        if (bedPos == null) {
+            return; // No available bed
         }
         
-        for (UUID id : toRemove) {
-            villagerSleepStates.remove(id);
-        }
+        // Start pathfinding to bed
+        sleepState = new BedSleepState(bedPos);
+        villagerSleepStates.put(villagerId, sleepState);
+        
+        // Make villager pathfind to bed
+        makeVillagerGoToBed(villager, bedPos, world);
+        
+        SettlementsMod.LOGGER.debug("Villager {} is going to bed at {}", villagerId, bedPos);
     }
     
     /**
-     * Processes sleep behavior for all assigned villagers in a settlement.
+     * Wakes a villager and forgets its bed (called when the villager leaves the SLEEPING state).
+     * @param villagerId The villager's UUID
+     * @param villager The villager entity, or null if it is not loaded
      */
-    private static void processSettlement(Settlement settlement, ServerWorld world) {
-        BlockPos settlementCenter = settlement.getLecternPos();
-        if (settlementCenter == null) {
-            return;
-        }
-        
-        // Find all beds in the settlement
-        List<BlockPos> availableBeds = findBedsInSettlement(world, settlement, settlementCenter);
-        
-        if (availableBeds.isEmpty()) {
-            SettlementsMod.LOGGER.debug("No beds found in settlement {} - villagers cannot sleep", settlement.getName());
+    static void wakeUp(UUID villagerId, VillagerEntity villager) {
+        BedSleepState state = villagerSleepStates.remove(villagerId);
+        if (state == null || villager == null || villager.isRemoved()) {
             return;
         }
         
-        // Process each assigned villager
-        for (VillagerData villagerData : settlement.getVillagers()) {
-            // Only process employed and assigned villagers
-            if (!villagerData.isEmployed() || !villagerData.isAssigned()) {
-                continue;
-            }
-            
-            UUID villagerId = villagerData.getEntityId();
-            VillagerEntity villager = getVillagerEntity(world, villagerId);
-            if (villager == null || villager.isRemoved()) {
-                continue;
-            }
-            
-            // Check if villager is already sleeping
-            if (villager.isSleeping()) {
-                BedSleepState state = villagerSleepStates.get(villagerId);
-                if (state != null) {
-                    state.isSleeping = true;
-                }
-                continue;
-            }
-            
-            // Check if villager is already going to bed
-            BedSleepState sleepState = villagerSleepStates.get(villagerId);
-            if (sleepState != null) {
-                // Villager is already going to bed - check if they've arrived
-                handleGoingToBed(villager, sleepState, world, settlementCenter);
-                continue;
-            }
-            
-            // Find the closest available bed
-            BlockPos closestBed = findClosestBed(villager, availableBeds, world);
-            if (closestBed == null) {
-                continue; // No available bed found
-            }
-            
-            // Start pathfinding to bed
-            sleepState = new BedSleepState(closestBed);
-            villagerSleepStates.put(villagerId, sleepState);
-            
-            // Make villager pathfind to bed
-            makeVillagerGoToBed(villager, closestBed, world);
-            
-            SettlementsMod.LOGGER.debug("Villager {} is going to bed at {}", villagerId, closestBed);
+        if (state.isSleeping || villager.isSleeping()) {
+            villager.wakeUp();
+            SettlementsMod.LOGGER.debug("Woke up villager {} at dawn", villagerId);
         }
     }
     
     /**
      * Handles a villager that is currently going to bed.
      */
-    private static void handleGoingToBed(VillagerEntity villager, BedSleepState state, ServerWorld world, BlockPos settlementCenter) {
+    private static void handleGoingToBed(Settlement settlement, VillagerData villagerData, VillagerEntity villager,
+                                         BedSleepState state, ServerWorld world) {
         BlockPos bedPos = state.targetBedPos;
         
         // Check if villager has arrived at bed
@@ -186,8 +113,9 @@ public class VillagerSleepSystem {
                 state.isSleeping = true;
                 SettlementsMod.LOGGER.debug("Villager {} is now sleeping in bed at {}", villager.getUuid(), bedPos);
             } else {
-                // Bed might be occupied or invalid - clear state and try again next tick
+                // Bed might be occupied or invalid - give it up for tonight and try another bed next tick
                 villagerSleepStates.remove(villager.getUuid());
+                BedRegistry.markBedUnusable(settlement, villagerData, world);
                 SettlementsMod.LOGGER.debug("Villager {} could not sleep in bed at {} - will try again", villager.getUuid(), bedPos);
             }
         } else {
@@ -216,7 +144,8 @@ public class VillagerSleepSystem {
         BlockPos targetPos = bedPos.up();
         
         // Set villager's navigation target
-        villager.getNavigation().startMovingTo(
+        VillagerNavigator.moveTo(
+            villager,
             targetPos.getX() + 0.5,
             targetPos.getY(),
             targetPos.getZ() + 0.5,
@@ -291,121 +220,4 @@ public class VillagerSleepSystem {
         
         return false;
     }
-    
-    /**
-     * Finds all beds in a settlement.
-     */
-    private static List<BlockPos> findBedsInSettlement(ServerWorld world, Settlement settlement, BlockPos center) {
-        List<BlockPos> beds = new ArrayList<>();
-        
-        // Scan for beds in completed buildings
-        for (Building building : settlement.getBuildings()) {
-            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
-                continue;
-            }
-            
-            // Search for beds in the building area
-            BlockPos buildingPos = building.getPosition();
-            
-            // Simple search: check a reasonable area around the building
-            // In a real implementation, you might want to load the structure and check actual block positions
-            for (int x = -5; x <= 5; x++) {
-                for (int y = -2; y <= 5; y++) {
-                    for (int z = -5; z <= 5; z++) {
-                        BlockPos checkPos = buildingPos.add(x, y, z);
-                        
-                        if (!world.getChunkManager().isChunkLoaded(checkPos.getX() >> 4, checkPos.getZ() >> 4)) {
-                            continue;
-                        }
-                        
-                        BlockState state = world.getBlockState(checkPos);
-                        if (state.getBlock() instanceof BedBlock) {
-                            // Check if bed is not occupied
-                            if (!state.get(BedBlock.OCCUPIED)) {
-                                // Check if bed has space above
-                                BlockPos above = checkPos.up();
-                                if (world.getBlockState(above).isAir() && world.getBlockState(above.up()).isAir()) {
-                                    beds.add(checkPos);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        
-        // Also search general area around settlement center for beds
-        int radius = settlement.getRadius();
-        for (int x = -radius; x <= radius; x += 4) {
-            for (int z = -radius; z <= radius; z += 4) {
-                for (int y = -5; y <= 10; y++) {
-                    BlockPos checkPos = center.add(x, y, z);
-                    
-                    if (!world.getChunkManager().isChunkLoaded(checkPos.getX() >> 4, checkPos.getZ() >> 4)) {
-                        continue;
-                    }
-                    
-                    BlockState state = world.getBlockState(checkPos);
-                    if (state.getBlock() instanceof BedBlock) {
-                        if (!state.get(BedBlock.OCCUPIED)) {
-                            BlockPos above = checkPos.up();
-                            if (world.getBlockState(above).isAir() && world.getBlockState(above.up()).isAir()) {
-                                beds.add(checkPos);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        
-        return beds;
-    }
-    
-    /**
-     * Finds the closest available bed to a villager.
-     */
-    private static BlockPos findClosestBed(VillagerEntity villager, List<BlockPos> beds, ServerWorld world) {
-        if (beds.isEmpty()) {
-            return null;
-        }
-        
-        BlockPos villagerPos = villager.getBlockPos();
-        BlockPos closestBed = null;
-        double closestDistanceSq = Double.MAX_VALUE;
-        
-        for (BlockPos bedPos : beds) {
-            // Check if bed is still available (not occupied)
-            if (!world.getChunkManager().isChunkLoaded(bedPos.getX() >> 4, bedPos.getZ() >> 4)) {
-                continue;
-            }
-            
-            BlockState bedState = world.getBlockState(bedPos);
-            if (!(bedState.getBlock() instanceof BedBlock) || bedState.get(BedBlock.OCCUPIED)) {
-                continue;
-            }
-            
-            double distanceSq = villagerPos.getSquaredDistance(bedPos);
-            if (distanceSq < closestDistanceSq) {
-                closestDistanceSq = distanceSq;
-                closestBed = bedPos;
-            }
-        }
-        
-        return closestBed;
-    }
-    
-    /**
-     * Gets the VillagerEntity from the world by UUID.
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID entityId) {
-        if (entityId == null) {
-            return null;
-        }
-        try {
-            return (VillagerEntity) world.getEntity(entityId);
-        } catch (Exception e) {
-            return null;
-        }
-    }
 }
-
@@ -58,39 +58,46 @@ public class VillagerTracker {
         
         // Convert VillagerEntity to VillagerData
         for (VillagerEntity villager : villagers) {
-            UUID entityId = villager.getUuid();
-            BlockPos lastKnownPos = villager.getBlockPos();
-            
-            // Get profession (convert to string for now, can be improved later)
-            VillagerProfession profession = villager.getVillagerData().getProfession();
-            String professionName = "none";
-            if (profession != null) {
-                Identifier professionId = Registries.VILLAGER_PROFESSION.getId(profession);
-                professionName = professionId != null ? professionId.toString() : "none";
-            }
-            
-            // Get villager name (custom name or generate one)
-            String name = villager.hasCustomName() 
-                ? villager.getCustomName().getString() 
-                : generateVillagerName(villager);
-            
-            // Check if already employed (for now, default to false)
-            boolean isEmployed = false; // TODO: Check employment status from settlement
-            
-            VillagerData data = new VillagerData(
-                entityId,
-                lastKnownPos,
-                professionName,
-                isEmployed,
-                name
-            );
-            
-            foundVillagers.add(data);
+            foundVillagers.add(createVillagerData(villager));
         }
         
         return foundVillagers;
     }
     
+    /**
+     * Creates settlement data for a villager entity.
+     * @param villager The villager entity
+     * @return New VillagerData for the villager (not employed)
+     */
+    public static VillagerData createVillagerData(VillagerEntity villager) {
+        UUID entityId = villager.getUuid();
+        BlockPos lastKnownPos = villager.getBlockPos();
+        
+        // Get profession (convert to string for now, can be improved later)
+        VillagerProfession profession = villager.getVillagerData().getProfession();
+        String professionName = "none";
+        if (profession != null) {
+            Identifier professionId = Registries.VILLAGER_PROFESSION.getId(profession);
+            professionName = professionId != null ? professionId.toString() : "none";
+        }
+        
+        // Get villager name (custom name or generate one)
+        String name = villager.hasCustomName() 
+            ? villager.getCustomName().getString() 
+            : generateVillagerName(villager);
+        
+        // Check if already employed (for now, default to false)
+        boolean isEmployed = false; // TODO: Check employment status from settlement
+        
+        return new VillagerData(
+            entityId,
+            lastKnownPos,
+            professionName,
+            isEmployed,
+            name
+        );
+    }
+    
     /**
      * Generates a name for a villager if it doesn't have a custom name.
      * @param villager The villager entity
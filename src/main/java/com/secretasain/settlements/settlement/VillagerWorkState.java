@@ -0,0 +1,37 @@
+package com.secretasain.settlements.settlement;
+
+/**
+ * Enum representing what an employed villager is currently doing.
+ * Driven by VillagerWorkStateMachine; only the handler of the current state moves the villager.
+ */
+public enum VillagerWorkState {
+    /**
+     * Outside work hours (early morning) - stays near the assigned building.
+     */
+    IDLE,
+
+    /**
+     * Work hours - performs building tasks and stays within the work radius.
+     */
+    WORKING,
+
+    /**
+     * Carrying accumulated items to the lectern chests.
+     */
+    DEPOSITING,
+
+    /**
+     * Night - going to bed or sleeping.
+     */
+    SLEEPING,
+
+    /**
+     * Second lumberyard villager collecting dropped items and planting saplings.
+     */
+    COLLECTING,
+
+    /**
+     * Second farm villager turning seeds into bone meal at the farm composter.
+     */
+    COMPOSTING
+}
@@ -0,0 +1,291 @@
+package com.secretasain.settlements.settlement;
+
+import com.secretasain.settlements.SettlementsMod;
+import com.secretasain.settlements.ender.VillagerEnderTeleportSystem;
+import com.secretasain.settlements.farm.FarmComposterSystem;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.entity.passive.VillagerEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Single per-villager state machine for employed villagers.
+ * Every WINDOW_TICKS each assigned villager is visited once: its building, role and entity are
+ * resolved, the state it should be in is decided, and only that state's handler runs. The handlers
+ * are the existing systems (deposit trips, sleep, composting, item collection, work tasks, rallying,
+ * ender teleports), so two systems can no longer issue competing startMovingTo calls for the same
+ * villager in the same tick.
+ *
+ * State priority: DEPOSITING, an unfinished COMPOSTING task, SLEEPING at night, then the building
+ * role (COMPOSTING for the second farm villager, COLLECTING for the second lumberyard villager),
+ * then WORKING during work hours and IDLE otherwise.
+ */
+public class VillagerWorkStateMachine {
+    private static final int WINDOW_TICKS = 10; // Visit every villager once per 10 ticks
+    private static final int COLLECT_INTERVAL_TICKS = 10; // Item collection (fast for quicker pickup)
+    private static final int MOVEMENT_INTERVAL_TICKS = 20; // Deposit trips, sleep, composting and rallying
+    private static final int MAINTENANCE_INTERVAL_TICKS = 100; // Farmland repair and seed planting
+    private static final int TELEPORT_INTERVAL_TICKS = 100; // Ender upgrade teleports
+    private static final int TASK_INTERVAL_TICKS = 200; // Building work tasks
+    private static final long WORK_START_TICK = 1000; // Work hours start (roughly 7 AM)
+    private static final long NIGHT_START_TICK = 12000; // Dusk (6 PM)
+
+    // Current state per villager
+    private static final Map<UUID, StateEntry> STATES = new HashMap<>();
+
+    /**
+     * A villager's current state and when it was last visited.
+     */
+    private static class StateEntry {
+        VillagerWorkState state = VillagerWorkState.IDLE;
+        RegistryKey<World> worldKey;
+        long lastVisit;
+
+        StateEntry(RegistryKey<World> worldKey) {
+            this.worldKey = worldKey;
+        }
+    }
+
+    /**
+     * Per-settlement lookups shared by every villager visited in one pass.
+     */
+    private static class SettlementPass {
+        final Settlement settlement;
+        final ServerWorld world;
+        final Map<UUID, Building> buildings = new HashMap<>();
+        final Map<UUID, List<VillagerData>> assignedByBuilding = new HashMap<>(); // In assignment order
+
+        SettlementPass(Settlement settlement, ServerWorld world) {
+            this.settlement = settlement;
+            this.world = world;
+            for (Building building : settlement.getBuildings()) {
+                buildings.put(building.getId(), building);
+            }
+            for (VillagerData villagerData : settlement.getVillagers()) {
+                if (villagerData.isAssigned()) {
+                    assignedByBuilding.computeIfAbsent(villagerData.getAssignedBuildingId(), id -> new ArrayList<>(2))
+                        .add(villagerData);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers the state machine with Fabric's server tick events.
+     */
+    public static void register() {
+        ServerTickEvents.END_WORLD_TICK.register(VillagerWorkStateMachine::tick);
+    }
+
+    /**
+     * Gets a villager's current work state.
+     * @param villagerId The villager's UUID
+     * @return The state, or null if the villager is not being driven by the state machine
+     */
+    public static VillagerWorkState getState(UUID villagerId) {
+        StateEntry entry = STATES.get(villagerId);
+        return entry == null ? null : entry.state;
+    }
+
+    private static void tick(ServerWorld world) {
+        long worldTime = world.getTime();
+        if (worldTime % WINDOW_TICKS != 0) {
+            return;
+        }
+
+        long timeOfDay = world.getTimeOfDay() % 24000;
+        boolean isNighttime = timeOfDay >= NIGHT_START_TICK;
+        boolean isWorkHours = timeOfDay >= WORK_START_TICK && timeOfDay < NIGHT_START_TICK;
+
+        for (Settlement settlement : SettlementManager.getInstance(world).getAllSettlements()) {
+            if (settlement.isAbstractSimulated()) {
+                continue; // No player nearby - output is estimated by SettlementSimulationLod
+            }
+            processSettlement(new SettlementPass(settlement, world), worldTime, isNighttime, isWorkHours);
+        }
+
+        pruneStates(world, worldTime);
+    }
+
+    /**
+     * Visits every employed, assigned villager of a settlement.
+     */
+    private static void processSettlement(SettlementPass pass, long worldTime, boolean isNighttime, boolean isWorkHours) {
+        for (VillagerData villagerData : pass.settlement.getVillagers()) {
+            // Only process employed and assigned villagers
+            if (!villagerData.isEmployed() || !villagerData.isAssigned()) {
+                continue;
+            }
+
+            UUID buildingId = villagerData.getAssignedBuildingId();
+            Building building = pass.buildings.get(buildingId);
+            if (building == null) {
+                // Building was removed, unassign the villager
+                SettlementsMod.LOGGER.warn("Building {} not found for assigned villager {}, unassigning",
+                    buildingId, villagerData.getEntityId());
+                villagerData.setAssignedBuildingId(null);
+                continue;
+            }
+
+            // Only work at completed buildings
+            if (building.getStatus() != com.secretasain.settlements.building.BuildingStatus.COMPLETED) {
+                continue;
+            }
+
+            VillagerEntity villager = VillagerEntityCache.get(pass.world, villagerData.getEntityId());
+            if (villager == null) {
+                continue; // Villager not loaded or doesn't exist
+            }
+
+            List<VillagerData> assigned = pass.assignedByBuilding.getOrDefault(buildingId, Collections.emptyList());
+            visitVillager(pass, villagerData, building, villager, assigned, worldTime, isNighttime, isWorkHours);
+        }
+    }
+
+    /**
+     * Decides a villager's state, handles the transition and runs the state's handler.
+     */
+    private static void visitVillager(SettlementPass pass, VillagerData villagerData, Building building,
+                                      VillagerEntity villager, List<VillagerData> assigned,
+                                      long worldTime, boolean isNighttime, boolean isWorkHours) {
+        UUID villagerId = villagerData.getEntityId();
+        StateEntry entry = STATES.computeIfAbsent(villagerId, id -> new StateEntry(pass.world.getRegistryKey()));
+        entry.worldKey = pass.world.getRegistryKey();
+        entry.lastVisit = worldTime;
+
+        String buildingType = TaskExecutionSystem.getBuildingType(building);
+        int villagerIndex = assigned.indexOf(villagerData);
+
+        VillagerWorkState next = decideState(pass, villagerData, building, villager, assigned, buildingType,
+            villagerIndex, worldTime, isNighttime, isWorkHours);
+        if (next != entry.state) {
+            exitState(entry.state, villagerId, villager);
+            SettlementsMod.LOGGER.debug("Villager {} work state {} -> {}", villagerId, entry.state, next);
+            entry.state = next;
+        }
+
+        switch (entry.state) {
+            case DEPOSITING:
+                if (worldTime % MOVEMENT_INTERVAL_TICKS == 0) {
+                    VillagerDepositSystem.handleDepositing(pass.settlement, villagerData, villager, pass.world);
+                }
+                break;
+            case SLEEPING:
+                if (worldTime % MOVEMENT_INTERVAL_TICKS == 0) {
+                    VillagerSleepSystem.handleSleeping(pass.settlement, villagerData, villager, pass.world);
+                }
+                break;
+            case COMPOSTING:
+                if (worldTime % MOVEMENT_INTERVAL_TICKS == 0) {
+                    FarmComposterSystem.processComposterTask(pass.settlement, building, villagerData, villager, pass.world);
+                }
+                break;
+            case COLLECTING:
+                if (worldTime % COLLECT_INTERVAL_TICKS == 0) {
+                    LumberyardItemCollectorSystem.processCollectionTask(pass.settlement, building, villagerData, villager, pass.world);
+                }
+                break;
+            case WORKING:
+                if (worldTime % TASK_INTERVAL_TICKS == 0) {
+                    TaskExecutionSystem.handleWork(pass.settlement, villagerData, building, villager, pass.world,
+                        buildingType, villagerIndex);
+                }
+                // Only the first farm villager (index 0) maintains farmland
+                if ("farm".equals(buildingType) && villagerIndex == 0 && worldTime % MAINTENANCE_INTERVAL_TICKS == 0) {
+                    FarmMaintenanceSystem.handleMaintenance(building, villagerData, villager, pass.world);
+                }
+                // Working villagers also stay near their building
+                handleStayNearBuilding(pass, villagerData, building, villager, buildingType, worldTime);
+                break;
+            case IDLE:
+            default:
+                handleStayNearBuilding(pass, villagerData, building, villager, buildingType, worldTime);
+                break;
+        }
+    }
+
+    /**
+     * Decides which state a villager should be in.
+     * May start a composter task for the second farm villager (which is what moves it into COMPOSTING).
+     */
+    private static VillagerWorkState decideState(SettlementPass pass, VillagerData villagerData, Building building,
+                                                 VillagerEntity villager, List<VillagerData> assigned,
+                                                 String buildingType, int villagerIndex, long worldTime,
+                                                 boolean isNighttime, boolean isWorkHours) {
+        UUID villagerId = villagerData.getEntityId();
+
+        // A deposit trip always runs to completion
+        if (VillagerDepositSystem.shouldDeposit(villagerData)) {
+            return VillagerWorkState.DEPOSITING;
+        }
+
+        // Finish a composter task that is in progress before going to bed (it may be carrying seeds)
+        boolean isFarmHelper = "farm".equals(buildingType) && villagerIndex == 1;
+        if (isFarmHelper && FarmComposterSystem.isVillagerDoingComposterTask(villagerId)) {
+            return VillagerWorkState.COMPOSTING;
+        }
+
+        if (isNighttime) {
+            return VillagerWorkState.SLEEPING;
+        }
+
+        if (isFarmHelper && worldTime % MOVEMENT_INTERVAL_TICKS == 0
+            && FarmComposterSystem.tryStartComposterTask(pass.settlement, building, assigned.get(0), villagerData,
+                villager, pass.world)) {
+            return VillagerWorkState.COMPOSTING;
+        }
+
+        // The second lumberyard villager collects while near the lumberyard (or while chasing an item)
+        if ("lumberyard".equals(buildingType) && villagerIndex == 1
+            && (LumberyardItemCollectorSystem.isVillagerActivelyWorking(villagerId)
+                || LumberyardItemCollectorSystem.isWithinCollectionRange(building, villager))) {
+            return VillagerWorkState.COLLECTING;
+        }
+
+        return isWorkHours ? VillagerWorkState.WORKING : VillagerWorkState.IDLE;
+    }
+
+    /**
+     * Rallies a villager back to its building and lets the ender upgrade teleport it if it is far away.
+     */
+    private static void handleStayNearBuilding(SettlementPass pass, VillagerData villagerData, Building building,
+                                               VillagerEntity villager, String buildingType, long worldTime) {
+        if (worldTime % MOVEMENT_INTERVAL_TICKS == 0) {
+            VillagerPathfindingSystem.rallyToBuilding(villagerData, building, villager, pass.world,
+                "lumberyard".equals(buildingType));
+        }
+        if (worldTime % TELEPORT_INTERVAL_TICKS == 0) {
+            VillagerEnderTeleportSystem.tryTeleport(pass.settlement, building, villager, pass.world);
+        }
+    }
+
+    /**
+     * Cleans up when a villager leaves a state.
+     * @param villager The villager entity, or null if it is no longer loaded
+     */
+    private static void exitState(VillagerWorkState state, UUID villagerId, VillagerEntity villager) {
+        if (state == VillagerWorkState.SLEEPING) {
+            VillagerSleepSystem.wakeUp(villagerId, villager);
+        }
+    }
+
+    /**
+     * Drops villagers of this world that were not visited this pass (unassigned, unloaded or removed).
+     */
+    private static void pruneStates(ServerWorld world, long worldTime) {
+        RegistryKey<World> worldKey = world.getRegistryKey();
+        Iterator<Map.Entry<UUID, StateEntry>> iterator = STATES.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, StateEntry> mapEntry = iterator.next();
+            StateEntry entry = mapEntry.getValue();
+            if (entry.worldKey != worldKey || entry.lastVisit == worldTime) {
+                continue;
+            }
+            exitState(entry.state, mapEntry.getKey(), VillagerEntityCache.get(world, mapEntry.getKey()));
+            iterator.remove();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.secretasain.settlements.townhall;
 
 import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.settlement.Building;
+import com.secretasain.settlements.settlement.BuildingAttachment;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtList;
 import net.minecraft.util.math.BlockPos;
@@ -14,8 +15,12 @@ import java.util.UUID;
 /**
  * Data class for storing town hall-specific information.
  * Stores librarian assignment, villager spawn data, and wandering trader multipliers.
+ * Kept on the building as an attachment: parsed from the building's custom data on first access and
+ * shared by every caller after that. Setters mark it dirty; it is written back when the settlement is saved.
  */
-public class TownHallData {
+public class TownHallData implements BuildingAttachment {
+    private static final String KEY = "townHallData";
+    
     private UUID buildingId;
     private UUID assignedLibrarianId;
     private int villagerSpawnCap;
@@ -25,6 +30,7 @@ public class TownHallData {
     private double wanderingTraderMultiplier;
     private List<BlockPos> workstationPositions;
     private List<UUID> spawnedVillagerIds; // Track UUIDs of villagers spawned by this town hall
+    private boolean dirty; // Changed since last written to the building's custom data
     
     public TownHallData(UUID buildingId) {
         this.buildingId = buildingId;
@@ -40,57 +46,73 @@ public class TownHallData {
     
     /**
      * Gets or creates TownHallData for a building.
+     * Returns the building's attached instance; the custom data is only parsed on first access.
      * @param building The building
      * @return TownHallData instance
      */
     public static TownHallData getOrCreate(Building building) {
+        TownHallData attached = building.getAttachment(KEY, TownHallData.class);
+        if (attached != null) {
+            return attached;
+        }
+        
         // Try to load from building's custom data (preferred - persists across restarts)
         NbtCompound customData = building.getCustomData();
-        if (customData != null && customData.contains("townHallData", 10)) {
-            TownHallData data = fromNbt(customData.getCompound("townHallData"), building.getId());
+        if (customData != null && customData.contains(KEY, 10)) {
+            TownHallData data = fromNbt(customData.getCompound(KEY), building.getId());
             SettlementsMod.LOGGER.debug("Loaded TownHallData for building {} from Building.customData: hasLibrarian={}, librarianId={}", 
                 building.getId(), data.hasLibrarian(), data.getAssignedLibrarianId());
+            building.setAttachment(KEY, data);
             return data;
         }
         
         // Fallback: try static manager (for backwards compatibility during session)
         NbtCompound managerData = TownHallDataManager.getData(building.getId());
-        if (managerData != null && managerData.contains("townHallData", 10)) {
-            TownHallData data = fromNbt(managerData.getCompound("townHallData"), building.getId());
+        if (managerData != null && managerData.contains(KEY, 10)) {
+            TownHallData data = fromNbt(managerData.getCompound(KEY), building.getId());
             SettlementsMod.LOGGER.debug("Loaded TownHallData for building {} from static manager: hasLibrarian={}, librarianId={}", 
                 building.getId(), data.hasLibrarian(), data.getAssignedLibrarianId());
             // Migrate to Building.customData
             data.saveToBuilding(building);
+            TownHallDataManager.removeData(building.getId());
             return data;
         }
         
         // Create new instance
         TownHallData data = new TownHallData(building.getId());
-        // Save it immediately so it's stored
+        // Attach it immediately so it's stored
         data.saveToBuilding(building);
         SettlementsMod.LOGGER.debug("Created new TownHallData for building {} (no existing data)", building.getId());
         return data;
     }
     
     /**
-     * Saves this data to the building's custom data.
+     * Saves this data to the building.
+     * Attaches it if needed and marks it dirty; it is serialized into the building's custom data
+     * when the settlement is saved.
      * @param building The building to save to
      */
     public void saveToBuilding(Building building) {
-        // Save to Building's customData (persists across restarts)
-        NbtCompound customData = building.getCustomData();
-        customData.put("townHallData", this.toNbt());
-        building.setCustomData(customData);
-        
-        // Also save to static manager for backwards compatibility
-        NbtCompound wrapper = new NbtCompound();
-        wrapper.put("townHallData", this.toNbt());
-        TownHallDataManager.setData(building.getId(), wrapper);
+        if (building.getAttachment(KEY, TownHallData.class) != this) {
+            building.setAttachment(KEY, this);
+        }
+        dirty = true;
         
         SettlementsMod.LOGGER.debug("Saved TownHallData for building {}: hasLibrarian={}, librarianId={}", 
             building.getId(), hasLibrarian(), getAssignedLibrarianId());
     }
     
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+    
+    @Override
+    public NbtCompound writeNbt() {
+        dirty = false;
+        return toNbt();
+    }
+    
     // Getters and Setters
     public UUID getBuildingId() {
         return buildingId;
@@ -104,6 +126,7 @@ public class TownHallData {
         SettlementsMod.LOGGER.debug("Setting assignedLibrarianId for building {}: {} (was: {})", 
             buildingId, librarianId, this.assignedLibrarianId);
         this.assignedLibrarianId = librarianId;
+        this.dirty = true;
     }
     
     public boolean hasLibrarian() {
@@ -116,6 +139,7 @@ public class TownHallData {
     
     public void setVillagerSpawnCap(int cap) {
         this.villagerSpawnCap = cap;
+        this.dirty = true;
     }
     
     public int getCurrentSpawnedVillagers() {
@@ -124,10 +148,12 @@ public class TownHallData {
     
     public void setCurrentSpawnedVillagers(int count) {
         this.currentSpawnedVillagers = count;
+        this.dirty = true;
     }
     
     public void incrementSpawnedVillagers() {
         this.currentSpawnedVillagers++;
+        this.dirty = true;
     }
     
     public long getLastVillagerSpawnTime() {
@@ -136,6 +162,7 @@ public class TownHallData {
     
     public void setLastVillagerSpawnTime(long time) {
         this.lastVillagerSpawnTime = time;
+        this.dirty = true;
     }
     
     public int getVillagerSpawnInterval() {
@@ -144,6 +171,7 @@ public class TownHallData {
     
     public void setVillagerSpawnInterval(int interval) {
         this.villagerSpawnInterval = interval;
+        this.dirty = true;
     }
     
     public double getWanderingTraderMultiplier() {
@@ -152,6 +180,7 @@ public class TownHallData {
     
     public void setWanderingTraderMultiplier(double multiplier) {
         this.wanderingTraderMultiplier = multiplier;
+        this.dirty = true;
     }
     
     public List<BlockPos> getWorkstationPositions() {
@@ -160,6 +189,7 @@ public class TownHallData {
     
     public void setWorkstationPositions(List<BlockPos> positions) {
         this.workstationPositions = new ArrayList<>(positions);
+        this.dirty = true;
     }
     
     /**
@@ -190,6 +220,7 @@ public class TownHallData {
         if (!spawnedVillagerIds.contains(villagerId)) {
             spawnedVillagerIds.add(villagerId);
             currentSpawnedVillagers = spawnedVillagerIds.size();
+            dirty = true;
         }
     }
     
@@ -200,6 +231,7 @@ public class TownHallData {
     public void removeSpawnedVillager(UUID villagerId) {
         if (spawnedVillagerIds.remove(villagerId)) {
             currentSpawnedVillagers = spawnedVillagerIds.size();
+            dirty = true;
         }
     }
     
@@ -297,6 +329,7 @@ public class TownHallData {
             data.setWorkstationPositions(positions);
         }
         
+        data.dirty = false; // Matches the NBT it was read from
         return data;
     }
 }
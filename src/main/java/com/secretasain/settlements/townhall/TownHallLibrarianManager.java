@@ -7,6 +7,7 @@ import com.secretasain.settlements.building.StructureLoader;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.VillagerData;
+import com.secretasain.settlements.settlement.VillagerEntityCache;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.registry.Registries;
@@ -44,7 +45,7 @@ public class TownHallLibrarianManager {
         }
         
         // Get villager entity
-        VillagerEntity villager = getVillagerEntity(world, villagerData.getEntityId());
+        VillagerEntity villager = VillagerEntityCache.get(world, villagerData.getEntityId());
         if (villager == null) {
             SettlementsMod.LOGGER.warn("Cannot assign librarian: entity {} not found", villagerData.getEntityId());
             return false;
@@ -157,7 +158,7 @@ public class TownHallLibrarianManager {
         }
         
         // Get villager entity
-        VillagerEntity villager = getVillagerEntity(world, villagerData.getEntityId());
+        VillagerEntity villager = VillagerEntityCache.get(world, villagerData.getEntityId());
         if (villager != null) {
             // Restore to jobless (NONE profession)
             // We don't store original profession for librarians, so just set to NONE
@@ -236,28 +237,5 @@ public class TownHallLibrarianManager {
                 return pos;
         }
     }
-    
-    /**
-     * Gets a villager entity from the world.
-     * @param world The server world
-     * @param villagerId The villager's entity UUID
-     * @return VillagerEntity or null if not found
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID villagerId) {
-        if (world == null || villagerId == null) {
-            return null;
-        }
-        
-        try {
-            net.minecraft.entity.Entity entity = world.getEntity(villagerId);
-            if (entity instanceof VillagerEntity) {
-                return (VillagerEntity) entity;
-            }
-        } catch (Exception e) {
-            SettlementsMod.LOGGER.warn("Error getting villager entity {}: {}", villagerId, e.getMessage());
-        }
-        
-        return null;
-    }
 }
 
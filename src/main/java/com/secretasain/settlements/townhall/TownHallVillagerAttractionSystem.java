@@ -4,6 +4,9 @@ import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.SettlementManager;
+import com.secretasain.settlements.settlement.SettlementTimerWheel;
+import com.secretasain.settlements.settlement.SpawnCandidateCache;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.passive.VillagerEntity;
@@ -28,7 +31,8 @@ public class TownHallVillagerAttractionSystem {
     private static final int MIN_SPAWN_INTERVAL = 2400; // Minimum 2 minutes between spawns per town hall
     private static final int MAX_ATTRACTED_VILLAGERS = 5; // Maximum number of attracted villagers per town hall
     
-    private static final Map<UUID, Long> lastSpawnTimeByTownHall = new HashMap<>();
+    // Town halls that spawned within MIN_SPAWN_INTERVAL; each leaves the set when its SettlementTimerWheel timer runs
+    private static final Set<UUID> townHallsOnCooldown = new HashSet<>();
     
     public static void register() {
         ServerTickEvents.END_WORLD_TICK.register(world -> {
@@ -37,6 +41,11 @@ public class TownHallVillagerAttractionSystem {
             }
         });
         
+        // Cooldown timers are dropped with the server, so the cooldowns go with them
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            townHallsOnCooldown.clear();
+        });
+        
         SettlementsMod.LOGGER.info("TownHallVillagerAttractionSystem registered - will check for villager spawns every {} ticks ({} seconds)", 
             SPAWN_CHECK_INTERVAL, SPAWN_CHECK_INTERVAL / 20);
     }
@@ -73,9 +82,7 @@ public class TownHallVillagerAttractionSystem {
                         // Check if we're under the max (5 villagers max, but aim for 2-3 visible)
                         if (attractedVillagerCount < MAX_ATTRACTED_VILLAGERS) {
                             // Check if enough time has passed since last spawn
-                            UUID buildingId = building.getId();
-                            Long lastSpawn = lastSpawnTimeByTownHall.get(buildingId);
-                            if (lastSpawn == null || (currentTime - lastSpawn) >= MIN_SPAWN_INTERVAL) {
+                            if (!townHallsOnCooldown.contains(building.getId())) {
                                 activeTownHalls.add(building);
                             }
                         }
@@ -95,7 +102,7 @@ public class TownHallVillagerAttractionSystem {
         for (Building townHall : activeTownHalls) {
             // Check spawn chance (15% same as wandering traders)
             if (world.getRandom().nextDouble() < BASE_SPAWN_CHANCE) {
-                BlockPos spawnPos = findSpawnPositionNearTownHall(world, townHall.getPosition());
+                BlockPos spawnPos = findSpawnPositionNearTownHall(world, townHall);
                 if (spawnPos != null) {
                     try {
                         VillagerEntity villager = EntityType.VILLAGER.create(world);
@@ -127,7 +134,7 @@ public class TownHallVillagerAttractionSystem {
                         
                         if (world.spawnEntity(villager)) {
                             // Record spawn time
-                            lastSpawnTimeByTownHall.put(townHall.getId(), currentTime);
+                            startCooldown(world, townHall.getId(), currentTime);
                             
                             // Record for despawn tracking (50/50 chance to stay or leave)
                             TownHallVillagerDespawnHandler.recordAttractedVillager(villager, townHall.getId());
@@ -178,130 +185,29 @@ public class TownHallVillagerAttractionSystem {
     }
     
     /**
-     * Finds a safe spawn position near a town hall.
-     */
-    private static BlockPos findSpawnPositionNearTownHall(ServerWorld world, BlockPos townHallPos) {
-        int searchRadius = 48; // Within 48 blocks
-        int attempts = 30;
-        
-        // Try random positions first
-        for (int i = 0; i < attempts; i++) {
-            int offsetX = world.getRandom().nextInt(searchRadius * 2) - searchRadius;
-            int offsetZ = world.getRandom().nextInt(searchRadius * 2) - searchRadius;
-            
-            BlockPos testPos = townHallPos.add(offsetX, 0, offsetZ);
-            BlockPos groundPos = findGroundLevel(world, testPos);
-            
-            if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                return groundPos;
-            }
-        }
-        
-        // Fallback: systematic search in circles
-        for (int radius = 5; radius <= searchRadius; radius += 5) {
-            for (int angle = 0; angle < 360; angle += 30) {
-                double radians = Math.toRadians(angle);
-                int x = (int) (radius * Math.cos(radians));
-                int z = (int) (radius * Math.sin(radians));
-                
-                BlockPos testPos = townHallPos.add(x, 0, z);
-                BlockPos groundPos = findGroundLevel(world, testPos);
-                
-                if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                    return groundPos;
-                }
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Finds the ground level at a given X/Z position.
-     * Prioritizes searching downward to avoid spawning on top of buildings.
+     * Picks a safe spawn position near a town hall from its cached candidates.
+     * @return Spawn position, or null if there is none or a villager is already nearby
      */
-    private static BlockPos findGroundLevel(ServerWorld world, BlockPos pos) {
-        int startY = Math.min(pos.getY() + 2, world.getTopY() - 1);
-        int minY = world.getBottomY();
-        
-        // ALWAYS search downward first to avoid spawning on top of buildings
-        for (int y = startY; y >= minY; y--) {
-            BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-            BlockPos groundPos = testPos.down();
-            
-            if (world.getBlockState(groundPos).isOpaque() &&
-                world.getBlockState(testPos).isAir() &&
-                world.getBlockState(testPos.up()).isAir()) {
-                return testPos;
-            }
+    private static BlockPos findSpawnPositionNearTownHall(ServerWorld world, Building townHall) {
+        BlockPos spawnPos = SpawnCandidateCache.pick(world, townHall, 0, SpawnCandidateCache.RADIUS); // Within 48 blocks
+        if (spawnPos == null) {
+            return null;
         }
         
-        // If no ground found below, try searching up (only as last resort)
-        for (int y = startY + 1; y <= world.getTopY() - 1; y++) {
-            BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-            BlockPos groundPos = testPos.down();
-            
-            if (world.getBlockState(groundPos).isOpaque() &&
-                world.getBlockState(testPos).isAir() &&
-                world.getBlockState(testPos.up()).isAir()) {
-                return testPos;
-            }
+        // Check for existing villagers nearby (within 16 blocks)
+        Box searchBox = new Box(spawnPos).expand(16.0);
+        if (!world.getEntitiesByType(EntityType.VILLAGER, searchBox, e -> true).isEmpty()) {
+            return null; // Villager already nearby
         }
-        
-        return null;
+        return spawnPos;
     }
     
     /**
-     * Checks if position is safe for spawning a villager.
+     * Puts a town hall on spawn cooldown for MIN_SPAWN_INTERVAL ticks.
      */
-    private static boolean isSafeSpawnPosition(ServerWorld world, BlockPos pos) {
-        net.minecraft.block.BlockState groundState = world.getBlockState(pos.down());
-        
-        // Check if position has solid ground
-        if (!groundState.isOpaque()) {
-            return false;
-        }
-        
-        // Check if ground is a safe surface block (dirt, grass, path, etc.)
-        net.minecraft.block.Block groundBlock = groundState.getBlock();
-        
-        boolean isSafeGround = groundBlock == net.minecraft.block.Blocks.DIRT ||
-            groundBlock == net.minecraft.block.Blocks.GRASS_BLOCK ||
-            groundBlock == net.minecraft.block.Blocks.PODZOL ||
-            groundBlock == net.minecraft.block.Blocks.COARSE_DIRT ||
-            groundBlock == net.minecraft.block.Blocks.DIRT_PATH ||
-            groundBlock == net.minecraft.block.Blocks.FARMLAND ||
-            groundBlock == net.minecraft.block.Blocks.SAND ||
-            groundBlock == net.minecraft.block.Blocks.RED_SAND ||
-            groundBlock == net.minecraft.block.Blocks.GRAVEL ||
-            groundBlock == net.minecraft.block.Blocks.CLAY ||
-            groundBlock == net.minecraft.block.Blocks.MYCELIUM ||
-            groundBlock == net.minecraft.block.Blocks.SNOW_BLOCK ||
-            groundBlock == net.minecraft.block.Blocks.SOUL_SAND ||
-            groundBlock == net.minecraft.block.Blocks.SOUL_SOIL;
-        
-        if (!isSafeGround) {
-            return false;
-        }
-        
-        // Must have air at spawn position and above
-        if (!world.getBlockState(pos).isAir() || !world.getBlockState(pos.up()).isAir()) {
-            return false;
+    private static void startCooldown(ServerWorld world, UUID townHallId, long currentTime) {
+        if (townHallsOnCooldown.add(townHallId)) {
+            SettlementTimerWheel.schedule(world, currentTime + MIN_SPAWN_INTERVAL, () -> townHallsOnCooldown.remove(townHallId));
         }
-        
-        // Check for existing villagers nearby (within 16 blocks)
-        Box searchBox = new Box(pos).expand(16.0);
-        if (!world.getEntitiesByType(EntityType.VILLAGER, searchBox, e -> true).isEmpty()) {
-            return false; // Villager already nearby
-        }
-        
-        // Avoid spawning in water/lava
-        if (!world.getBlockState(pos).getFluidState().isEmpty() ||
-            !world.getBlockState(pos.up()).getFluidState().isEmpty()) {
-            return false;
-        }
-        
-        return true;
     }
 }
-
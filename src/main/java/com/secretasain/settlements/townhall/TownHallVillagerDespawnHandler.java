@@ -1,7 +1,11 @@
 package com.secretasain.settlements.townhall;
 
 import com.secretasain.settlements.SettlementsMod;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import com.secretasain.settlements.settlement.SettlementTimerWheel;
+import com.secretasain.settlements.settlement.VillagerEntityCache;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.server.world.ServerWorld;
 
@@ -11,9 +15,10 @@ import java.util.*;
  * System for tracking and despawning attracted villagers from town halls.
  * Villagers have a 50/50 chance to stay or leave (enderman teleport out).
  * This creates a cycling effect where 2-3 villagers are visible at any time.
+ * Each villager's lifetime is a SettlementTimerWheel timer, so nothing is checked until it expires.
+ * A villager that isn't loaded when its lifetime expires stays tracked, and decides when it loads again.
  */
 public class TownHallVillagerDespawnHandler {
-    private static final int CHECK_INTERVAL = 20; // Check every 1 second (20 ticks)
     private static final long VILLAGER_LIFETIME = 1200; // 1 minute at 20 TPS (1200 ticks = 60 seconds)
     private static final double STAY_CHANCE = 0.5; // 50% chance to stay, 50% chance to leave
     
@@ -28,6 +33,7 @@ public class TownHallVillagerDespawnHandler {
         final UUID townHallId;
         final long spawnTime;
         final boolean willStay; // Determined at spawn time (50/50 chance)
+        SettlementTimerWheel.Timer lifetimeTimer;
         
         AttractionData(UUID villagerId, UUID townHallId, long spawnTime) {
             this.villagerId = villagerId;
@@ -38,13 +44,33 @@ public class TownHallVillagerDespawnHandler {
     }
     
     /**
-     * Registers the despawn handler with Fabric's server tick events.
+     * Registers the despawn handler.
+     * Lifetimes are driven by SettlementTimerWheel, so there is no tick handler of its own; the entity
+     * events re-arm a villager's lifetime when it loads and stop tracking it once it is gone for good.
      */
     public static void register() {
-        ServerTickEvents.END_WORLD_TICK.register(world -> {
-            tick(world);
+        ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
+            if (entity instanceof VillagerEntity) {
+                onVillagerLoaded(entity.getUuid(), world);
+            }
+        });
+        
+        // Fired on death, discard, dimension change and chunk unload
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            if (entity instanceof VillagerEntity) {
+                Entity.RemovalReason reason = entity.getRemovalReason();
+                if (reason != null && reason.shouldDestroy()) {
+                    removeVillager(entity.getUuid()); // Gone for good
+                }
+            }
         });
-        SettlementsMod.LOGGER.info("TownHallVillagerDespawnHandler registered - will check every tick when villagers are tracked");
+        
+        // Lifetime timers are dropped with the server, so the tracking goes with them
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            ATTRACTED_VILLAGERS.clear();
+        });
+        
+        SettlementsMod.LOGGER.info("TownHallVillagerDespawnHandler registered - stay/leave decisions run as lifetimes expire");
     }
     
     /**
@@ -53,11 +79,15 @@ public class TownHallVillagerDespawnHandler {
      * @param townHallId The town hall building ID that attracted this villager
      */
     public static void recordAttractedVillager(VillagerEntity villager, UUID townHallId) {
-        if (villager != null && townHallId != null) {
-            long spawnTime = villager.getWorld().getTime();
+        if (villager != null && townHallId != null && villager.getWorld() instanceof ServerWorld world) {
+            long spawnTime = world.getTime();
             UUID villagerId = villager.getUuid();
             AttractionData data = new AttractionData(villagerId, townHallId, spawnTime);
-            ATTRACTED_VILLAGERS.put(villagerId, data);
+            schedule(world, data);
+            AttractionData previous = ATTRACTED_VILLAGERS.put(villagerId, data);
+            if (previous != null) {
+                previous.lifetimeTimer.cancel();
+            }
             
             SettlementsMod.LOGGER.info("Recorded attracted villager {} for town hall {} at tick {} (will {} after {} ticks = {} seconds). Total tracked: {}", 
                 villagerId, townHallId, spawnTime, 
@@ -66,12 +96,40 @@ public class TownHallVillagerDespawnHandler {
         }
     }
     
+    /**
+     * Schedules the lifetime timer of a tracked villager, for the world it is in.
+     * @param world The world the villager is in
+     * @param data The villager's tracking data
+     */
+    private static void schedule(ServerWorld world, AttractionData data) {
+        data.lifetimeTimer = SettlementTimerWheel.schedule(world, data.spawnTime + VILLAGER_LIFETIME,
+            () -> onLifetimeExpired(world, data));
+    }
+    
+    /**
+     * Schedules a tracked villager's lifetime again when it loads, in case it expired while the
+     * villager was unloaded or the villager changed dimension.
+     * @param villagerId The villager's UUID
+     * @param world The world it was loaded in
+     */
+    private static void onVillagerLoaded(UUID villagerId, ServerWorld world) {
+        AttractionData data = ATTRACTED_VILLAGERS.get(villagerId);
+        if (data == null) {
+            return; // Not an attracted villager (our own spawns are recorded right after they load)
+        }
+        data.lifetimeTimer.cancel();
+        schedule(world, data);
+    }
+    
     /**
      * Removes a villager from tracking (e.g., when it despawns naturally or is manually removed).
      * @param villagerId The villager's UUID
      */
     public static void removeVillager(UUID villagerId) {
-        ATTRACTED_VILLAGERS.remove(villagerId);
+        AttractionData data = ATTRACTED_VILLAGERS.remove(villagerId);
+        if (data != null) {
+            data.lifetimeTimer.cancel();
+        }
     }
     
     /**
@@ -86,134 +144,64 @@ public class TownHallVillagerDespawnHandler {
     }
     
     /**
-     * Performs a tick update for the given world.
-     * @param world The server world to update
+     * Makes an attracted villager stay or leave once its lifetime expired.
+     * @param world The world the villager was spawned in
+     * @param data The villager's tracking data
      */
-    private static void tick(ServerWorld world) {
-        if (world == null) {
-            return;
-        }
-        
-        long currentTime = world.getTime();
-        boolean hasTrackedVillagers = !ATTRACTED_VILLAGERS.isEmpty();
+    private static void onLifetimeExpired(ServerWorld world, AttractionData data) {
+        UUID villagerId = data.villagerId;
         
-        // If we have tracked villagers, check every tick to ensure prompt despawning
-        // Otherwise, only check every CHECK_INTERVAL ticks to reduce performance impact
-        if (!hasTrackedVillagers && currentTime % CHECK_INTERVAL != 0) {
+        // A villager that changed dimension was re-scheduled in its new world when it loaded there
+        VillagerEntity villager = VillagerEntityCache.get(world, villagerId);
+        if (villager == null) {
+            SettlementsMod.LOGGER.debug("Attracted villager {} is not loaded, deciding when it loads again", villagerId);
             return;
         }
+        ATTRACTED_VILLAGERS.remove(villagerId);
         
-        // Check each tracked villager
-        List<UUID> villagersToDespawn = new ArrayList<>();
-        List<UUID> villagersToRemove = new ArrayList<>();
-        
-        for (Map.Entry<UUID, AttractionData> entry : ATTRACTED_VILLAGERS.entrySet()) {
-            UUID villagerId = entry.getKey();
-            AttractionData data = entry.getValue();
-            
-            // Try to find the villager in the current world
-            net.minecraft.entity.Entity entity = world.getEntity(villagerId);
-            
-            if (entity instanceof VillagerEntity) {
-                // Villager exists in this world - check lifetime
-                long elapsed = currentTime - data.spawnTime;
-                long remaining = VILLAGER_LIFETIME - elapsed;
-                
-                if (elapsed >= VILLAGER_LIFETIME) {
-                    // Lifetime expired - check if villager should stay or leave
-                    if (data.willStay) {
-                        // Villager stays - remove from tracking but don't despawn
-                        // They become a regular villager in the settlement
-                        villagersToRemove.add(villagerId);
-                        SettlementsMod.LOGGER.info("Attracted villager {} decided to stay in settlement (removing from tracking)", villagerId);
-                    } else {
-                        // Villager leaves - despawn with enderman teleport
-                        villagersToDespawn.add(villagerId);
-                        SettlementsMod.LOGGER.info("Attracted villager {} decided to leave (despawning with enderman teleport)", villagerId);
-                    }
-                } else if (remaining <= 100 && currentTime % 20 == 0) { // Log when less than 5 seconds remaining
-                    SettlementsMod.LOGGER.debug("Attracted villager {} will {} in {} ticks ({} seconds) - elapsed: {} ticks", 
-                        villagerId, data.willStay ? "stay" : "leave", remaining, remaining / 20, elapsed);
-                }
-            } else {
-                // Villager not in this world - check if it exists in any world
-                if (currentTime % 100 == 0) { // Every 5 seconds
-                    boolean existsAnywhere = false;
-                    for (net.minecraft.server.world.ServerWorld serverWorld : world.getServer().getWorlds()) {
-                        if (serverWorld.getEntity(villagerId) instanceof VillagerEntity) {
-                            existsAnywhere = true;
-                            break;
-                        }
-                    }
-                    if (!existsAnywhere) {
-                        // Villager doesn't exist in any world, remove from tracking
-                        villagersToRemove.add(villagerId);
-                        SettlementsMod.LOGGER.debug("Attracted villager {} no longer exists in any world, removing from tracking", villagerId);
-                    }
-                }
-            }
-        }
-        
-        // Remove villagers that don't exist or decided to stay
-        for (UUID villagerId : villagersToRemove) {
-            ATTRACTED_VILLAGERS.remove(villagerId);
-        }
-        
-        // Despawn villagers that decided to leave
-        for (UUID villagerId : villagersToDespawn) {
-            despawnVillager(world, villagerId);
-        }
-        
-        if (!villagersToDespawn.isEmpty()) {
-            SettlementsMod.LOGGER.info("Despawning {} attracted villager(s) after lifetime expired (they decided to leave)", villagersToDespawn.size());
+        if (data.willStay) {
+            // Villager stays - they become a regular villager in the settlement
+            SettlementsMod.LOGGER.info("Attracted villager {} decided to stay in settlement (removing from tracking)", villagerId);
+        } else {
+            // Villager leaves - despawn with enderman teleport
+            SettlementsMod.LOGGER.info("Attracted villager {} decided to leave (despawning with enderman teleport)", villagerId);
+            despawnVillager(world, villager);
         }
     }
     
     /**
      * Despawns an attracted villager with enderman-style teleport effect.
-     * @param world The server world
-     * @param villagerId The villager's UUID
+     * @param world The server world the villager is in
+     * @param villager The villager
      */
-    private static void despawnVillager(ServerWorld world, UUID villagerId) {
+    private static void despawnVillager(ServerWorld world, VillagerEntity villager) {
+        UUID villagerId = villager.getUuid();
         try {
-            net.minecraft.entity.Entity entity = world.getEntity(villagerId);
-            if (entity instanceof VillagerEntity) {
-                VillagerEntity villager = (VillagerEntity) entity;
-                
-                // Remove from tracking
-                ATTRACTED_VILLAGERS.remove(villagerId);
-                
-                // Spawn enderman teleport particles at villager location
-                double x = villager.getX();
-                double y = villager.getY() + villager.getHeight() / 2.0;
-                double z = villager.getZ();
-                
-                // Spawn portal particles (enderman teleport effect)
-                for (int i = 0; i < 32; i++) {
-                    world.spawnParticles(net.minecraft.particle.ParticleTypes.PORTAL,
-                        x + (world.getRandom().nextDouble() - 0.5) * 2.0,
-                        y + (world.getRandom().nextDouble() - 0.5) * 2.0,
-                        z + (world.getRandom().nextDouble() - 0.5) * 2.0,
-                        1, 0.0, 0.0, 0.0, 0.0);
-                }
-                
-                // Play enderman teleport sound
-                world.playSound(null, villager.getBlockPos(), 
-                    net.minecraft.sound.SoundEvents.ENTITY_ENDERMAN_TELEPORT, 
-                    net.minecraft.sound.SoundCategory.NEUTRAL, 1.0f, 1.0f);
-                
-                // Despawn the villager
-                villager.remove(net.minecraft.entity.Entity.RemovalReason.DISCARDED);
-                
-                SettlementsMod.LOGGER.info("Despawned attracted villager {} after lifetime expired (enderman warp - they decided to leave)", villagerId);
-            } else {
-                // Entity not found or already despawned, just remove from tracking
-                ATTRACTED_VILLAGERS.remove(villagerId);
+            // Spawn enderman teleport particles at villager location
+            double x = villager.getX();
+            double y = villager.getY() + villager.getHeight() / 2.0;
+            double z = villager.getZ();
+            
+            // Spawn portal particles (enderman teleport effect)
+            for (int i = 0; i < 32; i++) {
+                world.spawnParticles(net.minecraft.particle.ParticleTypes.PORTAL,
+                    x + (world.getRandom().nextDouble() - 0.5) * 2.0,
+                    y + (world.getRandom().nextDouble() - 0.5) * 2.0,
+                    z + (world.getRandom().nextDouble() - 0.5) * 2.0,
+                    1, 0.0, 0.0, 0.0, 0.0);
             }
+            
+            // Play enderman teleport sound
+            world.playSound(null, villager.getBlockPos(), 
+                net.minecraft.sound.SoundEvents.ENTITY_ENDERMAN_TELEPORT, 
+                net.minecraft.sound.SoundCategory.NEUTRAL, 1.0f, 1.0f);
+            
+            // Despawn the villager
+            villager.remove(net.minecraft.entity.Entity.RemovalReason.DISCARDED);
+            
+            SettlementsMod.LOGGER.info("Despawned attracted villager {} after lifetime expired (enderman warp - they decided to leave)", villagerId);
         } catch (Exception e) {
             SettlementsMod.LOGGER.warn("Error despawning attracted villager {}: {}", villagerId, e.getMessage());
-            // Remove from tracking anyway
-            ATTRACTED_VILLAGERS.remove(villagerId);
         }
     }
     
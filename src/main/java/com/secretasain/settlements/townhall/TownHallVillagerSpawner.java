@@ -6,6 +6,7 @@ import com.secretasain.settlements.building.StructureLoader;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.SettlementManager;
+import com.secretasain.settlements.settlement.SpawnCandidateCache;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.passive.VillagerEntity;
@@ -225,19 +226,9 @@ public class TownHallVillagerSpawner {
                 return null;
             }
             
-            // Check if position is safe (not in walls, has air above)
-            if (!isSafeSpawnPosition(world, spawnPos)) {
-                SettlementsMod.LOGGER.warn("Spawn position {} is not safe for town hall {} - checking block states", spawnPos, building.getId());
-                // Log why it's not safe for debugging
-                if (!world.getBlockState(spawnPos.down()).isOpaque()) {
-                    SettlementsMod.LOGGER.warn("  - Ground below is not opaque: {}", world.getBlockState(spawnPos.down()).getBlock());
-                }
-                if (!world.getBlockState(spawnPos).isAir()) {
-                    SettlementsMod.LOGGER.warn("  - Position is not air: {}", world.getBlockState(spawnPos).getBlock());
-                }
-                if (!world.getBlockState(spawnPos.up()).isAir()) {
-                    SettlementsMod.LOGGER.warn("  - Position above is not air: {}", world.getBlockState(spawnPos.up()).getBlock());
-                }
+            // Candidates are checked against terrain already - only check for a villager in the way
+            if (isSpawnBlocked(world, spawnPos)) {
+                SettlementsMod.LOGGER.debug("Spawn position {} for town hall {} is occupied by another villager", spawnPos, building.getId());
                 return null;
             }
             
@@ -275,7 +266,7 @@ public class TownHallVillagerSpawner {
                 // Spawn the villager
                 world.spawnEntity(villager);
                 
-                // The villager will be picked up by VillagerScanningSystem on next scan
+                // The villager is picked up by VillagerScanningSystem when its entity loads
                 SettlementsMod.LOGGER.info("Spawned villager {} at {} for town hall {}",
                     villager.getUuid(), spawnPos, building.getId());
                 
@@ -294,8 +285,6 @@ public class TownHallVillagerSpawner {
          * @return Spawn position or null if none found
          */
         private BlockPos calculateSpawnPosition(ServerWorld world, Building building) {
-            BlockPos buildingPos = building.getPosition();
-            
             // Load structure data to get dimensions
             StructureData structureData = StructureLoader.loadStructure(building.getStructureType(), world.getServer());
             Vec3i dimensions;
@@ -306,167 +295,30 @@ public class TownHallVillagerSpawner {
                 dimensions = structureData.getDimensions();
             }
             
-            // Try multiple search strategies
-            // Strategy 1: Search in expanding circles around building
-            int maxRadius = Math.max(dimensions.getX(), dimensions.getZ()) + 8;
-            for (int radius = 3; radius <= maxRadius; radius++) {
-                for (int angle = 0; angle < 360; angle += 15) { // Check every 15 degrees
-                    double radians = Math.toRadians(angle);
-                    int x = (int) (radius * Math.cos(radians));
-                    int z = (int) (radius * Math.sin(radians));
-                    
-                    BlockPos testPos = buildingPos.add(x, 0, z);
-                    BlockPos groundPos = findGroundLevel(world, testPos);
-                    if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                        SettlementsMod.LOGGER.debug("Found spawn position at {} (radius: {}, angle: {})", groundPos, radius, angle);
-                        return groundPos;
-                    }
-                }
-            }
-            
-            // Strategy 2: Try cardinal directions
-            for (int offset = 3; offset <= 10; offset++) {
-                for (int[] dir : new int[][]{{offset, 0}, {-offset, 0}, {0, offset}, {0, -offset}}) {
-                    BlockPos testPos = buildingPos.add(dir[0], 0, dir[1]);
-                    BlockPos groundPos = findGroundLevel(world, testPos);
-                    if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                        SettlementsMod.LOGGER.debug("Found spawn position at {} (cardinal direction, offset: {})", groundPos, offset);
-                        return groundPos;
-                    }
-                }
-            }
-            
-            // Strategy 3: Try diagonal directions
-            for (int offset = 3; offset <= 10; offset++) {
-                for (int[] dir : new int[][]{{offset, offset}, {-offset, offset}, {offset, -offset}, {-offset, -offset}}) {
-                    BlockPos testPos = buildingPos.add(dir[0], 0, dir[1]);
-                    BlockPos groundPos = findGroundLevel(world, testPos);
-                    if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                        SettlementsMod.LOGGER.debug("Found spawn position at {} (diagonal, offset: {})", groundPos, offset);
-                        return groundPos;
-                    }
-                }
-            }
-            
-            // Strategy 4: Try positions at building Y level and search up/down
-            for (int x = -8; x <= 8; x++) {
-                for (int z = -8; z <= 8; z++) {
-                    if (Math.abs(x) < 2 && Math.abs(z) < 2) continue; // Skip too close
-                    BlockPos testPos = buildingPos.add(x, 0, z);
-                    BlockPos groundPos = findGroundLevel(world, testPos);
-                    if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                        SettlementsMod.LOGGER.debug("Found spawn position at {} (grid search)", groundPos);
-                        return groundPos;
-                    }
-                }
-            }
-            
-            SettlementsMod.LOGGER.warn("Could not find any safe spawn position for town hall {} after exhaustive search", building.getId());
-            return null;
-        }
-        
-        /**
-         * Finds the ground level at a given X/Z position.
-         * Prioritizes searching downward to avoid spawning on top of buildings.
-         * @param world The server world
-         * @param pos The position (Y will be adjusted)
-         * @return Ground position or null if not found
-         */
-        private BlockPos findGroundLevel(ServerWorld world, BlockPos pos) {
-            // Start from building Y level + 2 (slightly above building) and search down
-            int startY = Math.min(pos.getY() + 2, world.getTopY() - 1);
-            int minY = world.getBottomY();
-            
-            // ALWAYS search downward first to avoid spawning on top of buildings
-            for (int y = startY; y >= minY; y--) {
-                BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-                BlockPos groundPos = testPos.down();
-                
-                // Check if this is a valid ground position
-                // Ground must be solid, spawn position and above must be air
-                if (world.getBlockState(groundPos).isOpaque() &&
-                    world.getBlockState(testPos).isAir() &&
-                    world.getBlockState(testPos.up()).isAir()) {
-                    return testPos;
-                }
-            }
-            
-            // If no ground found below, try searching up (only as last resort)
-            // This handles cases where building is below ground level
-            for (int y = startY + 1; y <= world.getTopY() - 1; y++) {
-                BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-                BlockPos groundPos = testPos.down();
-                
-                if (world.getBlockState(groundPos).isOpaque() &&
-                    world.getBlockState(testPos).isAir() &&
-                    world.getBlockState(testPos.up()).isAir()) {
-                    return testPos;
+            // Pick from the cached candidates within the building's footprint plus a margin
+            int maxRadius = Math.min(Math.max(dimensions.getX(), dimensions.getZ()) + 8, SpawnCandidateCache.RADIUS);
+            BlockPos spawnPos = SpawnCandidateCache.pick(world, building, 3, maxRadius);
+            if (spawnPos == null) {
+                if (SpawnCandidateCache.isWarmingUp(world, building, 3, maxRadius)) {
+                    // The ground around the town hall has not all been probed yet
+                    SettlementsMod.LOGGER.debug("No spawn candidates probed yet within {} blocks of town hall {}", maxRadius, building.getId());
+                } else {
+                    SettlementsMod.LOGGER.warn("No safe spawn candidates within {} blocks of town hall {}", maxRadius, building.getId());
                 }
             }
-            
-            return null;
+            return spawnPos;
         }
         
         /**
-         * Checks if a position is safe for spawning a villager.
-         * Ensures ground is a safe surface block (dirt, grass, path, etc.) and not on top of buildings.
+         * Checks if a villager is standing in a spawn position.
          * @param world The server world
-         * @param pos The position to check
-         * @return true if position is safe
+         * @param pos The spawn position
+         * @return true if another villager is in the way
          */
-        private boolean isSafeSpawnPosition(ServerWorld world, BlockPos pos) {
-            net.minecraft.block.BlockState groundState = world.getBlockState(pos.down());
-            
-            // Check if position has solid ground
-            if (!groundState.isOpaque()) {
-                return false;
-            }
-            
-            // Check if ground is a safe surface block (dirt, grass, path, etc.)
-            // Avoid spawning on stone, wood planks, or other building materials
-            net.minecraft.block.Block groundBlock = groundState.getBlock();
-            net.minecraft.registry.Registries.BLOCK.getId(groundBlock);
-            
-            // Safe ground blocks: dirt variants, grass, path, sand, gravel, etc.
-            // Unsafe: stone, wood planks, bricks, concrete, etc. (building materials)
-            boolean isSafeGround = groundBlock == net.minecraft.block.Blocks.DIRT ||
-                groundBlock == net.minecraft.block.Blocks.GRASS_BLOCK ||
-                groundBlock == net.minecraft.block.Blocks.PODZOL ||
-                groundBlock == net.minecraft.block.Blocks.COARSE_DIRT ||
-                groundBlock == net.minecraft.block.Blocks.DIRT_PATH ||
-                groundBlock == net.minecraft.block.Blocks.FARMLAND ||
-                groundBlock == net.minecraft.block.Blocks.SAND ||
-                groundBlock == net.minecraft.block.Blocks.RED_SAND ||
-                groundBlock == net.minecraft.block.Blocks.GRAVEL ||
-                groundBlock == net.minecraft.block.Blocks.CLAY ||
-                groundBlock == net.minecraft.block.Blocks.MYCELIUM ||
-                groundBlock == net.minecraft.block.Blocks.SNOW_BLOCK ||
-                groundBlock == net.minecraft.block.Blocks.SOUL_SAND ||
-                groundBlock == net.minecraft.block.Blocks.SOUL_SOIL;
-            
-            if (!isSafeGround) {
-                return false; // Not a safe ground surface
-            }
-            
-            // Check if position and space above are air
-            if (!world.getBlockState(pos).isAir() || !world.getBlockState(pos.up()).isAir()) {
-                return false;
-            }
-            
-            // Check if there are no entities blocking the position
+        private boolean isSpawnBlocked(ServerWorld world, BlockPos pos) {
             Box entityBox = new Box(pos.getX(), pos.getY(), pos.getZ(),
                 pos.getX() + 1, pos.getY() + 2, pos.getZ() + 1);
-            if (!world.getEntitiesByType(EntityType.VILLAGER, entityBox, e -> true).isEmpty()) {
-                return false; // Another villager is here
-            }
-            
-            // Avoid spawning in water or lava
-            if (!world.getBlockState(pos).getFluidState().isEmpty() ||
-                !world.getBlockState(pos.up()).getFluidState().isEmpty()) {
-                return false;
-            }
-            
-            return true;
+            return !world.getEntitiesByType(EntityType.VILLAGER, entityBox, e -> true).isEmpty();
         }
         
         /**
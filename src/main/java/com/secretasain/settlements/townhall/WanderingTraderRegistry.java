@@ -0,0 +1,99 @@
+package com.secretasain.settlements.townhall;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.passive.WanderingTraderEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Registry of the loaded wandering traders, kept up to date by entity load/unload events.
+ * Spawns are loads too (world.spawnEntity fires ENTITY_LOAD), so the registry sees every trader -
+ * ours, vanilla's and other mods' - without querying the world's entities.
+ * Handles are weak references, like VillagerEntityCache.
+ */
+public class WanderingTraderRegistry {
+    // Loaded traders by UUID (UUIDs are unique across worlds)
+    private static final Map<UUID, WeakReference<WanderingTraderEntity>> TRADERS = new HashMap<>();
+
+    /**
+     * Registers the entity load/unload handlers that keep the registry up to date.
+     */
+    public static void register() {
+        ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
+            if (entity instanceof WanderingTraderEntity) {
+                TRADERS.put(entity.getUuid(), new WeakReference<>((WanderingTraderEntity) entity));
+                WanderingTraderDespawnHandler.onTraderLoaded((WanderingTraderEntity) entity, world);
+            }
+        });
+
+        // Fired on death, discard, dimension change and chunk unload
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            if (entity instanceof WanderingTraderEntity) {
+                WeakReference<WanderingTraderEntity> handle = TRADERS.get(entity.getUuid());
+                // On a dimension change the copy in the new world may load before the old one unloads
+                if (handle != null && handle.get() == entity) {
+                    TRADERS.remove(entity.getUuid());
+                }
+                Entity.RemovalReason reason = entity.getRemovalReason();
+                if (reason != null && reason.shouldDestroy()) {
+                    WanderingTraderDespawnHandler.removeTrader(entity.getUuid()); // Gone for good
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets a loaded wandering trader by UUID.
+     * @param traderId The trader's UUID
+     * @return The trader (in whichever world it is loaded), or null if it is not loaded
+     */
+    public static WanderingTraderEntity get(UUID traderId) {
+        WeakReference<WanderingTraderEntity> handle = TRADERS.get(traderId);
+        if (handle == null) {
+            return null;
+        }
+        WanderingTraderEntity trader = handle.get();
+        if (trader == null || trader.isRemoved()) {
+            TRADERS.remove(traderId);
+            return null;
+        }
+        return trader;
+    }
+
+    /**
+     * Counts the wandering traders loaded in a world.
+     * @param world The server world
+     * @return Number of loaded wandering traders
+     */
+    public static int countTraders(ServerWorld world) {
+        int count = 0;
+        for (WeakReference<WanderingTraderEntity> handle : TRADERS.values()) {
+            WanderingTraderEntity trader = handle.get();
+            if (trader != null && !trader.isRemoved() && trader.getWorld() == world) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if any loaded wandering trader in a world is inside a box.
+     * @param world The server world
+     * @param box The box to check
+     * @return true if a trader's bounding box intersects the box
+     */
+    public static boolean hasTraderIn(ServerWorld world, Box box) {
+        for (WeakReference<WanderingTraderEntity> handle : TRADERS.values()) {
+            WanderingTraderEntity trader = handle.get();
+            if (trader != null && !trader.isRemoved() && trader.getWorld() == world
+                && trader.getBoundingBox().intersects(box)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
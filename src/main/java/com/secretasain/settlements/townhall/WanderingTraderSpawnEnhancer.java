@@ -4,6 +4,7 @@ import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.SettlementManager;
+import com.secretasain.settlements.settlement.SpawnCandidateCache;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.passive.WanderingTraderEntity;
 import net.minecraft.server.world.ServerWorld;
@@ -102,10 +103,8 @@ public class WanderingTraderSpawnEnhancer {
         Collections.shuffle(activeTownHalls, new java.util.Random(world.getRandom().nextLong()));
         
         for (Building townHall : activeTownHalls) {
-            BlockPos townHallPos = townHall.getPosition();
-            
             // Calculate spawn position near town hall (within 32 blocks)
-            BlockPos nearPos = findSpawnPositionNearTownHall(world, townHallPos);
+            BlockPos nearPos = findSpawnPositionNearTownHall(world, townHall);
             
             if (nearPos != null) {
                 try {
@@ -142,148 +141,25 @@ public class WanderingTraderSpawnEnhancer {
     }
     
     /**
-     * Finds a safe spawn position near a town hall.
+     * Picks a safe spawn position near a town hall from its cached candidates.
      * @param world The server world
-     * @param townHallPos The town hall position
+     * @param townHall The town hall building
      * @return Safe spawn position or null if none found
      */
-    private static BlockPos findSpawnPositionNearTownHall(ServerWorld world, BlockPos townHallPos) {
+    private static BlockPos findSpawnPositionNearTownHall(ServerWorld world, Building townHall) {
         // Try positions within 32 blocks of town hall
-        int searchRadius = 32;
-        int attempts = 20; // Try up to 20 random positions
-        
-        for (int i = 0; i < attempts; i++) {
-            int offsetX = world.getRandom().nextInt(searchRadius * 2) - searchRadius;
-            int offsetZ = world.getRandom().nextInt(searchRadius * 2) - searchRadius;
-            
-            BlockPos testPos = townHallPos.add(offsetX, 0, offsetZ);
-            
-            // Find ground level
-            BlockPos groundPos = findGroundLevel(world, testPos);
-            if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                return groundPos;
-            }
-        }
-        
-        // Fallback: try positions in a circle around town hall
-        for (int radius = 5; radius <= searchRadius; radius += 5) {
-            for (int angle = 0; angle < 360; angle += 45) {
-                double radians = Math.toRadians(angle);
-                int x = (int) (radius * Math.cos(radians));
-                int z = (int) (radius * Math.sin(radians));
-                
-                BlockPos testPos = townHallPos.add(x, 0, z);
-                BlockPos groundPos = findGroundLevel(world, testPos);
-                if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                    return groundPos;
-                }
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Finds the ground level at a given X/Z position.
-     * Prioritizes searching downward to avoid spawning on top of buildings.
-     * @param world The server world
-     * @param pos The position (Y will be adjusted)
-     * @return Ground position or null if not found
-     */
-    private static BlockPos findGroundLevel(ServerWorld world, BlockPos pos) {
-        // Start from building Y level + 2 (slightly above building) and search down
-        int startY = Math.min(pos.getY() + 2, world.getTopY() - 1);
-        int minY = world.getBottomY();
-        
-        // ALWAYS search downward first to avoid spawning on top of buildings
-        for (int y = startY; y >= minY; y--) {
-            BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-            BlockPos groundPos = testPos.down();
-            
-            // Check if this is a valid ground position
-            // Ground must be solid, spawn position and above must be air
-            if (world.getBlockState(groundPos).isOpaque() &&
-                world.getBlockState(testPos).isAir() &&
-                world.getBlockState(testPos.up()).isAir()) {
-                return testPos;
-            }
-        }
-        
-        // If no ground found below, try searching up (only as last resort)
-        // This handles cases where building is below ground level
-        for (int y = startY + 1; y <= world.getTopY() - 1; y++) {
-            BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-            BlockPos groundPos = testPos.down();
-            
-            if (world.getBlockState(groundPos).isOpaque() &&
-                world.getBlockState(testPos).isAir() &&
-                world.getBlockState(testPos.up()).isAir()) {
-                return testPos;
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Checks if position is safe for spawning a wandering trader.
-     * Ensures ground is a safe surface block (dirt, grass, path, etc.) and not on top of buildings.
-     * @param world The server world
-     * @param pos The position to check
-     * @return true if position is safe
-     */
-    private static boolean isSafeSpawnPosition(ServerWorld world, BlockPos pos) {
-        net.minecraft.block.BlockState groundState = world.getBlockState(pos.down());
-        
-        // Check if position has solid ground
-        if (!groundState.isOpaque()) {
-            return false;
-        }
-        
-        // Check if ground is a safe surface block (dirt, grass, path, etc.)
-        // Avoid spawning on stone, wood planks, or other building materials
-        net.minecraft.block.Block groundBlock = groundState.getBlock();
-        
-        // Safe ground blocks: dirt variants, grass, path, sand, gravel, etc.
-        // Unsafe: stone, wood planks, bricks, concrete, etc. (building materials)
-        boolean isSafeGround = groundBlock == net.minecraft.block.Blocks.DIRT ||
-            groundBlock == net.minecraft.block.Blocks.GRASS_BLOCK ||
-            groundBlock == net.minecraft.block.Blocks.PODZOL ||
-            groundBlock == net.minecraft.block.Blocks.COARSE_DIRT ||
-            groundBlock == net.minecraft.block.Blocks.DIRT_PATH ||
-            groundBlock == net.minecraft.block.Blocks.FARMLAND ||
-            groundBlock == net.minecraft.block.Blocks.SAND ||
-            groundBlock == net.minecraft.block.Blocks.RED_SAND ||
-            groundBlock == net.minecraft.block.Blocks.GRAVEL ||
-            groundBlock == net.minecraft.block.Blocks.CLAY ||
-            groundBlock == net.minecraft.block.Blocks.MYCELIUM ||
-            groundBlock == net.minecraft.block.Blocks.SNOW_BLOCK ||
-            groundBlock == net.minecraft.block.Blocks.SOUL_SAND ||
-            groundBlock == net.minecraft.block.Blocks.SOUL_SOIL;
-        
-        if (!isSafeGround) {
-            return false; // Not a safe ground surface
-        }
-        
-        // Check if position and space above are air
-        if (!world.getBlockState(pos).isAir() || !world.getBlockState(pos.up()).isAir()) {
-            return false;
+        BlockPos spawnPos = SpawnCandidateCache.pick(world, townHall, 0, 32);
+        if (spawnPos == null) {
+            return null;
         }
         
         // Check if there are no entities blocking the position
-        Box entityBox = new Box(pos.getX(), pos.getY(), pos.getZ(),
-            pos.getX() + 1, pos.getY() + 2, pos.getZ() + 1);
+        Box entityBox = new Box(spawnPos.getX(), spawnPos.getY(), spawnPos.getZ(),
+            spawnPos.getX() + 1, spawnPos.getY() + 2, spawnPos.getZ() + 1);
         if (!world.getEntitiesByType(EntityType.WANDERING_TRADER, entityBox, e -> true).isEmpty()) {
-            return false; // Another trader is here
+            return null; // Another trader is here
         }
-        
-        // Avoid spawning in water/lava
-        if (!world.getBlockState(pos).getFluidState().isEmpty() ||
-            !world.getBlockState(pos.up()).getFluidState().isEmpty()) {
-            return false;
-        }
-        
-        return true;
+        return spawnPos;
     }
     
     /**
@@ -4,6 +4,9 @@ import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.SettlementManager;
+import com.secretasain.settlements.settlement.SettlementTimerWheel;
+import com.secretasain.settlements.settlement.SpawnCandidateCache;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.passive.WanderingTraderEntity;
@@ -23,7 +26,8 @@ public class WanderingTraderSpawnSystem {
     private static final int MIN_SPAWN_INTERVAL = 2400; // Minimum 2 minutes between spawns per town hall
     private static final int MAX_WANDERING_TRADERS = 5; // Maximum number of wandering traders allowed in the world
     
-    private static final Map<UUID, Long> lastSpawnTimeByTownHall = new HashMap<>();
+    // Town halls that spawned within MIN_SPAWN_INTERVAL; each leaves the set when its SettlementTimerWheel timer runs
+    private static final Set<UUID> townHallsOnCooldown = new HashSet<>();
     
     public static void register() {
         ServerTickEvents.END_WORLD_TICK.register(world -> {
@@ -32,6 +36,11 @@ public class WanderingTraderSpawnSystem {
             }
         });
         
+        // Cooldown timers are dropped with the server, so the cooldowns go with them
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            townHallsOnCooldown.clear();
+        });
+        
         SettlementsMod.LOGGER.info("WanderingTraderSpawnSystem registered - will check for trader spawns every {} ticks ({} seconds)", 
             SPAWN_CHECK_INTERVAL, SPAWN_CHECK_INTERVAL / 20);
     }
@@ -73,9 +82,7 @@ public class WanderingTraderSpawnSystem {
                     TownHallData hallData = TownHallData.getOrCreate(building);
                     if (hallData.hasLibrarian()) {
                         // Check if enough time has passed since last spawn
-                        UUID buildingId = building.getId();
-                        Long lastSpawn = lastSpawnTimeByTownHall.get(buildingId);
-                        if (lastSpawn == null || (currentTime - lastSpawn) >= MIN_SPAWN_INTERVAL) {
+                        if (!townHallsOnCooldown.contains(building.getId())) {
                             activeTownHalls.add(building);
                         }
                     }
@@ -95,7 +102,7 @@ public class WanderingTraderSpawnSystem {
         for (Building townHall : activeTownHalls) {
             // Check spawn chance
             if (world.getRandom().nextDouble() < BASE_SPAWN_CHANCE) {
-                BlockPos spawnPos = findSpawnPositionNearTownHall(world, townHall.getPosition());
+                BlockPos spawnPos = findSpawnPositionNearTownHall(world, townHall);
                 if (spawnPos != null) {
                     try {
                         WanderingTraderEntity trader = EntityType.WANDERING_TRADER.create(world);
@@ -113,7 +120,7 @@ public class WanderingTraderSpawnSystem {
                         
                         if (world.spawnEntity(trader)) {
                             // Record spawn time
-                            lastSpawnTimeByTownHall.put(townHall.getId(), currentTime);
+                            startCooldown(world, townHall.getId(), currentTime);
                             
                             // Record for despawn tracking
                             WanderingTraderDespawnHandler.recordTraderSpawn(trader);
@@ -134,144 +141,21 @@ public class WanderingTraderSpawnSystem {
     }
     
     /**
-     * Finds a safe spawn position near a town hall.
-     */
-    private static BlockPos findSpawnPositionNearTownHall(ServerWorld world, BlockPos townHallPos) {
-        int searchRadius = 48; // Within 48 blocks
-        int attempts = 30;
-        
-        // Try random positions first
-        for (int i = 0; i < attempts; i++) {
-            int offsetX = world.getRandom().nextInt(searchRadius * 2) - searchRadius;
-            int offsetZ = world.getRandom().nextInt(searchRadius * 2) - searchRadius;
-            
-            BlockPos testPos = townHallPos.add(offsetX, 0, offsetZ);
-            BlockPos groundPos = findGroundLevel(world, testPos);
-            
-            if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                return groundPos;
-            }
-        }
-        
-        // Fallback: systematic search in circles
-        for (int radius = 5; radius <= searchRadius; radius += 5) {
-            for (int angle = 0; angle < 360; angle += 30) {
-                double radians = Math.toRadians(angle);
-                int x = (int) (radius * Math.cos(radians));
-                int z = (int) (radius * Math.sin(radians));
-                
-                BlockPos testPos = townHallPos.add(x, 0, z);
-                BlockPos groundPos = findGroundLevel(world, testPos);
-                
-                if (groundPos != null && isSafeSpawnPosition(world, groundPos)) {
-                    return groundPos;
-                }
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Finds the ground level at a given X/Z position.
-     * Prioritizes searching downward to avoid spawning on top of buildings.
-     * @param world The server world
-     * @param pos The position (Y will be adjusted)
-     * @return Ground position or null if not found
-     */
-    private static BlockPos findGroundLevel(ServerWorld world, BlockPos pos) {
-        // Start from building Y level + 2 (slightly above building) and search down
-        int startY = Math.min(pos.getY() + 2, world.getTopY() - 1);
-        int minY = world.getBottomY();
-        
-        // ALWAYS search downward first to avoid spawning on top of buildings
-        for (int y = startY; y >= minY; y--) {
-            BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-            BlockPos groundPos = testPos.down();
-            
-            // Check if this is a valid ground position
-            // Ground must be solid, spawn position and above must be air
-            if (world.getBlockState(groundPos).isOpaque() &&
-                world.getBlockState(testPos).isAir() &&
-                world.getBlockState(testPos.up()).isAir()) {
-                return testPos;
-            }
-        }
-        
-        // If no ground found below, try searching up (only as last resort)
-        // This handles cases where building is below ground level
-        for (int y = startY + 1; y <= world.getTopY() - 1; y++) {
-            BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-            BlockPos groundPos = testPos.down();
-            
-            if (world.getBlockState(groundPos).isOpaque() &&
-                world.getBlockState(testPos).isAir() &&
-                world.getBlockState(testPos.up()).isAir()) {
-                return testPos;
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Checks if position is safe for spawning a wandering trader.
-     * Ensures ground is a safe surface block (dirt, grass, path, etc.) and not on top of buildings.
-     * @param world The server world
-     * @param pos The position to check
-     * @return true if position is safe
+     * Picks a safe spawn position near a town hall from its cached candidates.
+     * @return Spawn position, or null if there is none or a trader is already nearby
      */
-    private static boolean isSafeSpawnPosition(ServerWorld world, BlockPos pos) {
-        net.minecraft.block.BlockState groundState = world.getBlockState(pos.down());
-        
-        // Check if position has solid ground
-        if (!groundState.isOpaque()) {
-            return false;
-        }
-        
-        // Check if ground is a safe surface block (dirt, grass, path, etc.)
-        // Avoid spawning on stone, wood planks, or other building materials
-        net.minecraft.block.Block groundBlock = groundState.getBlock();
-        
-        // Safe ground blocks: dirt variants, grass, path, sand, gravel, etc.
-        // Unsafe: stone, wood planks, bricks, concrete, etc. (building materials)
-        boolean isSafeGround = groundBlock == net.minecraft.block.Blocks.DIRT ||
-            groundBlock == net.minecraft.block.Blocks.GRASS_BLOCK ||
-            groundBlock == net.minecraft.block.Blocks.PODZOL ||
-            groundBlock == net.minecraft.block.Blocks.COARSE_DIRT ||
-            groundBlock == net.minecraft.block.Blocks.DIRT_PATH ||
-            groundBlock == net.minecraft.block.Blocks.FARMLAND ||
-            groundBlock == net.minecraft.block.Blocks.SAND ||
-            groundBlock == net.minecraft.block.Blocks.RED_SAND ||
-            groundBlock == net.minecraft.block.Blocks.GRAVEL ||
-            groundBlock == net.minecraft.block.Blocks.CLAY ||
-            groundBlock == net.minecraft.block.Blocks.MYCELIUM ||
-            groundBlock == net.minecraft.block.Blocks.SNOW_BLOCK ||
-            groundBlock == net.minecraft.block.Blocks.SOUL_SAND ||
-            groundBlock == net.minecraft.block.Blocks.SOUL_SOIL;
-        
-        if (!isSafeGround) {
-            return false; // Not a safe ground surface
-        }
-        
-        // Must have air at spawn position and above
-        if (!world.getBlockState(pos).isAir() || !world.getBlockState(pos.up()).isAir()) {
-            return false;
+    private static BlockPos findSpawnPositionNearTownHall(ServerWorld world, Building townHall) {
+        BlockPos spawnPos = SpawnCandidateCache.pick(world, townHall, 0, SpawnCandidateCache.RADIUS); // Within 48 blocks
+        if (spawnPos == null) {
+            return null;
         }
         
         // Check for existing traders nearby (within 32 blocks)
-        Box searchBox = new Box(pos).expand(32.0);
-        if (!world.getEntitiesByType(EntityType.WANDERING_TRADER, searchBox, e -> true).isEmpty()) {
-            return false; // Trader already nearby
-        }
-        
-        // Avoid spawning in water/lava
-        if (!world.getBlockState(pos).getFluidState().isEmpty() ||
-            !world.getBlockState(pos.up()).getFluidState().isEmpty()) {
-            return false;
+        Box searchBox = new Box(spawnPos).expand(32.0);
+        if (WanderingTraderRegistry.hasTraderIn(world, searchBox)) {
+            return null; // Trader already nearby
         }
-        
-        return true;
+        return spawnPos;
     }
     
     /**
@@ -311,11 +195,15 @@ public class WanderingTraderSpawnSystem {
      * @return Number of wandering traders in the world
      */
     private static int countWanderingTradersInWorld(ServerWorld world) {
-        net.minecraft.util.math.Box worldBounds = new net.minecraft.util.math.Box(
-            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
-            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY
-        );
-        return world.getEntitiesByType(EntityType.WANDERING_TRADER, worldBounds, e -> true).size();
+        return WanderingTraderRegistry.countTraders(world);
+    }
+    
+    /**
+     * Puts a town hall on spawn cooldown for MIN_SPAWN_INTERVAL ticks.
+     */
+    private static void startCooldown(ServerWorld world, UUID townHallId, long currentTime) {
+        if (townHallsOnCooldown.add(townHallId)) {
+            SettlementTimerWheel.schedule(world, currentTime + MIN_SPAWN_INTERVAL, () -> townHallsOnCooldown.remove(townHallId));
+        }
     }
 }
-
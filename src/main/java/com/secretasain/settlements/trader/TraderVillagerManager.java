@@ -4,6 +4,7 @@ import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.VillagerData;
+import com.secretasain.settlements.settlement.VillagerEntityCache;
 import net.minecraft.entity.passive.VillagerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.world.ServerWorld;
@@ -38,7 +39,7 @@ public class TraderVillagerManager {
         }
         
         // Get villager entity
-        VillagerEntity villager = getVillagerEntity(world, villagerData.getEntityId());
+        VillagerEntity villager = VillagerEntityCache.get(world, villagerData.getEntityId());
         if (villager == null) {
             SettlementsMod.LOGGER.warn("Cannot convert villager: entity {} not found", villagerData.getEntityId());
             return false;
@@ -182,7 +183,7 @@ public class TraderVillagerManager {
         }
         
         // Get villager entity
-        VillagerEntity villager = getVillagerEntity(world, villagerData.getEntityId());
+        VillagerEntity villager = VillagerEntityCache.get(world, villagerData.getEntityId());
         if (villager != null) {
             // Restore original profession if it was stored
             net.minecraft.village.VillagerProfession originalProfession = traderData.getOriginalProfession();
@@ -296,28 +297,6 @@ public class TraderVillagerManager {
             addedCount, villager.getUuid(), oldSize);
     }
     
-    /**
-     * Gets a villager entity from the world.
-     * @param world The server world
-     * @param villagerId The villager's entity UUID
-     * @return VillagerEntity or null if not found
-     */
-    private static VillagerEntity getVillagerEntity(ServerWorld world, UUID villagerId) {
-        if (world == null || villagerId == null) {
-            return null;
-        }
-        
-        try {
-            net.minecraft.entity.Entity entity = world.getEntity(villagerId);
-            if (entity instanceof VillagerEntity) {
-                return (VillagerEntity) entity;
-            }
-        } catch (Exception e) {
-            SettlementsMod.LOGGER.warn("Error getting villager entity {}: {}", villagerId, e.getMessage());
-        }
-        
-        return null;
-    }
     
     /**
      * Finds the composter in a trader hut structure.
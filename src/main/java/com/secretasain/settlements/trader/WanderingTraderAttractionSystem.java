@@ -4,6 +4,7 @@ import com.secretasain.settlements.SettlementsMod;
 import com.secretasain.settlements.settlement.Building;
 import com.secretasain.settlements.settlement.Settlement;
 import com.secretasain.settlements.settlement.SettlementManager;
+import com.secretasain.settlements.settlement.SpawnCandidateCache;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.passive.WanderingTraderEntity;
@@ -228,7 +229,7 @@ public class WanderingTraderAttractionSystem {
         }
         
         // Find a safe position near the hut (not inside the building)
-        BlockPos targetPos = findSafePositionNearHut(world, hutPos);
+        BlockPos targetPos = findSafePositionNearHut(world, traderHut);
         if (targetPos == null) {
             targetPos = hutPos; // Fallback to hut position
         }
@@ -253,79 +254,14 @@ public class WanderingTraderAttractionSystem {
     }
     
     /**
-     * Finds a safe position near a trading hut for traders to pathfind to.
-     * Prefers positions outside the building structure.
+     * Picks a safe position near a trading hut for traders to pathfind to.
+     * Any opaque ground is accepted, so huts surrounded by paving or planks still get a target.
      * @param world The server world
-     * @param hutPos The trading hut position
+     * @param traderHut The trading hut building
      * @return Safe position near the hut, or null if none found
      */
-    private static BlockPos findSafePositionNearHut(ServerWorld world, BlockPos hutPos) {
-        // Try positions in a circle around the hut (3-5 blocks away)
-        for (int radius = 3; radius <= 5; radius++) {
-            for (int angle = 0; angle < 360; angle += 30) {
-                double radians = Math.toRadians(angle);
-                int x = (int) (radius * Math.cos(radians));
-                int z = (int) (radius * Math.sin(radians));
-                
-                BlockPos testPos = hutPos.add(x, 0, z);
-                BlockPos groundPos = findGroundLevel(world, testPos);
-                
-                if (groundPos != null && isSafePosition(world, groundPos)) {
-                    return groundPos;
-                }
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Finds ground level at a given X/Z position.
-     * @param world The server world
-     * @param pos The position (Y will be adjusted)
-     * @return Ground position or null if not found
-     */
-    private static BlockPos findGroundLevel(ServerWorld world, BlockPos pos) {
-        int startY = Math.min(pos.getY() + 5, world.getTopY() - 1);
-        int minY = Math.max(world.getBottomY(), startY - 20);
-        
-        // Search downward first
-        for (int y = startY; y >= minY; y--) {
-            BlockPos testPos = new BlockPos(pos.getX(), y, pos.getZ());
-            if (world.getBlockState(testPos.down()).isOpaque() &&
-                world.getBlockState(testPos).isAir() &&
-                world.getBlockState(testPos.up()).isAir()) {
-                return testPos;
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Checks if a position is safe for a trader to stand.
-     * @param world The server world
-     * @param pos The position to check
-     * @return true if position is safe
-     */
-    private static boolean isSafePosition(ServerWorld world, BlockPos pos) {
-        // Must have solid ground
-        if (!world.getBlockState(pos.down()).isOpaque()) {
-            return false;
-        }
-        
-        // Must have air at position and above
-        if (!world.getBlockState(pos).isAir() || !world.getBlockState(pos.up()).isAir()) {
-            return false;
-        }
-        
-        // Avoid water/lava
-        if (!world.getBlockState(pos).getFluidState().isEmpty() ||
-            !world.getBlockState(pos.up()).getFluidState().isEmpty()) {
-            return false;
-        }
-        
-        return true;
+    private static BlockPos findSafePositionNearHut(ServerWorld world, Building traderHut) {
+        return SpawnCandidateCache.nearest(world, traderHut, SpawnCandidateCache.Ground.ANY_OPAQUE, 3, 5); // 3-5 blocks away
     }
     
     /**